@@ -0,0 +1,239 @@
+package cn.i7mc.sagaguild.bench;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import cn.i7mc.sagaguild.SagaGuild;
+import org.bukkit.Chunk;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 基准测试用的模拟服务器
+ * 在MockBukkit中加载插件，并直接向插件的SQLite数据库写入测试数据
+ *
+ * 数据布局：第g个公会（ID为g+1）有若干成员，领地为第2g行从x=0开始连续的区块；
+ * 负数z坐标的区块均为荒野
+ *
+ * 数据库固定为基准测试目录（系统属性 sagaguild.bench.dir，Gradle任务中为 build/loadtest）下的 database.db，
+ * 与工作目录无关，不会改写服务器插件目录中的数据库；启动前会删除上次运行留下的数据库文件
+ */
+public final class BenchServer {
+    public static final String WORLD_NAME = "world";
+
+    // 基准测试目录，由Gradle任务通过系统属性指定
+    public static final File WORK_DIR = new File(System.getProperty("sagaguild.bench.dir", "build/loadtest")).getAbsoluteFile();
+    public static final File DATABASE_FILE = new File(WORK_DIR, "database.db");
+
+    private final ServerMock server;
+    private final WorldMock world;
+    private final SagaGuild plugin;
+
+    private BenchServer(ServerMock server, WorldMock world, SagaGuild plugin) {
+        this.server = server;
+        this.world = world;
+        this.plugin = plugin;
+    }
+
+    /**
+     * 启动模拟服务器并加载插件
+     * @return 模拟服务器
+     */
+    public static BenchServer start() {
+        return start(Collections.emptyMap());
+    }
+
+    /**
+     * 使用空数据库和指定的配置启动模拟服务器并加载插件
+     * @param config 覆盖的配置项
+     * @return 模拟服务器
+     */
+    public static BenchServer start(Map<String, Object> config) {
+        if (DATABASE_FILE.exists() && !DATABASE_FILE.delete()) {
+            throw new IllegalStateException("无法删除旧的数据库文件: " + DATABASE_FILE.getAbsolutePath());
+        }
+        return boot(config);
+    }
+
+    /**
+     * 使用已有的数据库文件启动模拟服务器并加载插件
+     * @return 模拟服务器
+     */
+    public static BenchServer boot() {
+        return boot(Collections.emptyMap());
+    }
+
+    /**
+     * 使用已有的数据库文件和指定的配置启动模拟服务器并加载插件
+     * @param config 覆盖的配置项
+     * @return 模拟服务器
+     */
+    public static BenchServer boot(Map<String, Object> config) {
+        ensureWorkDir();
+        ServerMock server = MockBukkit.mock();
+        WorldMock world = server.addSimpleWorld(WORLD_NAME);
+
+        // 先加载不启用，在插件读取配置之前把数据库固定到基准测试目录
+        SagaGuild plugin = (SagaGuild) server.getPluginManager().loadPlugin(SagaGuild.class, new Object[0]);
+        plugin.saveDefaultConfig();
+        plugin.getConfig().set("database.path", DATABASE_FILE.getAbsolutePath());
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            plugin.getConfig().set(entry.getKey(), entry.getValue());
+        }
+        server.getPluginManager().enablePlugin(plugin);
+
+        // 基准测试线程就是模拟服务器的主线程，关闭阻塞I/O检测以免影响结果
+        plugin.getDatabaseManager().getIoGuard().disarm();
+        return new BenchServer(server, world, plugin);
+    }
+
+    /**
+     * 创建基准测试目录
+     */
+    public static void ensureWorkDir() {
+        if (!WORK_DIR.exists() && !WORK_DIR.mkdirs()) {
+            throw new IllegalStateException("无法创建基准测试目录: " + WORK_DIR);
+        }
+    }
+
+    /**
+     * 关闭模拟服务器
+     */
+    public void stop() {
+        MockBukkit.unmock();
+    }
+
+    public ServerMock getServer() {
+        return server;
+    }
+
+    public WorldMock getWorld() {
+        return world;
+    }
+
+    public SagaGuild getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * 写入公会、成员和领地数据，并重新加载管理器缓存
+     * @param guilds 公会数量
+     * @param membersPerGuild 每个公会的成员数量（含会长）
+     * @param landsPerGuild 每个公会的领地数量
+     * @throws SQLException 写入失败
+     */
+    public void seed(int guilds, int membersPerGuild, int landsPerGuild) throws SQLException {
+        // 持久连接，不关闭
+        Connection connection = plugin.getDatabaseManager().getConnection();
+        connection.setAutoCommit(false);
+        try (PreparedStatement guildStmt = connection.prepareStatement(
+                     "INSERT INTO guilds (id, name, tag, description, owner_uuid) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement memberStmt = connection.prepareStatement(
+                     "INSERT INTO members (guild_id, player_uuid, player_name, role) VALUES (?, ?, ?, ?)");
+             PreparedStatement landStmt = connection.prepareStatement(
+                     "INSERT INTO lands (guild_id, world, chunk_x, chunk_z) VALUES (?, ?, ?, ?)")) {
+            for (int g = 0; g < guilds; g++) {
+                int guildId = guildId(g);
+                guildStmt.setInt(1, guildId);
+                guildStmt.setString(2, "Guild" + g);
+                guildStmt.setString(3, "G" + g);
+                guildStmt.setString(4, "基准测试公会");
+                guildStmt.setString(5, memberUuid(g, 0).toString());
+                guildStmt.addBatch();
+
+                for (int m = 0; m < membersPerGuild; m++) {
+                    memberStmt.setInt(1, guildId);
+                    memberStmt.setString(2, memberUuid(g, m).toString());
+                    memberStmt.setString(3, memberName(g, m));
+                    memberStmt.setString(4, m == 0 ? "OWNER" : "MEMBER");
+                    memberStmt.addBatch();
+                }
+
+                for (int l = 0; l < landsPerGuild; l++) {
+                    landStmt.setInt(1, guildId);
+                    landStmt.setString(2, WORLD_NAME);
+                    landStmt.setInt(3, l);
+                    landStmt.setInt(4, g * 2);
+                    landStmt.addBatch();
+                }
+            }
+
+            guildStmt.executeBatch();
+            memberStmt.executeBatch();
+            landStmt.executeBatch();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+
+        plugin.getGuildManager().reloadGuilds();
+        plugin.getLandManager().reloadLands();
+    }
+
+    /**
+     * 让公会成员上线
+     * @param guild 公会序号
+     * @param member 成员序号
+     * @return 玩家
+     */
+    public PlayerMock join(int guild, int member) {
+        PlayerMock player = new PlayerMock(server, memberName(guild, member), memberUuid(guild, member));
+        server.addPlayer(player);
+        return player;
+    }
+
+    /**
+     * 让不在任何公会中的玩家上线
+     * @param index 序号
+     * @return 玩家
+     */
+    public PlayerMock joinOutsider(int index) {
+        String name = "Outsider" + index;
+        PlayerMock player = new PlayerMock(server, name,
+                UUID.nameUUIDFromBytes(("outsider:" + index).getBytes(StandardCharsets.UTF_8)));
+        server.addPlayer(player);
+        return player;
+    }
+
+    /**
+     * 获取公会的领地区块
+     * @param guild 公会序号
+     * @param land 领地序号
+     * @return 区块
+     */
+    public Chunk claimedChunk(int guild, int land) {
+        return world.getChunkAt(land, guild * 2);
+    }
+
+    /**
+     * 获取荒野区块
+     * @param index 序号
+     * @return 区块
+     */
+    public Chunk wildChunk(int index) {
+        return world.getChunkAt(index, -1 - index);
+    }
+
+    public static int guildId(int guild) {
+        return guild + 1;
+    }
+
+    public static UUID memberUuid(int guild, int member) {
+        return UUID.nameUUIDFromBytes(("member:" + guild + ":" + member).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String memberName(int guild, int member) {
+        return "M" + guild + "_" + member;
+    }
+}
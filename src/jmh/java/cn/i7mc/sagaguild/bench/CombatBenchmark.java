@@ -0,0 +1,121 @@
+package cn.i7mc.sagaguild.bench;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.listeners.WarListener;
+import cn.i7mc.sagaguild.managers.ExperienceManager;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 玩家伤害判定和经验冷却基准测试
+ * 伤害判定覆盖同公会、同盟、非战争敌对和无公会四种情况
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CombatBenchmark {
+    private BenchServer server;
+    private WarListener warListener;
+    private ExperienceManager experienceManager;
+
+    private EntityDamageByEntityEvent sameGuild;
+    private EntityDamageByEntityEvent allied;
+    private EntityDamageByEntityEvent enemy;
+    private EntityDamageByEntityEvent outsider;
+
+    private PlayerMock miner;
+    private Guild minerGuild;
+    private Location minerLocation;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // 每次调用的位置相同，开启刷经验检测时会在冷却检查之前返回
+        server = BenchServer.start(Collections.singletonMap("experience.farm-detection.enabled", false));
+        server.seed(10, 5, 4);
+
+        // 公会0和公会1结盟
+        Connection connection = server.getPlugin().getDatabaseManager().getConnection();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO alliances (guild1_id, guild2_id) VALUES (?, ?)")) {
+            stmt.setInt(1, BenchServer.guildId(0));
+            stmt.setInt(2, BenchServer.guildId(1));
+            stmt.executeUpdate();
+        }
+        server.getPlugin().getAllianceManager().reloadAlliances();
+
+        warListener = new WarListener(server.getPlugin());
+        experienceManager = server.getPlugin().getExperienceManager();
+
+        PlayerMock attacker = server.join(0, 1);
+        sameGuild = damage(attacker, server.join(0, 2));
+        allied = damage(attacker, server.join(1, 1));
+        enemy = damage(attacker, server.join(2, 1));
+        outsider = damage(attacker, server.joinOutsider(0));
+
+        // 第一次获得经验后进入冷却，之后每次调用都命中冷却检查
+        miner = server.join(3, 1);
+        minerGuild = server.getPlugin().getGuildManager().getPlayerGuild(miner.getUniqueId());
+        minerLocation = miner.getLocation();
+        experienceManager.grantExperience(miner, minerGuild, ExperienceManager.XpAction.BLOCK_BREAK,
+                Material.STONE, minerLocation);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static EntityDamageByEntityEvent damage(PlayerMock attacker, PlayerMock victim) {
+        return new EntityDamageByEntityEvent(attacker, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, 1.0);
+    }
+
+    private boolean resolve(EntityDamageByEntityEvent event) {
+        event.setCancelled(false);
+        warListener.onEntityDamage(event);
+        return event.isCancelled();
+    }
+
+    @Benchmark
+    public boolean damageSameGuild() {
+        return resolve(sameGuild);
+    }
+
+    @Benchmark
+    public boolean damageAllied() {
+        return resolve(allied);
+    }
+
+    @Benchmark
+    public boolean damageEnemyNoWar() {
+        return resolve(enemy);
+    }
+
+    @Benchmark
+    public boolean damageOutsider() {
+        return resolve(outsider);
+    }
+
+    @Benchmark
+    public int experienceOnCooldown() {
+        return experienceManager.grantExperience(miner, minerGuild, ExperienceManager.XpAction.BLOCK_BREAK,
+                Material.STONE, minerLocation);
+    }
+}
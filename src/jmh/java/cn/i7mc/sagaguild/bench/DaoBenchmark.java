@@ -0,0 +1,87 @@
+package cn.i7mc.sagaguild.bench;
+
+import cn.i7mc.sagaguild.data.dao.GuildDAO;
+import cn.i7mc.sagaguild.data.dao.JoinRequestDAO;
+import cn.i7mc.sagaguild.data.dao.LandDAO;
+import cn.i7mc.sagaguild.data.dao.MemberDAO;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.data.models.GuildLand;
+import cn.i7mc.sagaguild.data.models.GuildMember;
+import cn.i7mc.sagaguild.data.models.JoinRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO读写基准测试
+ * 使用基准测试目录中的SQLite文件（见 {@link BenchServer#DATABASE_FILE}），包含每次调用的连接检查和重连开销
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DaoBenchmark {
+    private static final int GUILDS = 500;
+
+    private BenchServer server;
+    private GuildDAO guildDAO;
+    private MemberDAO memberDAO;
+    private LandDAO landDAO;
+    private JoinRequestDAO joinRequestDAO;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = BenchServer.start();
+        server.seed(GUILDS, 20, 10);
+        guildDAO = new GuildDAO(server.getPlugin());
+        memberDAO = new MemberDAO(server.getPlugin());
+        landDAO = new LandDAO(server.getPlugin());
+        joinRequestDAO = server.getPlugin().getJoinRequestDAO();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private int nextGuildId() {
+        cursor = (cursor + 1) % GUILDS;
+        return BenchServer.guildId(cursor);
+    }
+
+    @Benchmark
+    public Guild getGuildById() {
+        return guildDAO.getGuildById(nextGuildId());
+    }
+
+    @Benchmark
+    public List<GuildMember> getGuildMembers() {
+        return memberDAO.getGuildMembers(nextGuildId());
+    }
+
+    @Benchmark
+    public int getGuildMemberCount() {
+        return memberDAO.getGuildMemberCount(nextGuildId());
+    }
+
+    @Benchmark
+    public List<GuildLand> getGuildLands() {
+        return landDAO.getGuildLands(nextGuildId());
+    }
+
+    @Benchmark
+    public int createJoinRequest() {
+        int guildId = nextGuildId();
+        return joinRequestDAO.createJoinRequest(new JoinRequest(new UUID(guildId, cursor), "Bench", guildId));
+    }
+}
@@ -0,0 +1,478 @@
+package cn.i7mc.sagaguild.bench;
+
+import cn.i7mc.sagaguild.data.DatabaseManager;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 大规模数据集生成器
+ * 使用插件自身的建表语句创建SQLite数据库，并按接近真实服务器的分布写入数据：
+ * 公会人数和入会申请服从幂律分布，领地以公会为中心成片分布，战争击杀和入会申请分布在多年的时间范围内
+ *
+ * 运行: gradle generateDataset [-PdatasetArgs="--guilds=10000 --members=500000"]
+ */
+public final class DatasetGenerator {
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int BATCH_SIZE = 10000;
+
+    // 公会中心之间的区块间距
+    private static final int GUILD_SPACING = 64;
+
+    // 单个公会的最大领地数量
+    private static final int MAX_LANDS_PER_GUILD = 1024;
+
+    // 与默认配置 levels.max-members-per-level 一致，按人数推算公会等级
+    private static final int[] MAX_MEMBERS_BY_LEVEL = {10, 15, 20, 25, 30, 40, 50, 60, 80, 100};
+
+    /**
+     * 数据集规模
+     */
+    public static final class Spec {
+        public int guilds = 10_000;
+        public int members = 500_000;
+        public int maxMembers = 100;
+        public int lands = 200_000;
+        public int alliances = 1_500;
+        public int wars = 30_000;
+        public int warKills = 2_000_000;
+        public int joinRequests = 1_000_000;
+        public int years = 3;
+        public long seed = 42L;
+
+        /**
+         * 从命令行参数读取规模，格式为 --名称=值，未知参数忽略
+         * @param args 命令行参数
+         * @return 数据集规模
+         */
+        public static Spec parse(String[] args) {
+            Spec spec = new Spec();
+            for (String arg : args) {
+                int split = arg.indexOf('=');
+                if (!arg.startsWith("--") || split < 0) {
+                    continue;
+                }
+
+                String value = arg.substring(split + 1);
+                switch (arg.substring(2, split)) {
+                    case "guilds" -> spec.guilds = Integer.parseInt(value);
+                    case "members" -> spec.members = Integer.parseInt(value);
+                    case "max-members" -> spec.maxMembers = Integer.parseInt(value);
+                    case "lands" -> spec.lands = Integer.parseInt(value);
+                    case "alliances" -> spec.alliances = Integer.parseInt(value);
+                    case "wars" -> spec.wars = Integer.parseInt(value);
+                    case "war-kills" -> spec.warKills = Integer.parseInt(value);
+                    case "join-requests" -> spec.joinRequests = Integer.parseInt(value);
+                    case "years" -> spec.years = Integer.parseInt(value);
+                    case "seed" -> spec.seed = Long.parseLong(value);
+                    default -> {
+                    }
+                }
+            }
+
+            spec.maxMembers = Math.max(1, spec.maxMembers);
+            spec.members = Math.max(spec.guilds, Math.min(spec.members, spec.guilds * spec.maxMembers));
+            return spec;
+        }
+
+        @Override
+        public String toString() {
+            return "公会=" + guilds + " 成员=" + members + " 领地=" + lands + " 联盟=" + alliances
+                    + " 战争=" + wars + " 击杀=" + warKills + " 入会申请=" + joinRequests + " 年数=" + years;
+        }
+    }
+
+    private final Spec spec;
+    private final Random random;
+    private final long now = System.currentTimeMillis();
+    private final long start;
+
+    // 所有成员UUID，同一公会的成员连续存放，memberOffsets[g]为公会g的第一个成员
+    private UUID[] memberUuids;
+    private int[] memberOffsets;
+
+    // 按公会人数加权的累积分布，用于选择公会
+    private double[] guildWeights;
+
+    public DatasetGenerator(Spec spec) {
+        this.spec = spec;
+        this.random = new Random(spec.seed);
+        this.start = now - spec.years * 365L * DAY_MILLIS;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        File dbFile = BenchServer.DATABASE_FILE;
+        for (String arg : args) {
+            if (arg.startsWith("--db=")) {
+                dbFile = new File(arg.substring(5));
+            }
+        }
+
+        Spec spec = Spec.parse(args);
+        System.out.println("生成数据集: " + spec);
+        long begin = System.nanoTime();
+        new DatasetGenerator(spec).generate(dbFile);
+        System.out.printf("已写入 %s，耗时 %.1fs%n", dbFile.getAbsolutePath(), (System.nanoTime() - begin) / 1e9);
+    }
+
+    /**
+     * 生成数据库文件，已存在的文件会被覆盖
+     * @param dbFile 数据库文件
+     * @throws SQLException 写入失败
+     */
+    public void generate(File dbFile) throws SQLException {
+        File dir = dbFile.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new SQLException("无法创建目录: " + dir);
+        }
+        if (dbFile.exists() && !dbFile.delete()) {
+            throw new SQLException("无法删除旧的数据库文件: " + dbFile);
+        }
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=OFF");
+                statement.execute("PRAGMA synchronous=OFF");
+            }
+            DatabaseManager.createTables(connection);
+
+            connection.setAutoCommit(false);
+            int[] sizes = guildSizes();
+            writeGuilds(connection, sizes);
+            writeMembers(connection, sizes);
+            writeLands(connection, sizes);
+            writeAlliances(connection);
+            writeWarsAndKills(connection);
+            writeJoinRequests(connection);
+            connection.commit();
+        }
+    }
+
+    /**
+     * 公会人数：每个公会至少1人，其余成员按Zipf分布分配，已满的公会重新抽取
+     */
+    private int[] guildSizes() {
+        int guilds = spec.guilds;
+        guildWeights = new double[guilds];
+        double total = 0;
+        for (int g = 0; g < guilds; g++) {
+            total += 1.0 / Math.sqrt(g + 1);
+            guildWeights[g] = total;
+        }
+        for (int g = 0; g < guilds; g++) {
+            guildWeights[g] /= total;
+        }
+
+        int[] sizes = new int[guilds];
+        Arrays.fill(sizes, 1);
+        for (int i = guilds; i < spec.members; i++) {
+            int g;
+            do {
+                g = pickGuild();
+            } while (sizes[g] >= spec.maxMembers);
+            sizes[g]++;
+        }
+        return sizes;
+    }
+
+    /**
+     * 按人数权重选择公会
+     */
+    private int pickGuild() {
+        int index = Arrays.binarySearch(guildWeights, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, guildWeights.length - 1);
+    }
+
+    private long randomTime() {
+        return start + (long) (random.nextDouble() * (now - start));
+    }
+
+    private UUID randomUuid() {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private void writeGuilds(Connection connection, int[] sizes) throws SQLException {
+        memberUuids = new UUID[spec.members];
+        memberOffsets = new int[sizes.length + 1];
+        for (int g = 0; g < sizes.length; g++) {
+            memberOffsets[g + 1] = memberOffsets[g] + sizes[g];
+        }
+        for (int i = 0; i < memberUuids.length; i++) {
+            memberUuids[i] = randomUuid();
+        }
+
+        try (PreparedStatement guildStmt = connection.prepareStatement(
+                     "INSERT INTO guilds (id, name, tag, description, owner_uuid, level, experience, is_public, created_at) "
+                             + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement bankStmt = connection.prepareStatement(
+                     "INSERT INTO banks (guild_id, balance, capacity) VALUES (?, ?, ?)")) {
+            for (int g = 0; g < sizes.length; g++) {
+                int level = 1;
+                while (level < MAX_MEMBERS_BY_LEVEL.length && MAX_MEMBERS_BY_LEVEL[level - 1] < sizes[g]) {
+                    level++;
+                }
+                guildStmt.setInt(1, BenchServer.guildId(g));
+                guildStmt.setString(2, "Guild" + g);
+                guildStmt.setString(3, Integer.toString(g, 36).toUpperCase());
+                guildStmt.setString(4, "生成的公会 #" + g);
+                guildStmt.setString(5, memberUuids[memberOffsets[g]].toString());
+                guildStmt.setInt(6, level);
+                guildStmt.setInt(7, random.nextInt(1000 * level));
+                guildStmt.setInt(8, random.nextInt(10) < 8 ? 1 : 0);
+                guildStmt.setTimestamp(9, new Timestamp(randomTime()));
+                guildStmt.addBatch();
+
+                // 资金服从对数正态分布
+                double capacity = 10000.0 * level;
+                bankStmt.setInt(1, BenchServer.guildId(g));
+                bankStmt.setDouble(2, Math.min(capacity, Math.exp(6 + random.nextGaussian() * 1.5)));
+                bankStmt.setDouble(3, capacity);
+                bankStmt.addBatch();
+
+                if ((g + 1) % BATCH_SIZE == 0) {
+                    guildStmt.executeBatch();
+                    bankStmt.executeBatch();
+                }
+            }
+            guildStmt.executeBatch();
+            bankStmt.executeBatch();
+        }
+        progress("公会", sizes.length);
+    }
+
+    private void writeMembers(Connection connection, int[] sizes) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO members (guild_id, player_uuid, player_name, role, joined_at) VALUES (?, ?, ?, ?, ?)")) {
+            int written = 0;
+            for (int g = 0; g < sizes.length; g++) {
+                for (int i = memberOffsets[g]; i < memberOffsets[g + 1]; i++) {
+                    String role;
+                    if (i == memberOffsets[g]) {
+                        role = "OWNER";
+                    } else {
+                        int roll = random.nextInt(100);
+                        role = roll < 2 ? "ADMIN" : roll < 10 ? "ELDER" : "MEMBER";
+                    }
+
+                    stmt.setInt(1, BenchServer.guildId(g));
+                    stmt.setString(2, memberUuids[i].toString());
+                    stmt.setString(3, "P" + Integer.toString(i, 36));
+                    stmt.setString(4, role);
+                    stmt.setTimestamp(5, new Timestamp(randomTime()));
+                    stmt.addBatch();
+
+                    if (++written % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+            progress("成员", written);
+        }
+    }
+
+    /**
+     * 领地数量与公会人数的0.75次方成正比，以公会中心为起点按螺旋顺序连续分布
+     */
+    private void writeLands(Connection connection, int[] sizes) throws SQLException {
+        double[] shares = new double[sizes.length];
+        double total = 0;
+        for (int g = 0; g < sizes.length; g++) {
+            shares[g] = Math.pow(sizes[g], 0.75);
+            total += shares[g];
+        }
+
+        int gridWidth = (int) Math.ceil(Math.sqrt(sizes.length));
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO lands (guild_id, world, chunk_x, chunk_z, claimed_at) VALUES (?, ?, ?, ?, ?)")) {
+            int written = 0;
+            for (int g = 0; g < sizes.length && written < spec.lands; g++) {
+                int count = (int) Math.min(MAX_LANDS_PER_GUILD, Math.round(shares[g] / total * spec.lands));
+                count = Math.min(count, spec.lands - written);
+                int centerX = (g % gridWidth - gridWidth / 2) * GUILD_SPACING;
+                int centerZ = (g / gridWidth - gridWidth / 2) * GUILD_SPACING;
+
+                // 螺旋：右、下、左、上，每两次转向步长加一
+                int x = 0;
+                int z = 0;
+                int dx = 1;
+                int dz = 0;
+                int stepLength = 1;
+                int stepped = 0;
+                int turns = 0;
+                for (int l = 0; l < count; l++) {
+                    stmt.setInt(1, BenchServer.guildId(g));
+                    stmt.setString(2, BenchServer.WORLD_NAME);
+                    stmt.setInt(3, centerX + x);
+                    stmt.setInt(4, centerZ + z);
+                    stmt.setTimestamp(5, new Timestamp(randomTime()));
+                    stmt.addBatch();
+                    if (++written % BATCH_SIZE == 0) {
+                        stmt.executeBatch();
+                    }
+
+                    x += dx;
+                    z += dz;
+                    if (++stepped == stepLength) {
+                        stepped = 0;
+                        int turn = dx;
+                        dx = -dz;
+                        dz = turn;
+                        if (++turns % 2 == 0) {
+                            stepLength++;
+                        }
+                    }
+                }
+            }
+            stmt.executeBatch();
+            progress("领地", written);
+        }
+    }
+
+    /**
+     * 联盟多发生在相邻的公会之间
+     */
+    private void writeAlliances(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT OR IGNORE INTO alliances (guild1_id, guild2_id, formed_at) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < spec.alliances; i++) {
+                int a = random.nextInt(spec.guilds);
+                int b = Math.floorMod(a + 1 + random.nextInt(8), spec.guilds);
+                if (a == b) {
+                    continue;
+                }
+                stmt.setInt(1, BenchServer.guildId(Math.min(a, b)));
+                stmt.setInt(2, BenchServer.guildId(Math.max(a, b)));
+                stmt.setTimestamp(3, new Timestamp(randomTime()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        progress("联盟", spec.alliances);
+    }
+
+    /**
+     * 战争双方按人数加权选择，击杀记录落在战争的时间范围内
+     */
+    private void writeWarsAndKills(Connection connection) throws SQLException {
+        if (spec.wars <= 0 || spec.guilds < 2) {
+            return;
+        }
+
+        int[] attackers = new int[spec.wars];
+        int[] defenders = new int[spec.wars];
+        long[] startTimes = new long[spec.wars];
+        long warMillis = TimeUnit.HOURS.toMillis(1);
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO wars (id, attacker_id, defender_id, start_time, end_time, winner_id, status) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, 'FINISHED')")) {
+            for (int w = 0; w < spec.wars; w++) {
+                int attacker = pickGuild();
+                int defender;
+                do {
+                    defender = pickGuild();
+                } while (defender == attacker);
+
+                attackers[w] = attacker;
+                defenders[w] = defender;
+                startTimes[w] = randomTime();
+
+                stmt.setInt(1, w + 1);
+                stmt.setInt(2, BenchServer.guildId(attacker));
+                stmt.setInt(3, BenchServer.guildId(defender));
+                stmt.setTimestamp(4, new Timestamp(startTimes[w]));
+                stmt.setTimestamp(5, new Timestamp(startTimes[w] + warMillis));
+                stmt.setInt(6, BenchServer.guildId(random.nextBoolean() ? attacker : defender));
+                stmt.addBatch();
+                if ((w + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        progress("战争", spec.wars);
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO war_kills (war_id, killer_uuid, victim_uuid, kill_time) VALUES (?, ?, ?, ?)")) {
+            for (int k = 0; k < spec.warKills; k++) {
+                int w = random.nextInt(spec.wars);
+                boolean attackerKills = random.nextBoolean();
+                int killerGuild = attackerKills ? attackers[w] : defenders[w];
+                int victimGuild = attackerKills ? defenders[w] : attackers[w];
+
+                stmt.setInt(1, w + 1);
+                stmt.setString(2, randomMember(killerGuild).toString());
+                stmt.setString(3, randomMember(victimGuild).toString());
+                stmt.setTimestamp(4, new Timestamp(startTimes[w] + (long) (random.nextDouble() * warMillis)));
+                stmt.addBatch();
+                if ((k + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        progress("击杀记录", spec.warKills);
+    }
+
+    private UUID randomMember(int guild) {
+        int from = memberOffsets[guild];
+        return memberUuids[from + random.nextInt(memberOffsets[guild + 1] - from)];
+    }
+
+    /**
+     * 入会申请多来自无公会玩家并集中在大公会；一周前的申请均已处理
+     */
+    private void writeJoinRequests(Connection connection) throws SQLException {
+        long pendingSince = now - 7 * DAY_MILLIS;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO join_requests (player_uuid, player_name, guild_id, requested_at, status) VALUES (?, ?, ?, ?, ?)")) {
+            for (int r = 0; r < spec.joinRequests; r++) {
+                UUID player;
+                String name;
+                if (random.nextInt(10) < 7) {
+                    player = randomUuid();
+                    name = "J" + Integer.toString(r, 36);
+                } else {
+                    int index = random.nextInt(memberUuids.length);
+                    player = memberUuids[index];
+                    name = "P" + Integer.toString(index, 36);
+                }
+
+                long requestedAt = randomTime();
+                String status;
+                if (requestedAt >= pendingSince) {
+                    status = "PENDING";
+                } else {
+                    int roll = random.nextInt(100);
+                    status = roll < 35 ? "ACCEPTED" : roll < 80 ? "REJECTED" : "EXPIRED";
+                }
+
+                stmt.setString(1, player.toString());
+                stmt.setString(2, name);
+                stmt.setInt(3, BenchServer.guildId(pickGuild()));
+                stmt.setTimestamp(4, new Timestamp(requestedAt));
+                stmt.setString(5, status);
+                stmt.addBatch();
+                if ((r + 1) % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+        progress("入会申请", spec.joinRequests);
+    }
+
+    private static void progress(String table, int rows) {
+        System.out.println("  " + table + ": " + rows);
+    }
+}
@@ -0,0 +1,90 @@
+package cn.i7mc.sagaguild.bench;
+
+import cn.i7mc.sagaguild.managers.LandManager;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 领地查询基准测试
+ * 方块破坏和放置时每次都会调用，覆盖自己领地、他人领地和荒野三种情况
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LandBenchmark {
+    private static final int GUILDS = 200;
+    private static final int LANDS_PER_GUILD = 50;
+    private static final int SAMPLES = 1024;
+
+    private BenchServer server;
+    private LandManager landManager;
+    private Player member;
+
+    private Chunk[] ownChunks;
+    private Chunk[] otherChunks;
+    private Chunk[] wildChunks;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = BenchServer.start();
+        server.seed(GUILDS, 5, LANDS_PER_GUILD);
+        landManager = server.getPlugin().getLandManager();
+        member = server.join(0, 1);
+
+        ownChunks = new Chunk[SAMPLES];
+        otherChunks = new Chunk[SAMPLES];
+        wildChunks = new Chunk[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            ownChunks[i] = server.claimedChunk(0, i % LANDS_PER_GUILD);
+            otherChunks[i] = server.claimedChunk(1 + i % (GUILDS - 1), (i * 7) % LANDS_PER_GUILD);
+            wildChunks[i] = server.wildChunk(i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public int getChunkGuildIdClaimed() {
+        return landManager.getChunkGuildId(otherChunks[next()]);
+    }
+
+    @Benchmark
+    public int getChunkGuildIdWild() {
+        return landManager.getChunkGuildId(wildChunks[next()]);
+    }
+
+    @Benchmark
+    public boolean hasPermissionOwnLand() {
+        return landManager.hasPermission(member, ownChunks[next()]);
+    }
+
+    @Benchmark
+    public boolean hasPermissionOtherLand() {
+        return landManager.hasPermission(member, otherChunks[next()]);
+    }
+
+    @Benchmark
+    public boolean hasPermissionWild() {
+        return landManager.hasPermission(member, wildChunks[next()]);
+    }
+}
@@ -0,0 +1,369 @@
+package cn.i7mc.sagaguild.bench;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import cn.i7mc.sagaguild.managers.ChatManager;
+import cn.i7mc.sagaguild.metrics.Histogram;
+import cn.i7mc.sagaguild.metrics.MetricsRegistry;
+import io.papermc.paper.chat.ChatRenderer;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.chat.SignedMessage;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 负载测试
+ * 生成（或复用）大规模数据集，在MockBukkit中启动插件，然后按脚本比例发送事件，
+ * 报告启动耗时、常驻堆内存和各类事件处理耗时的p50/p99
+ *
+ * 运行: gradle loadTest [-PloadTestArgs="--players=500 --events=200000 --mix=break:40,place:20,interact:15,move:15,damage:5,chat:5"]
+ * 数据集参数与 {@link DatasetGenerator} 相同，加上 --reuse 可跳过生成直接使用上次的数据库
+ * 在线玩家都处于公会聊天模式，聊天事件经过插件的公会聊天路由
+ */
+public final class LoadTest {
+    private static final String DEFAULT_MIX = "break:40,place:20,interact:15,move:15,damage:5,chat:5";
+
+    // 每处理多少个事件推进一次服务器tick，执行插件调度的任务
+    private static final int EVENTS_PER_TICK = 500;
+
+    /**
+     * 事件类型
+     */
+    private enum EventKind {
+        BREAK, PLACE, INTERACT, MOVE, DAMAGE, CHAT
+    }
+
+    /**
+     * 在线玩家及其常驻区块
+     */
+    private static final class Actor {
+        private final PlayerMock player;
+        private final int homeX;
+        private final int homeZ;
+
+        private Actor(PlayerMock player, int homeX, int homeZ) {
+            this.player = player;
+            this.homeX = homeX;
+            this.homeZ = homeZ;
+        }
+    }
+
+    private final BenchServer server;
+    private final Random random;
+    private final List<Actor> actors = new ArrayList<>();
+
+    // 随机抽取的已声明区块，用于访问其他公会的领地
+    private final List<int[]> claimedChunks = new ArrayList<>();
+
+    // 聊天事件只能异步触发，在单独的线程中逐条执行
+    private final ExecutorService chatThread = Executors.newSingleThreadExecutor();
+    private int chatCounter;
+
+    private LoadTest(BenchServer server, long seed) {
+        this.server = server;
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        DatasetGenerator.Spec spec = DatasetGenerator.Spec.parse(args);
+        int players = intArg(args, "players", 500);
+        int events = intArg(args, "events", 200_000);
+        String mix = stringArg(args, "mix", DEFAULT_MIX);
+        boolean reuse = hasArg(args, "--reuse") && BenchServer.DATABASE_FILE.exists();
+
+        if (!reuse) {
+            System.out.println("生成数据集: " + spec);
+            long begin = System.nanoTime();
+            new DatasetGenerator(spec).generate(BenchServer.DATABASE_FILE);
+            System.out.printf("数据集生成耗时: %.1fs%n", (System.nanoTime() - begin) / 1e9);
+        }
+
+        // 启动耗时和常驻内存
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long heapBefore = usedHeap(memory);
+        long begin = System.nanoTime();
+        BenchServer server = BenchServer.boot();
+        long startupNanos = System.nanoTime() - begin;
+        long heapAfter = usedHeap(memory);
+
+        LoadTest test = new LoadTest(server, spec.seed);
+        try {
+            test.loadActors(players);
+            MetricsRegistry registry = new MetricsRegistry(true);
+            long driveNanos = test.drive(parseMix(mix), events, registry);
+
+            System.out.println();
+            System.out.println("===== SagaGuild 负载测试 =====");
+            System.out.println("数据集: " + spec);
+            System.out.printf("启动耗时: %.0fms%n", startupNanos / 1e6);
+            System.out.printf("常驻堆内存: %.1fMB%n", (heapAfter - heapBefore) / 1048576.0);
+            System.out.printf("在线玩家: %d  事件: %d  吞吐: %.0f 事件/秒%n",
+                    test.actors.size(), events, events / (driveNanos / 1e9));
+            System.out.printf("%-10s %10s %10s %10s %10s%n", "事件", "次数", "p50", "p99", "最大");
+            for (EventKind kind : EventKind.values()) {
+                Histogram histogram = registry.histogram("loadtest_event", "", "event", kind.name());
+                if (histogram.getCount() == 0) {
+                    continue;
+                }
+                System.out.printf("%-10s %10d %10s %10s %10s%n", kind.name().toLowerCase(Locale.ROOT),
+                        histogram.getCount(), micros(histogram.getQuantile(0.5)),
+                        micros(histogram.getQuantile(0.99)), micros(histogram.getMax()));
+            }
+        } finally {
+            test.chatThread.shutdown();
+            server.stop();
+        }
+    }
+
+    /**
+     * 从数据集中随机选择在线玩家，并把每人的常驻区块设为其公会的一块领地，玩家上线后位于常驻区块中
+     */
+    private void loadActors(int players) throws SQLException {
+        File dbFile = BenchServer.DATABASE_FILE;
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath())) {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT chunk_x, chunk_z FROM lands ORDER BY RANDOM() LIMIT 4096");
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    claimedChunks.add(new int[]{rs.getInt(1), rs.getInt(2)});
+                }
+            }
+
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT m.player_uuid, m.player_name, "
+                            + "(SELECT l.chunk_x FROM lands l WHERE l.guild_id = m.guild_id LIMIT 1), "
+                            + "(SELECT l.chunk_z FROM lands l WHERE l.guild_id = m.guild_id LIMIT 1) "
+                            + "FROM members m ORDER BY RANDOM() LIMIT ?")) {
+                stmt.setInt(1, players);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        PlayerMock player = new PlayerMock(server.getServer(), rs.getString(2),
+                                UUID.fromString(rs.getString(1)));
+                        server.getServer().addPlayer(player);
+
+                        // 没有领地的公会成员在荒野活动
+                        boolean hasLand = rs.getObject(3) != null;
+                        int homeX = hasLand ? rs.getInt(3) : 100_000 + random.nextInt(1000);
+                        int homeZ = hasLand ? rs.getInt(4) : 100_000 + random.nextInt(1000);
+                        player.setLocation(blockLocation(homeX, homeZ, 8));
+                        actors.add(new Actor(player, homeX, homeZ));
+                    }
+                }
+            }
+        }
+        server.getServer().getScheduler().performTicks(20);
+
+        ChatManager chatManager = server.getPlugin().getChatManager();
+        for (Actor actor : actors) {
+            chatManager.setPlayerChatMode(actor.player.getUniqueId(), ChatManager.ChatMode.GUILD);
+        }
+    }
+
+    /**
+     * 按比例发送事件，记录每个事件的处理耗时
+     * @return 总耗时（纳秒）
+     */
+    private long drive(EventKind[] mix, int events, MetricsRegistry registry) throws Exception {
+        Histogram[] histograms = new Histogram[EventKind.values().length];
+        for (EventKind kind : EventKind.values()) {
+            histograms[kind.ordinal()] = registry.histogram("loadtest_event", "", "event", kind.name());
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            EventKind kind = mix[random.nextInt(mix.length)];
+            Actor actor = actors.get(random.nextInt(actors.size()));
+            Event event = createEvent(kind, actor);
+
+            histograms[kind.ordinal()].record(call(event));
+
+            if ((i + 1) % EVENTS_PER_TICK == 0) {
+                server.getServer().getScheduler().performOneTick();
+                drainMessages();
+            }
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * 发送事件
+     * @return 处理耗时（纳秒）
+     */
+    private long call(Event event) throws Exception {
+        if (!event.isAsynchronous()) {
+            long start = System.nanoTime();
+            server.getServer().getPluginManager().callEvent(event);
+            return System.nanoTime() - start;
+        }
+
+        // 异步事件不能在主线程触发
+        return chatThread.submit(() -> {
+            long start = System.nanoTime();
+            server.getServer().getPluginManager().callEvent(event);
+            return System.nanoTime() - start;
+        }).get();
+    }
+
+    @SuppressWarnings("deprecation")
+    private Event createEvent(EventKind kind, Actor actor) {
+        PlayerMock player = actor.player;
+        switch (kind) {
+            case BREAK -> {
+                Block block = targetBlock(actor);
+                block.setType(Material.STONE);
+                return new BlockBreakEvent(block, player);
+            }
+            case PLACE -> {
+                Block block = targetBlock(actor);
+                ItemStack item = new ItemStack(Material.COBBLESTONE);
+                return new BlockPlaceEvent(block, block.getState(), block.getRelative(BlockFace.DOWN), item,
+                        player, true, EquipmentSlot.HAND);
+            }
+            case INTERACT -> {
+                Block block = targetBlock(actor);
+                return new PlayerInteractEvent(player, Action.RIGHT_CLICK_BLOCK, null, block, BlockFace.UP);
+            }
+            case MOVE -> {
+                // 一半的移动跨越区块边界
+                Location from = blockLocation(actor.homeX, actor.homeZ, 15);
+                Location to = random.nextBoolean()
+                        ? blockLocation(actor.homeX + 1, actor.homeZ, 0)
+                        : blockLocation(actor.homeX, actor.homeZ, 14);
+                return new PlayerMoveEvent(player, from, to);
+            }
+            case CHAT -> {
+                // 每条消息内容不同，避免被重复消息检测拦截
+                String text = "load test message " + chatCounter++;
+                Set<Audience> viewers = new HashSet<>(server.getServer().getOnlinePlayers());
+                Component message = Component.text(text);
+                return new AsyncChatEvent(true, player, viewers, ChatRenderer.defaultRenderer(),
+                        message, message, SignedMessage.system(text, message));
+            }
+            default -> {
+                PlayerMock victim = actors.get(random.nextInt(actors.size())).player;
+                return new EntityDamageByEntityEvent(player, victim, EntityDamageEvent.DamageCause.ENTITY_ATTACK, 1.0);
+            }
+        }
+    }
+
+    /**
+     * 目标方块：70%在自己的常驻区块，20%在其他公会的领地，10%在荒野
+     */
+    private Block targetBlock(Actor actor) {
+        int roll = random.nextInt(10);
+        int chunkX;
+        int chunkZ;
+        if (roll < 7 || claimedChunks.isEmpty()) {
+            chunkX = actor.homeX;
+            chunkZ = actor.homeZ;
+        } else if (roll < 9) {
+            int[] chunk = claimedChunks.get(random.nextInt(claimedChunks.size()));
+            chunkX = chunk[0];
+            chunkZ = chunk[1];
+        } else {
+            chunkX = 100_000 + random.nextInt(1000);
+            chunkZ = 100_000 + random.nextInt(1000);
+        }
+        return server.getWorld().getBlockAt((chunkX << 4) + random.nextInt(16), 64, (chunkZ << 4) + random.nextInt(16));
+    }
+
+    private Location blockLocation(int chunkX, int chunkZ, int offset) {
+        return new Location(server.getWorld(), (chunkX << 4) + offset + 0.5, 64, (chunkZ << 4) + 8.5);
+    }
+
+    /**
+     * 丢弃发送给模拟玩家的消息，避免占用内存
+     */
+    private void drainMessages() {
+        for (Actor actor : actors) {
+            while (actor.player.nextMessage() != null) {
+                // 丢弃
+            }
+        }
+    }
+
+    /**
+     * 解析事件比例，如 break:40,move:20
+     */
+    private static EventKind[] parseMix(String mix) {
+        List<EventKind> table = new ArrayList<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            EventKind kind = EventKind.valueOf(pair[0].toUpperCase(Locale.ROOT));
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1]) : 1;
+            for (int i = 0; i < weight; i++) {
+                table.add(kind);
+            }
+        }
+        if (table.isEmpty()) {
+            throw new IllegalArgumentException("事件比例为空: " + mix);
+        }
+        return table.toArray(new EventKind[0]);
+    }
+
+    private static long usedHeap(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fμs", nanos / 1000.0);
+    }
+
+    private static boolean hasArg(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equals(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stringArg(String[] args, String name, String def) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return def;
+    }
+
+    private static int intArg(String[] args, String name, int def) {
+        String value = stringArg(args, name, null);
+        return value != null ? Integer.parseInt(value) : def;
+    }
+}
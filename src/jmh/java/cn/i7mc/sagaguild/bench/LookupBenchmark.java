@@ -0,0 +1,88 @@
+package cn.i7mc.sagaguild.bench;
+
+import cn.i7mc.sagaguild.config.ConfigManager;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.managers.GuildManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 公会查询和消息格式化基准测试
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LookupBenchmark {
+    private static final int GUILDS = 1000;
+    private static final int MEMBERS_PER_GUILD = 20;
+    private static final int SAMPLES = 1024;
+
+    private BenchServer server;
+    private GuildManager guildManager;
+    private ConfigManager configManager;
+
+    private UUID[] members;
+    private UUID[] outsiders;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = BenchServer.start();
+        server.seed(GUILDS, MEMBERS_PER_GUILD, 0);
+        guildManager = server.getPlugin().getGuildManager();
+        configManager = server.getPlugin().getConfigManager();
+
+        members = new UUID[SAMPLES];
+        outsiders = new UUID[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            members[i] = BenchServer.memberUuid((i * 31) % GUILDS, i % MEMBERS_PER_GUILD);
+            outsiders[i] = UUID.nameUUIDFromBytes(("outsider:" + i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return cursor;
+    }
+
+    @Benchmark
+    public Guild getPlayerGuildMember() {
+        return guildManager.getPlayerGuild(members[next()]);
+    }
+
+    @Benchmark
+    public Guild getPlayerGuildOutsider() {
+        return guildManager.getPlayerGuild(outsiders[next()]);
+    }
+
+    @Benchmark
+    public String getMessagePlain() {
+        return configManager.getMessage("general.no-permission");
+    }
+
+    @Benchmark
+    public String getMessagePlaceholders() {
+        int i = next();
+        return configManager.getMessage("leaderboard.entry",
+                "rank", String.valueOf(i),
+                "guild", "Guild" + i,
+                "tag", "G" + i,
+                "score", "12345");
+    }
+}
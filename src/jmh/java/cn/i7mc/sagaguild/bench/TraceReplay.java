@@ -0,0 +1,432 @@
+package cn.i7mc.sagaguild.bench;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import cn.i7mc.sagaguild.metrics.Histogram;
+import cn.i7mc.sagaguild.metrics.MetricsRegistry;
+import cn.i7mc.sagaguild.trace.TraceEvent;
+import cn.i7mc.sagaguild.trace.TraceReader;
+import io.papermc.paper.chat.ChatRenderer;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.chat.SignedMessage;
+import net.kyori.adventure.text.Component;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 事件录制回放
+ * 从数据集快照启动插件，按录制顺序把事件发送给插件的监听器，报告吞吐和各类事件耗时；
+ * 每轮结束后对数据库中的公会状态计算摘要，多轮回放摘要不一致说明处理结果依赖于时间或随机数
+ *
+ * 运行: gradle replayTrace -PreplayArgs="--trace=trace-20250101-200000.sgtrace --snapshot=database.db --runs=2"
+ * 不指定 --snapshot 时按 {@link DatasetGenerator} 的参数生成数据集作为快照，加上 --reuse 可复用上次生成的快照；
+ * --speed=1 按录制时的节奏回放，默认0为尽快回放
+ */
+public final class TraceReplay {
+    private static final File GENERATED_SNAPSHOT = new File("replay-snapshot.db");
+
+    // 录制时间每经过一个tick推进一次服务器tick
+    private static final long TICK_MICROS = 50_000L;
+
+    // 计算摘要的公会状态，不包含时间戳列
+    private static final String[] DIGEST_QUERIES = {
+            "SELECT id, name, tag, level, experience FROM guilds ORDER BY id",
+            "SELECT guild_id, player_uuid, role FROM members ORDER BY guild_id, player_uuid",
+            "SELECT guild_id, world, chunk_x, chunk_z FROM lands ORDER BY world, chunk_x, chunk_z",
+            "SELECT guild_id, balance FROM banks ORDER BY guild_id",
+            "SELECT id, attacker_id, defender_id, winner_id, status FROM wars ORDER BY id",
+            "SELECT war_id, killer_uuid, victim_uuid FROM war_kills ORDER BY id",
+            "SELECT id, guild_id, type, progress FROM tasks ORDER BY id",
+            "SELECT guild_id, player_uuid, category, amount FROM member_contributions "
+                    + "ORDER BY guild_id, player_uuid, day, category"
+    };
+
+    private final BenchServer server;
+    private final double speed;
+    private final MetricsRegistry registry = new MetricsRegistry(true);
+    private final Map<UUID, PlayerMock> players = new HashMap<>();
+
+    // 聊天事件只能异步触发，在单独的线程中逐条执行
+    private final ExecutorService chatThread = Executors.newSingleThreadExecutor();
+
+    private long replayed;
+    private long skipped;
+
+    private TraceReplay(BenchServer server, double speed) {
+        this.server = server;
+        this.speed = speed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String tracePath = stringArg(args, "trace", null);
+        if (tracePath == null) {
+            throw new IllegalArgumentException("需要指定录制文件: --trace=<文件>");
+        }
+        File trace = new File(tracePath);
+        int runs = Math.max(1, Integer.parseInt(stringArg(args, "runs", "1")));
+        double speed = Double.parseDouble(stringArg(args, "speed", "0"));
+        File snapshot = snapshot(args);
+
+        List<String> digests = new ArrayList<>();
+        BenchServer.ensureWorkDir();
+        for (int run = 1; run <= runs; run++) {
+            Files.copy(snapshot.toPath(), BenchServer.DATABASE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            BenchServer server = BenchServer.boot();
+            TraceReplay replay = new TraceReplay(server, speed);
+            long nanos;
+            boolean complete;
+            try {
+                try (TraceReader reader = new TraceReader(new FileInputStream(trace))) {
+                    nanos = replay.replay(reader);
+                    complete = reader.isComplete();
+                }
+            } finally {
+                replay.chatThread.shutdown();
+                // 关闭插件时写入批量保存的数据
+                server.stop();
+            }
+
+            String digest = digest(BenchServer.DATABASE_FILE);
+            digests.add(digest);
+            replay.report(run, trace, complete, nanos, digest);
+        }
+
+        if (runs > 1) {
+            boolean same = digests.stream().distinct().count() == 1;
+            System.out.println();
+            System.out.println("确定性: " + (same ? "各轮结果一致" : "各轮结果不一致 " + digests));
+        }
+    }
+
+    /**
+     * 获取数据集快照，未指定时生成
+     */
+    private static File snapshot(String[] args) throws SQLException {
+        String path = stringArg(args, "snapshot", null);
+        if (path != null) {
+            File file = new File(path);
+            if (!file.exists()) {
+                throw new IllegalArgumentException("快照文件不存在: " + file.getAbsolutePath());
+            }
+            return file;
+        }
+
+        if (!hasArg(args, "--reuse") || !GENERATED_SNAPSHOT.exists()) {
+            DatasetGenerator.Spec spec = DatasetGenerator.Spec.parse(args);
+            System.out.println("生成数据集: " + spec);
+            new DatasetGenerator(spec).generate(GENERATED_SNAPSHOT);
+        }
+        return GENERATED_SNAPSHOT;
+    }
+
+    /**
+     * 按顺序回放所有事件
+     * @return 总耗时（纳秒）
+     */
+    private long replay(TraceReader reader) throws Exception {
+        long begin = System.nanoTime();
+        long firstTime = Long.MIN_VALUE;
+        long nextTick = 0;
+
+        TraceEvent event;
+        while ((event = reader.next()) != null) {
+            if (firstTime == Long.MIN_VALUE) {
+                firstTime = event.getTimeMicros();
+                nextTick = firstTime + TICK_MICROS;
+            }
+
+            // 按录制时间推进服务器tick，执行插件调度的任务
+            while (event.getTimeMicros() >= nextTick) {
+                server.getServer().getScheduler().performOneTick();
+                drainMessages();
+                nextTick += TICK_MICROS;
+            }
+
+            if (speed > 0) {
+                long due = begin + (long) ((event.getTimeMicros() - firstTime) * 1000L / speed);
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+                }
+            }
+
+            dispatch(event);
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /**
+     * 还原并发送一个事件
+     */
+    @SuppressWarnings("deprecation")
+    private void dispatch(TraceEvent event) throws Exception {
+        switch (event.getKind()) {
+            case JOIN -> {
+                PlayerMock player = players.get(event.getPlayer());
+                if (player == null) {
+                    player(event.getPlayer(), event.getPlayerName());
+                } else if (!player.isOnline()) {
+                    player.reconnect();
+                }
+                replayed++;
+            }
+            case QUIT -> {
+                PlayerMock player = players.get(event.getPlayer());
+                if (player != null && player.isOnline()) {
+                    player.disconnect();
+                }
+                replayed++;
+            }
+            case BREAK -> {
+                Block block = block(event.getWorld(), event.getX(), event.getY(), event.getZ());
+                block.setType(material(event.getSymbol()));
+                call(event, new BlockBreakEvent(block, player(event)));
+            }
+            case PLACE -> {
+                Block block = block(event.getWorld(), event.getX(), event.getY(), event.getZ());
+                Material material = material(event.getSymbol());
+                block.setType(material);
+                ItemStack item = new ItemStack(material.isItem() ? material : Material.STONE);
+                call(event, new BlockPlaceEvent(block, block.getState(), block.getRelative(BlockFace.DOWN), item,
+                        player(event), true, EquipmentSlot.HAND));
+            }
+            case INTERACT -> {
+                Block block = event.getWorld() != null
+                        ? block(event.getWorld(), event.getX(), event.getY(), event.getZ()) : null;
+                BlockFace face = event.getDetail() != null ? BlockFace.valueOf(event.getDetail()) : BlockFace.SELF;
+                call(event, new PlayerInteractEvent(player(event), Action.valueOf(event.getSymbol()), null, block, face));
+            }
+            case MOVE -> {
+                PlayerMock player = player(event);
+                Location from = location(event.getWorld(), event.getX(), event.getY(), event.getZ());
+                Location to = location(event.getToWorld(), event.getToX(), event.getToY(), event.getToZ());
+                player.setLocation(from);
+                PlayerMoveEvent move = new PlayerMoveEvent(player, from, to);
+                if (call(event, move)) {
+                    player.setLocation(move.getTo());
+                }
+            }
+            case DAMAGE -> {
+                PlayerMock victim = player(event.getTarget(), event.getTargetName());
+                call(event, new EntityDamageByEntityEvent(player(event), victim, damageCause(event.getSymbol()),
+                        event.getAmount()));
+            }
+            case DEATH -> {
+                PlayerMock player = player(event);
+                player.setKiller(event.getTarget() != null ? player(event.getTarget(), event.getTargetName()) : null);
+                call(event, new PlayerDeathEvent(player, new ArrayList<>(), 0, (String) null));
+                player.setKiller(null);
+            }
+            case CHAT -> {
+                PlayerMock player = player(event);
+                Set<Audience> viewers = new HashSet<>(server.getServer().getOnlinePlayers());
+                Component message = Component.text(event.getText());
+                AsyncChatEvent chat = new AsyncChatEvent(true, player, viewers, ChatRenderer.defaultRenderer(),
+                        message, message, SignedMessage.system(event.getText(), message));
+                chatThread.submit(() -> call(event, chat)).get();
+            }
+            case COMMAND -> {
+                PlayerMock player = player(event);
+                Histogram histogram = histogram(event);
+                long start = System.nanoTime();
+                player.performCommand(event.getText());
+                histogram.record(System.nanoTime() - start);
+                replayed++;
+            }
+            case CLICK -> {
+                // 只有打开了同一种插件界面时才能还原点击
+                PlayerMock player = player(event);
+                InventoryView view = player.getOpenInventory();
+                InventoryHolder holder = view.getTopInventory().getHolder();
+                if (holder == null || !holder.getClass().getSimpleName().equals(event.getSymbol())) {
+                    skipped++;
+                    return;
+                }
+                ClickType click = event.getDetail() != null ? ClickType.valueOf(event.getDetail()) : ClickType.LEFT;
+                call(event, new InventoryClickEvent(view, view.getSlotType(event.getSlot()), event.getSlot(), click,
+                        InventoryAction.PICKUP_ALL));
+            }
+            default -> skipped++;
+        }
+    }
+
+    /**
+     * 发送事件并记录耗时
+     * @return 事件未被取消
+     */
+    private boolean call(TraceEvent trace, Event event) {
+        Histogram histogram = histogram(trace);
+        long start = System.nanoTime();
+        server.getServer().getPluginManager().callEvent(event);
+        histogram.record(System.nanoTime() - start);
+        replayed++;
+        return !(event instanceof Cancellable) || !((Cancellable) event).isCancelled();
+    }
+
+    private Histogram histogram(TraceEvent event) {
+        return registry.histogram("replay_event", "", "event", event.getKind().name());
+    }
+
+    private void report(int run, File trace, boolean complete, long nanos, String digest) {
+        System.out.println();
+        System.out.println("===== SagaGuild 事件回放 第" + run + "轮 =====");
+        System.out.println("录制文件: " + trace.getPath() + (complete ? "" : " (录制被中断，只回放了已写入的部分)"));
+        System.out.printf("玩家: %d  回放事件: %d  跳过: %d  吞吐: %.0f 事件/秒%n",
+                players.size(), replayed, skipped, replayed / Math.max(1e-9, nanos / 1e9));
+        System.out.printf("%-10s %10s %10s %10s %10s%n", "事件", "次数", "p50", "p99", "最大");
+        for (TraceEvent.Kind kind : TraceEvent.Kind.values()) {
+            Histogram histogram = registry.histogram("replay_event", "", "event", kind.name());
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            System.out.printf("%-10s %10d %10s %10s %10s%n", kind.name().toLowerCase(Locale.ROOT),
+                    histogram.getCount(), micros(histogram.getQuantile(0.5)),
+                    micros(histogram.getQuantile(0.99)), micros(histogram.getMax()));
+        }
+        System.out.println("状态摘要: " + digest);
+    }
+
+    private PlayerMock player(TraceEvent event) {
+        return player(event.getPlayer(), event.getPlayerName());
+    }
+
+    /**
+     * 获取回放中的玩家，第一次出现时加入服务器（录制开始时已在线的玩家没有加入事件）
+     */
+    private PlayerMock player(UUID uuid, String name) {
+        PlayerMock player = players.get(uuid);
+        if (player == null) {
+            player = new PlayerMock(server.getServer(), name, uuid);
+            server.getServer().addPlayer(player);
+            players.put(uuid, player);
+        }
+        return player;
+    }
+
+    private World world(String name) {
+        World world = server.getServer().getWorld(name);
+        return world != null ? world : server.getServer().addSimpleWorld(name);
+    }
+
+    private Block block(String world, int x, int y, int z) {
+        return world(world).getBlockAt(x, y, z);
+    }
+
+    private Location location(String world, int x, int y, int z) {
+        return new Location(world(world), x + 0.5, y, z + 0.5);
+    }
+
+    private static Material material(String name) {
+        Material material = name != null ? Material.matchMaterial(name) : null;
+        return material != null ? material : Material.STONE;
+    }
+
+    private static EntityDamageEvent.DamageCause damageCause(String name) {
+        try {
+            return EntityDamageEvent.DamageCause.valueOf(name);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return EntityDamageEvent.DamageCause.ENTITY_ATTACK;
+        }
+    }
+
+    /**
+     * 丢弃发送给模拟玩家的消息，避免占用内存
+     */
+    private void drainMessages() {
+        for (PlayerMock player : players.values()) {
+            while (player.nextMessage() != null) {
+                // 丢弃
+            }
+        }
+    }
+
+    /**
+     * 计算公会状态摘要
+     */
+    private static String digest(File dbFile) throws Exception {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath())) {
+            for (String query : DIGEST_QUERIES) {
+                try (PreparedStatement stmt = connection.prepareStatement(query);
+                     ResultSet rs = stmt.executeQuery()) {
+                    int columns = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        for (int i = 1; i <= columns; i++) {
+                            sha.update(String.valueOf(rs.getObject(i)).getBytes(StandardCharsets.UTF_8));
+                            sha.update((byte) 0x1F);
+                        }
+                        sha.update((byte) 0x1E);
+                    }
+                }
+            }
+        }
+        return HexFormat.of().formatHex(sha.digest(), 0, 8);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fμs", nanos / 1000.0);
+    }
+
+    private static boolean hasArg(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equals(flag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stringArg(String[] args, String name, String def) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return def;
+    }
+}
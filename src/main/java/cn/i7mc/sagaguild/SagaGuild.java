@@ -8,10 +8,10 @@ import cn.i7mc.sagaguild.data.dao.JoinRequestDAO;
 import cn.i7mc.sagaguild.gui.GUIManager;
 import cn.i7mc.sagaguild.listeners.ActivityListener;
 import cn.i7mc.sagaguild.listeners.ChatListener;
-import cn.i7mc.sagaguild.listeners.ExperienceListener;
+import cn.i7mc.sagaguild.listeners.GuildEventDispatcher;
 import cn.i7mc.sagaguild.listeners.LandListener;
+import cn.i7mc.sagaguild.listeners.PaperChatListener;
 import cn.i7mc.sagaguild.listeners.PlayerListener;
-import cn.i7mc.sagaguild.listeners.TaskListener;
 import cn.i7mc.sagaguild.listeners.WarListener;
 import cn.i7mc.sagaguild.managers.*;
 import cn.i7mc.sagaguild.utils.InventoryUtil;
@@ -31,6 +31,7 @@ public class SagaGuild extends JavaPlugin {
 
     // 各管理器实例
     private ConfigManager configManager;
+    private MetricsManager metricsManager;
     private DatabaseManager databaseManager;
     private GuildManager guildManager;
     private MemberManager memberManager;
@@ -41,8 +42,16 @@ public class SagaGuild extends JavaPlugin {
     private ChatManager chatManager;
     private ActivityManager activityManager;
     private AllianceManager allianceManager;
+    private ChatHistoryManager chatHistoryManager;
+    private PlayerNameManager playerNameManager;
+    private ProfileCacheManager profileCacheManager;
+    private ContributionManager contributionManager;
+    private TraceManager traceManager;
+    private LeaderboardManager leaderboardManager;
+    private ExperienceManager experienceManager;
     private CommandManager commandManager;
     private GUIManager guiManager;
+    private GuildEventDispatcher eventDispatcher;
 
     // DAO实例
     private JoinRequestDAO joinRequestDAO;
@@ -57,6 +66,9 @@ public class SagaGuild extends JavaPlugin {
         configManager = new ConfigManager(this);
         configManager.loadConfigs();
 
+        // 初始化指标（需要在数据库和监听器之前）
+        metricsManager = new MetricsManager(this);
+
         // 初始化工具类
         boolean debug = getConfig().getBoolean("debug", false);
         ItemUtil.setPlugin(this);
@@ -83,11 +95,44 @@ public class SagaGuild extends JavaPlugin {
         // 初始化GUI系统
         guiManager = new GUIManager(this);
 
+        // 启动完成后开始检测服务器线程上的数据库访问
+        databaseManager.getIoGuard().arm();
+
         getLogger().info("SagaGuild 插件已成功加载！");
     }
 
     @Override
     public void onDisable() {
+        // 关闭时在主线程写入数据是预期行为
+        if (databaseManager != null) {
+            databaseManager.getIoGuard().disarm();
+        }
+
+        // 结束事件录制
+        if (traceManager != null) {
+            traceManager.shutdown();
+        }
+
+        // 保存头颅材质缓存
+        if (profileCacheManager != null) {
+            profileCacheManager.shutdown();
+        }
+
+        // 写入剩余的任务进度
+        if (taskManager != null) {
+            taskManager.shutdown();
+        }
+
+        // 写入剩余的成员贡献
+        if (contributionManager != null) {
+            contributionManager.shutdown();
+        }
+
+        // 写入剩余的聊天记录
+        if (chatHistoryManager != null) {
+            chatHistoryManager.shutdown();
+        }
+
         // 保存数据
         if (databaseManager != null) {
             databaseManager.close();
@@ -96,6 +141,11 @@ public class SagaGuild extends JavaPlugin {
         // 停止邀请过期检查任务
         InviteCommand.stopExpirationChecker();
 
+        // 写入最后一次指标
+        if (metricsManager != null) {
+            metricsManager.shutdown();
+        }
+
         // 卸载资源
         getLogger().info("SagaGuild 插件已成功卸载！");
     }
@@ -111,21 +161,33 @@ public class SagaGuild extends JavaPlugin {
         warManager = new WarManager(this);
         taskManager = new TaskManager(this);
         chatManager = new ChatManager(this);
+        chatHistoryManager = new ChatHistoryManager(this);
         activityManager = new ActivityManager(this);
         allianceManager = new AllianceManager(this);
+        playerNameManager = new PlayerNameManager(this);
+        profileCacheManager = new ProfileCacheManager(this);
+        contributionManager = new ContributionManager(this);
+        traceManager = new TraceManager(this);
+        leaderboardManager = new LeaderboardManager(this);
+        experienceManager = new ExperienceManager(this);
     }
 
     /**
      * 注册所有事件监听器
      */
     private void registerListeners() {
-        getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
-        getServer().getPluginManager().registerEvents(new LandListener(this), this);
-        getServer().getPluginManager().registerEvents(new ExperienceListener(this), this);
-        getServer().getPluginManager().registerEvents(new ChatListener(this), this);
-        getServer().getPluginManager().registerEvents(new WarListener(this), this);
-        getServer().getPluginManager().registerEvents(new TaskListener(this), this);
-        getServer().getPluginManager().registerEvents(new ActivityListener(this), this);
+        eventDispatcher = new GuildEventDispatcher(this);
+        metricsManager.registerEvents(new PlayerListener(this));
+        metricsManager.registerEvents(new LandListener(this));
+        metricsManager.registerEvents(eventDispatcher);
+        if (PaperChatListener.isSupported()) {
+            metricsManager.registerEvents(new PaperChatListener(this));
+        } else {
+            // 兼容Mohist等不提供Paper聊天事件的服务端
+            metricsManager.registerEvents(new ChatListener(this));
+        }
+        metricsManager.registerEvents(new WarListener(this));
+        metricsManager.registerEvents(new ActivityListener(this));
     }
 
     /**
@@ -143,6 +205,10 @@ public class SagaGuild extends JavaPlugin {
         return configManager;
     }
 
+    public MetricsManager getMetricsManager() {
+        return metricsManager;
+    }
+
     public DatabaseManager getDatabaseManager() {
         return databaseManager;
     }
@@ -183,6 +249,38 @@ public class SagaGuild extends JavaPlugin {
         return allianceManager;
     }
 
+    public ChatHistoryManager getChatHistoryManager() {
+        return chatHistoryManager;
+    }
+
+    public PlayerNameManager getPlayerNameManager() {
+        return playerNameManager;
+    }
+
+    public ProfileCacheManager getProfileCacheManager() {
+        return profileCacheManager;
+    }
+
+    public ContributionManager getContributionManager() {
+        return contributionManager;
+    }
+
+    public TraceManager getTraceManager() {
+        return traceManager;
+    }
+
+    public LeaderboardManager getLeaderboardManager() {
+        return leaderboardManager;
+    }
+
+    public ExperienceManager getExperienceManager() {
+        return experienceManager;
+    }
+
+    public GuildEventDispatcher getEventDispatcher() {
+        return eventDispatcher;
+    }
+
     public CommandManager getCommandManager() {
         return commandManager;
     }
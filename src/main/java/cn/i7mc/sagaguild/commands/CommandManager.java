@@ -88,6 +88,15 @@ public class CommandManager {
         // 注册公会关系命令
         registerSubCommand(new RelationCommand(plugin));
 
+        // 注册成员贡献命令
+        registerSubCommand(new ContributionCommand(plugin));
+
+        // 注册公会排行命令
+        registerSubCommand(new TopCommand(plugin));
+
+        // 注册管理员命令
+        registerSubCommand(new AdminCommand(plugin));
+
         // 其他子命令将在后续实现
     }
 
@@ -0,0 +1,125 @@
+package cn.i7mc.sagaguild.commands.subcommands;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.commands.subcommands.admin.*;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 公会管理员主命令
+ * 提供服务器管理员使用的诊断子命令，需要guild.admin权限
+ */
+public class AdminCommand implements SubCommand {
+    private static final String PERMISSION = "guild.admin";
+
+    private final SagaGuild plugin;
+    private final Map<String, SubCommand> subCommands;
+
+    public AdminCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.subCommands = new LinkedHashMap<>();
+
+        // 注册子命令
+        registerSubCommand(new AdminPipelineCommand(plugin));
+        registerSubCommand(new AdminMetricsCommand(plugin));
+        registerSubCommand(new AdminProfileCommand(plugin));
+        registerSubCommand(new AdminIoCommand(plugin));
+        registerSubCommand(new AdminTraceCommand(plugin));
+    }
+
+    private void registerSubCommand(SubCommand subCommand) {
+        subCommands.put(subCommand.getName().toLowerCase(), subCommand);
+        for (String alias : subCommand.getAliases()) {
+            subCommands.put(alias.toLowerCase(), subCommand);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "admin";
+    }
+
+    @Override
+    public String getDescription() {
+        return "公会插件管理员命令";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild admin <子命令> [参数...]";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        // 检查权限
+        if (!player.hasPermission(PERMISSION)) {
+            player.sendMessage(plugin.getConfigManager().getMessage("general.no-permission"));
+            return true;
+        }
+
+        if (args.length < 1) {
+            showHelp(player);
+            return true;
+        }
+
+        SubCommand subCommand = subCommands.get(args[0].toLowerCase());
+        if (subCommand == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.unknown-subcommand"));
+            return true;
+        }
+
+        // 执行子命令
+        return subCommand.execute(player, args);
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (!player.hasPermission(PERMISSION)) {
+            return completions;
+        }
+
+        if (args.length == 1) {
+            // 提供子命令补全
+            for (SubCommand subCommand : subCommands.values()) {
+                if (subCommand.getName().startsWith(args[0].toLowerCase()) && !completions.contains(subCommand.getName())) {
+                    completions.add(subCommand.getName());
+                }
+            }
+        } else if (args.length > 1) {
+            // 提供子命令参数补全
+            SubCommand subCommand = subCommands.get(args[0].toLowerCase());
+            if (subCommand != null) {
+                completions = subCommand.tabComplete(player, args);
+            }
+        }
+
+        return completions;
+    }
+
+    /**
+     * 显示帮助信息
+     * @param player 玩家
+     */
+    private void showHelp(Player player) {
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.help-header"));
+        List<SubCommand> shown = new ArrayList<>();
+        for (SubCommand subCommand : subCommands.values()) {
+            // 避免重复显示别名
+            if (!shown.contains(subCommand)) {
+                shown.add(subCommand);
+                player.sendMessage("§7" + subCommand.getSyntax() + " §f- " + subCommand.getDescription());
+            }
+        }
+    }
+}
@@ -11,9 +11,11 @@ import java.util.List;
 
 /**
  * 公会聊天命令
- * 切换公会聊天模式
+ * 切换公会聊天模式，查看公会聊天记录
  */
 public class ChatCommand implements SubCommand {
+    private static final int DEFAULT_HISTORY_LINES = 10;
+
     private final SagaGuild plugin;
     
     public ChatCommand(SagaGuild plugin) {
@@ -32,7 +34,7 @@ public class ChatCommand implements SubCommand {
     
     @Override
     public String getSyntax() {
-        return "/guild chat";
+        return "/guild chat [history [条数]]";
     }
     
     @Override
@@ -48,6 +50,11 @@ public class ChatCommand implements SubCommand {
             player.sendMessage(plugin.getConfigManager().getMessage("guild.not-in-guild"));
             return true;
         }
+
+        // 查看聊天记录
+        if (args.length > 0 && args[0].equalsIgnoreCase("history")) {
+            return showHistory(player, guild, args);
+        }
         
         // 切换聊天模式
         ChatManager.ChatMode newMode = plugin.getChatManager().togglePlayerChatMode(player);
@@ -71,9 +78,51 @@ public class ChatCommand implements SubCommand {
         return true;
     }
     
+    /**
+     * 显示公会聊天记录
+     * @param player 玩家
+     * @param guild 玩家所在公会
+     * @param args 命令参数
+     * @return 是否成功
+     */
+    private boolean showHistory(Player player, Guild guild, String[] args) {
+        if (!plugin.getChatHistoryManager().isEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("chat.history-disabled"));
+            return true;
+        }
+
+        int count = DEFAULT_HISTORY_LINES;
+        if (args.length > 1) {
+            try {
+                count = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                player.sendMessage(plugin.getConfigManager().getMessage("chat.history-invalid-count"));
+                return true;
+            }
+        }
+
+        List<String> lines = plugin.getChatHistoryManager().getHistory(guild.getId(), count);
+        if (lines.isEmpty()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("chat.history-empty"));
+            return true;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getMessage("chat.history-header"));
+        for (String line : lines) {
+            player.sendMessage(line);
+        }
+        player.sendMessage(plugin.getConfigManager().getMessage("chat.history-footer"));
+        return true;
+    }
+    
     @Override
     public List<String> tabComplete(Player player, String[] args) {
-        // 没有特定的补全
-        return new ArrayList<>();
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1 && "history".startsWith(args[0].toLowerCase())) {
+            completions.add("history");
+        }
+
+        return completions;
     }
 }
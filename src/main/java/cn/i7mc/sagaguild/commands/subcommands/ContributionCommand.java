@@ -0,0 +1,135 @@
+package cn.i7mc.sagaguild.commands.subcommands;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.data.models.MemberContribution;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 成员贡献命令
+ * 显示公会成员在各类别下的贡献排行
+ */
+public class ContributionCommand implements SubCommand {
+    private static final int TOP_ENTRIES = 10;
+
+    private final SagaGuild plugin;
+
+    public ContributionCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "contribution";
+    }
+
+    @Override
+    public String getDescription() {
+        return "查看公会成员贡献排行";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild contribution [experience|task|war_kill]";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[]{"contrib", "gx"};
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        // 检查玩家是否在公会中
+        Guild guild = plugin.getGuildManager().getPlayerGuild(player.getUniqueId());
+        if (guild == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("guild.not-in-guild"));
+            return true;
+        }
+
+        // 解析贡献类别，默认为公会经验
+        MemberContribution.Type type = MemberContribution.Type.EXPERIENCE;
+        if (args.length > 0) {
+            type = parseType(args[0]);
+            if (type == null) {
+                player.sendMessage(plugin.getConfigManager().getMessage("contribution.unknown-type",
+                        "types", String.join(", ", typeNames())));
+                return true;
+            }
+        }
+
+        List<Map.Entry<UUID, Long>> ranking = plugin.getContributionManager().getRanking(
+                guild.getId(), plugin.getGuildManager().getGuildMemberIds(guild.getId()), type);
+
+        player.sendMessage(plugin.getConfigManager().getMessage("contribution.header",
+                "type", type.getDisplayName()));
+
+        int selfRank = 0;
+        long selfAmount = 0;
+        for (int i = 0; i < ranking.size(); i++) {
+            Map.Entry<UUID, Long> entry = ranking.get(i);
+            if (i < TOP_ENTRIES) {
+                player.sendMessage(plugin.getConfigManager().getMessage("contribution.entry",
+                        "rank", String.valueOf(i + 1),
+                        "player", plugin.getPlayerNameManager().getName(entry.getKey(), "未知"),
+                        "amount", String.valueOf(entry.getValue())));
+            }
+            if (entry.getKey().equals(player.getUniqueId())) {
+                selfRank = i + 1;
+                selfAmount = entry.getValue();
+            }
+        }
+
+        if (selfRank > 0) {
+            player.sendMessage(plugin.getConfigManager().getMessage("contribution.self",
+                    "rank", String.valueOf(selfRank),
+                    "amount", String.valueOf(selfAmount)));
+        }
+        player.sendMessage(plugin.getConfigManager().getMessage("contribution.footer"));
+        return true;
+    }
+
+    /**
+     * 解析贡献类别
+     * @param name 类别名称
+     * @return 贡献类别，无法识别返回null
+     */
+    private MemberContribution.Type parseType(String name) {
+        for (MemberContribution.Type type : MemberContribution.Type.values()) {
+            if (type.name().equalsIgnoreCase(name) || type.getDisplayName().equals(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private List<String> typeNames() {
+        List<String> names = new ArrayList<>();
+        for (MemberContribution.Type type : MemberContribution.Type.values()) {
+            names.add(type.name().toLowerCase());
+        }
+        return names;
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            String arg = args[0].toLowerCase();
+            for (String name : typeNames()) {
+                if (name.startsWith(arg)) {
+                    completions.add(name);
+                }
+            }
+        }
+
+        return completions;
+    }
+}
@@ -2,8 +2,8 @@ package cn.i7mc.sagaguild.commands.subcommands;
 
 import cn.i7mc.sagaguild.SagaGuild;
 import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.config.PluginSettings;
 import cn.i7mc.sagaguild.data.models.Guild;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
@@ -83,11 +83,11 @@ public class CreateCommand implements SubCommand {
         }
         
         // 检查名称和标签长度
-        FileConfiguration config = plugin.getConfig();
-        int minNameLength = config.getInt("guild.min-name-length", 3);
-        int maxNameLength = config.getInt("guild.max-name-length", 16);
-        int minTagLength = config.getInt("guild.min-tag-length", 2);
-        int maxTagLength = config.getInt("guild.max-tag-length", 5);
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        int minNameLength = settings.getMinNameLength();
+        int maxNameLength = settings.getMaxNameLength();
+        int minTagLength = settings.getMinTagLength();
+        int maxTagLength = settings.getMaxTagLength();
         
         if (name.length() < minNameLength) {
             player.sendMessage(plugin.getConfigManager().getMessage("guild.name-too-short", "min", String.valueOf(minNameLength)));
@@ -110,7 +110,7 @@ public class CreateCommand implements SubCommand {
         }
         
         // 检查描述长度
-        int maxDescriptionLength = config.getInt("guild.max-description-length", 100);
+        int maxDescriptionLength = settings.getMaxDescriptionLength();
         if (description.length() > maxDescriptionLength) {
             player.sendMessage(plugin.getConfigManager().getMessage("guild.description-too-long", "max", String.valueOf(maxDescriptionLength)));
             return true;
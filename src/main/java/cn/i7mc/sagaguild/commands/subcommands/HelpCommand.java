@@ -82,6 +82,11 @@ public class HelpCommand implements SubCommand {
             case 3:
                 player.sendMessage("§7/guild activity <list/info/create/join/leave/cancel> [参数...] §f- 管理公会活动");
                 player.sendMessage("§7/guild relation <list/ally/war/break/ceasefire/gui> [公会名] §f- 管理公会关系");
+                player.sendMessage("§7/guild contribution [类别] §f- 查看公会成员贡献排行");
+                player.sendMessage("§7/guild top [类别] [页码] §f- 查看公会排行");
+                if (player.hasPermission("guild.admin")) {
+                    player.sendMessage("§7/guild admin <子命令> [参数...] §f- 管理员诊断命令");
+                }
                 break;
             default:
                 player.sendMessage("§c没有更多帮助信息！");
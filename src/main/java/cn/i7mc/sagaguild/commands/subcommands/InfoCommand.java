@@ -3,14 +3,13 @@ package cn.i7mc.sagaguild.commands.subcommands;
 import cn.i7mc.sagaguild.SagaGuild;
 import cn.i7mc.sagaguild.commands.SubCommand;
 import cn.i7mc.sagaguild.data.models.Guild;
-import cn.i7mc.sagaguild.data.models.GuildMember;
-import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * 公会信息命令
@@ -76,20 +75,12 @@ public class InfoCommand implements SubCommand {
         boolean isPublic = guild.isPublic();
 
         // 获取会长信息
-        OfflinePlayer owner = Bukkit.getOfflinePlayer(guild.getOwnerUuid());
-        String ownerName = owner.getName() != null ? owner.getName() : "未知";
+        String ownerName = plugin.getPlayerNameManager().getName(guild.getOwnerUuid(), "未知");
 
         // 获取成员信息
-        List<GuildMember> members = plugin.getGuildManager().getGuildMembers(guild.getId());
-        int totalMembers = members.size();
-        int onlineMembers = 0;
-
-        for (GuildMember member : members) {
-            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(member.getPlayerUuid());
-            if (offlinePlayer.isOnline()) {
-                onlineMembers++;
-            }
-        }
+        Set<UUID> memberIds = plugin.getGuildManager().getGuildMemberIds(guild.getId());
+        int totalMembers = memberIds.size();
+        int onlineMembers = plugin.getPlayerNameManager().countOnline(memberIds);
 
         // 格式化创建时间
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
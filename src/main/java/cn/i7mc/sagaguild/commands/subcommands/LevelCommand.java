@@ -2,6 +2,7 @@ package cn.i7mc.sagaguild.commands.subcommands;
 
 import cn.i7mc.sagaguild.SagaGuild;
 import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.config.PluginSettings;
 import cn.i7mc.sagaguild.data.models.Guild;
 import org.bukkit.entity.Player;
 
@@ -90,8 +91,9 @@ public class LevelCommand implements SubCommand {
         
         // 显示等级福利
         player.sendMessage("§7等级福利:");
-        player.sendMessage("§7- 领地上限: §f" + (plugin.getConfig().getInt("land.max-claims", 10) + level));
-        player.sendMessage("§7- 银行容量: §f" + (plugin.getConfig().getInt("bank.initial-capacity", 10000) + level * plugin.getConfig().getInt("bank.capacity-increase", 5000)));
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        player.sendMessage("§7- 领地上限: §f" + (settings.getMaxClaims() + level));
+        player.sendMessage("§7- 银行容量: §f" + (int) settings.getBankCapacity(level));
         
         player.sendMessage("§8§m-----------------------");
         
@@ -9,6 +9,7 @@ import org.bukkit.entity.Player;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -177,14 +178,14 @@ public class TaskCommand implements SubCommand {
         
         // 显示时间信息
         SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        player.sendMessage("§7创建时间: §f" + sdf.format(task.getCreatedAt()));
+        player.sendMessage("§7创建时间: §f" + sdf.format(new Date(task.getCreatedAt())));
         
-        if (task.getExpiresAt() != null) {
-            player.sendMessage("§7过期时间: §f" + sdf.format(task.getExpiresAt()));
+        if (task.getExpiresAt() != 0L) {
+            player.sendMessage("§7过期时间: §f" + sdf.format(new Date(task.getExpiresAt())));
         }
         
-        if (task.getCompletedAt() != null) {
-            player.sendMessage("§7完成时间: §f" + sdf.format(task.getCompletedAt()));
+        if (task.isCompleted()) {
+            player.sendMessage("§7完成时间: §f" + sdf.format(new Date(task.getCompletedAt())));
         }
         
         player.sendMessage("§8§m-----------------------");
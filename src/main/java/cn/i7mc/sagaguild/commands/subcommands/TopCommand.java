@@ -0,0 +1,137 @@
+package cn.i7mc.sagaguild.commands.subcommands;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.managers.LeaderboardManager;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 公会排行命令
+ * 显示各类别的公会排行，不带参数时打开排行GUI
+ */
+public class TopCommand implements SubCommand {
+    private static final int ENTRIES_PER_PAGE = 10;
+
+    private final SagaGuild plugin;
+
+    public TopCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "top";
+    }
+
+    @Override
+    public String getDescription() {
+        return "查看公会排行";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild top [类别] [页码]";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[]{"rank", "leaderboard"};
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        // 不带参数时打开排行GUI
+        if (args.length == 0) {
+            plugin.getGuiManager().openLeaderboardGUI(player, LeaderboardManager.Category.LEVEL, 1);
+            return true;
+        }
+
+        LeaderboardManager.Category category = LeaderboardManager.Category.fromName(args[0]);
+        if (category == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("leaderboard.unknown-category",
+                    "categories", String.join(", ", categoryKeys())));
+            return true;
+        }
+
+        int page = 1;
+        if (args.length > 1) {
+            try {
+                page = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                player.sendMessage("§c页码必须是一个有效的数字！");
+                return true;
+            }
+        }
+
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        int total = leaderboard.size(category);
+        if (total == 0) {
+            player.sendMessage(plugin.getConfigManager().getMessage("leaderboard.empty"));
+            return true;
+        }
+
+        int totalPages = (total + ENTRIES_PER_PAGE - 1) / ENTRIES_PER_PAGE;
+        page = Math.max(1, Math.min(page, totalPages));
+        int offset = (page - 1) * ENTRIES_PER_PAGE;
+
+        player.sendMessage(plugin.getConfigManager().getMessage("leaderboard.header",
+                "type", category.getDisplayName(),
+                "page", String.valueOf(page),
+                "pages", String.valueOf(totalPages)));
+
+        int[] guildIds = leaderboard.getRange(category, offset, ENTRIES_PER_PAGE);
+        for (int i = 0; i < guildIds.length; i++) {
+            Guild guild = plugin.getGuildManager().getGuildById(guildIds[i]);
+            if (guild == null) {
+                continue;
+            }
+            player.sendMessage(plugin.getConfigManager().getMessage("leaderboard.entry",
+                    "rank", String.valueOf(offset + i + 1),
+                    "guild", guild.getName(),
+                    "tag", guild.getTag(),
+                    "score", leaderboard.formatScore(category, leaderboard.getScore(category, guild.getId()))));
+        }
+
+        // 显示玩家所在公会的名次
+        Guild ownGuild = plugin.getGuildManager().getPlayerGuild(player.getUniqueId());
+        if (ownGuild != null) {
+            int rank = leaderboard.getRank(category, ownGuild.getId());
+            if (rank > 0) {
+                player.sendMessage(plugin.getConfigManager().getMessage("leaderboard.own-rank",
+                        "rank", String.valueOf(rank),
+                        "score", leaderboard.formatScore(category, leaderboard.getScore(category, ownGuild.getId()))));
+            }
+        }
+
+        player.sendMessage(plugin.getConfigManager().getMessage("leaderboard.footer"));
+        return true;
+    }
+
+    private List<String> categoryKeys() {
+        List<String> keys = new ArrayList<>();
+        for (LeaderboardManager.Category category : LeaderboardManager.Category.values()) {
+            keys.add(category.getKey());
+        }
+        return keys;
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+
+        if (args.length == 1) {
+            String arg = args[0].toLowerCase();
+            for (String key : categoryKeys()) {
+                if (key.startsWith(arg)) {
+                    completions.add(key);
+                }
+            }
+        }
+
+        return completions;
+    }
+}
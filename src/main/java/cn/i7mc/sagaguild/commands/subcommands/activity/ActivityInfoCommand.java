@@ -9,7 +9,6 @@ import cn.i7mc.sagaguild.utils.PlayerUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.text.SimpleDateFormat;
@@ -106,16 +105,7 @@ public class ActivityInfoCommand implements SubCommand {
         }
 
         // 获取创建者名称
-        String creatorName = "未知";
-        Player creator = Bukkit.getPlayer(activity.getCreatorUuid());
-        if (creator != null) {
-            creatorName = creator.getName();
-        } else {
-            creatorName = Bukkit.getOfflinePlayer(activity.getCreatorUuid()).getName();
-            if (creatorName == null) {
-                creatorName = "未知";
-            }
-        }
+        String creatorName = plugin.getPlayerNameManager().getName(activity.getCreatorUuid(), "未知");
 
         // 获取参与者列表
         List<ActivityParticipant> participants = plugin.getActivityManager().getActivityParticipants(activity.getId());
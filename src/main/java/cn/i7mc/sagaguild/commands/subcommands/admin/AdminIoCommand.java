@@ -0,0 +1,115 @@
+package cn.i7mc.sagaguild.commands.subcommands.admin;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.data.BlockingIoGuard;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 查看服务器线程上的数据库访问命令
+ */
+public class AdminIoCommand implements SubCommand {
+    // 单次最多显示的调用位置数量
+    private static final int MAX_ENTRIES = 10;
+
+    private final SagaGuild plugin;
+
+    public AdminIoCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "io";
+    }
+
+    @Override
+    public String getDescription() {
+        return "查看在服务器线程上访问数据库的调用位置";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild admin io [序号|reset]";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        BlockingIoGuard guard = plugin.getDatabaseManager().getIoGuard();
+        if (!guard.isEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.io-disabled"));
+            return true;
+        }
+
+        // 清空记录
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            guard.reset();
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.io-reset"));
+            return true;
+        }
+
+        List<BlockingIoGuard.Offender> offenders = guard.getOffenders();
+
+        // 查看调用栈样本
+        if (args.length > 1) {
+            int index;
+            try {
+                index = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                index = -1;
+            }
+            if (index < 1 || index > offenders.size()) {
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.io-not-found", "index", args[1]));
+                return true;
+            }
+
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.io-stack-header",
+                    "index", String.valueOf(index)));
+            for (String frame : offenders.get(index - 1).getStack()) {
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.io-stack-line", "frame", frame));
+            }
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.footer"));
+            return true;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.io-header"));
+        if (offenders.isEmpty()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.io-empty"));
+        } else {
+            int shown = Math.min(MAX_ENTRIES, offenders.size());
+            for (int i = 0; i < shown; i++) {
+                BlockingIoGuard.Offender offender = offenders.get(i);
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.io-entry",
+                        "index", String.valueOf(i + 1),
+                        "site", offender.getSite(),
+                        "caller", offender.getCaller(),
+                        "count", String.valueOf(offender.getCount()),
+                        "thread", String.valueOf(offender.getLastThread())));
+            }
+            if (offenders.size() > shown) {
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.io-truncated",
+                        "count", String.valueOf(offenders.size() - shown)));
+            }
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.io-hint"));
+        }
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.footer"));
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2 && "reset".startsWith(args[1].toLowerCase())) {
+            completions.add("reset");
+        }
+        return completions;
+    }
+}
@@ -0,0 +1,143 @@
+package cn.i7mc.sagaguild.commands.subcommands.admin;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.metrics.Counter;
+import cn.i7mc.sagaguild.metrics.Gauge;
+import cn.i7mc.sagaguild.metrics.Histogram;
+import cn.i7mc.sagaguild.metrics.Metric;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 查看插件指标命令
+ */
+public class AdminMetricsCommand implements SubCommand {
+    // 单次最多显示的行数
+    private static final int MAX_LINES = 30;
+
+    private final SagaGuild plugin;
+
+    public AdminMetricsCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "metrics";
+    }
+
+    @Override
+    public String getDescription() {
+        return "查看监听器、数据库、缓存和队列指标";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild admin metrics [过滤]";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        if (!plugin.getMetricsManager().isEnabled()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.metrics-disabled"));
+            return true;
+        }
+
+        String filter = args.length > 1 ? args[1].toLowerCase() : null;
+
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.metrics-header"));
+        int shown = 0;
+        int hidden = 0;
+        for (Metric metric : plugin.getMetricsManager().getRegistry().getMetrics()) {
+            String name = metric.getDisplayName();
+            if (filter != null && !name.toLowerCase().contains(filter)) {
+                continue;
+            }
+
+            String line = formatLine(metric, name);
+            if (line == null) {
+                continue;
+            }
+
+            if (shown >= MAX_LINES) {
+                hidden++;
+                continue;
+            }
+            player.sendMessage(line);
+            shown++;
+        }
+
+        if (shown == 0) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.metrics-empty"));
+        } else if (hidden > 0) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.metrics-truncated",
+                    "count", String.valueOf(hidden)));
+        }
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.footer"));
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2) {
+            for (String filter : new String[]{"listener", "dao", "cache", "queue"}) {
+                if (filter.startsWith(args[1].toLowerCase())) {
+                    completions.add(filter);
+                }
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * 格式化单个指标，没有记录的直方图返回null
+     */
+    private String formatLine(Metric metric, String name) {
+        if (metric instanceof Histogram) {
+            Histogram histogram = (Histogram) metric;
+            long count = histogram.getCount();
+            if (count == 0) {
+                return null;
+            }
+            return plugin.getConfigManager().getMessage("admin.metrics-histogram",
+                    "name", name,
+                    "count", String.valueOf(count),
+                    "p50", formatNanos(histogram.getQuantile(0.5)),
+                    "p99", formatNanos(histogram.getQuantile(0.99)),
+                    "max", formatNanos(histogram.getMax()));
+        }
+
+        long value;
+        if (metric instanceof Counter) {
+            value = ((Counter) metric).get();
+        } else if (metric instanceof Gauge) {
+            value = ((Gauge) metric).get();
+        } else {
+            return null;
+        }
+        return plugin.getConfigManager().getMessage("admin.metrics-value",
+                "name", name,
+                "value", String.valueOf(value));
+    }
+
+    /**
+     * 将纳秒格式化为微秒或毫秒
+     * @param nanos 纳秒
+     * @return 显示文本
+     */
+    private String formatNanos(long nanos) {
+        if (nanos >= 1_000_000L) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1fμs", nanos / 1000.0);
+    }
+}
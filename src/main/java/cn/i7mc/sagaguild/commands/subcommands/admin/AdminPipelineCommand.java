@@ -0,0 +1,95 @@
+package cn.i7mc.sagaguild.commands.subcommands.admin;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.listeners.pipeline.PipelineTimings;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 查看公会事件处理阶段耗时命令
+ */
+public class AdminPipelineCommand implements SubCommand {
+    private final SagaGuild plugin;
+
+    public AdminPipelineCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "pipeline";
+    }
+
+    @Override
+    public String getDescription() {
+        return "查看公会事件各处理阶段的耗时";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild admin pipeline [reset]";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[]{"timings"};
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        PipelineTimings timings = plugin.getEventDispatcher().getTimings();
+
+        // 清空统计
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            timings.reset();
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.pipeline-reset"));
+            return true;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.pipeline-header"));
+        boolean empty = true;
+        for (PipelineTimings.EventType type : PipelineTimings.EventType.values()) {
+            for (PipelineTimings.Stage stage : PipelineTimings.Stage.values()) {
+                long count = timings.getCount(type, stage);
+                if (count == 0) {
+                    continue;
+                }
+
+                empty = false;
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.pipeline-entry",
+                        "event", type.getDisplayName(),
+                        "stage", stage.getDisplayName(),
+                        "count", String.valueOf(count),
+                        "avg", formatMicros(timings.getAverageNanos(type, stage)),
+                        "max", formatMicros(timings.getMaxNanos(type, stage))));
+            }
+        }
+
+        if (empty) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.pipeline-empty"));
+        }
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.footer"));
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2 && "reset".startsWith(args[1].toLowerCase())) {
+            completions.add("reset");
+        }
+        return completions;
+    }
+
+    /**
+     * 将纳秒格式化为微秒
+     * @param nanos 纳秒
+     * @return 显示文本
+     */
+    private String formatMicros(long nanos) {
+        return String.format("%.1fμs", nanos / 1000.0);
+    }
+}
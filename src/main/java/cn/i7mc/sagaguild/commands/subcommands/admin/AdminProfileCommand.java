@@ -0,0 +1,123 @@
+package cn.i7mc.sagaguild.commands.subcommands.admin;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.metrics.jfr.ProfileRecorder;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 限时JFR记录命令
+ * 记录结束后文件保存在 plugins/SagaGuild/profiles/，可用JDK Mission Control打开
+ */
+public class AdminProfileCommand implements SubCommand {
+    private static final int MIN_SECONDS = 5;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SagaGuild plugin;
+
+    public AdminProfileCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "profile";
+    }
+
+    @Override
+    public String getDescription() {
+        return "录制一段时间的JFR性能记录";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild admin profile <秒数>";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        int maxSeconds = Math.max(MIN_SECONDS, plugin.getConfig().getInt("metrics.profile-max-seconds", 300));
+
+        int seconds;
+        try {
+            seconds = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        } catch (NumberFormatException e) {
+            seconds = -1;
+        }
+        if (seconds < MIN_SECONDS || seconds > maxSeconds) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.profile-usage",
+                    "min", String.valueOf(MIN_SECONDS), "max", String.valueOf(maxSeconds)));
+            return true;
+        }
+
+        ProfileRecorder profiler = plugin.getMetricsManager().getProfiler();
+        if (profiler.isRunning()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.profile-running"));
+            return true;
+        }
+
+        File folder = new File(plugin.getDataFolder(), "profiles");
+        Path file = new File(folder, "sagaguild-" + LocalDateTime.now().format(FILE_TIME) + ".jfr").toPath();
+        UUID playerUuid = player.getUniqueId();
+
+        try {
+            profiler.start(Duration.ofSeconds(seconds), file, path -> notifyFinished(playerUuid, path));
+        } catch (IOException | ParseException | IllegalStateException e) {
+            plugin.getLogger().severe("启动JFR记录失败: " + e.getMessage());
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.profile-failed"));
+            return true;
+        }
+
+        plugin.getLogger().info(player.getName() + " 开始了 " + seconds + " 秒的JFR记录");
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.profile-started",
+                "seconds", String.valueOf(seconds)));
+        return true;
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2) {
+            for (String seconds : new String[]{"30", "60", "120"}) {
+                if (seconds.startsWith(args[1])) {
+                    completions.add(seconds);
+                }
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * 记录写入文件后通知发起的管理员（在线时）和控制台
+     * @param playerUuid 发起记录的玩家UUID
+     * @param file 记录文件
+     */
+    private void notifyFinished(UUID playerUuid, Path file) {
+        plugin.getLogger().info("JFR记录已保存: " + file.toAbsolutePath());
+
+        // 插件卸载时提前结束的记录只写入日志
+        Player player = plugin.isEnabled() ? Bukkit.getPlayer(playerUuid) : null;
+        if (player != null) {
+            String path = plugin.getDataFolder().toPath().toAbsolutePath()
+                    .relativize(file.toAbsolutePath()).toString();
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.profile-finished", "file", path));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package cn.i7mc.sagaguild.commands.subcommands.admin;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.commands.SubCommand;
+import cn.i7mc.sagaguild.managers.TraceManager;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 事件录制命令
+ * 录制文件可用基准测试工程中的回放工具离线回放
+ */
+public class AdminTraceCommand implements SubCommand {
+    private final SagaGuild plugin;
+
+    public AdminTraceCommand(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getName() {
+        return "trace";
+    }
+
+    @Override
+    public String getDescription() {
+        return "录制玩家事件用于离线回放测试";
+    }
+
+    @Override
+    public String getSyntax() {
+        return "/guild admin trace <start|stop|status>";
+    }
+
+    @Override
+    public String[] getAliases() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean execute(Player player, String[] args) {
+        String action = args.length > 1 ? args[1].toLowerCase() : "status";
+
+        switch (action) {
+            case "start":
+                return handleStart(player);
+            case "stop":
+                return handleStop(player);
+            case "status":
+                return handleStatus(player);
+            default:
+                player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-usage"));
+                return true;
+        }
+    }
+
+    @Override
+    public List<String> tabComplete(Player player, String[] args) {
+        List<String> completions = new ArrayList<>();
+        if (args.length == 2) {
+            for (String action : new String[]{"start", "stop", "status"}) {
+                if (action.startsWith(args[1].toLowerCase())) {
+                    completions.add(action);
+                }
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * 开始录制
+     */
+    private boolean handleStart(Player player) {
+        TraceManager traceManager = plugin.getTraceManager();
+        if (traceManager.isRecording()) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-running"));
+            return true;
+        }
+
+        File file;
+        try {
+            file = traceManager.start();
+        } catch (IOException | IllegalStateException e) {
+            plugin.getLogger().severe("开始事件录制失败: " + e.getMessage());
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-failed"));
+            return true;
+        }
+
+        plugin.getLogger().info(player.getName() + " 开始了事件录制: " + file.getPath());
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-started", "file", file.getName()));
+        return true;
+    }
+
+    /**
+     * 停止录制
+     */
+    private boolean handleStop(Player player) {
+        TraceManager traceManager = plugin.getTraceManager();
+        File file = traceManager.getFile();
+        long written = traceManager.stop();
+        if (written < 0) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-not-running"));
+            return true;
+        }
+
+        plugin.getLogger().info("事件录制已结束: " + file.getPath() + " (" + written + " 个事件)");
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-stopped",
+                "count", String.valueOf(written),
+                "file", file.getName()));
+        return true;
+    }
+
+    /**
+     * 查看录制状态
+     */
+    private boolean handleStatus(Player player) {
+        TraceManager traceManager = plugin.getTraceManager();
+        File file = traceManager.getFile();
+        if (file == null) {
+            player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-not-running"));
+            return true;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getMessage("admin.trace-status",
+                "file", file.getName(),
+                "seconds", String.valueOf(traceManager.getElapsedSeconds()),
+                "count", String.valueOf(traceManager.getCaptured())));
+        return true;
+    }
+}
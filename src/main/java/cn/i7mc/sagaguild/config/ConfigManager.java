@@ -1,6 +1,7 @@
 package cn.i7mc.sagaguild.config;
 
 import cn.i7mc.sagaguild.SagaGuild;
+import net.kyori.adventure.text.Component;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -8,6 +9,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 配置管理器
@@ -18,6 +22,12 @@ public class ConfigManager {
     private FileConfiguration config;
     private FileConfiguration messages;
 
+    // 消息路径 -> 预编译模板，重载时整体替换
+    private volatile Map<String, MessageTemplate> messageTemplates = Collections.emptyMap();
+
+    // 设置快照，重载时整体替换
+    private volatile PluginSettings settings = PluginSettings.DEFAULTS;
+
     public ConfigManager(SagaGuild plugin) {
         this.plugin = plugin;
     }
@@ -39,6 +49,12 @@ public class ConfigManager {
 
         // 确保配置文件是最新的
         updateConfigs();
+
+        // 加载设置快照
+        settings = PluginSettings.load(config, plugin.getLogger());
+
+        // 编译消息模板
+        compileMessages();
     }
 
     /**
@@ -88,6 +104,35 @@ public class ConfigManager {
 
         File messagesFile = new File(plugin.getDataFolder(), "messages.yml");
         messages = YamlConfiguration.loadConfiguration(messagesFile);
+
+        // 重新加载设置快照
+        settings = PluginSettings.load(config, plugin.getLogger());
+
+        // 重新编译消息模板
+        compileMessages();
+    }
+
+    /**
+     * 将所有消息编译为模板
+     * 前缀和颜色代码在编译时替换，编译完成后一次性替换旧模板
+     */
+    private void compileMessages() {
+        String prefix = messages.getString("prefix", "&8[&bSagaGuild&8] &f");
+
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (String key : messages.getKeys(true)) {
+            if (!messages.isString(key)) {
+                continue;
+            }
+            String message = messages.getString(key);
+            if (message == null) {
+                continue;
+            }
+            message = message.replace("{prefix}", prefix).replace("&", "§");
+            templates.put(key, MessageTemplate.compile(message));
+        }
+
+        messageTemplates = templates;
     }
 
     /**
@@ -98,6 +143,14 @@ public class ConfigManager {
         return config;
     }
 
+    /**
+     * 获取设置快照
+     * @return 设置快照
+     */
+    public PluginSettings getSettings() {
+        return settings;
+    }
+
     /**
      * 获取消息配置
      * @return 消息配置对象
@@ -112,23 +165,8 @@ public class ConfigManager {
      * @return 格式化后的消息
      */
     public String getMessage(String path) {
-        String message = messages.getString(path);
-        if (message == null) {
-            // 记录调试信息
-            if (isDebugEnabled()) {
-                plugin.getLogger().warning("消息未找到: " + path);
-                plugin.getLogger().warning("当前加载的消息键: " + messages.getKeys(true).size() + " 个");
-                plugin.getLogger().warning("检查 messages.yml 文件是否存在并且包含该消息键");
-            }
-            return "消息未找到: " + path;
-        }
-
-        // 替换前缀
-        String prefix = messages.getString("prefix", "&8[&bSagaGuild&8] &f");
-        message = message.replace("{prefix}", prefix);
-
-        // 替换颜色代码
-        return message.replace("&", "§");
+        MessageTemplate template = getTemplate(path);
+        return template != null ? template.getRaw() : "消息未找到: " + path;
     }
 
     /**
@@ -138,16 +176,35 @@ public class ConfigManager {
      * @return 格式化后的消息
      */
     public String getMessage(String path, String... placeholders) {
-        String message = getMessage(path);
+        MessageTemplate template = getTemplate(path);
+        return template != null ? template.render(placeholders) : "消息未找到: " + path;
+    }
 
-        // 替换占位符
-        for (int i = 0; i < placeholders.length; i += 2) {
-            if (i + 1 < placeholders.length) {
-                message = message.replace("{" + placeholders[i] + "}", placeholders[i + 1]);
-            }
-        }
+    /**
+     * 获取消息组件，不含占位符的消息直接使用预先构建的组件
+     * @param path 消息路径
+     * @param placeholders 占位符数组，格式为 {占位符, 值, 占位符, 值, ...}
+     * @return 消息组件
+     */
+    public Component getMessageComponent(String path, String... placeholders) {
+        MessageTemplate template = getTemplate(path);
+        return template != null ? template.renderComponent(placeholders) : Component.text("消息未找到: " + path);
+    }
 
-        return message;
+    /**
+     * 获取消息模板
+     * @param path 消息路径
+     * @return 消息模板，不存在返回null
+     */
+    private MessageTemplate getTemplate(String path) {
+        MessageTemplate template = messageTemplates.get(path);
+        if (template == null && isDebugEnabled()) {
+            // 记录调试信息
+            plugin.getLogger().warning("消息未找到: " + path);
+            plugin.getLogger().warning("当前加载的消息键: " + messages.getKeys(true).size() + " 个");
+            plugin.getLogger().warning("检查 messages.yml 文件是否存在并且包含该消息键");
+        }
+        return template;
     }
 
     /**
@@ -155,6 +212,6 @@ public class ConfigManager {
      * @return 是否启用调试模式
      */
     public boolean isDebugEnabled() {
-        return config.getBoolean("debug", false);
+        return settings.isDebug();
     }
 }
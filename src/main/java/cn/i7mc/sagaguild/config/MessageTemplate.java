@@ -0,0 +1,160 @@
+package cn.i7mc.sagaguild.config;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 预编译的消息模板
+ * 加载时拆分为文本段和占位符段，渲染时只需一次拼接
+ */
+public final class MessageTemplate {
+    private final String raw;
+
+    // 文本段为原文，占位符段为占位符名称
+    private final String[] segments;
+    private final boolean[] placeholder;
+
+    // 不含占位符时预先构建的组件
+    private final Component component;
+
+    private MessageTemplate(String raw, String[] segments, boolean[] placeholder) {
+        this.raw = raw;
+        this.segments = segments;
+        this.placeholder = placeholder;
+        this.component = hasPlaceholders(placeholder) ? null : LegacyComponentSerializer.legacySection().deserialize(raw);
+    }
+
+    /**
+     * 编译消息模板
+     * @param message 已替换前缀和颜色代码的消息
+     * @return 消息模板
+     */
+    public static MessageTemplate compile(String message) {
+        List<String> segments = new ArrayList<>();
+        List<Boolean> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int index = 0;
+        int length = message.length();
+        while (index < length) {
+            int open = message.indexOf('{', index);
+            if (open < 0) {
+                break;
+            }
+            int close = message.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+
+            // 占位符名称中不能再出现左括号
+            int nestedOpen = message.indexOf('{', open + 1);
+            if (nestedOpen >= 0 && nestedOpen < close) {
+                index = nestedOpen;
+                continue;
+            }
+
+            if (close == open + 1) {
+                index = close + 1;
+                continue;
+            }
+
+            if (open > literalStart) {
+                segments.add(message.substring(literalStart, open));
+                placeholders.add(false);
+            }
+            segments.add(message.substring(open + 1, close));
+            placeholders.add(true);
+
+            literalStart = close + 1;
+            index = close + 1;
+        }
+
+        if (literalStart < length) {
+            segments.add(message.substring(literalStart));
+            placeholders.add(false);
+        }
+
+        boolean[] flags = new boolean[placeholders.size()];
+        for (int i = 0; i < flags.length; i++) {
+            flags[i] = placeholders.get(i);
+        }
+        return new MessageTemplate(message, segments.toArray(new String[0]), flags);
+    }
+
+    /**
+     * 渲染消息
+     * 未提供的占位符保持原样
+     * @param values 占位符数组，格式为 {占位符, 值, 占位符, 值, ...}
+     * @return 渲染后的消息
+     */
+    public String render(String... values) {
+        if (component != null || values == null || values.length < 2) {
+            return raw;
+        }
+
+        StringBuilder builder = new StringBuilder(raw.length() + 32);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!placeholder[i]) {
+                builder.append(segment);
+                continue;
+            }
+
+            String value = lookup(segment, values);
+            if (value != null) {
+                builder.append(value);
+            } else {
+                builder.append('{').append(segment).append('}');
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 渲染为组件
+     * 不含占位符的消息直接返回预先构建的组件
+     * @param values 占位符数组
+     * @return 消息组件
+     */
+    public Component renderComponent(String... values) {
+        if (component != null) {
+            return component;
+        }
+        return LegacyComponentSerializer.legacySection().deserialize(render(values));
+    }
+
+    /**
+     * 获取未渲染的消息
+     * @return 消息原文
+     */
+    public String getRaw() {
+        return raw;
+    }
+
+    /**
+     * 查找占位符的值
+     * @param name 占位符名称
+     * @param values 占位符数组
+     * @return 值，未提供返回null
+     */
+    private static String lookup(String name, String[] values) {
+        for (int i = 0; i + 1 < values.length; i += 2) {
+            if (name.equals(values[i])) {
+                return values[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasPlaceholders(boolean[] placeholder) {
+        for (boolean flag : placeholder) {
+            if (flag) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
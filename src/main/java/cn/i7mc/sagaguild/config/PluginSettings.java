@@ -0,0 +1,375 @@
+package cn.i7mc.sagaguild.config;
+
+import cn.i7mc.sagaguild.managers.ExperienceManager;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.util.logging.Logger;
+
+/**
+ * 插件设置快照
+ * 启动和重载时从配置文件读取并校验，之后只读
+ * 按等级变化的数值预先计算为数组，热路径只需读取字段或数组下标
+ */
+public final class PluginSettings {
+
+    /**
+     * 默认设置，配置尚未加载时使用
+     */
+    public static final PluginSettings DEFAULTS = load(new YamlConfiguration(), null);
+
+    // 公会设置
+    private final double creationCost;
+    private final int minNameLength;
+    private final int maxNameLength;
+    private final int minTagLength;
+    private final int maxTagLength;
+    private final int maxDescriptionLength;
+    private final int maxAnnouncementLength;
+
+    // 领地设置
+    private final int maxClaims;
+    private final double claimCost;
+
+    // 等级设置，数组下标为等级
+    private final int maxLevel;
+    private final int[] maxMembersByLevel;
+    private final int[] nextLevelExperience;
+    private final double[] bankCapacityByLevel;
+
+    // 公会经验冷却时间（毫秒），下标为行为序号
+    private final long[] xpCooldownMillis;
+
+    // 预编译的公会经验规则
+    private final XpRuleTable xpRules;
+
+    // 刷经验检测，报告间隔为毫秒
+    private final boolean farmDetectionEnabled;
+    private final int farmMinActions;
+    private final double farmRepeatRatio;
+    private final long farmReportInterval;
+
+    // 公会战设置（分钟）
+    private final int warDuration;
+    private final int warPreparationTime;
+    private final int warMinParticipants;
+
+    // 银行设置
+    private final boolean bankEnabled;
+    private final double bankInitialCapacity;
+    private final double bankCapacityIncrease;
+
+    // 聊天设置，颜色代码已替换
+    private final boolean chatEnabled;
+    private final String chatFormat;
+    private final String allyChatFormat;
+    private final MessageTemplate chatTemplate;
+    private final MessageTemplate allyChatTemplate;
+
+    // 聊天频率限制，速率为每秒恢复的消息数
+    private final double guildChatRate;
+    private final int guildChatBurst;
+    private final double allyChatRate;
+    private final int allyChatBurst;
+    private final int duplicateWindow;
+    private final int duplicateSeconds;
+
+    // 联盟设置
+    private final boolean allianceBlocProtection;
+
+    private final boolean debug;
+
+    private PluginSettings(FileConfiguration config, Logger logger) {
+        creationCost = Math.max(0, config.getDouble("guild.creation-cost", 1000));
+        minNameLength = positive(config, "guild.min-name-length", 3, logger);
+        maxNameLength = atLeast(config, "guild.max-name-length", 16, minNameLength, logger);
+        minTagLength = positive(config, "guild.min-tag-length", 2, logger);
+        maxTagLength = atLeast(config, "guild.max-tag-length", 5, minTagLength, logger);
+        maxDescriptionLength = positive(config, "guild.max-description-length", 100, logger);
+        maxAnnouncementLength = positive(config, "guild.max-announcement-length", 200, logger);
+
+        maxClaims = Math.max(0, config.getInt("land.max-claims", 10));
+        claimCost = Math.max(0, config.getDouble("land.claim-cost", 500));
+
+        maxLevel = positive(config, "levels.max-level", 10, logger);
+        int baseExp = positive(config, "levels.base-exp", 1000, logger);
+        int expIncrease = Math.max(0, config.getInt("levels.exp-increase", 500));
+
+        bankEnabled = config.getBoolean("bank.enabled", true);
+        bankInitialCapacity = Math.max(0, config.getDouble("bank.initial-capacity", 10000));
+        bankCapacityIncrease = Math.max(0, config.getDouble("bank.capacity-increase", 5000));
+
+        // 预先计算每个等级的数值
+        maxMembersByLevel = new int[maxLevel + 1];
+        nextLevelExperience = new int[maxLevel + 1];
+        bankCapacityByLevel = new double[maxLevel + 1];
+        for (int level = 0; level <= maxLevel; level++) {
+            int maxMembers = config.getInt("levels.max-members-per-level." + level, -1);
+            if (maxMembers < 0) {
+                maxMembers = defaultMaxMembers(level);
+            }
+            maxMembersByLevel[level] = maxMembers;
+            nextLevelExperience[level] = baseExp + expIncrease * Math.max(0, level - 1);
+            bankCapacityByLevel[level] = bankInitialCapacity + level * bankCapacityIncrease;
+        }
+
+        ExperienceManager.XpAction[] actions = ExperienceManager.XpAction.values();
+        xpCooldownMillis = new long[actions.length];
+        for (ExperienceManager.XpAction action : actions) {
+            long seconds = Math.max(0, config.getLong("experience.cooldowns." + action.getConfigKey(), 60));
+            xpCooldownMillis[action.ordinal()] = seconds * 1000L;
+        }
+        xpRules = XpRuleTable.compile(config, logger);
+        farmDetectionEnabled = config.getBoolean("experience.farm-detection.enabled", true);
+        farmMinActions = positive(config, "experience.farm-detection.min-actions", 30, logger);
+        farmRepeatRatio = Math.max(0, Math.min(1, config.getDouble("experience.farm-detection.repeat-ratio", 0.6)));
+        farmReportInterval = Math.max(0, config.getLong("experience.farm-detection.report-interval", 300)) * 1000L;
+
+        warDuration = positive(config, "war.duration", 30, logger);
+        warPreparationTime = Math.max(0, config.getInt("war.preparation-time", 5));
+        warMinParticipants = Math.max(0, config.getInt("war.min-participants", 3));
+
+        chatEnabled = config.getBoolean("chat.enabled", true);
+        chatFormat = config.getString("chat.format", "&8[&b公会&8] &f{player}: &7{message}").replace("&", "§");
+        allyChatFormat = config.getString("chat.ally-format", "&8[&d联盟&8] &f{player}: &7{message}").replace("&", "§");
+        chatTemplate = MessageTemplate.compile(chatFormat);
+        allyChatTemplate = MessageTemplate.compile(allyChatFormat);
+        guildChatRate = Math.max(0, config.getDouble("chat.rate-limit.guild.rate", 1.0));
+        guildChatBurst = Math.max(0, config.getInt("chat.rate-limit.guild.burst", 5));
+        allyChatRate = Math.max(0, config.getDouble("chat.rate-limit.alliance.rate", 0.5));
+        allyChatBurst = Math.max(0, config.getInt("chat.rate-limit.alliance.burst", 3));
+        duplicateWindow = Math.max(0, config.getInt("chat.rate-limit.duplicate-window", 3));
+        duplicateSeconds = Math.max(0, config.getInt("chat.rate-limit.duplicate-seconds", 30));
+
+        allianceBlocProtection = config.getBoolean("alliance.bloc-protection", false);
+
+        debug = config.getBoolean("debug", false);
+    }
+
+    /**
+     * 从配置文件加载设置
+     * @param config 配置对象
+     * @param logger 用于输出无效配置的日志，可为null
+     * @return 设置快照
+     */
+    public static PluginSettings load(FileConfiguration config, Logger logger) {
+        return new PluginSettings(config, logger);
+    }
+
+    /**
+     * 读取正整数配置，无效时使用默认值
+     */
+    private static int positive(FileConfiguration config, String path, int def, Logger logger) {
+        int value = config.getInt(path, def);
+        if (value <= 0) {
+            warn(logger, path, value, def);
+            return def;
+        }
+        return value;
+    }
+
+    /**
+     * 读取不小于指定值的整数配置，无效时取下限与默认值中的较大者
+     */
+    private static int atLeast(FileConfiguration config, String path, int def, int min, Logger logger) {
+        int value = config.getInt(path, def);
+        if (value < min) {
+            int fallback = Math.max(def, min);
+            warn(logger, path, value, fallback);
+            return fallback;
+        }
+        return value;
+    }
+
+    private static void warn(Logger logger, String path, int value, int fallback) {
+        if (logger != null) {
+            logger.warning("配置项 " + path + " 的值无效: " + value + "，已使用 " + fallback);
+        }
+    }
+
+    /**
+     * 未配置的等级默认最大成员数量：10 + (等级 - 1) * 10，不超过100
+     */
+    private static int defaultMaxMembers(int level) {
+        return Math.min(100, 10 + (level - 1) * 10);
+    }
+
+    public double getCreationCost() {
+        return creationCost;
+    }
+
+    public int getMinNameLength() {
+        return minNameLength;
+    }
+
+    public int getMaxNameLength() {
+        return maxNameLength;
+    }
+
+    public int getMinTagLength() {
+        return minTagLength;
+    }
+
+    public int getMaxTagLength() {
+        return maxTagLength;
+    }
+
+    public int getMaxDescriptionLength() {
+        return maxDescriptionLength;
+    }
+
+    public int getMaxAnnouncementLength() {
+        return maxAnnouncementLength;
+    }
+
+    public int getMaxClaims() {
+        return maxClaims;
+    }
+
+    public double getClaimCost() {
+        return claimCost;
+    }
+
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * 获取指定等级的最大成员数量
+     * @param level 公会等级
+     * @return 最大成员数量
+     */
+    public int getMaxMembers(int level) {
+        if (level >= 0 && level < maxMembersByLevel.length) {
+            return maxMembersByLevel[level];
+        }
+        return defaultMaxMembers(level);
+    }
+
+    /**
+     * 获取指定等级升到下一级所需经验
+     * @param level 公会等级
+     * @return 所需经验
+     */
+    public int getNextLevelExperience(int level) {
+        int index = Math.max(0, Math.min(level, nextLevelExperience.length - 1));
+        return nextLevelExperience[index];
+    }
+
+    /**
+     * 获取指定等级的银行容量
+     * @param level 公会等级
+     * @return 银行容量
+     */
+    public double getBankCapacity(int level) {
+        if (level >= 0 && level < bankCapacityByLevel.length) {
+            return bankCapacityByLevel[level];
+        }
+        return bankInitialCapacity + level * bankCapacityIncrease;
+    }
+
+    /**
+     * 获取行为获得公会经验的冷却时间
+     * @param action 行为
+     * @return 冷却时间（毫秒），0表示不限制
+     */
+    public long getXpCooldown(ExperienceManager.XpAction action) {
+        return xpCooldownMillis[action.ordinal()];
+    }
+
+    public XpRuleTable getXpRules() {
+        return xpRules;
+    }
+
+    public boolean isFarmDetectionEnabled() {
+        return farmDetectionEnabled;
+    }
+
+    public int getFarmMinActions() {
+        return farmMinActions;
+    }
+
+    public double getFarmRepeatRatio() {
+        return farmRepeatRatio;
+    }
+
+    public long getFarmReportInterval() {
+        return farmReportInterval;
+    }
+
+    public int getWarDuration() {
+        return warDuration;
+    }
+
+    public int getWarPreparationTime() {
+        return warPreparationTime;
+    }
+
+    public int getWarMinParticipants() {
+        return warMinParticipants;
+    }
+
+    public boolean isBankEnabled() {
+        return bankEnabled;
+    }
+
+    public double getBankInitialCapacity() {
+        return bankInitialCapacity;
+    }
+
+    public double getBankCapacityIncrease() {
+        return bankCapacityIncrease;
+    }
+
+    public boolean isChatEnabled() {
+        return chatEnabled;
+    }
+
+    public String getChatFormat() {
+        return chatFormat;
+    }
+
+    public String getAllyChatFormat() {
+        return allyChatFormat;
+    }
+
+    public MessageTemplate getChatTemplate() {
+        return chatTemplate;
+    }
+
+    public MessageTemplate getAllyChatTemplate() {
+        return allyChatTemplate;
+    }
+
+    public double getGuildChatRate() {
+        return guildChatRate;
+    }
+
+    public int getGuildChatBurst() {
+        return guildChatBurst;
+    }
+
+    public double getAllyChatRate() {
+        return allyChatRate;
+    }
+
+    public int getAllyChatBurst() {
+        return allyChatBurst;
+    }
+
+    public int getDuplicateWindow() {
+        return duplicateWindow;
+    }
+
+    public int getDuplicateSeconds() {
+        return duplicateSeconds;
+    }
+
+    public boolean isAllianceBlocProtection() {
+        return allianceBlocProtection;
+    }
+
+    public boolean isDebug() {
+        return debug;
+    }
+}
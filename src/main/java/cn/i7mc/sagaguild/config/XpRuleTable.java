@@ -0,0 +1,332 @@
+package cn.i7mc.sagaguild.config;
+
+import cn.i7mc.sagaguild.managers.ExperienceManager.XpAction;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Tag;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * 预编译的公会经验规则表
+ * 加载时把 xp-rules 配置按行为和目标（方块、物品或实体类型）展开为数组，
+ * 匹配时只需按行为序号和目标序号取出候选规则，再检查世界和领地条件
+ */
+public final class XpRuleTable {
+
+    /**
+     * 领地条件
+     */
+    public enum Territory {
+        ANY,
+        OWN,
+        OTHER,
+        WILD
+    }
+
+    /**
+     * 单条经验规则
+     */
+    public static final class Rule {
+        private final int index;
+        private final String[] worlds;
+        private final Territory territory;
+        private final double multiplier;
+        private final int capPerHour;
+
+        private Rule(int index, String[] worlds, Territory territory, double multiplier, int capPerHour) {
+            this.index = index;
+            this.worlds = worlds;
+            this.territory = territory;
+            this.multiplier = multiplier;
+            this.capPerHour = capPerHour;
+        }
+
+        /**
+         * 获取规则在配置中的序号
+         * @return 规则序号
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * 检查规则是否在指定世界生效
+         * @param worldName 世界名称
+         * @return 是否生效
+         */
+        public boolean matchesWorld(String worldName) {
+            if (worlds == null) {
+                return true;
+            }
+            for (String world : worlds) {
+                if (world.equals(worldName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public Territory getTerritory() {
+            return territory;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public int getCapPerHour() {
+            return capPerHour;
+        }
+    }
+
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    // 各行为的基础经验，下标为行为序号
+    private final int[] baseXp;
+
+    // 行为序号 -> 目标序号 -> 按配置顺序排列的候选规则，没有规则的行为为null
+    private final Rule[][][] dispatch;
+
+    // 行为序号 -> 不限目标的规则，目标未知时使用
+    private final Rule[][] untargeted;
+
+    private final int ruleCount;
+
+    private XpRuleTable(int[] baseXp, Rule[][][] dispatch, Rule[][] untargeted, int ruleCount) {
+        this.baseXp = baseXp;
+        this.dispatch = dispatch;
+        this.untargeted = untargeted;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * 从配置文件编译规则表
+     * @param config 配置对象
+     * @param logger 用于输出无效配置的日志，可为null
+     * @return 规则表
+     */
+    public static XpRuleTable compile(FileConfiguration config, Logger logger) {
+        XpAction[] actions = XpAction.values();
+
+        int[] baseXp = new int[actions.length];
+        for (XpAction action : actions) {
+            baseXp[action.ordinal()] = Math.max(0, config.getInt("experience.base." + action.getConfigKey(),
+                    action.getDefaultXp()));
+        }
+
+        // 解析规则，targets为null表示不限目标
+        List<XpAction> ruleActions = new ArrayList<>();
+        List<boolean[]> ruleTargets = new ArrayList<>();
+        List<Rule> rules = new ArrayList<>();
+        List<Map<?, ?>> entries = config.getMapList("xp-rules");
+        for (int i = 0; i < entries.size(); i++) {
+            Map<?, ?> entry = entries.get(i);
+            XpAction action = parseAction(entry.get("event"));
+            if (action == null) {
+                warn(logger, i, "未知的事件类型: " + entry.get("event"));
+                continue;
+            }
+
+            boolean[] targets = null;
+            Object targetList = entry.get("targets");
+            if (targetList instanceof List && !((List<?>) targetList).isEmpty()) {
+                targets = new boolean[targetValues(action).length];
+                for (Object target : (List<?>) targetList) {
+                    if (!markTarget(action, String.valueOf(target), targets)) {
+                        warn(logger, i, "未知的目标: " + target);
+                    }
+                }
+            }
+
+            String[] worlds = null;
+            Object worldList = entry.get("worlds");
+            if (worldList instanceof List && !((List<?>) worldList).isEmpty()) {
+                List<?> list = (List<?>) worldList;
+                worlds = new String[list.size()];
+                for (int w = 0; w < worlds.length; w++) {
+                    worlds[w] = String.valueOf(list.get(w));
+                }
+            }
+
+            Territory territory = Territory.ANY;
+            Object territoryValue = entry.get("territory");
+            if (territoryValue != null) {
+                try {
+                    territory = Territory.valueOf(String.valueOf(territoryValue).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    warn(logger, i, "未知的领地条件: " + territoryValue);
+                }
+            }
+
+            double multiplier = Math.max(0, toDouble(entry.get("multiplier"), 1.0));
+            int capPerHour = (int) Math.max(0, toDouble(entry.get("cap-per-hour"), 0));
+
+            ruleActions.add(action);
+            ruleTargets.add(targets);
+            rules.add(new Rule(rules.size(), worlds, territory, multiplier, capPerHour));
+        }
+
+        // 按行为和目标展开为候选规则数组，候选相同的目标共用同一个数组
+        Rule[][][] dispatch = new Rule[actions.length][][];
+        Rule[][] untargeted = new Rule[actions.length][];
+        for (XpAction action : actions) {
+            List<Rule> anyTarget = new ArrayList<>();
+            boolean hasRules = false;
+            for (int r = 0; r < rules.size(); r++) {
+                if (ruleActions.get(r) == action) {
+                    hasRules = true;
+                    if (ruleTargets.get(r) == null) {
+                        anyTarget.add(rules.get(r));
+                    }
+                }
+            }
+            untargeted[action.ordinal()] = anyTarget.toArray(NO_RULES);
+            if (!hasRules) {
+                continue;
+            }
+
+            int targetCount = targetValues(action).length;
+            Rule[][] byTarget = new Rule[targetCount][];
+            Map<List<Rule>, Rule[]> shared = new HashMap<>();
+            for (int ordinal = 0; ordinal < targetCount; ordinal++) {
+                List<Rule> candidates = new ArrayList<>();
+                for (int r = 0; r < rules.size(); r++) {
+                    boolean[] targets = ruleTargets.get(r);
+                    if (ruleActions.get(r) == action && (targets == null || targets[ordinal])) {
+                        candidates.add(rules.get(r));
+                    }
+                }
+                byTarget[ordinal] = shared.computeIfAbsent(candidates, list -> list.toArray(NO_RULES));
+            }
+            dispatch[action.ordinal()] = byTarget;
+        }
+
+        return new XpRuleTable(baseXp, dispatch, untargeted, rules.size());
+    }
+
+    /**
+     * 获取行为和目标的候选规则，按配置顺序排列
+     * @param action 行为
+     * @param target 目标（方块、物品或实体类型），未知时为null
+     * @return 候选规则，没有规则时为空数组
+     */
+    public Rule[] getCandidates(XpAction action, Enum<?> target) {
+        Rule[][] byTarget = dispatch[action.ordinal()];
+        if (byTarget == null) {
+            return NO_RULES;
+        }
+        if (target == null || target.ordinal() >= byTarget.length) {
+            return untargeted[action.ordinal()];
+        }
+        return byTarget[target.ordinal()];
+    }
+
+    /**
+     * 计算行为在规则下获得的经验
+     * @param action 行为
+     * @param rule 匹配的规则，没有匹配时为null
+     * @return 经验数量
+     */
+    public int getAmount(XpAction action, Rule rule) {
+        int base = baseXp[action.ordinal()];
+        return rule == null ? base : (int) Math.round(base * rule.getMultiplier());
+    }
+
+    /**
+     * 获取规则数量
+     * @return 规则数量
+     */
+    public int size() {
+        return ruleCount;
+    }
+
+    /**
+     * 获取行为可以匹配的目标类型
+     */
+    private static Enum<?>[] targetValues(XpAction action) {
+        return action == XpAction.ENTITY_KILL ? EntityType.values() : Material.values();
+    }
+
+    /**
+     * 标记规则匹配的目标，#开头的名称按标签解析
+     * @return 是否识别了该目标
+     */
+    private static boolean markTarget(XpAction action, String name, boolean[] targets) {
+        if (name.startsWith("#")) {
+            NamespacedKey key = NamespacedKey.fromString(name.substring(1).toLowerCase(Locale.ROOT));
+            if (key == null) {
+                return false;
+            }
+
+            if (action == XpAction.ENTITY_KILL) {
+                Tag<EntityType> tag = Bukkit.getTag(Tag.REGISTRY_ENTITY_TYPES, key, EntityType.class);
+                if (tag == null) {
+                    return false;
+                }
+                tag.getValues().forEach(type -> targets[type.ordinal()] = true);
+                return true;
+            }
+
+            // 方块行为优先使用方块标签，钓鱼使用物品标签
+            Tag<Material> tag = action == XpAction.FISHING ? null : Bukkit.getTag(Tag.REGISTRY_BLOCKS, key, Material.class);
+            if (tag == null) {
+                tag = Bukkit.getTag(Tag.REGISTRY_ITEMS, key, Material.class);
+            }
+            if (tag == null) {
+                return false;
+            }
+            tag.getValues().forEach(material -> targets[material.ordinal()] = true);
+            return true;
+        }
+
+        for (Enum<?> value : targetValues(action)) {
+            if (value.name().equalsIgnoreCase(name)) {
+                targets[value.ordinal()] = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static XpAction parseAction(Object value) {
+        if (value == null) {
+            return null;
+        }
+        String name = String.valueOf(value);
+        for (XpAction action : XpAction.values()) {
+            if (action.getConfigKey().equalsIgnoreCase(name) || action.name().equalsIgnoreCase(name)) {
+                return action;
+            }
+        }
+        return null;
+    }
+
+    private static double toDouble(Object value, double def) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value != null) {
+            try {
+                return Double.parseDouble(String.valueOf(value));
+            } catch (NumberFormatException e) {
+                return def;
+            }
+        }
+        return def;
+    }
+
+    private static void warn(Logger logger, int index, String reason) {
+        if (logger != null) {
+            logger.warning("经验规则 xp-rules[" + index + "] 无效，" + reason);
+        }
+    }
+}
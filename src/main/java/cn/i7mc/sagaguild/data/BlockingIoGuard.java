@@ -0,0 +1,239 @@
+package cn.i7mc.sagaguild.data;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.metrics.Counter;
+import org.bukkit.Bukkit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 阻塞I/O检测
+ * 在服务器主线程或Folia区域线程上获取数据库连接时，记录发起查询的DAO方法和调用方，
+ * 按调用位置汇总次数，并在首次发现时保存一份调用栈样本；严格模式下直接抛出异常
+ * 插件启动和关闭时在主线程读写数据库是预期行为，只在 {@link #arm()} 之后检测
+ */
+public class BlockingIoGuard {
+    private static final String PLUGIN_PACKAGE = "cn.i7mc.sagaguild.";
+    private static final String DATA_PACKAGE = "cn.i7mc.sagaguild.data.";
+    private static final String METRICS_PACKAGE = "cn.i7mc.sagaguild.metrics.";
+    // Folia区域线程的名称前缀
+    private static final String REGION_THREAD_PREFIX = "Region Scheduler Thread";
+    // 最多记录的调用位置数量，防止异常情况下无限增长
+    private static final int MAX_OFFENDERS = 256;
+    // 查找调用方时最多遍历的栈帧数
+    private static final int MAX_WALK_DEPTH = 64;
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final SagaGuild plugin;
+    private final boolean enabled;
+    private final boolean log;
+    private final boolean strict;
+    private final int stackDepth;
+    private final Counter counter;
+
+    // DAO方法 <- 调用方 -> 记录
+    private final Map<String, Offender> offenders = new ConcurrentHashMap<>();
+    private volatile boolean armed;
+
+    /**
+     * 一个在服务器线程上访问数据库的调用位置
+     */
+    public static final class Offender {
+        private final String site;
+        private final String caller;
+        private final List<String> stack;
+        private final LongAdder count = new LongAdder();
+        private volatile String lastThread;
+
+        private Offender(String site, String caller, List<String> stack) {
+            this.site = site;
+            this.caller = caller;
+            this.stack = stack;
+        }
+
+        /**
+         * 获取发起查询的DAO方法
+         * @return 类名#方法名
+         */
+        public String getSite() {
+            return site;
+        }
+
+        /**
+         * 获取调用DAO的插件代码位置
+         * @return 类名#方法名:行号
+         */
+        public String getCaller() {
+            return caller;
+        }
+
+        /**
+         * 获取首次发现时的调用栈样本
+         * @return 栈帧列表
+         */
+        public List<String> getStack() {
+            return stack;
+        }
+
+        /**
+         * 获取累计次数
+         * @return 次数
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * 获取最近一次访问所在的线程名
+         * @return 线程名
+         */
+        public String getLastThread() {
+            return lastThread;
+        }
+    }
+
+    public BlockingIoGuard(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("io-guard.enabled", true);
+        this.log = plugin.getConfig().getBoolean("io-guard.log", true);
+        this.strict = plugin.getConfig().getBoolean("io-guard.strict", false);
+        this.stackDepth = Math.max(1, plugin.getConfig().getInt("io-guard.stack-depth", 12));
+        this.counter = plugin.getMetricsManager() != null
+                ? plugin.getMetricsManager().getRegistry().counter("sagaguild_blocking_io_total",
+                        "在服务器主线程或区域线程上访问数据库的次数")
+                : Counter.NOOP;
+    }
+
+    /**
+     * 是否启用检测
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开始检测（插件启动完成后调用）
+     */
+    public void arm() {
+        armed = enabled;
+    }
+
+    /**
+     * 停止检测（插件关闭时调用）
+     */
+    public void disarm() {
+        armed = false;
+    }
+
+    /**
+     * 检查当前线程，在服务器线程上时记录调用位置
+     * @throws IllegalStateException 严格模式下在服务器线程上访问数据库
+     */
+    public void check() {
+        if (!armed || !isTickThread()) {
+            return;
+        }
+
+        List<StackWalker.StackFrame> frames = WALKER.walk(stream -> stream
+                .filter(frame -> frame.getClassName().startsWith(PLUGIN_PACKAGE))
+                .filter(frame -> !frame.getClassName().equals(DatabaseManager.class.getName())
+                        && !frame.getClassName().equals(BlockingIoGuard.class.getName())
+                        && !frame.getClassName().startsWith(METRICS_PACKAGE))
+                .limit(MAX_WALK_DEPTH)
+                .collect(Collectors.toList()));
+
+        String site = frames.isEmpty() ? "unknown" : describe(frames.get(0), false);
+        String caller = frames.stream()
+                .skip(1)
+                .filter(frame -> !frame.getClassName().startsWith(DATA_PACKAGE))
+                .findFirst()
+                .map(frame -> describe(frame, true))
+                .orElse("unknown");
+
+        String key = site + " <- " + caller;
+        Offender offender = offenders.get(key);
+        if (offender == null && offenders.size() < MAX_OFFENDERS) {
+            Offender created = new Offender(site, caller, sample());
+            offender = offenders.putIfAbsent(key, created);
+            if (offender == null) {
+                offender = created;
+                if (log) {
+                    plugin.getLogger().warning("检测到在服务器线程上访问数据库: " + key
+                            + " (线程: " + Thread.currentThread().getName() + ")\n    at "
+                            + String.join("\n    at ", created.stack));
+                }
+            }
+        }
+
+        if (offender != null) {
+            offender.count.increment();
+            offender.lastThread = Thread.currentThread().getName();
+        }
+        counter.increment();
+
+        if (strict) {
+            throw new IllegalStateException("在服务器线程上访问数据库: " + key);
+        }
+    }
+
+    /**
+     * 获取按次数从多到少排列的调用位置
+     * @return 调用位置列表
+     */
+    public List<Offender> getOffenders() {
+        List<Offender> list = new ArrayList<>(offenders.values());
+        list.sort(Comparator.comparingLong(Offender::getCount).reversed());
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 清空记录
+     */
+    public void reset() {
+        offenders.clear();
+    }
+
+    /**
+     * 当前线程是否为服务器主线程或Folia区域线程
+     * @return 是否为服务器线程
+     */
+    private static boolean isTickThread() {
+        if (Bukkit.isPrimaryThread()) {
+            return true;
+        }
+        // 部分Folia版本只对全局区域线程返回true
+        return Thread.currentThread().getName().startsWith(REGION_THREAD_PREFIX);
+    }
+
+    /**
+     * 采样当前调用栈，跳过检测代码本身
+     */
+    private List<String> sample() {
+        return WALKER.walk(stream -> stream
+                .dropWhile(frame -> frame.getClassName().equals(BlockingIoGuard.class.getName())
+                        || frame.getClassName().equals(DatabaseManager.class.getName())
+                        || frame.getClassName().startsWith(METRICS_PACKAGE))
+                .limit(stackDepth)
+                .map(StackWalker.StackFrame::toStackTraceElement)
+                .map(StackTraceElement::toString)
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    /**
+     * 格式化栈帧为简短的类名#方法名
+     */
+    private static String describe(StackWalker.StackFrame frame, boolean withLine) {
+        String className = frame.getClassName();
+        String name = className.substring(className.lastIndexOf('.') + 1) + "#" + frame.getMethodName();
+        return withLine && frame.getLineNumber() > 0 ? name + ":" + frame.getLineNumber() : name;
+    }
+}
@@ -8,6 +8,8 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 数据库管理器
@@ -15,10 +17,24 @@ import java.sql.SQLException;
  */
 public class DatabaseManager {
     private final SagaGuild plugin;
+    private final BlockingIoGuard ioGuard;
     private Connection connection;
 
+    // 批量写入使用独立连接，事务之间通过锁串行执行，不会与共享连接上的操作混在同一个事务中
+    private final ReentrantLock transactionLock = new ReentrantLock();
+    private Connection transactionConnection;
+
     public DatabaseManager(SagaGuild plugin) {
         this.plugin = plugin;
+        this.ioGuard = new BlockingIoGuard(plugin);
+    }
+
+    /**
+     * 获取阻塞I/O检测
+     * @return 阻塞I/O检测
+     */
+    public BlockingIoGuard getIoGuard() {
+        return ioGuard;
     }
 
     /**
@@ -31,13 +47,8 @@ public class DatabaseManager {
             dataFolder.mkdirs();
         }
 
-        // 获取数据库路径
-        FileConfiguration config = plugin.getConfig();
-        String dbPath = config.getString("database.path", "plugins/SagaGuild/database.db");
-        File dbFile = new File(dbPath);
-
         // 确保数据库目录存在
-        File dbDir = dbFile.getParentFile();
+        File dbDir = getDatabaseFile().getParentFile();
         if (dbDir != null && !dbDir.exists()) {
             dbDir.mkdirs();
         }
@@ -45,7 +56,7 @@ public class DatabaseManager {
         // 连接数据库
         try {
             Class.forName("org.sqlite.JDBC");
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
+            connection = openConnection();
 
             // 创建表结构
             createTables();
@@ -65,208 +76,230 @@ public class DatabaseManager {
      */
     private void createTables() {
         try {
-            // 创建公会表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS guilds (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "name TEXT NOT NULL UNIQUE," +
-                "tag TEXT NOT NULL UNIQUE," +
-                "description TEXT," +
-                "announcement TEXT," +
-                "owner_uuid TEXT NOT NULL," +
-                "level INTEGER DEFAULT 1," +
-                "experience INTEGER DEFAULT 0," +
-                "is_public INTEGER DEFAULT 1," +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")"
-            );
-
-            // 创建成员表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS members (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "guild_id INTEGER NOT NULL," +
-                "player_uuid TEXT NOT NULL," +
-                "player_name TEXT NOT NULL," +
-                "role TEXT NOT NULL," +
-                "joined_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "UNIQUE(guild_id, player_uuid)" +
-                ")"
-            );
-
-            // 创建领地表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS lands (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "guild_id INTEGER NOT NULL," +
-                "world TEXT NOT NULL," +
-                "chunk_x INTEGER NOT NULL," +
-                "chunk_z INTEGER NOT NULL," +
-                "claimed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "UNIQUE(world, chunk_x, chunk_z)" +
-                ")"
-            );
-
-            // 创建银行表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS banks (" +
-                "guild_id INTEGER PRIMARY KEY," +
-                "balance REAL DEFAULT 0," +
-                "capacity REAL DEFAULT 10000," +
-                "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
-                ")"
-            );
-
-            // 创建联盟表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS alliances (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "guild1_id INTEGER NOT NULL," +
-                "guild2_id INTEGER NOT NULL," +
-                "formed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "FOREIGN KEY (guild1_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (guild2_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "UNIQUE(guild1_id, guild2_id)" +
-                ")"
-            );
-
-            // 创建战争表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS wars (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "attacker_id INTEGER NOT NULL," +
-                "defender_id INTEGER NOT NULL," +
-                "start_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "end_time TIMESTAMP," +
-                "winner_id INTEGER," +
-                "status TEXT DEFAULT 'PENDING'," +
-                "FOREIGN KEY (attacker_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (defender_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (winner_id) REFERENCES guilds(id) ON DELETE SET NULL" +
-                ")"
-            );
-
-            // 创建任务表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS tasks (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "guild_id INTEGER NOT NULL," +
-                "type TEXT NOT NULL," +
-                "description TEXT NOT NULL," +
-                "target INTEGER NOT NULL," +
-                "progress INTEGER DEFAULT 0," +
-                "reward_exp INTEGER NOT NULL," +
-                "reward_money REAL NOT NULL," +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "expires_at TIMESTAMP," +
-                "completed_at TIMESTAMP," +
-                "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
-                ")"
-            );
-
-            // 创建活动表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS activities (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "guild_id INTEGER NOT NULL," +
-                "name TEXT NOT NULL," +
-                "description TEXT," +
-                "type TEXT NOT NULL," +
-                "creator_uuid TEXT NOT NULL," +
-                "start_time TIMESTAMP NOT NULL," +
-                "end_time TIMESTAMP NOT NULL," +
-                "location TEXT NOT NULL," +
-                "max_participants INTEGER DEFAULT 0," +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "status TEXT DEFAULT 'PLANNED'," +
-                "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
-                ")"
-            );
-
-            // 创建活动参与者表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS activity_participants (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "activity_id INTEGER NOT NULL," +
-                "player_uuid TEXT NOT NULL," +
-                "player_name TEXT NOT NULL," +
-                "status TEXT DEFAULT 'REGISTERED'," +
-                "registered_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "FOREIGN KEY (activity_id) REFERENCES activities(id) ON DELETE CASCADE," +
-                "UNIQUE(activity_id, player_uuid)" +
-                ")"
-            );
-
-            // 创建联盟请求表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS alliance_requests (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "requester_id INTEGER NOT NULL," +
-                "target_id INTEGER NOT NULL," +
-                "requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "status TEXT DEFAULT 'PENDING'," +
-                "FOREIGN KEY (requester_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (target_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "UNIQUE(requester_id, target_id)" +
-                ")"
-            );
-
-            // 创建停战请求表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS ceasefire_requests (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "requester_id INTEGER NOT NULL," +
-                "target_id INTEGER NOT NULL," +
-                "war_id INTEGER NOT NULL," +
-                "requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "status TEXT DEFAULT 'PENDING'," +
-                "FOREIGN KEY (requester_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (target_id) REFERENCES guilds(id) ON DELETE CASCADE," +
-                "FOREIGN KEY (war_id) REFERENCES wars(id) ON DELETE CASCADE," +
-                "UNIQUE(requester_id, target_id, war_id)" +
-                ")"
-            );
-
-            // 创建战争击杀记录表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS war_kills (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "war_id INTEGER NOT NULL," +
-                "killer_uuid TEXT NOT NULL," +
-                "victim_uuid TEXT NOT NULL," +
-                "kill_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "FOREIGN KEY (war_id) REFERENCES wars(id) ON DELETE CASCADE" +
-                ")"
-            );
-
-            // 创建公会加入请求表
-            executeUpdate(
-                "CREATE TABLE IF NOT EXISTS join_requests (" +
-                "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                "player_uuid TEXT NOT NULL," +
-                "player_name TEXT NOT NULL," +
-                "guild_id INTEGER NOT NULL," +
-                "requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
-                "status TEXT DEFAULT 'PENDING'," +
-                "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
-                // 移除唯一约束，允许玩家对同一公会发送多个请求
-                // ", UNIQUE(player_uuid, guild_id)" +
-                ")"
-            );
-
+            createTables(connection);
         } catch (SQLException e) {
             plugin.getLogger().severe("创建数据库表失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 在指定连接上创建所有数据库表（数据集生成工具也使用此方法）
+     * @param connection 数据库连接
+     * @throws SQLException SQL异常
+     */
+    public static void createTables(Connection connection) throws SQLException {
+        // 创建公会表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS guilds (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "name TEXT NOT NULL UNIQUE," +
+            "tag TEXT NOT NULL UNIQUE," +
+            "description TEXT," +
+            "announcement TEXT," +
+            "owner_uuid TEXT NOT NULL," +
+            "level INTEGER DEFAULT 1," +
+            "experience INTEGER DEFAULT 0," +
+            "is_public INTEGER DEFAULT 1," +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+            ")"
+        );
+
+        // 创建成员表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS members (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "guild_id INTEGER NOT NULL," +
+            "player_uuid TEXT NOT NULL," +
+            "player_name TEXT NOT NULL," +
+            "role TEXT NOT NULL," +
+            "joined_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "UNIQUE(guild_id, player_uuid)" +
+            ")"
+        );
+
+        // 创建领地表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS lands (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "guild_id INTEGER NOT NULL," +
+            "world TEXT NOT NULL," +
+            "chunk_x INTEGER NOT NULL," +
+            "chunk_z INTEGER NOT NULL," +
+            "claimed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "UNIQUE(world, chunk_x, chunk_z)" +
+            ")"
+        );
+
+        // 创建银行表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS banks (" +
+            "guild_id INTEGER PRIMARY KEY," +
+            "balance REAL DEFAULT 0," +
+            "capacity REAL DEFAULT 10000," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+            ")"
+        );
+
+        // 创建联盟表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS alliances (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "guild1_id INTEGER NOT NULL," +
+            "guild2_id INTEGER NOT NULL," +
+            "formed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "FOREIGN KEY (guild1_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (guild2_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "UNIQUE(guild1_id, guild2_id)" +
+            ")"
+        );
+
+        // 创建战争表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS wars (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "attacker_id INTEGER NOT NULL," +
+            "defender_id INTEGER NOT NULL," +
+            "start_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "end_time TIMESTAMP," +
+            "winner_id INTEGER," +
+            "status TEXT DEFAULT 'PENDING'," +
+            "FOREIGN KEY (attacker_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (defender_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (winner_id) REFERENCES guilds(id) ON DELETE SET NULL" +
+            ")"
+        );
+
+        // 创建任务表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS tasks (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "guild_id INTEGER NOT NULL," +
+            "type TEXT NOT NULL," +
+            "description TEXT NOT NULL," +
+            "target INTEGER NOT NULL," +
+            "progress INTEGER DEFAULT 0," +
+            "reward_exp INTEGER NOT NULL," +
+            "reward_money REAL NOT NULL," +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "expires_at TIMESTAMP," +
+            "completed_at TIMESTAMP," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+            ")"
+        );
+
+        // 创建活动表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS activities (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "guild_id INTEGER NOT NULL," +
+            "name TEXT NOT NULL," +
+            "description TEXT," +
+            "type TEXT NOT NULL," +
+            "creator_uuid TEXT NOT NULL," +
+            "start_time TIMESTAMP NOT NULL," +
+            "end_time TIMESTAMP NOT NULL," +
+            "location TEXT NOT NULL," +
+            "max_participants INTEGER DEFAULT 0," +
+            "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "status TEXT DEFAULT 'PLANNED'," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+            ")"
+        );
+
+        // 创建活动参与者表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS activity_participants (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "activity_id INTEGER NOT NULL," +
+            "player_uuid TEXT NOT NULL," +
+            "player_name TEXT NOT NULL," +
+            "status TEXT DEFAULT 'REGISTERED'," +
+            "registered_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "FOREIGN KEY (activity_id) REFERENCES activities(id) ON DELETE CASCADE," +
+            "UNIQUE(activity_id, player_uuid)" +
+            ")"
+        );
+
+        // 创建联盟请求表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS alliance_requests (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "requester_id INTEGER NOT NULL," +
+            "target_id INTEGER NOT NULL," +
+            "requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "status TEXT DEFAULT 'PENDING'," +
+            "FOREIGN KEY (requester_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (target_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "UNIQUE(requester_id, target_id)" +
+            ")"
+        );
+
+        // 创建停战请求表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS ceasefire_requests (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "requester_id INTEGER NOT NULL," +
+            "target_id INTEGER NOT NULL," +
+            "war_id INTEGER NOT NULL," +
+            "requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "status TEXT DEFAULT 'PENDING'," +
+            "FOREIGN KEY (requester_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (target_id) REFERENCES guilds(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (war_id) REFERENCES wars(id) ON DELETE CASCADE," +
+            "UNIQUE(requester_id, target_id, war_id)" +
+            ")"
+        );
+
+        // 创建战争击杀记录表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS war_kills (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "war_id INTEGER NOT NULL," +
+            "killer_uuid TEXT NOT NULL," +
+            "victim_uuid TEXT NOT NULL," +
+            "kill_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "FOREIGN KEY (war_id) REFERENCES wars(id) ON DELETE CASCADE" +
+            ")"
+        );
+
+        // 创建公会加入请求表
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS join_requests (" +
+            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
+            "player_uuid TEXT NOT NULL," +
+            "player_name TEXT NOT NULL," +
+            "guild_id INTEGER NOT NULL," +
+            "requested_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+            "status TEXT DEFAULT 'PENDING'," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+            // 移除唯一约束，允许玩家对同一公会发送多个请求
+            // ", UNIQUE(player_uuid, guild_id)" +
+            ")"
+        );
+
+        // 创建成员贡献表（按天汇总）
+        executeUpdate(connection,
+            "CREATE TABLE IF NOT EXISTS member_contributions (" +
+            "guild_id INTEGER NOT NULL," +
+            "player_uuid TEXT NOT NULL," +
+            "day TEXT NOT NULL," +
+            "category TEXT NOT NULL," +
+            "amount INTEGER NOT NULL DEFAULT 0," +
+            "PRIMARY KEY (guild_id, player_uuid, day, category)," +
+            "FOREIGN KEY (guild_id) REFERENCES guilds(id) ON DELETE CASCADE" +
+            ")"
+        );
+    }
+
     /**
      * 执行更新操作
+     * @param connection 数据库连接
      * @param sql SQL语句
      * @throws SQLException SQL异常
      */
-    private void executeUpdate(String sql) throws SQLException {
+    private static void executeUpdate(Connection connection, String sql) throws SQLException {
         try (PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.executeUpdate();
         }
@@ -278,6 +311,9 @@ public class DatabaseManager {
      * @return 数据库连接
      */
     public Connection getConnection() {
+        // 记录在服务器线程上访问数据库的调用位置
+        ioGuard.check();
+
         try {
             // 检查连接是否有效
             if (connection == null || connection.isClosed() || !isConnectionValid()) {
@@ -293,7 +329,7 @@ public class DatabaseManager {
         // 添加额外的连接有效性检查
         try {
             if (connection != null && !connection.isClosed() && connection.isValid(1)) {
-                return connection;
+                return instrument(connection);
             } else {
                 plugin.getLogger().warning("数据库连接无效，尝试重新连接");
                 reconnect();
@@ -303,7 +339,56 @@ public class DatabaseManager {
             reconnect();
         }
 
-        return connection;
+        return instrument(connection);
+    }
+
+    /**
+     * 开始批量写入事务
+     * 返回的独立连接已关闭自动提交，调用者负责提交或回滚，不应关闭它，
+     * 结束后必须在finally中调用 {@link #endTransaction()}；同一时间只有一个线程持有事务连接
+     * @return 事务连接
+     * @throws SQLException 无法打开连接
+     */
+    public Connection beginTransaction() throws SQLException {
+        // 记录在服务器线程上访问数据库的调用位置
+        ioGuard.check();
+
+        transactionLock.lock();
+        try {
+            if (transactionConnection == null || transactionConnection.isClosed()) {
+                transactionConnection = openConnection();
+            }
+            transactionConnection.setAutoCommit(false);
+            return instrument(transactionConnection);
+        } catch (SQLException | RuntimeException e) {
+            transactionLock.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * 结束批量写入事务，恢复自动提交并释放事务连接
+     */
+    public void endTransaction() {
+        try {
+            if (transactionConnection != null && !transactionConnection.isClosed()) {
+                transactionConnection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("恢复事务连接失败: " + e.getMessage());
+        } finally {
+            transactionLock.unlock();
+        }
+    }
+
+    /**
+     * 启用指标时包装连接，统计DAO的SQL耗时
+     */
+    private Connection instrument(Connection connection) {
+        if (plugin.getMetricsManager() == null) {
+            return connection;
+        }
+        return plugin.getMetricsManager().instrument(connection);
     }
 
     /**
@@ -336,24 +421,49 @@ public class DatabaseManager {
                 }
             }
 
-            // 获取数据库路径
-            FileConfiguration config = plugin.getConfig();
-            String dbPath = config.getString("database.path", "plugins/SagaGuild/database.db");
-            File dbFile = new File(dbPath);
-
             // 创建新连接
-            connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile.getAbsolutePath());
-
-
+            connection = openConnection();
         } catch (SQLException e) {
             plugin.getLogger().severe("数据库重新连接失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 获取数据库文件
+     */
+    private File getDatabaseFile() {
+        FileConfiguration config = plugin.getConfig();
+        return new File(config.getString("database.path", "plugins/SagaGuild/database.db"));
+    }
+
+    /**
+     * 打开一个新的数据库连接
+     * 共享连接和事务连接同时写入时，等待对方释放锁而不是立即失败
+     */
+    private Connection openConnection() throws SQLException {
+        Connection newConnection = DriverManager.getConnection("jdbc:sqlite:" + getDatabaseFile().getAbsolutePath());
+        int busyTimeout = Math.max(0, plugin.getConfig().getInt("database.busy-timeout", 5000));
+        try (Statement statement = newConnection.createStatement()) {
+            statement.execute("PRAGMA busy_timeout = " + busyTimeout);
+        }
+        return newConnection;
+    }
+
     /**
      * 关闭数据库连接
      */
     public void close() {
+        transactionLock.lock();
+        try {
+            if (transactionConnection != null && !transactionConnection.isClosed()) {
+                transactionConnection.close();
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("关闭事务连接失败: " + e.getMessage());
+        } finally {
+            transactionLock.unlock();
+        }
+
         if (connection != null) {
             try {
                 if (!connection.isClosed()) {
@@ -7,6 +7,8 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * 公会银行数据访问对象
@@ -46,6 +48,28 @@ public class BankDAO {
         return 0;
     }
     
+    /**
+     * 获取所有公会的银行余额
+     * @return 公会ID -> 银行余额
+     */
+    public Map<Integer, Double> getAllBalances() {
+        Map<Integer, Double> balances = new HashMap<>();
+        String sql = "SELECT guild_id, balance FROM banks";
+        
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                balances.put(rs.getInt("guild_id"), rs.getDouble("balance"));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("获取公会银行余额列表失败: " + e.getMessage());
+        }
+        
+        return balances;
+    }
+    
     /**
      * 获取公会银行容量
      * @param guildId 公会ID
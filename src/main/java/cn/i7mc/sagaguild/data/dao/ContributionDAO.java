@@ -0,0 +1,98 @@
+package cn.i7mc.sagaguild.data.dao;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.DatabaseManager;
+import cn.i7mc.sagaguild.data.models.MemberContribution;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 成员贡献数据访问对象
+ * 贡献按天汇总，每个 (公会, 成员, 日期, 类别) 一行
+ */
+public class ContributionDAO {
+    private final SagaGuild plugin;
+    private final DatabaseManager databaseManager;
+
+    public ContributionDAO(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.databaseManager = plugin.getDatabaseManager();
+    }
+
+    /**
+     * 将贡献增量累加到指定日期的汇总中
+     * 所有增量在同一个事务中写入
+     * @param day 日期
+     * @param deltas 贡献增量
+     * @return 是否成功
+     */
+    public boolean addContributions(LocalDate day, List<MemberContribution> deltas) {
+        String sql = "INSERT INTO member_contributions (guild_id, player_uuid, day, category, amount) VALUES (?, ?, ?, ?, ?) " +
+                     "ON CONFLICT(guild_id, player_uuid, day, category) DO UPDATE SET amount = amount + excluded.amount";
+
+        try {
+            // 事务连接由数据库管理器持有，不关闭
+            Connection conn = databaseManager.beginTransaction();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                String dayText = day.toString();
+                for (MemberContribution delta : deltas) {
+                    stmt.setInt(1, delta.getGuildId());
+                    stmt.setString(2, delta.getPlayerUuid().toString());
+                    stmt.setString(3, dayText);
+                    stmt.setString(4, delta.getType().name());
+                    stmt.setLong(5, delta.getAmount());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                databaseManager.endTransaction();
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("写入成员贡献失败: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 获取所有成员各类别的累计贡献
+     * @return 累计贡献列表
+     */
+    public List<MemberContribution> getTotalContributions() {
+        List<MemberContribution> totals = new ArrayList<>();
+        String sql = "SELECT guild_id, player_uuid, category, SUM(amount) AS total FROM member_contributions " +
+                     "GROUP BY guild_id, player_uuid, category";
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                try {
+                    totals.add(new MemberContribution(
+                            rs.getInt("guild_id"),
+                            UUID.fromString(rs.getString("player_uuid")),
+                            MemberContribution.Type.valueOf(rs.getString("category")),
+                            rs.getLong("total")));
+                } catch (IllegalArgumentException e) {
+                    // 忽略无法识别的类别或UUID
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("获取成员贡献失败: " + e.getMessage());
+        }
+
+        return totals;
+    }
+}
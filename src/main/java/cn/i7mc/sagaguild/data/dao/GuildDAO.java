@@ -80,7 +80,7 @@ public class GuildDAO {
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setInt(1, guildId);
-            stmt.setDouble(2, plugin.getConfig().getDouble("bank.initial-capacity", 10000));
+            stmt.setDouble(2, plugin.getConfigManager().getSettings().getBankInitialCapacity());
 
             stmt.executeUpdate();
         }
@@ -0,0 +1,85 @@
+package cn.i7mc.sagaguild.data.dao;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.DatabaseManager;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 玩家名称数据访问对象
+ * 从已记录玩家名称的表中读取和更新玩家名称
+ */
+public class PlayerNameDAO {
+    private final SagaGuild plugin;
+    private final DatabaseManager databaseManager;
+
+    public PlayerNameDAO(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.databaseManager = plugin.getDatabaseManager();
+    }
+
+    /**
+     * 加载所有已知的玩家名称
+     * 同一玩家出现在多张表时，成员表优先，其次是加入请求表
+     * @return UUID -> 玩家名称
+     */
+    public Map<UUID, String> loadAllNames() {
+        String sql = "SELECT player_uuid, player_name, 0 AS priority FROM activity_participants " +
+                "UNION ALL SELECT player_uuid, player_name, 1 AS priority FROM join_requests " +
+                "UNION ALL SELECT player_uuid, player_name, 2 AS priority FROM members " +
+                "ORDER BY priority";
+        Map<UUID, String> names = new HashMap<>();
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                try {
+                    UUID uuid = UUID.fromString(rs.getString("player_uuid"));
+                    String name = rs.getString("player_name");
+                    if (name != null && !name.isEmpty()) {
+                        names.put(uuid, name);
+                    }
+                } catch (IllegalArgumentException e) {
+                    // 忽略无效的UUID
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("加载玩家名称失败: " + e.getMessage());
+        }
+
+        return names;
+    }
+
+    /**
+     * 更新玩家名称
+     * @param playerUuid 玩家UUID
+     * @param playerName 新的玩家名称
+     * @return 是否成功
+     */
+    public boolean updatePlayerName(UUID playerUuid, String playerName) {
+        String[] sqls = {
+                "UPDATE members SET player_name = ? WHERE player_uuid = ?",
+                "UPDATE join_requests SET player_name = ? WHERE player_uuid = ?",
+                "UPDATE activity_participants SET player_name = ? WHERE player_uuid = ?"
+        };
+
+        try (Connection conn = databaseManager.getConnection()) {
+            for (String sql : sqls) {
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, playerName);
+                    stmt.setString(2, playerUuid.toString());
+                    stmt.executeUpdate();
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            plugin.getLogger().severe("更新玩家名称失败: " + e.getMessage());
+            return false;
+        }
+    }
+}
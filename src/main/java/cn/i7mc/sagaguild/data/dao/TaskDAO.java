@@ -6,8 +6,8 @@ import cn.i7mc.sagaguild.data.models.GuildTask;
 
 import java.sql.*;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 公会任务数据访问对象
@@ -17,6 +17,10 @@ public class TaskDAO {
     private final SagaGuild plugin;
     private final DatabaseManager databaseManager;
     
+    private static final String INSERT_TASK_SQL =
+            "INSERT INTO tasks (guild_id, type, description, target, progress, reward_exp, reward_money, expires_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    
     public TaskDAO(SagaGuild plugin) {
         this.plugin = plugin;
         this.databaseManager = plugin.getDatabaseManager();
@@ -28,54 +32,95 @@ public class TaskDAO {
      * @return 创建的任务ID，失败返回-1
      */
     public int createTask(GuildTask task) {
-        String sql = "INSERT INTO tasks (guild_id, type, description, target, progress, reward_exp, reward_money, expires_at) " +
-                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = databaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setInt(1, task.getGuildId());
-            stmt.setString(2, task.getType().name());
-            stmt.setString(3, task.getDescription());
-            stmt.setInt(4, task.getTarget());
-            stmt.setInt(5, task.getProgress());
-            stmt.setInt(6, task.getRewardExp());
-            stmt.setDouble(7, task.getRewardMoney());
-            
-            if (task.getExpiresAt() != null) {
-                stmt.setTimestamp(8, new Timestamp(task.getExpiresAt().getTime()));
-            } else {
-                stmt.setNull(8, Types.TIMESTAMP);
-            }
+             PreparedStatement stmt = conn.prepareStatement(INSERT_TASK_SQL, Statement.RETURN_GENERATED_KEYS)) {
             
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                return -1;
-            }
-            
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    int id = generatedKeys.getInt(1);
-                    task.setId(id);
-                    return id;
-                } else {
-                    return -1;
+            return insertTask(stmt, task);
+        } catch (SQLException e) {
+            plugin.getLogger().severe("创建任务失败: " + e.getMessage());
+            return -1;
+        }
+    }
+    
+    /**
+     * 在同一个事务中批量创建任务
+     * 成功后每个任务的ID会被设置为数据库生成的ID
+     * @param tasks 任务列表
+     * @return 是否成功，失败时所有任务都不会被创建
+     */
+    public boolean createTasks(List<GuildTask> tasks) {
+        try {
+            // 事务连接由数据库管理器持有，不关闭
+            Connection conn = databaseManager.beginTransaction();
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_TASK_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (GuildTask task : tasks) {
+                    if (insertTask(stmt, task) == -1) {
+                        throw new SQLException("未返回任务ID");
+                    }
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                for (GuildTask task : tasks) {
+                    task.setId(0);
                 }
+                throw e;
+            } finally {
+                databaseManager.endTransaction();
             }
         } catch (SQLException e) {
-            plugin.getLogger().severe("创建任务失败: " + e.getMessage());
+            plugin.getLogger().severe("批量创建任务失败: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 插入一个任务并设置生成的ID
+     * @param stmt 插入语句
+     * @param task 任务对象
+     * @return 创建的任务ID，失败返回-1
+     * @throws SQLException SQL异常
+     */
+    private int insertTask(PreparedStatement stmt, GuildTask task) throws SQLException {
+        stmt.setInt(1, task.getGuildId());
+        stmt.setString(2, task.getType().name());
+        stmt.setString(3, task.getDescription());
+        stmt.setInt(4, task.getTarget());
+        stmt.setInt(5, task.getProgress());
+        stmt.setInt(6, task.getRewardExp());
+        stmt.setDouble(7, task.getRewardMoney());
+        
+        if (task.getExpiresAt() != 0L) {
+            stmt.setTimestamp(8, new Timestamp(task.getExpiresAt()));
+        } else {
+            stmt.setNull(8, Types.TIMESTAMP);
+        }
+        
+        int affectedRows = stmt.executeUpdate();
+        if (affectedRows == 0) {
             return -1;
         }
+        
+        try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+            if (generatedKeys.next()) {
+                int id = generatedKeys.getInt(1);
+                task.setId(id);
+                return id;
+            } else {
+                return -1;
+            }
+        }
     }
     
     /**
      * 更新任务进度
      * @param taskId 任务ID
      * @param progress 进度
-     * @param completedAt 完成时间，未完成为null
+     * @param completedAt 完成时间，未完成为0
      * @return 是否成功
      */
-    public boolean updateTaskProgress(int taskId, int progress, Date completedAt) {
+    public boolean updateTaskProgress(int taskId, int progress, long completedAt) {
         String sql = "UPDATE tasks SET progress = ?, completed_at = ? WHERE id = ?";
         
         try (Connection conn = databaseManager.getConnection();
@@ -83,8 +128,8 @@ public class TaskDAO {
             
             stmt.setInt(1, progress);
             
-            if (completedAt != null) {
-                stmt.setTimestamp(2, new Timestamp(completedAt.getTime()));
+            if (completedAt != 0L) {
+                stmt.setTimestamp(2, new Timestamp(completedAt));
             } else {
                 stmt.setNull(2, Types.TIMESTAMP);
             }
@@ -98,6 +143,39 @@ public class TaskDAO {
         }
     }
     
+    /**
+     * 批量更新未完成任务的进度
+     * 所有更新在同一个事务中执行，已完成的任务不会被覆盖
+     * @param progressByTask 任务ID -> 进度
+     * @return 是否成功
+     */
+    public boolean updateTaskProgressBatch(Map<Integer, Integer> progressByTask) {
+        String sql = "UPDATE tasks SET progress = ? WHERE id = ? AND completed_at IS NULL";
+
+        try {
+            // 事务连接由数据库管理器持有，不关闭
+            Connection conn = databaseManager.beginTransaction();
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Integer> entry : progressByTask.entrySet()) {
+                    stmt.setInt(1, entry.getValue());
+                    stmt.setInt(2, entry.getKey());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                databaseManager.endTransaction();
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("批量更新任务进度失败: " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * 删除任务
      * @param taskId 任务ID
@@ -237,13 +315,13 @@ public class TaskDAO {
         int progress = rs.getInt("progress");
         int rewardExp = rs.getInt("reward_exp");
         double rewardMoney = rs.getDouble("reward_money");
-        Date createdAt = new Date(rs.getTimestamp("created_at").getTime());
+        long createdAt = rs.getTimestamp("created_at").getTime();
         
         Timestamp expiresAtTimestamp = rs.getTimestamp("expires_at");
-        Date expiresAt = expiresAtTimestamp != null ? new Date(expiresAtTimestamp.getTime()) : null;
+        long expiresAt = expiresAtTimestamp != null ? expiresAtTimestamp.getTime() : 0L;
         
         Timestamp completedAtTimestamp = rs.getTimestamp("completed_at");
-        Date completedAt = completedAtTimestamp != null ? new Date(completedAtTimestamp.getTime()) : null;
+        long completedAt = completedAtTimestamp != null ? completedAtTimestamp.getTime() : 0L;
         
         return new GuildTask(id, guildId, type, description, target, progress, rewardExp, rewardMoney, createdAt, expiresAt, completedAt);
     }
@@ -8,7 +8,9 @@ import cn.i7mc.sagaguild.data.models.GuildWar;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -112,6 +114,28 @@ public class WarDAO {
         }
     }
 
+    /**
+     * 统计每个公会的战争胜利次数
+     * @return 公会ID -> 胜利次数
+     */
+    public Map<Integer, Integer> getWinCounts() {
+        Map<Integer, Integer> wins = new HashMap<>();
+        String sql = "SELECT winner_id, COUNT(*) AS wins FROM wars WHERE winner_id IS NOT NULL GROUP BY winner_id";
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                wins.put(rs.getInt("winner_id"), rs.getInt("wins"));
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("统计公会战胜利次数失败: " + e.getMessage());
+        }
+
+        return wins;
+    }
+
     /**
      * 根据ID获取公会战
      * @param id 公会战ID
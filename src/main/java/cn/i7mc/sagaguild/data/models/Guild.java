@@ -1,5 +1,8 @@
 package cn.i7mc.sagaguild.data.models;
 
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.config.PluginSettings;
+
 import java.util.Date;
 import java.util.UUID;
 
@@ -178,7 +181,7 @@ public class Guild {
 
         // 检查是否可以升级
         int nextLevelExp = getNextLevelExperience();
-        if (this.experience >= nextLevelExp && this.level < 10) {
+        if (this.experience >= nextLevelExp && this.level < settings().getMaxLevel()) {
             this.level++;
             return true;
         }
@@ -191,8 +194,19 @@ public class Guild {
      * @return 下一级所需经验
      */
     public int getNextLevelExperience() {
-        // 基础经验 + 每级增加的经验 * (当前等级 - 1)
-        return 1000 + 500 * (this.level - 1);
+        // 基础经验 + 每级增加的经验 * (当前等级 - 1)，加载设置时已预先计算
+        return settings().getNextLevelExperience(this.level);
+    }
+
+    /**
+     * 获取当前设置快照，插件未加载时使用默认设置
+     * @return 设置快照
+     */
+    private static PluginSettings settings() {
+        SagaGuild plugin = SagaGuild.getInstance();
+        return plugin != null && plugin.getConfigManager() != null
+                ? plugin.getConfigManager().getSettings()
+                : PluginSettings.DEFAULTS;
     }
 
     /**
@@ -1,9 +1,8 @@
 package cn.i7mc.sagaguild.data.models;
 
-import java.util.Date;
-
 /**
  * 公会任务数据模型
+ * 时间均为毫秒时间戳，0表示未设置
  */
 public class GuildTask {
     /**
@@ -44,9 +43,9 @@ public class GuildTask {
     private int progress;
     private int rewardExp;
     private double rewardMoney;
-    private Date createdAt;
-    private Date expiresAt;
-    private Date completedAt;
+    private long createdAt;
+    private long expiresAt;
+    private long completedAt;
     
     /**
      * 创建一个新的公会任务对象
@@ -59,11 +58,11 @@ public class GuildTask {
      * @param rewardExp 奖励经验
      * @param rewardMoney 奖励金钱
      * @param createdAt 创建时间
-     * @param expiresAt 过期时间
-     * @param completedAt 完成时间
+     * @param expiresAt 过期时间，0表示永不过期
+     * @param completedAt 完成时间，0表示未完成
      */
     public GuildTask(int id, int guildId, Type type, String description, int target, int progress, 
-                    int rewardExp, double rewardMoney, Date createdAt, Date expiresAt, Date completedAt) {
+                    int rewardExp, double rewardMoney, long createdAt, long expiresAt, long completedAt) {
         this.id = id;
         this.guildId = guildId;
         this.type = type;
@@ -85,9 +84,9 @@ public class GuildTask {
      * @param target 目标数量
      * @param rewardExp 奖励经验
      * @param rewardMoney 奖励金钱
-     * @param expiresAt 过期时间
+     * @param expiresAt 过期时间，0表示永不过期
      */
-    public GuildTask(int guildId, Type type, String description, int target, int rewardExp, double rewardMoney, Date expiresAt) {
+    public GuildTask(int guildId, Type type, String description, int target, int rewardExp, double rewardMoney, long expiresAt) {
         this.id = 0; // 未保存到数据库
         this.guildId = guildId;
         this.type = type;
@@ -96,9 +95,9 @@ public class GuildTask {
         this.progress = 0;
         this.rewardExp = rewardExp;
         this.rewardMoney = rewardMoney;
-        this.createdAt = new Date();
+        this.createdAt = System.currentTimeMillis();
         this.expiresAt = expiresAt;
-        this.completedAt = null;
+        this.completedAt = 0L;
     }
     
     // Getters and Setters
@@ -167,30 +166,43 @@ public class GuildTask {
         this.rewardMoney = rewardMoney;
     }
     
-    public Date getCreatedAt() {
+    public long getCreatedAt() {
         return createdAt;
     }
     
-    public void setCreatedAt(Date createdAt) {
+    public void setCreatedAt(long createdAt) {
         this.createdAt = createdAt;
     }
     
-    public Date getExpiresAt() {
+    public long getExpiresAt() {
         return expiresAt;
     }
     
-    public void setExpiresAt(Date expiresAt) {
+    public void setExpiresAt(long expiresAt) {
         this.expiresAt = expiresAt;
     }
     
-    public Date getCompletedAt() {
+    public long getCompletedAt() {
         return completedAt;
     }
     
-    public void setCompletedAt(Date completedAt) {
+    public void setCompletedAt(long completedAt) {
         this.completedAt = completedAt;
     }
     
+    public boolean isCompleted() {
+        return completedAt != 0L;
+    }
+    
+    /**
+     * 检查任务在指定时间是否已过期
+     * @param now 当前时间
+     * @return 是否已过期
+     */
+    public boolean isExpired(long now) {
+        return expiresAt != 0L && expiresAt <= now;
+    }
+    
     /**
      * 增加进度
      * @param amount 增加数量
@@ -200,8 +212,8 @@ public class GuildTask {
         this.progress += amount;
         
         // 检查是否完成
-        if (this.progress >= this.target && this.completedAt == null) {
-            this.completedAt = new Date();
+        if (this.progress >= this.target && this.completedAt == 0L) {
+            this.completedAt = System.currentTimeMillis();
             return true;
         }
         
@@ -213,9 +225,18 @@ public class GuildTask {
      * @return 任务状态
      */
     public Status getStatus() {
-        if (completedAt != null) {
+        return getStatus(System.currentTimeMillis());
+    }
+    
+    /**
+     * 获取任务在指定时间的状态
+     * @param now 当前时间
+     * @return 任务状态
+     */
+    public Status getStatus(long now) {
+        if (isCompleted()) {
             return Status.COMPLETED;
-        } else if (expiresAt != null && expiresAt.before(new Date())) {
+        } else if (isExpired(now)) {
             return Status.EXPIRED;
         } else {
             return Status.ACTIVE;
@@ -0,0 +1,63 @@
+package cn.i7mc.sagaguild.data.models;
+
+import java.util.UUID;
+
+/**
+ * 成员贡献数据模型
+ * 表示某个成员在某一类别下的贡献量
+ */
+public class MemberContribution {
+    /**
+     * 贡献类别枚举
+     */
+    public enum Type {
+        EXPERIENCE("公会经验"),
+        TASK("任务进度"),
+        WAR_KILL("公会战击杀");
+
+        private final String displayName;
+
+        Type(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private final int guildId;
+    private final UUID playerUuid;
+    private final Type type;
+    private final long amount;
+
+    /**
+     * 创建一个新的成员贡献对象
+     * @param guildId 公会ID
+     * @param playerUuid 玩家UUID
+     * @param type 贡献类别
+     * @param amount 贡献量
+     */
+    public MemberContribution(int guildId, UUID playerUuid, Type type, long amount) {
+        this.guildId = guildId;
+        this.playerUuid = playerUuid;
+        this.type = type;
+        this.amount = amount;
+    }
+
+    public int getGuildId() {
+        return guildId;
+    }
+
+    public UUID getPlayerUuid() {
+        return playerUuid;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+}
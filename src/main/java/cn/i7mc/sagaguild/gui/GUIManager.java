@@ -7,6 +7,7 @@ import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildMember;
 import cn.i7mc.sagaguild.data.models.GuildWar;
 import cn.i7mc.sagaguild.data.models.JoinRequest;
+import cn.i7mc.sagaguild.data.models.MemberContribution;
 import cn.i7mc.sagaguild.gui.holders.GuildListHolder;
 import cn.i7mc.sagaguild.gui.holders.GuildManageHolder;
 import cn.i7mc.sagaguild.gui.holders.GuildMemberHolder;
@@ -14,7 +15,9 @@ import cn.i7mc.sagaguild.gui.holders.GuildSettingsHolder;
 import cn.i7mc.sagaguild.gui.holders.GuildMemberActionHolder;
 import cn.i7mc.sagaguild.gui.holders.GuildRelationHolder;
 import cn.i7mc.sagaguild.gui.holders.GuildRelationManageHolder;
+import cn.i7mc.sagaguild.gui.holders.GuildViewHolder;
 import cn.i7mc.sagaguild.gui.holders.JoinRequestHolder;
+import cn.i7mc.sagaguild.gui.holders.LeaderboardHolder;
 import cn.i7mc.sagaguild.gui.listeners.GuildListListener;
 import cn.i7mc.sagaguild.gui.listeners.GuildManageListener;
 import cn.i7mc.sagaguild.gui.listeners.GuildMemberListener;
@@ -22,12 +25,15 @@ import cn.i7mc.sagaguild.gui.listeners.GuildSettingsListener;
 import cn.i7mc.sagaguild.gui.listeners.GuildMemberActionListener;
 import cn.i7mc.sagaguild.gui.listeners.GuildRelationListener;
 import cn.i7mc.sagaguild.gui.listeners.GuildRelationManageListener;
+import cn.i7mc.sagaguild.gui.listeners.GuildViewListener;
 import cn.i7mc.sagaguild.gui.listeners.JoinRequestListener;
+import cn.i7mc.sagaguild.gui.listeners.LeaderboardListener;
+import cn.i7mc.sagaguild.managers.GuildBrowserIndex;
+import cn.i7mc.sagaguild.managers.LeaderboardManager;
 import cn.i7mc.sagaguild.utils.InventoryUtil;
 import cn.i7mc.sagaguild.utils.ItemUtil;
 import net.kyori.adventure.text.Component;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
@@ -39,7 +45,9 @@ import org.bukkit.inventory.meta.SkullMeta;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * GUI管理器
@@ -47,19 +55,153 @@ import java.util.UUID;
  */
 public class GUIManager {
     private final SagaGuild plugin;
+    private final GuildViewRegistry viewRegistry;
+
+    // 等待输入搜索关键字的玩家
+    private final Map<UUID, GuildListHolder> pendingSearches = new ConcurrentHashMap<>();
 
     public GUIManager(SagaGuild plugin) {
         this.plugin = plugin;
+        this.viewRegistry = new GuildViewRegistry(plugin);
+
+        // 注册视图渲染器
+        viewRegistry.registerRenderer(GuildViewHolder.ViewType.MEMBERS, (holder, page) -> renderMemberView(holder.getGuild(), page));
+        viewRegistry.registerRenderer(GuildViewHolder.ViewType.JOIN_REQUESTS, (holder, page) -> renderJoinRequestView(holder.getGuild(), page));
+        viewRegistry.registerRenderer(GuildViewHolder.ViewType.RELATION_REQUESTS, (holder, page) -> renderRelationRequestView(holder.getGuild(), page));
+
+        // 注册视图打开方式，刷新后页码变化时用于更新标题
+        viewRegistry.registerOpener(GuildViewHolder.ViewType.MEMBERS, (player, holder, page) -> reopenGuildView(player, holder,
+                () -> openGuildMemberGUI(player, holder.getGuild(), page)));
+        viewRegistry.registerOpener(GuildViewHolder.ViewType.JOIN_REQUESTS, (player, holder, page) -> reopenGuildView(player, holder,
+                () -> openJoinRequestGUI(player, holder.getGuild(), page)));
+        viewRegistry.registerOpener(GuildViewHolder.ViewType.RELATION_REQUESTS, (player, holder, page) -> reopenGuildView(player, holder,
+                () -> openGuildRelationManageGUI(player, holder.getGuild(), page)));
 
         // 注册GUI监听器
-        plugin.getServer().getPluginManager().registerEvents(new GuildListListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new GuildManageListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new GuildMemberListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new GuildSettingsListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new GuildMemberActionListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new GuildRelationListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new GuildRelationManageListener(plugin), plugin);
-        plugin.getServer().getPluginManager().registerEvents(new JoinRequestListener(plugin), plugin);
+        plugin.getMetricsManager().registerEvents(new GuildListListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildManageListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildMemberListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildSettingsListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildMemberActionListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildRelationListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildRelationManageListener(plugin));
+        plugin.getMetricsManager().registerEvents(new JoinRequestListener(plugin));
+        plugin.getMetricsManager().registerEvents(new GuildViewListener(plugin));
+        plugin.getMetricsManager().registerEvents(new LeaderboardListener(plugin));
+    }
+
+    /**
+     * 获取视图订阅注册表
+     * @return 视图订阅注册表
+     */
+    public GuildViewRegistry getViewRegistry() {
+        return viewRegistry;
+    }
+
+    /**
+     * 刷新公会的某类已打开视图
+     * @param guildId 公会ID
+     * @param viewType 视图类型
+     */
+    public void refreshGuildViews(int guildId, GuildViewHolder.ViewType viewType) {
+        viewRegistry.refresh(guildId, viewType);
+    }
+
+    /**
+     * 刷新所有公会的某类已打开视图
+     * @param viewType 视图类型
+     */
+    public void refreshAllGuildViews(GuildViewHolder.ViewType viewType) {
+        viewRegistry.refreshAll(viewType);
+    }
+
+    /**
+     * 打开已订阅数据的公会视图
+     * @param player 玩家
+     * @param holder 视图持有者
+     * @param view 渲染结果
+     * @param title 标题
+     */
+    private void openGuildView(Player player, GuildViewHolder holder, GuildViewRegistry.RenderedView view, String title) {
+        holder.setPage(view.getPage());
+        Inventory inventory = InventoryUtil.createInventory(holder, 54, Component.text(title));
+        inventory.setContents(view.getContents());
+        holder.setInventory(inventory);
+
+        // 打开GUI并订阅数据变化
+        player.openInventory(inventory);
+        viewRegistry.subscribe(holder);
+    }
+
+    /**
+     * 重新打开公会视图
+     * 打开方法会重新检查权限，没有权限时不会打开新视图，此时关闭原视图而不是保留过期的标题
+     * @param player 玩家
+     * @param holder 原视图持有者
+     * @param open 打开新视图
+     */
+    private void reopenGuildView(Player player, GuildViewHolder holder, Runnable open) {
+        open.run();
+        if (player.getOpenInventory().getTopInventory().equals(holder.getInventory())) {
+            player.closeInventory();
+        }
+    }
+
+    /**
+     * 创建带名称的按钮
+     * @param material 物品类型
+     * @param messagePath 名称消息路径
+     * @return 物品堆
+     */
+    private ItemStack createButton(Material material, String messagePath) {
+        ItemStack button = new ItemStack(material);
+        ItemMeta meta = button.getItemMeta();
+        ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage(messagePath)));
+        button.setItemMeta(meta);
+        return button;
+    }
+
+    /**
+     * 将列表的某一页渲染为物品栏内容
+     * @param items 所有内容物品
+     * @param page 请求的页码
+     * @param withPaging 是否添加翻页按钮
+     * @return 渲染结果
+     */
+    private GuildViewRegistry.RenderedView renderPagedView(List<ItemStack> items, int page, boolean withPaging) {
+        // 计算总页数
+        int totalItems = items.size();
+        int itemsPerPage = 45; // 9x5
+        int totalPages = (int) Math.ceil((double) totalItems / itemsPerPage);
+
+        // 检查页码是否有效
+        if (page < 1) {
+            page = 1;
+        } else if (page > totalPages && totalPages > 0) {
+            page = totalPages;
+        }
+
+        ItemStack[] contents = new ItemStack[54];
+
+        // 填充内容物品
+        int startIndex = (page - 1) * itemsPerPage;
+        int endIndex = Math.min(startIndex + itemsPerPage, totalItems);
+        for (int i = startIndex; i < endIndex; i++) {
+            contents[i - startIndex] = items.get(i);
+        }
+
+        // 添加导航按钮
+        if (withPaging && page > 1) {
+            contents[45] = createButton(Material.ARROW, "gui.previous-page");
+        }
+        if (withPaging && page < totalPages) {
+            contents[53] = createButton(Material.ARROW, "gui.next-page");
+        }
+
+        // 返回按钮
+        contents[49] = createButton(Material.BARRIER, "gui.back");
+
+        return new GuildViewRegistry.RenderedView(page, contents);
     }
 
     /**
@@ -68,66 +210,89 @@ public class GUIManager {
      * @param page 页码
      */
     public void openGuildListGUI(Player player, int page) {
-        try {
-            // 获取所有公会
-            List<Guild> guilds = plugin.getGuildManager().getAllGuilds();
-
-            if (guilds == null) {
-                player.sendMessage(plugin.getConfigManager().getMessage("guild.list-failed"));
-                return;
-            }
+        openGuildListGUI(player, page, GuildBrowserIndex.SortType.LEVEL, GuildBrowserIndex.FilterType.ALL, null);
+    }
 
-            // 计算总页数
-            int totalGuilds = guilds.size();
+    /**
+     * 打开公会列表GUI
+     * @param player 玩家
+     * @param page 页码
+     * @param sortType 排序方式
+     * @param filterType 筛选方式
+     * @param query 搜索关键字，为null时不搜索
+     */
+    public void openGuildListGUI(Player player, int page, GuildBrowserIndex.SortType sortType,
+                                 GuildBrowserIndex.FilterType filterType, String query) {
+        try {
+            // 从预排序索引中截取当前页
             int guildsPerPage = 45; // 9x5
-            int totalPages = (int) Math.ceil((double) totalGuilds / guildsPerPage);
-
-            // 检查页码是否有效
-            if (page < 1) {
-                page = 1;
-            } else if (page > totalPages && totalPages > 0) {
-                page = totalPages;
-            }
+            GuildBrowserIndex.Page result = plugin.getGuildManager().getBrowserIndex()
+                    .getPage(sortType, filterType, query, page, guildsPerPage);
+            page = result.getPage();
 
             // 创建物品栏
             String title = plugin.getConfigManager().getMessage("gui.guild-list-title", "page", String.valueOf(page));
-            Inventory inventory = InventoryUtil.createInventory(new GuildListHolder(page), 54, Component.text(title));
+            GuildListHolder holder = new GuildListHolder(page, sortType, filterType, query);
+            Inventory inventory = InventoryUtil.createInventory(holder, 54, Component.text(title));
 
             // 填充公会物品
-            int startIndex = (page - 1) * guildsPerPage;
-            int endIndex = Math.min(startIndex + guildsPerPage, totalGuilds);
-
-            for (int i = startIndex; i < endIndex; i++) {
-                Guild guild = guilds.get(i);
-                ItemStack item = createGuildItem(guild);
-                inventory.setItem(i - startIndex, item);
+            List<Guild> guilds = result.getGuilds();
+            for (int i = 0; i < guilds.size(); i++) {
+                inventory.setItem(i, createGuildItem(guilds.get(i)));
             }
 
             // 添加导航按钮
             if (page > 1) {
                 // 上一页按钮
-                ItemStack prevButton = new ItemStack(Material.ARROW);
-                ItemMeta meta = prevButton.getItemMeta();
-                ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.previous-page")));
-                prevButton.setItemMeta(meta);
-                inventory.setItem(45, prevButton);
+                inventory.setItem(45, createButton(Material.ARROW, "gui.previous-page"));
             }
 
-            if (page < totalPages) {
+            if (page < result.getTotalPages()) {
                 // 下一页按钮
-                ItemStack nextButton = new ItemStack(Material.ARROW);
-                ItemMeta meta = nextButton.getItemMeta();
-                ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.next-page")));
-                nextButton.setItemMeta(meta);
-                inventory.setItem(53, nextButton);
+                inventory.setItem(53, createButton(Material.ARROW, "gui.next-page"));
+            }
+
+            // 排序按钮
+            ItemStack sortButton = createButton(Material.HOPPER, "gui.sort-button");
+            ItemMeta sortMeta = sortButton.getItemMeta();
+            List<Component> sortLore = new ArrayList<>();
+            sortLore.add(Component.text("§7当前: §f" + sortType.getDisplayName()));
+            sortLore.add(Component.text(""));
+            sortLore.add(Component.text("§e点击切换"));
+            ItemUtil.setLore(sortMeta, sortLore);
+            sortButton.setItemMeta(sortMeta);
+            inventory.setItem(46, sortButton);
+
+            // 筛选按钮
+            ItemStack filterButton = createButton(filterType == GuildBrowserIndex.FilterType.PUBLIC ? Material.LIME_DYE : Material.GRAY_DYE, "gui.filter-button");
+            ItemMeta filterMeta = filterButton.getItemMeta();
+            List<Component> filterLore = new ArrayList<>();
+            filterLore.add(Component.text("§7当前: §f" + filterType.getDisplayName()));
+            filterLore.add(Component.text(""));
+            filterLore.add(Component.text("§e点击切换"));
+            ItemUtil.setLore(filterMeta, filterLore);
+            filterButton.setItemMeta(filterMeta);
+            inventory.setItem(47, filterButton);
+
+            // 搜索按钮
+            ItemStack searchButton = createButton(Material.OAK_SIGN, "gui.search-button");
+            ItemMeta searchMeta = searchButton.getItemMeta();
+            List<Component> searchLore = new ArrayList<>();
+            searchLore.add(Component.text("§7当前: §f" + (query != null ? query : "无")));
+            searchLore.add(Component.text("§7结果: §f" + result.getTotalGuilds() + " 个公会"));
+            searchLore.add(Component.text(""));
+            searchLore.add(Component.text("§e点击在聊天栏输入关键字"));
+            ItemUtil.setLore(searchMeta, searchLore);
+            searchButton.setItemMeta(searchMeta);
+            inventory.setItem(48, searchButton);
+
+            // 清除搜索按钮
+            if (query != null) {
+                inventory.setItem(50, createButton(Material.FEATHER, "gui.clear-search"));
             }
 
             // 返回按钮
-            ItemStack backButton = new ItemStack(Material.BARRIER);
-            ItemMeta meta = backButton.getItemMeta();
-            ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.back")));
-            backButton.setItemMeta(meta);
-            inventory.setItem(49, backButton);
+            inventory.setItem(49, createButton(Material.BARRIER, "gui.back"));
 
             // 打开GUI
             player.openInventory(inventory);
@@ -141,6 +306,148 @@ public class GUIManager {
         }
     }
 
+    /**
+     * 打开公会排行GUI
+     * @param player 玩家
+     * @param category 排行类别
+     * @param page 页码
+     */
+    public void openLeaderboardGUI(Player player, LeaderboardManager.Category category, int page) {
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+
+        // 计算总页数
+        int guildsPerPage = 45; // 9x5
+        int totalPages = Math.max(1, (leaderboard.size(category) + guildsPerPage - 1) / guildsPerPage);
+        page = Math.max(1, Math.min(page, totalPages));
+        int offset = (page - 1) * guildsPerPage;
+
+        // 创建物品栏
+        String title = plugin.getConfigManager().getMessage("gui.leaderboard-title",
+                "type", category.getDisplayName(), "page", String.valueOf(page));
+        LeaderboardHolder holder = new LeaderboardHolder(category, page);
+        Inventory inventory = InventoryUtil.createInventory(holder, 54, Component.text(title));
+
+        // 只截取当前页的公会
+        int[] guildIds = leaderboard.getRange(category, offset, guildsPerPage);
+        for (int i = 0; i < guildIds.length; i++) {
+            Guild guild = plugin.getGuildManager().getGuildById(guildIds[i]);
+            if (guild != null) {
+                inventory.setItem(i, createLeaderboardItem(guild, category, offset + i + 1));
+            }
+        }
+
+        // 添加导航按钮
+        if (page > 1) {
+            inventory.setItem(45, createButton(Material.ARROW, "gui.previous-page"));
+        }
+        if (page < totalPages) {
+            inventory.setItem(53, createButton(Material.ARROW, "gui.next-page"));
+        }
+
+        // 类别按钮
+        ItemStack categoryButton = createButton(Material.HOPPER, "gui.leaderboard-category-button");
+        ItemMeta categoryMeta = categoryButton.getItemMeta();
+        List<Component> categoryLore = new ArrayList<>();
+        categoryLore.add(Component.text("§7当前: §f" + category.getDisplayName()));
+        categoryLore.add(Component.text(""));
+        categoryLore.add(Component.text("§e点击切换"));
+        ItemUtil.setLore(categoryMeta, categoryLore);
+        categoryButton.setItemMeta(categoryMeta);
+        inventory.setItem(47, categoryButton);
+
+        // 返回按钮
+        inventory.setItem(49, createButton(Material.BARRIER, "gui.back"));
+
+        // 打开GUI
+        player.openInventory(inventory);
+    }
+
+    /**
+     * 创建排行中的公会物品
+     * @param guild 公会对象
+     * @param category 排行类别
+     * @param rank 名次
+     * @return 物品堆
+     */
+    private ItemStack createLeaderboardItem(Guild guild, LeaderboardManager.Category category, int rank) {
+        Material material;
+        switch (rank) {
+            case 1:
+                material = Material.GOLD_BLOCK;
+                break;
+            case 2:
+                material = Material.IRON_BLOCK;
+                break;
+            case 3:
+                material = Material.COPPER_BLOCK;
+                break;
+            default:
+                material = Material.PAPER;
+                break;
+        }
+
+        ItemStack item = new ItemStack(material);
+        ItemMeta meta = item.getItemMeta();
+        ItemUtil.setDisplayName(meta, Component.text("§e#" + rank + " §b" + guild.getName() + " §8[§7" + guild.getTag() + "§8]"));
+
+        LeaderboardManager leaderboard = plugin.getLeaderboardManager();
+        List<Component> lore = new ArrayList<>();
+        lore.add(Component.text("§7" + category.getDisplayName() + ": §f"
+                + leaderboard.formatScore(category, leaderboard.getScore(category, guild.getId()))));
+        lore.add(Component.text("§7等级: §f" + guild.getLevel()));
+        lore.add(Component.text("§7成员: §f" + plugin.getGuildManager().getGuildMemberIds(guild.getId()).size()));
+        ItemUtil.setLore(meta, lore);
+        item.setItemMeta(meta);
+
+        return item;
+    }
+
+    /**
+     * 提示玩家在聊天栏输入公会搜索关键字
+     * @param player 玩家
+     * @param holder 当前公会列表持有者
+     */
+    public void promptGuildSearch(Player player, GuildListHolder holder) {
+        pendingSearches.put(player.getUniqueId(), holder);
+        player.closeInventory();
+        player.sendMessage(plugin.getConfigManager().getMessage("gui.search-prompt"));
+    }
+
+    /**
+     * 处理聊天输入
+     * 玩家正在输入搜索关键字时拦截这条消息
+     * @param player 玩家
+     * @param message 消息内容
+     * @return 是否已处理（需要取消聊天事件）
+     */
+    public boolean handleChatInput(Player player, String message) {
+        GuildListHolder holder = pendingSearches.remove(player.getUniqueId());
+        if (holder == null) {
+            return false;
+        }
+
+        String input = message.trim();
+        if (input.equalsIgnoreCase("cancel") || input.equals("取消")) {
+            player.sendMessage(plugin.getConfigManager().getMessage("gui.search-cancelled"));
+            return true;
+        }
+
+        String query = input.length() > 32 ? input.substring(0, 32) : input;
+
+        // 聊天事件为异步线程，回到服务器线程打开GUI
+        SagaGuild.getYLib().getScheduler().runLater(() -> openGuildListGUI(player, 1, holder.getSortType(),
+                holder.getFilterType(), query.isEmpty() ? null : query), 1L);
+        return true;
+    }
+
+    /**
+     * 取消玩家的聊天输入
+     * @param playerUuid 玩家UUID
+     */
+    public void cancelChatInput(UUID playerUuid) {
+        pendingSearches.remove(playerUuid);
+    }
+
     /**
      * 打开公会管理GUI
      * @param player 玩家
@@ -300,63 +607,30 @@ public class GUIManager {
             return;
         }
 
-        // 获取公会成员列表
-        List<GuildMember> members = plugin.getGuildManager().getGuildMembers(guild.getId());
-
-        // 计算总页数
-        int totalMembers = members.size();
-        int membersPerPage = 45; // 9x5
-        int totalPages = (int) Math.ceil((double) totalMembers / membersPerPage);
-
-        // 检查页码是否有效
-        if (page < 1) {
-            page = 1;
-        } else if (page > totalPages && totalPages > 0) {
-            page = totalPages;
-        }
-
-        // 创建物品栏
-        String title = plugin.getConfigManager().getMessage("gui.guild-member-title", "name", guild.getName(), "page", String.valueOf(page));
-        Inventory inventory = InventoryUtil.createInventory(new GuildMemberHolder(guild, page), 54, Component.text(title));
-
-        // 填充成员物品
-        int startIndex = (page - 1) * membersPerPage;
-        int endIndex = Math.min(startIndex + membersPerPage, totalMembers);
+        GuildMemberHolder holder = new GuildMemberHolder(guild, page);
+        GuildViewRegistry.RenderedView view = renderMemberView(guild, page);
 
-        for (int i = startIndex; i < endIndex; i++) {
-            GuildMember member = members.get(i);
-            ItemStack item = createMemberItem(member);
-            inventory.setItem(i - startIndex, item);
-        }
+        // 创建并打开物品栏
+        String title = plugin.getConfigManager().getMessage("gui.guild-member-title", "name", guild.getName(), "page", String.valueOf(view.getPage()));
+        openGuildView(player, holder, view, title);
+    }
 
-        // 添加导航按钮
-        if (page > 1) {
-            // 上一页按钮
-            ItemStack prevButton = new ItemStack(Material.ARROW);
-            ItemMeta meta = prevButton.getItemMeta();
-            ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.previous-page")));
-            prevButton.setItemMeta(meta);
-            inventory.setItem(45, prevButton);
-        }
+    /**
+     * 渲染公会成员管理视图
+     * @param guild 公会对象
+     * @param page 页码
+     * @return 渲染结果
+     */
+    private GuildViewRegistry.RenderedView renderMemberView(Guild guild, int page) {
+        // 获取公会成员列表
+        List<GuildMember> members = plugin.getGuildManager().getGuildMembers(guild.getId());
 
-        if (page < totalPages) {
-            // 下一页按钮
-            ItemStack nextButton = new ItemStack(Material.ARROW);
-            ItemMeta meta = nextButton.getItemMeta();
-            ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.next-page")));
-            nextButton.setItemMeta(meta);
-            inventory.setItem(53, nextButton);
+        List<ItemStack> items = new ArrayList<>(members.size());
+        for (GuildMember member : members) {
+            items.add(createMemberItem(member));
         }
 
-        // 返回按钮
-        ItemStack backButton = new ItemStack(Material.BARRIER);
-        ItemMeta meta = backButton.getItemMeta();
-        ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.back")));
-        backButton.setItemMeta(meta);
-        inventory.setItem(49, backButton);
-
-        // 打开GUI
-        player.openInventory(inventory);
+        return renderPagedView(items, page, true);
     }
 
     /**
@@ -373,44 +647,30 @@ public class GUIManager {
             return;
         }
 
-        // 获取公会的加入请求
-        List<JoinRequest> requests = plugin.getGuildManager().getGuildJoinRequests(guild.getId());
-
-        // 计算总页数
-        int totalRequests = requests.size();
-        int requestsPerPage = 45; // 9x5
-        int totalPages = (int) Math.ceil((double) totalRequests / requestsPerPage);
+        JoinRequestHolder holder = new JoinRequestHolder(guild, page);
+        GuildViewRegistry.RenderedView view = renderJoinRequestView(guild, page);
 
-        // 检查页码是否有效
-        if (page < 1) {
-            page = 1;
-        } else if (page > totalPages && totalPages > 0) {
-            page = totalPages;
-        }
-
-        // 创建物品栏
-        String title = plugin.getConfigManager().getMessage("gui.guild-join-request-title", "name", guild.getName(), "page", String.valueOf(page));
-        Inventory inventory = InventoryUtil.createInventory(new JoinRequestHolder(guild, page), 54, Component.text(title));
+        // 创建并打开物品栏
+        String title = plugin.getConfigManager().getMessage("gui.guild-join-request-title", "name", guild.getName(), "page", String.valueOf(view.getPage()));
+        openGuildView(player, holder, view, title);
+    }
 
-        // 填充请求物品
-        int startIndex = (page - 1) * requestsPerPage;
-        int endIndex = Math.min(startIndex + requestsPerPage, totalRequests);
+    /**
+     * 渲染加入请求管理视图
+     * @param guild 公会对象
+     * @param page 页码
+     * @return 渲染结果
+     */
+    private GuildViewRegistry.RenderedView renderJoinRequestView(Guild guild, int page) {
+        // 获取公会的加入请求
+        List<JoinRequest> requests = plugin.getGuildManager().getGuildJoinRequests(guild.getId());
 
-        for (int i = startIndex; i < endIndex; i++) {
-            JoinRequest request = requests.get(i);
-            ItemStack item = createJoinRequestItem(request);
-            inventory.setItem(i - startIndex, item);
+        List<ItemStack> items = new ArrayList<>(requests.size());
+        for (JoinRequest request : requests) {
+            items.add(createJoinRequestItem(request));
         }
 
-        // 返回按钮
-        ItemStack backButton = new ItemStack(Material.BARRIER);
-        ItemMeta meta = backButton.getItemMeta();
-        ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.back")));
-        backButton.setItemMeta(meta);
-        inventory.setItem(49, backButton);
-
-        // 打开GUI
-        player.openInventory(inventory);
+        return renderPagedView(items, page, false);
     }
 
     /**
@@ -422,8 +682,10 @@ public class GUIManager {
         ItemStack item = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) item.getItemMeta();
 
-        // 设置玩家头颅
-        meta.setOwningPlayer(Bukkit.getOfflinePlayer(request.getPlayerUuid()));
+        // 设置玩家头颅（材质未缓存时先显示默认头颅，解析后刷新视图）
+        int guildId = request.getGuildId();
+        plugin.getProfileCacheManager().applyHead(meta, request.getPlayerUuid(), request.getPlayerName(),
+                "join-requests:" + guildId, () -> refreshGuildViews(guildId, GuildViewHolder.ViewType.JOIN_REQUESTS));
 
         // 设置显示名称
         ItemUtil.setDisplayName(meta, Component.text("§e" + request.getPlayerName() + " §7的加入申请"));
@@ -570,16 +832,20 @@ public class GUIManager {
         }
 
         // 添加会长
-        String ownerName = Bukkit.getOfflinePlayer(guild.getOwnerUuid()).getName();
+        String ownerName = plugin.getPlayerNameManager().getName(guild.getOwnerUuid());
         if (ownerName != null) {
             lore.add(Component.text("§7会长: §f" + ownerName));
         }
 
         // 添加成员数量
-        int memberCount = plugin.getGuildManager().getGuildMemberCount(guild.getId());
+        int memberCount = plugin.getGuildManager().getCachedMemberCount(guild.getId());
         int maxMembers = guild.getMaxMembers(plugin.getGuildManager());
         lore.add(Component.text("§7成员: §f" + memberCount + "/" + maxMembers));
 
+        // 添加在线人数
+        int onlineCount = plugin.getGuildManager().getBrowserIndex().getOnlineCount(guild.getId());
+        lore.add(Component.text("§7在线: §f" + onlineCount));
+
         // 添加等级
         lore.add(Component.text("§7等级: §f" + guild.getLevel()));
 
@@ -733,17 +999,12 @@ public class GUIManager {
         String title = plugin.getConfigManager().getMessage("gui.guild-member-action-title", "name", targetMember.getPlayerName());
         Inventory inventory = InventoryUtil.createInventory(new GuildMemberActionHolder(guild, targetMember), 36, Component.text(title));
 
-        // 成员信息
-        ItemStack infoItem = new ItemStack(Material.PLAYER_HEAD);
-        SkullMeta infoMeta = (SkullMeta) infoItem.getItemMeta();
-        infoMeta.setOwningPlayer(Bukkit.getOfflinePlayer(targetMember.getPlayerUuid()));
-        ItemUtil.setDisplayName(infoMeta, Component.text("§b" + targetMember.getPlayerName()));
-        List<Component> infoLore = new ArrayList<>();
-        infoLore.add(Component.text("§7职位: §f" + targetMember.getRole().getDisplayName()));
-        infoLore.add(Component.text("§7加入时间: §f" + targetMember.getJoinedAt()));
-        ItemUtil.setLore(infoMeta, infoLore);
-        infoItem.setItemMeta(infoMeta);
-        inventory.setItem(4, infoItem);
+        // 成员信息（材质解析后仍在查看时更新头颅）
+        inventory.setItem(4, createMemberInfoItem(targetMember, () -> SagaGuild.getYLib().getScheduler().runLater(() -> {
+            if (player.getOpenInventory().getTopInventory().equals(inventory)) {
+                inventory.setItem(4, createMemberInfoItem(targetMember, null));
+            }
+        }, 1L)));
 
         // 提升职位
         if (playerMember.isAdmin() && targetMember.getRole() != GuildMember.Role.OWNER) {
@@ -844,6 +1105,26 @@ public class GUIManager {
         player.openInventory(inventory);
     }
 
+    /**
+     * 创建成员信息头颅
+     * @param targetMember 目标成员
+     * @param onResolved 材质解析完成后的回调，可为null
+     * @return 物品堆
+     */
+    private ItemStack createMemberInfoItem(GuildMember targetMember, Runnable onResolved) {
+        ItemStack infoItem = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta infoMeta = (SkullMeta) infoItem.getItemMeta();
+        plugin.getProfileCacheManager().applyHead(infoMeta, targetMember.getPlayerUuid(), targetMember.getPlayerName(),
+                null, onResolved);
+        ItemUtil.setDisplayName(infoMeta, Component.text("§b" + targetMember.getPlayerName()));
+        List<Component> infoLore = new ArrayList<>();
+        infoLore.add(Component.text("§7职位: §f" + targetMember.getRole().getDisplayName()));
+        infoLore.add(Component.text("§7加入时间: §f" + targetMember.getJoinedAt()));
+        ItemUtil.setLore(infoMeta, infoLore);
+        infoItem.setItemMeta(infoMeta);
+        return infoItem;
+    }
+
     /**
      * 检查是否有权限管理成员
      * @param manager 管理者
@@ -997,6 +1278,21 @@ public class GUIManager {
             return;
         }
 
+        GuildRelationManageHolder holder = new GuildRelationManageHolder(guild, page);
+        GuildViewRegistry.RenderedView view = renderRelationRequestView(guild, page);
+
+        // 创建并打开物品栏
+        String title = plugin.getConfigManager().getMessage("gui.guild-relation-manage-title", "page", String.valueOf(view.getPage()));
+        openGuildView(player, holder, view, title);
+    }
+
+    /**
+     * 渲染公会关系管理视图
+     * @param guild 公会对象
+     * @param page 页码
+     * @return 渲染结果
+     */
+    private GuildViewRegistry.RenderedView renderRelationRequestView(Guild guild, int page) {
         // 获取所有关系请求
         List<ItemStack> requestItems = new ArrayList<>();
 
@@ -1048,58 +1344,7 @@ public class GUIManager {
             }
         }
 
-        // 计算总页数
-        int totalRequests = requestItems.size();
-        int requestsPerPage = 45; // 9x5
-        int totalPages = (int) Math.ceil((double) totalRequests / requestsPerPage);
-
-        // 检查页码是否有效
-        if (page < 1) {
-            page = 1;
-        } else if (page > totalPages && totalPages > 0) {
-            page = totalPages;
-        }
-
-        // 创建物品栏
-        String title = plugin.getConfigManager().getMessage("gui.guild-relation-manage-title", "page", String.valueOf(page));
-        Inventory inventory = InventoryUtil.createInventory(new GuildRelationManageHolder(guild, page), 54, Component.text(title));
-
-        // 填充请求物品
-        int startIndex = (page - 1) * requestsPerPage;
-        int endIndex = Math.min(startIndex + requestsPerPage, totalRequests);
-
-        for (int i = startIndex; i < endIndex; i++) {
-            inventory.setItem(i - startIndex, requestItems.get(i));
-        }
-
-        // 添加导航按钮
-        if (page > 1) {
-            // 上一页按钮
-            ItemStack prevButton = new ItemStack(Material.ARROW);
-            ItemMeta meta = prevButton.getItemMeta();
-            ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.previous-page")));
-            prevButton.setItemMeta(meta);
-            inventory.setItem(45, prevButton);
-        }
-
-        if (page < totalPages) {
-            // 下一页按钮
-            ItemStack nextButton = new ItemStack(Material.ARROW);
-            ItemMeta meta = nextButton.getItemMeta();
-            ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.next-page")));
-            nextButton.setItemMeta(meta);
-            inventory.setItem(53, nextButton);
-        }
-
-        // 返回按钮
-        ItemStack backButton = new ItemStack(Material.BARRIER);
-        ItemMeta meta = backButton.getItemMeta();
-        ItemUtil.setDisplayName(meta, Component.text(plugin.getConfigManager().getMessage("gui.back")));
-        backButton.setItemMeta(meta);
-        inventory.setItem(49, backButton);
-
-        // 打开GUI
-        player.openInventory(inventory);
+        return renderPagedView(requestItems, page, true);
     }
 
     /**
@@ -1111,8 +1356,10 @@ public class GUIManager {
         ItemStack item = new ItemStack(Material.PLAYER_HEAD);
         SkullMeta meta = (SkullMeta) item.getItemMeta();
 
-        // 设置玩家头颅
-        meta.setOwningPlayer(Bukkit.getOfflinePlayer(member.getPlayerUuid()));
+        // 设置玩家头颅（材质未缓存时先显示默认头颅，解析后刷新视图）
+        int guildId = member.getGuildId();
+        plugin.getProfileCacheManager().applyHead(meta, member.getPlayerUuid(), member.getPlayerName(),
+                "members:" + guildId, () -> refreshGuildViews(guildId, GuildViewHolder.ViewType.MEMBERS));
 
         // 设置显示名称
         ItemUtil.setDisplayName(meta, Component.text("§b" + member.getPlayerName()));
@@ -1126,6 +1373,13 @@ public class GUIManager {
         // 添加加入时间
         lore.add(Component.text("§7加入时间: §f" + member.getJoinedAt()));
 
+        // 添加成员贡献
+        lore.add(Component.text("§7贡献:"));
+        for (MemberContribution.Type type : MemberContribution.Type.values()) {
+            long amount = plugin.getContributionManager().getContribution(guildId, member.getPlayerUuid(), type);
+            lore.add(Component.text("§7- " + type.getDisplayName() + ": §f" + amount));
+        }
+
         // 添加UUID（用于识别玩家，不显示给玩家看）
         lore.add(Component.text("§8UUID: " + member.getPlayerUuid().toString()));
 
@@ -0,0 +1,238 @@
+package cn.i7mc.sagaguild.gui;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.gui.holders.GuildViewHolder;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 公会视图订阅注册表
+ * 记录当前打开的公会视图，数据变化时重新渲染并只更新发生变化的槽位
+ */
+public class GuildViewRegistry {
+    private final SagaGuild plugin;
+
+    // 公会ID -> 正在打开的视图
+    private final Map<Integer, Set<GuildViewHolder>> viewsByGuild = new ConcurrentHashMap<>();
+
+    // 视图类型 -> 渲染器
+    private final Map<GuildViewHolder.ViewType, ViewRenderer> renderers = new EnumMap<>(GuildViewHolder.ViewType.class);
+
+    // 视图类型 -> 打开方式
+    private final Map<GuildViewHolder.ViewType, ViewOpener> openers = new EnumMap<>(GuildViewHolder.ViewType.class);
+
+    public GuildViewRegistry(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 视图渲染器
+     * 根据公会数据生成整页物品
+     */
+    @FunctionalInterface
+    public interface ViewRenderer {
+        /**
+         * 渲染视图
+         * @param holder 视图持有者
+         * @param page 请求的页码
+         * @return 渲染结果
+         */
+        RenderedView render(GuildViewHolder holder, int page);
+    }
+
+    /**
+     * 视图打开方式
+     * 刷新后页码变化时按新页码重新打开视图，使标题中的页码与内容一致
+     */
+    @FunctionalInterface
+    public interface ViewOpener {
+        /**
+         * 打开视图
+         * @param player 玩家
+         * @param holder 原视图持有者
+         * @param page 页码
+         */
+        void open(Player player, GuildViewHolder holder, int page);
+    }
+
+    /**
+     * 渲染结果
+     * 包含修正后的页码和整页物品
+     */
+    public static class RenderedView {
+        private final int page;
+        private final ItemStack[] contents;
+
+        public RenderedView(int page, ItemStack[] contents) {
+            this.page = page;
+            this.contents = contents;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public ItemStack[] getContents() {
+            return contents;
+        }
+    }
+
+    /**
+     * 注册视图渲染器
+     * @param viewType 视图类型
+     * @param renderer 渲染器
+     */
+    public void registerRenderer(GuildViewHolder.ViewType viewType, ViewRenderer renderer) {
+        renderers.put(viewType, renderer);
+    }
+
+    /**
+     * 注册视图打开方式
+     * @param viewType 视图类型
+     * @param opener 打开方式
+     */
+    public void registerOpener(GuildViewHolder.ViewType viewType, ViewOpener opener) {
+        openers.put(viewType, opener);
+    }
+
+    /**
+     * 订阅视图
+     * @param holder 视图持有者
+     */
+    public void subscribe(GuildViewHolder holder) {
+        viewsByGuild.computeIfAbsent(holder.getGuild().getId(), k -> ConcurrentHashMap.newKeySet()).add(holder);
+    }
+
+    /**
+     * 取消订阅视图
+     * @param holder 视图持有者
+     */
+    public void unsubscribe(GuildViewHolder holder) {
+        viewsByGuild.computeIfPresent(holder.getGuild().getId(), (guildId, views) -> {
+            views.remove(holder);
+            return views.isEmpty() ? null : views;
+        });
+    }
+
+    /**
+     * 刷新公会的某类视图
+     * 同一页只渲染一次，然后对每个查看者做槽位差异更新
+     * @param guildId 公会ID
+     * @param viewType 视图类型
+     */
+    public void refresh(int guildId, GuildViewHolder.ViewType viewType) {
+        Set<GuildViewHolder> views = viewsByGuild.get(guildId);
+        if (views == null || views.isEmpty()) {
+            return;
+        }
+
+        ViewRenderer renderer = renderers.get(viewType);
+        if (renderer == null) {
+            return;
+        }
+
+        Map<Integer, RenderedView> renderedPages = new HashMap<>();
+        Map<GuildViewHolder, RenderedView> updates = new HashMap<>();
+        for (GuildViewHolder holder : views) {
+            if (holder.getViewType() != viewType) {
+                continue;
+            }
+
+            Inventory inventory = holder.getInventory();
+            Player viewer = inventory != null ? getViewer(inventory) : null;
+            if (viewer == null) {
+                // 已无人查看，清理订阅
+                unsubscribe(holder);
+                continue;
+            }
+
+            RenderedView view = renderedPages.computeIfAbsent(holder.getPage(), page -> renderer.render(holder, page));
+
+            updates.put(holder, view);
+        }
+
+        // 所有查看者的物品栏在同一个任务中更新
+        if (!updates.isEmpty()) {
+            SagaGuild.getYLib().getScheduler().runLater(() -> {
+                for (Map.Entry<GuildViewHolder, RenderedView> entry : updates.entrySet()) {
+                    applyDiff(entry.getKey(), entry.getValue());
+                }
+            }, 1L);
+        }
+    }
+
+    /**
+     * 刷新所有公会的某类视图
+     * @param viewType 视图类型
+     */
+    public void refreshAll(GuildViewHolder.ViewType viewType) {
+        for (Integer guildId : viewsByGuild.keySet()) {
+            refresh(guildId, viewType);
+        }
+    }
+
+    /**
+     * 清空所有订阅
+     */
+    public void clear() {
+        viewsByGuild.clear();
+    }
+
+    /**
+     * 将渲染结果与当前物品栏比较，只更新变化的槽位
+     * @param holder 视图持有者
+     * @param view 渲染结果
+     */
+    private void applyDiff(GuildViewHolder holder, RenderedView view) {
+        Inventory inventory = holder.getInventory();
+        if (inventory == null || inventory.getViewers().isEmpty()) {
+            return;
+        }
+
+        // 标题只能在打开时设置，页码变化时按新页码重新打开
+        if (view.getPage() != holder.getPage()) {
+            ViewOpener opener = openers.get(holder.getViewType());
+            Player viewer = getViewer(inventory);
+            if (opener != null && viewer != null) {
+                opener.open(viewer, holder, view.getPage());
+                return;
+            }
+            holder.setPage(view.getPage());
+        }
+
+        ItemStack[] contents = view.getContents();
+        int size = Math.min(contents.length, inventory.getSize());
+        for (int slot = 0; slot < size; slot++) {
+            ItemStack current = inventory.getItem(slot);
+            ItemStack next = contents[slot];
+            if (!Objects.equals(current, next)) {
+                inventory.setItem(slot, next);
+            }
+        }
+    }
+
+    /**
+     * 获取物品栏的查看者
+     * @param inventory 物品栏
+     * @return 查看者，不存在返回null
+     */
+    private Player getViewer(Inventory inventory) {
+        List<HumanEntity> viewers = inventory.getViewers();
+        for (HumanEntity viewer : viewers) {
+            if (viewer instanceof Player) {
+                return (Player) viewer;
+            }
+        }
+        return null;
+    }
+}
@@ -1,17 +1,35 @@
 package cn.i7mc.sagaguild.gui.holders;
 
+import cn.i7mc.sagaguild.managers.GuildBrowserIndex;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 
 /**
  * 公会列表持有者
- * 用于标识公会列表GUI
+ * 用于标识公会列表GUI，并记录当前的排序、筛选和搜索条件
  */
 public class GuildListHolder implements InventoryHolder {
     private final int page;
+    private final GuildBrowserIndex.SortType sortType;
+    private final GuildBrowserIndex.FilterType filterType;
+    private final String query;
     
     public GuildListHolder(int page) {
+        this(page, GuildBrowserIndex.SortType.LEVEL, GuildBrowserIndex.FilterType.ALL, null);
+    }
+
+    /**
+     * 构造函数
+     * @param page 页码
+     * @param sortType 排序方式
+     * @param filterType 筛选方式
+     * @param query 搜索关键字，为null时不搜索
+     */
+    public GuildListHolder(int page, GuildBrowserIndex.SortType sortType, GuildBrowserIndex.FilterType filterType, String query) {
         this.page = page;
+        this.sortType = sortType;
+        this.filterType = filterType;
+        this.query = query;
     }
     
     /**
@@ -21,6 +39,30 @@ public class GuildListHolder implements InventoryHolder {
     public int getPage() {
         return page;
     }
+
+    /**
+     * 获取排序方式
+     * @return 排序方式
+     */
+    public GuildBrowserIndex.SortType getSortType() {
+        return sortType;
+    }
+
+    /**
+     * 获取筛选方式
+     * @return 筛选方式
+     */
+    public GuildBrowserIndex.FilterType getFilterType() {
+        return filterType;
+    }
+
+    /**
+     * 获取搜索关键字
+     * @return 搜索关键字，未搜索时返回null
+     */
+    public String getQuery() {
+        return query;
+    }
     
     @Override
     public Inventory getInventory() {
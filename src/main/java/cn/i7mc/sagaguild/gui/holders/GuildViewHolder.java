@@ -0,0 +1,85 @@
+package cn.i7mc.sagaguild.gui.holders;
+
+import cn.i7mc.sagaguild.data.models.Guild;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * 可实时刷新的公会视图持有者
+ * 打开后订阅所展示的公会数据，数据变化时只更新发生变化的槽位
+ */
+public abstract class GuildViewHolder implements InventoryHolder {
+
+    /**
+     * 视图类型
+     * 决定视图订阅的公会数据
+     */
+    public enum ViewType {
+        MEMBERS,
+        JOIN_REQUESTS,
+        RELATION_REQUESTS
+    }
+
+    private final Guild guild;
+    private final ViewType viewType;
+    private volatile int page;
+    private volatile Inventory inventory;
+
+    /**
+     * 构造函数
+     * @param guild 公会对象
+     * @param page 页码
+     * @param viewType 视图类型
+     */
+    protected GuildViewHolder(Guild guild, int page, ViewType viewType) {
+        this.guild = guild;
+        this.page = page;
+        this.viewType = viewType;
+    }
+
+    /**
+     * 获取公会
+     * @return 公会对象
+     */
+    public Guild getGuild() {
+        return guild;
+    }
+
+    /**
+     * 获取页码
+     * @return 页码
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * 设置页码
+     * 数据变化导致总页数减少时由渲染逻辑修正
+     * @param page 页码
+     */
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    /**
+     * 获取视图类型
+     * @return 视图类型
+     */
+    public ViewType getViewType() {
+        return viewType;
+    }
+
+    /**
+     * 绑定物品栏
+     * @param inventory 物品栏
+     */
+    public void setInventory(Inventory inventory) {
+        this.inventory = inventory;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+}
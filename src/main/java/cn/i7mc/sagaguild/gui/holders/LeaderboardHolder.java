@@ -0,0 +1,45 @@
+package cn.i7mc.sagaguild.gui.holders;
+
+import cn.i7mc.sagaguild.managers.LeaderboardManager;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+
+/**
+ * 公会排行持有者
+ * 用于标识公会排行GUI，并记录当前的排行类别和页码
+ */
+public class LeaderboardHolder implements InventoryHolder {
+    private final LeaderboardManager.Category category;
+    private final int page;
+
+    /**
+     * 构造函数
+     * @param category 排行类别
+     * @param page 页码
+     */
+    public LeaderboardHolder(LeaderboardManager.Category category, int page) {
+        this.category = category;
+        this.page = page;
+    }
+
+    /**
+     * 获取排行类别
+     * @return 排行类别
+     */
+    public LeaderboardManager.Category getCategory() {
+        return category;
+    }
+
+    /**
+     * 获取页码
+     * @return 页码
+     */
+    public int getPage() {
+        return page;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return null; // 由Bukkit管理
+    }
+}
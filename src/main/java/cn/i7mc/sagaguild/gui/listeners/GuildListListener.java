@@ -74,10 +74,22 @@ public class GuildListListener implements Listener {
             }
         } else if (event.getSlot() == 45 && clickedItem.getType() == Material.ARROW) {
             // 点击上一页按钮
-            plugin.getGuiManager().openGuildListGUI(player, page - 1);
+            plugin.getGuiManager().openGuildListGUI(player, page - 1, holder.getSortType(), holder.getFilterType(), holder.getQuery());
         } else if (event.getSlot() == 53 && clickedItem.getType() == Material.ARROW) {
             // 点击下一页按钮
-            plugin.getGuiManager().openGuildListGUI(player, page + 1);
+            plugin.getGuiManager().openGuildListGUI(player, page + 1, holder.getSortType(), holder.getFilterType(), holder.getQuery());
+        } else if (event.getSlot() == 46) {
+            // 点击排序按钮
+            plugin.getGuiManager().openGuildListGUI(player, 1, holder.getSortType().next(), holder.getFilterType(), holder.getQuery());
+        } else if (event.getSlot() == 47) {
+            // 点击筛选按钮
+            plugin.getGuiManager().openGuildListGUI(player, 1, holder.getSortType(), holder.getFilterType().next(), holder.getQuery());
+        } else if (event.getSlot() == 48) {
+            // 点击搜索按钮
+            plugin.getGuiManager().promptGuildSearch(player, holder);
+        } else if (event.getSlot() == 50 && holder.getQuery() != null) {
+            // 点击清除搜索按钮
+            plugin.getGuiManager().openGuildListGUI(player, 1, holder.getSortType(), holder.getFilterType(), null);
         } else if (event.getSlot() == 49 && clickedItem.getType() == Material.BARRIER) {
             // 点击返回按钮
             player.closeInventory();
@@ -161,9 +161,7 @@ public class GuildRelationManageListener implements Listener {
             }
         }
 
-        // 刷新GUI
-        player.closeInventory();
-        plugin.getGuiManager().openGuildRelationManageGUI(player, guild, 1);
+        // 已打开的视图会随数据变化就地刷新
     }
 
     /**
@@ -215,8 +213,6 @@ public class GuildRelationManageListener implements Listener {
             }
         }
 
-        // 刷新GUI
-        player.closeInventory();
-        plugin.getGuiManager().openGuildRelationManageGUI(player, guild, 1);
+        // 已打开的视图会随数据变化就地刷新
     }
 }
@@ -0,0 +1,33 @@
+package cn.i7mc.sagaguild.gui.listeners;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.gui.holders.GuildViewHolder;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+
+/**
+ * 公会视图监听器
+ * 视图关闭时取消数据订阅
+ */
+public class GuildViewListener implements Listener {
+    private final SagaGuild plugin;
+
+    public GuildViewListener(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 物品栏关闭事件
+     * @param event 事件对象
+     */
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (!(event.getInventory().getHolder() instanceof GuildViewHolder)) {
+            return;
+        }
+
+        GuildViewHolder holder = (GuildViewHolder) event.getInventory().getHolder();
+        plugin.getGuiManager().getViewRegistry().unsubscribe(holder);
+    }
+}
@@ -118,10 +118,8 @@ public class JoinRequestListener implements Listener {
             boolean success = plugin.getGuildManager().acceptJoinRequest(player, requestId);
 
             if (success) {
+                // 已打开的视图会随数据变化就地刷新
                 player.sendMessage(plugin.getConfigManager().getMessage("guild.join-request-accepted"));
-                // 刷新GUI
-                player.closeInventory();
-                plugin.getGuiManager().openGuildManageGUI(player, guild);
             } else {
                 player.sendMessage(plugin.getConfigManager().getMessage("guild.join-request-accept-failed"));
             }
@@ -130,10 +128,8 @@ public class JoinRequestListener implements Listener {
             boolean success = plugin.getGuildManager().rejectJoinRequest(player, requestId);
 
             if (success) {
+                // 已打开的视图会随数据变化就地刷新
                 player.sendMessage(plugin.getConfigManager().getMessage("guild.join-request-rejected"));
-                // 刷新GUI
-                player.closeInventory();
-                plugin.getGuiManager().openGuildManageGUI(player, guild);
             } else {
                 player.sendMessage(plugin.getConfigManager().getMessage("guild.join-request-reject-failed"));
             }
@@ -0,0 +1,66 @@
+package cn.i7mc.sagaguild.gui.listeners;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.gui.holders.LeaderboardHolder;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * 公会排行监听器
+ * 处理公会排行GUI的点击事件
+ */
+public class LeaderboardListener implements Listener {
+    private final SagaGuild plugin;
+
+    public LeaderboardListener(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 物品栏点击事件
+     * @param event 事件对象
+     */
+    @EventHandler
+    public void onInventoryClick(InventoryClickEvent event) {
+        // 检查是否是公会排行GUI
+        if (!(event.getInventory().getHolder() instanceof LeaderboardHolder)) {
+            return;
+        }
+
+        // 取消事件
+        event.setCancelled(true);
+
+        // 检查是否是玩家
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+
+        Player player = (Player) event.getWhoClicked();
+        LeaderboardHolder holder = (LeaderboardHolder) event.getInventory().getHolder();
+
+        // 获取点击的物品
+        ItemStack clickedItem = event.getCurrentItem();
+        if (clickedItem == null || clickedItem.getType() == Material.AIR) {
+            return;
+        }
+
+        // 处理点击事件
+        if (event.getSlot() == 45 && clickedItem.getType() == Material.ARROW) {
+            // 点击上一页按钮
+            plugin.getGuiManager().openLeaderboardGUI(player, holder.getCategory(), holder.getPage() - 1);
+        } else if (event.getSlot() == 53 && clickedItem.getType() == Material.ARROW) {
+            // 点击下一页按钮
+            plugin.getGuiManager().openLeaderboardGUI(player, holder.getCategory(), holder.getPage() + 1);
+        } else if (event.getSlot() == 47) {
+            // 点击类别按钮
+            plugin.getGuiManager().openLeaderboardGUI(player, holder.getCategory().next(), 1);
+        } else if (event.getSlot() == 49 && clickedItem.getType() == Material.BARRIER) {
+            // 点击返回按钮
+            player.closeInventory();
+        }
+    }
+}
@@ -23,7 +23,7 @@ public class ChatListener implements Listener {
 
     /**
      * 玩家聊天事件
-     * 注意：使用AsyncPlayerChatEvent而非AsyncChatEvent以确保与各种服务端的兼容性
+     * 注意：仅在服务端不提供AsyncChatEvent时注册，支持时使用 {@link PaperChatListener}
      * 虽然AsyncPlayerChatEvent已被弃用，但为了兼容Mohist等服务端，仍需使用此事件
      * @param event 事件对象
      */
@@ -35,6 +35,12 @@ public class ChatListener implements Listener {
         // 获取消息内容
         String message = event.getMessage();
 
+        // 正在GUI中输入搜索关键字
+        if (plugin.getGuiManager().handleChatInput(player, message)) {
+            event.setCancelled(true);
+            return;
+        }
+
         // 处理聊天消息
         boolean cancel = plugin.getChatManager().handleChat(player, message);
 
@@ -0,0 +1,370 @@
+package cn.i7mc.sagaguild.listeners;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.data.models.GuildActivity;
+import cn.i7mc.sagaguild.data.models.GuildMember;
+import cn.i7mc.sagaguild.data.models.GuildTask;
+import cn.i7mc.sagaguild.data.models.GuildWar;
+import cn.i7mc.sagaguild.data.models.MemberContribution;
+import cn.i7mc.sagaguild.listeners.pipeline.GuildEventContext;
+import cn.i7mc.sagaguild.listeners.pipeline.PipelineTimings;
+import cn.i7mc.sagaguild.listeners.pipeline.PipelineTimings.EventType;
+import cn.i7mc.sagaguild.listeners.pipeline.PipelineTimings.Stage;
+import cn.i7mc.sagaguild.managers.ExperienceManager.XpAction;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.player.PlayerFishEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.util.List;
+
+/**
+ * 公会事件分发器
+ * 每种事件只注册一个处理流程：先查询一次玩家公会，再按顺序执行领地保护、公会经验、任务进度和成员贡献等阶段
+ * 领地保护在HIGH优先级执行，其余阶段在MONITOR优先级执行，两者通过线程内复用的上下文共享查询结果
+ * 各阶段的耗时记录在 {@link PipelineTimings} 中
+ */
+public class GuildEventDispatcher implements Listener {
+    private final SagaGuild plugin;
+    private final PipelineTimings timings = new PipelineTimings();
+
+    // 每个线程复用一个上下文，同一事件的不同优先级在同一线程中执行
+    private final ThreadLocal<GuildEventContext> contexts = ThreadLocal.withInitial(GuildEventContext::new);
+
+    public GuildEventDispatcher(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 获取阶段耗时统计
+     * @return 耗时统计
+     */
+    public PipelineTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * 方块破坏事件：领地保护
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockBreakProtect(BlockBreakEvent event) {
+        GuildEventContext context = begin(event, event.getPlayer());
+        long start = System.nanoTime();
+        protect(event, context, event.getBlock().getChunk());
+        timings.record(EventType.BLOCK_BREAK, Stage.PROTECTION, start);
+    }
+
+    /**
+     * 方块破坏事件：公会经验、任务进度和成员贡献
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        GuildEventContext context = resume(event, event.getPlayer());
+        if (context.hasGuild()) {
+            long start = System.nanoTime();
+            grantExperience(context, XpAction.BLOCK_BREAK, event.getBlock().getType(), event.getBlock().getLocation());
+            start = timings.record(EventType.BLOCK_BREAK, Stage.EXPERIENCE, start);
+            updateTask(context, GuildTask.Type.BREAK_BLOCKS, event.getBlock().getType());
+            start = timings.record(EventType.BLOCK_BREAK, Stage.TASK, start);
+            recordContribution(context);
+            timings.record(EventType.BLOCK_BREAK, Stage.CONTRIBUTION, start);
+        }
+        context.clear();
+    }
+
+    /**
+     * 方块放置事件：领地保护
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onBlockPlaceProtect(BlockPlaceEvent event) {
+        GuildEventContext context = begin(event, event.getPlayer());
+        long start = System.nanoTime();
+        protect(event, context, event.getBlock().getChunk());
+        timings.record(EventType.BLOCK_PLACE, Stage.PROTECTION, start);
+    }
+
+    /**
+     * 方块放置事件：公会经验、任务进度和成员贡献
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        GuildEventContext context = resume(event, event.getPlayer());
+        if (context.hasGuild()) {
+            long start = System.nanoTime();
+            grantExperience(context, XpAction.BLOCK_PLACE, event.getBlock().getType(), event.getBlock().getLocation());
+            start = timings.record(EventType.BLOCK_PLACE, Stage.EXPERIENCE, start);
+            updateTask(context, GuildTask.Type.PLACE_BLOCKS, event.getBlock().getType());
+            start = timings.record(EventType.BLOCK_PLACE, Stage.TASK, start);
+            recordContribution(context);
+            timings.record(EventType.BLOCK_PLACE, Stage.CONTRIBUTION, start);
+        }
+        context.clear();
+    }
+
+    /**
+     * 实体死亡事件
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityDeath(EntityDeathEvent event) {
+        // 检查是否是玩家击杀
+        Player killer = event.getEntity().getKiller();
+        if (killer == null) {
+            return;
+        }
+
+        GuildEventContext context = begin(event, killer);
+        if (context.hasGuild()) {
+            long start = System.nanoTime();
+            grantExperience(context, XpAction.ENTITY_KILL, event.getEntityType(), event.getEntity().getLocation());
+            start = timings.record(EventType.ENTITY_DEATH, Stage.EXPERIENCE, start);
+            updateTask(context, GuildTask.Type.KILL_MOBS, event.getEntityType());
+            start = timings.record(EventType.ENTITY_DEATH, Stage.TASK, start);
+            recordContribution(context);
+            timings.record(EventType.ENTITY_DEATH, Stage.CONTRIBUTION, start);
+        }
+        context.clear();
+    }
+
+    /**
+     * 钓鱼事件
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerFish(PlayerFishEvent event) {
+        // 检查是否成功钓到鱼
+        if (event.getState() != PlayerFishEvent.State.CAUGHT_FISH) {
+            return;
+        }
+
+        GuildEventContext context = begin(event, event.getPlayer());
+        if (context.hasGuild()) {
+            long start = System.nanoTime();
+            Material caught = event.getCaught() instanceof Item ? ((Item) event.getCaught()).getItemStack().getType() : null;
+            grantExperience(context, XpAction.FISHING, caught, event.getPlayer().getLocation());
+            start = timings.record(EventType.PLAYER_FISH, Stage.EXPERIENCE, start);
+            updateTask(context, GuildTask.Type.FISH, null);
+            start = timings.record(EventType.PLAYER_FISH, Stage.TASK, start);
+            recordContribution(context);
+            timings.record(EventType.PLAYER_FISH, Stage.CONTRIBUTION, start);
+        }
+        context.clear();
+    }
+
+    /**
+     * 物品合成事件
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCraftItem(CraftItemEvent event) {
+        // 检查是否是玩家
+        if (!(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+
+        GuildEventContext context = begin(event, (Player) event.getWhoClicked());
+        if (context.hasGuild()) {
+            long start = System.nanoTime();
+            updateTask(context, GuildTask.Type.CRAFT, event.getRecipe().getResult().getType());
+            start = timings.record(EventType.CRAFT_ITEM, Stage.TASK, start);
+            recordContribution(context);
+            timings.record(EventType.CRAFT_ITEM, Stage.CONTRIBUTION, start);
+        }
+        context.clear();
+    }
+
+    /**
+     * 玩家加入服务器事件
+     * @param event 事件对象
+     */
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        GuildEventContext context = begin(event, player);
+
+        long start = System.nanoTime();
+        updateSession(player);
+        start = timings.record(EventType.PLAYER_JOIN, Stage.SESSION, start);
+        if (context.hasGuild()) {
+            sendJoinNotifications(player, context.getGuild());
+            timings.record(EventType.PLAYER_JOIN, Stage.NOTIFICATION, start);
+        }
+        context.clear();
+    }
+
+    /**
+     * 开始处理事件，查询玩家所在公会
+     * @param event 事件对象
+     * @param player 触发事件的玩家
+     * @return 事件上下文
+     */
+    private GuildEventContext begin(Event event, Player player) {
+        GuildEventContext context = contexts.get();
+        context.begin(event, player, plugin.getGuildManager().getPlayerGuild(player.getUniqueId()));
+        return context;
+    }
+
+    /**
+     * 继续处理HIGH优先级已开始的事件，上下文不属于该事件时重新查询
+     * @param event 事件对象
+     * @param player 触发事件的玩家
+     * @return 事件上下文
+     */
+    private GuildEventContext resume(Event event, Player player) {
+        GuildEventContext context = contexts.get();
+        return context.isFor(event) ? context : begin(event, player);
+    }
+
+    /**
+     * 领地保护阶段：检查玩家是否有权限在该区块中操作
+     */
+    private void protect(Cancellable event, GuildEventContext context, Chunk chunk) {
+        Player player = context.getPlayer();
+        if (!plugin.getLandManager().hasPermission(player, context.getGuild(), chunk)) {
+            event.setCancelled(true);
+            player.sendMessage(plugin.getConfigManager().getMessageComponent("land.no-permission"));
+        }
+    }
+
+    /**
+     * 公会经验阶段：按经验规则增加公会经验
+     */
+    private void grantExperience(GuildEventContext context, XpAction action, Enum<?> target, Location location) {
+        context.addExperience(plugin.getExperienceManager().grantExperience(
+                context.getPlayer(), context.getGuild(), action, target, location));
+    }
+
+    /**
+     * 任务进度阶段：更新公会任务进度
+     */
+    private void updateTask(GuildEventContext context, GuildTask.Type type, Enum<?> target) {
+        if (plugin.getTaskManager().updateTaskProgress(context.getGuild().getId(), type, target, 1)) {
+            context.addTaskProgress(1);
+        }
+    }
+
+    /**
+     * 成员贡献阶段：记录前面阶段产生的经验和任务进度
+     */
+    private void recordContribution(GuildEventContext context) {
+        int guildId = context.getGuild().getId();
+        if (context.getExperience() > 0) {
+            plugin.getContributionManager().addContribution(guildId, context.getPlayer().getUniqueId(),
+                    MemberContribution.Type.EXPERIENCE, context.getExperience());
+        }
+        if (context.getTaskProgress() > 0) {
+            plugin.getContributionManager().addContribution(guildId, context.getPlayer().getUniqueId(),
+                    MemberContribution.Type.TASK, context.getTaskProgress());
+        }
+    }
+
+    /**
+     * 玩家数据阶段：更新名称、头像缓存和在线状态
+     * @param player 玩家
+     */
+    private void updateSession(Player player) {
+        // 更新玩家名称
+        GuildMember member = plugin.getGuildManager().getMemberByUuid(player.getUniqueId());
+        if (member != null && !member.getPlayerName().equals(player.getName())) {
+            member.setPlayerName(player.getName());
+        }
+
+        // 更新名称目录，名称变化时异步更新数据库
+        plugin.getPlayerNameManager().handleJoin(player);
+
+        // 更新头颅材质缓存
+        plugin.getProfileCacheManager().updateFromPlayer(player);
+
+        // 在线人数变化
+        plugin.getGuildManager().getBrowserIndex().markOnlineDirty();
+        plugin.getChatManager().invalidatePlayerRecipients(player.getUniqueId());
+    }
+
+    /**
+     * 登录通知阶段：公会公告、聊天记录、公会战状态和即将开始的活动
+     * @param player 玩家
+     * @param guild 玩家所在公会
+     */
+    private void sendJoinNotifications(Player player, Guild guild) {
+        // 检查公会公告
+        if (!guild.getAnnouncement().isEmpty()) {
+            player.sendMessage("§8§m-----§r §b公会公告 §8§m-----");
+            player.sendMessage("§f" + guild.getAnnouncement());
+            player.sendMessage("§8§m-----------------------");
+        }
+
+        // 补发公会聊天记录
+        plugin.getChatHistoryManager().replay(player, guild.getId());
+
+        // 通知玩家当前战争状态
+        GuildWar war = plugin.getWarManager().getActiveWar(guild.getId());
+        if (war != null) {
+            Guild opponent = plugin.getGuildManager().getGuildById(war.getOpponentId(guild.getId()));
+            String opponentName = opponent != null ? opponent.getName() : "未知";
+            switch (war.getStatus()) {
+                case PREPARING:
+                    player.sendMessage("§c你的公会正在准备与 §7" + opponentName + " §c的战争！");
+                    break;
+                case ONGOING:
+                    player.sendMessage("§c你的公会正在与 §7" + opponentName + " §c进行战争！");
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // 延迟3秒在异步线程中查询并通知即将开始的活动，避免与其他加入消息冲突
+        int guildId = guild.getId();
+        SagaGuild.getYLib().getScheduler().runLaterAsync(() -> {
+            List<GuildActivity> upcomingActivities = plugin.getActivityManager().getUpcomingGuildActivities(guildId);
+            if (upcomingActivities.isEmpty() || !player.isOnline()) {
+                return;
+            }
+
+            player.sendMessage(Component.text("=== 公会即将开始的活动 ===", NamedTextColor.GOLD));
+
+            for (GuildActivity activity : upcomingActivities) {
+                // 计算距离开始的时间
+                long minutesUntilStart = (activity.getStartTime().getTime() - System.currentTimeMillis()) / (1000 * 60);
+                String timeUntilStart;
+
+                if (minutesUntilStart < 60) {
+                    timeUntilStart = minutesUntilStart + " 分钟";
+                } else {
+                    timeUntilStart = (minutesUntilStart / 60) + " 小时 " + (minutesUntilStart % 60) + " 分钟";
+                }
+
+                // 发送活动信息
+                player.sendMessage(
+                    Component.text("- ", NamedTextColor.GRAY)
+                        .append(Component.text(activity.getName(), NamedTextColor.YELLOW))
+                        .append(Component.text(" (", NamedTextColor.GRAY))
+                        .append(Component.text(activity.getType().getDisplayName(), NamedTextColor.AQUA))
+                        .append(Component.text("): ", NamedTextColor.GRAY))
+                        .append(Component.text(timeUntilStart + " 后开始", NamedTextColor.GREEN))
+                );
+            }
+
+            player.sendMessage(Component.text("使用 /guild activity list 查看更多活动信息", NamedTextColor.GRAY));
+        }, 60);
+    }
+}
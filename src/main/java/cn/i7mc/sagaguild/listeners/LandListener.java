@@ -7,14 +7,12 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.block.BlockBreakEvent;
-import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 
 /**
  * 领地监听器
- * 处理领地相关的事件
+ * 处理领地相关的事件，方块破坏和放置的领地保护由 {@link GuildEventDispatcher} 处理
  */
 public class LandListener implements Listener {
     private final SagaGuild plugin;
@@ -23,38 +21,6 @@ public class LandListener implements Listener {
         this.plugin = plugin;
     }
     
-    /**
-     * 玩家破坏方块事件
-     * @param event 事件对象
-     */
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockBreak(BlockBreakEvent event) {
-        Player player = event.getPlayer();
-        Chunk chunk = event.getBlock().getChunk();
-        
-        // 检查玩家是否有权限在该区块中破坏方块
-        if (!plugin.getLandManager().hasPermission(player, chunk)) {
-            event.setCancelled(true);
-            player.sendMessage(plugin.getConfigManager().getMessage("land.no-permission"));
-        }
-    }
-    
-    /**
-     * 玩家放置方块事件
-     * @param event 事件对象
-     */
-    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
-    public void onBlockPlace(BlockPlaceEvent event) {
-        Player player = event.getPlayer();
-        Chunk chunk = event.getBlock().getChunk();
-        
-        // 检查玩家是否有权限在该区块中放置方块
-        if (!plugin.getLandManager().hasPermission(player, chunk)) {
-            event.setCancelled(true);
-            player.sendMessage(plugin.getConfigManager().getMessage("land.no-permission"));
-        }
-    }
-    
     /**
      * 玩家交互事件
      * @param event 事件对象
@@ -72,7 +38,7 @@ public class LandListener implements Listener {
         // 检查玩家是否有权限在该区块中交互
         if (!plugin.getLandManager().hasPermission(player, chunk)) {
             event.setCancelled(true);
-            player.sendMessage(plugin.getConfigManager().getMessage("land.no-permission"));
+            player.sendMessage(plugin.getConfigManager().getMessageComponent("land.no-permission"));
         }
     }
     
@@ -0,0 +1,120 @@
+package cn.i7mc.sagaguild.listeners;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.managers.ChatManager;
+import io.papermc.paper.chat.ChatRenderer;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Paper聊天监听器
+ * 公会和联盟聊天直接修改事件的接收者和渲染器，由服务端完成投递
+ * 仅在服务端提供AsyncChatEvent时注册，否则使用 {@link ChatListener}
+ */
+public class PaperChatListener implements Listener {
+    private final SagaGuild plugin;
+
+    // 每个聊天线程正在处理的事件及其投递路线，等到MONITOR阶段确认没有被取消后再记录聊天历史
+    private final ThreadLocal<PendingRoute> pending = ThreadLocal.withInitial(PendingRoute::new);
+
+    public PaperChatListener(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 检查服务端是否支持Paper聊天事件
+     * @return 是否支持
+     */
+    public static boolean isSupported() {
+        try {
+            Class.forName("io.papermc.paper.event.player.AsyncChatEvent");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 玩家聊天事件
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onPlayerChat(AsyncChatEvent event) {
+        Player player = event.getPlayer();
+        PendingRoute current = pending.get();
+        current.clear();
+
+        // 获取消息内容
+        String message = PlainTextComponentSerializer.plainText().serialize(event.message());
+
+        // 正在GUI中输入搜索关键字
+        if (plugin.getGuiManager().handleChatInput(player, message)) {
+            event.setCancelled(true);
+            return;
+        }
+
+        // 解析投递路线，普通聊天不做处理
+        ChatManager.ChatRoute route = plugin.getChatManager().route(player, message);
+        if (route == null) {
+            return;
+        }
+
+        // 被频率限制拦截
+        if (route.isBlocked()) {
+            event.setCancelled(true);
+            return;
+        }
+
+        // 只保留公会或联盟的在线成员作为接收者
+        Set<Audience> viewers = event.viewers();
+        viewers.clear();
+        Collections.addAll(viewers, route.getRecipients());
+
+        // 所有接收者共用同一个已格式化的组件
+        Component formatted = route.getMessage();
+        event.renderer(ChatRenderer.viewerUnaware((source, sourceDisplayName, originalMessage) -> formatted));
+        current.event = event;
+        current.route = route;
+    }
+
+    /**
+     * 聊天事件处理完毕
+     * 其他插件可能在更高优先级取消消息（如禁言），只有最终送达的消息才记录到聊天历史
+     * @param event 事件对象
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChatMonitor(AsyncChatEvent event) {
+        PendingRoute current = pending.get();
+        if (current.event != event) {
+            return;
+        }
+
+        ChatManager.ChatRoute route = current.route;
+        current.clear();
+        if (!event.isCancelled()) {
+            plugin.getChatManager().recordHistory(route);
+        }
+    }
+
+    /**
+     * 等待确认的投递路线
+     */
+    private static final class PendingRoute {
+        private AsyncChatEvent event;
+        private ChatManager.ChatRoute route;
+
+        private void clear() {
+            event = null;
+            route = null;
+        }
+    }
+}
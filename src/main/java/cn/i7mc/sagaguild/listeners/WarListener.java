@@ -3,13 +3,13 @@ package cn.i7mc.sagaguild.listeners;
 import cn.i7mc.sagaguild.SagaGuild;
 import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildWar;
+import cn.i7mc.sagaguild.data.models.MemberContribution;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
-import org.bukkit.event.player.PlayerJoinEvent;
 
 /**
  * 公会战监听器
@@ -63,6 +63,10 @@ public class WarListener implements Listener {
         war.addKill(killer.getUniqueId());
         war.addDeath(victim.getUniqueId());
 
+        // 记录成员贡献
+        plugin.getContributionManager().addContribution(killerGuild.getId(), killer.getUniqueId(),
+                MemberContribution.Type.WAR_KILL, 1);
+
         // 发送击杀通知
         String killerName = killer.getName();
         String victimName = victim.getName();
@@ -123,8 +127,11 @@ public class WarListener implements Listener {
             return;
         }
 
-        // 检查是否是联盟公会
-        if (plugin.getAllianceManager().areGuildsAllied(victimGuild.getId(), attackerGuild.getId())) {
+        // 检查是否是联盟公会，开启集团保护时同一联盟集团内的公会也不能互相伤害
+        boolean allied = plugin.getConfigManager().getSettings().isAllianceBlocProtection()
+                ? plugin.getAllianceManager().isSameBloc(victimGuild.getId(), attackerGuild.getId())
+                : plugin.getAllianceManager().areGuildsAllied(victimGuild.getId(), attackerGuild.getId());
+        if (allied) {
             // 联盟公会的玩家不能互相伤害
             event.setCancelled(true);
             return;
@@ -137,41 +144,4 @@ public class WarListener implements Listener {
             event.setCancelled(true);
         }
     }
-
-    /**
-     * 玩家加入服务器事件
-     * @param event 事件对象
-     */
-    @EventHandler
-    public void onPlayerJoin(PlayerJoinEvent event) {
-        Player player = event.getPlayer();
-
-        // 检查玩家是否在公会中
-        Guild guild = plugin.getGuildManager().getPlayerGuild(player.getUniqueId());
-        if (guild == null) {
-            return;
-        }
-
-        // 检查公会是否在战争中
-        GuildWar war = plugin.getWarManager().getActiveWar(guild.getId());
-        if (war == null) {
-            return;
-        }
-
-        // 通知玩家当前战争状态
-        switch (war.getStatus()) {
-            case PREPARING:
-                player.sendMessage("§c你的公会正在准备与 §7" +
-                        plugin.getGuildManager().getGuildById(war.getOpponentId(guild.getId())).getName() +
-                        " §c的战争！");
-                break;
-            case ONGOING:
-                player.sendMessage("§c你的公会正在与 §7" +
-                        plugin.getGuildManager().getGuildById(war.getOpponentId(guild.getId())).getName() +
-                        " §c进行战争！");
-                break;
-            default:
-                break;
-        }
-    }
 }
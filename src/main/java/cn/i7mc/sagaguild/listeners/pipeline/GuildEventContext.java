@@ -0,0 +1,82 @@
+package cn.i7mc.sagaguild.listeners.pipeline;
+
+import cn.i7mc.sagaguild.data.models.Guild;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+
+/**
+ * 公会事件上下文
+ * 一次事件处理中只查询一次玩家公会，由各个处理阶段共享，并记录各阶段产生的结果
+ * 每个线程复用同一个实例，事件处理结束后清空
+ */
+public final class GuildEventContext {
+    private Event event;
+    private Player player;
+    private Guild guild;
+
+    // 本次事件获得的公会经验
+    private int experience;
+
+    // 本次事件推进的任务进度
+    private int taskProgress;
+
+    /**
+     * 开始处理新的事件
+     * @param event 事件对象
+     * @param player 触发事件的玩家
+     * @param guild 玩家所在公会，不在公会中为null
+     */
+    public void begin(Event event, Player player, Guild guild) {
+        this.event = event;
+        this.player = player;
+        this.guild = guild;
+        this.experience = 0;
+        this.taskProgress = 0;
+    }
+
+    /**
+     * 检查上下文是否属于指定事件
+     * @param event 事件对象
+     * @return 是否属于该事件
+     */
+    public boolean isFor(Event event) {
+        return this.event == event;
+    }
+
+    /**
+     * 清空上下文，避免持有事件和玩家的引用
+     */
+    public void clear() {
+        event = null;
+        player = null;
+        guild = null;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public Guild getGuild() {
+        return guild;
+    }
+
+    public boolean hasGuild() {
+        return guild != null;
+    }
+
+    public int getExperience() {
+        return experience;
+    }
+
+    public void addExperience(int amount) {
+        experience += amount;
+    }
+
+    public int getTaskProgress() {
+        return taskProgress;
+    }
+
+    public void addTaskProgress(int amount) {
+        taskProgress += amount;
+    }
+}
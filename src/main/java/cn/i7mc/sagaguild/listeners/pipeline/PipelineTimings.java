@@ -0,0 +1,140 @@
+package cn.i7mc.sagaguild.listeners.pipeline;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 事件处理阶段耗时统计
+ * 按事件类型和处理阶段记录执行次数、总耗时和最大耗时（纳秒）
+ */
+public final class PipelineTimings {
+
+    /**
+     * 事件类型
+     */
+    public enum EventType {
+        BLOCK_BREAK("方块破坏"),
+        BLOCK_PLACE("方块放置"),
+        ENTITY_DEATH("实体死亡"),
+        PLAYER_FISH("钓鱼"),
+        CRAFT_ITEM("物品合成"),
+        PLAYER_JOIN("玩家加入");
+
+        private final String displayName;
+
+        EventType(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    /**
+     * 处理阶段
+     */
+    public enum Stage {
+        PROTECTION("领地保护"),
+        EXPERIENCE("公会经验"),
+        TASK("公会任务"),
+        CONTRIBUTION("成员贡献"),
+        SESSION("玩家数据"),
+        NOTIFICATION("登录通知");
+
+        private final String displayName;
+
+        Stage(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    private static final int STAGE_COUNT = Stage.values().length;
+    private static final int SLOT_COUNT = EventType.values().length * STAGE_COUNT;
+
+    private final LongAdder[] counts = new LongAdder[SLOT_COUNT];
+    private final LongAdder[] totalNanos = new LongAdder[SLOT_COUNT];
+    private final AtomicLongArray maxNanos = new AtomicLongArray(SLOT_COUNT);
+
+    public PipelineTimings() {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            counts[i] = new LongAdder();
+            totalNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     * @param type 事件类型
+     * @param stage 处理阶段
+     * @param startNanos 阶段开始时间
+     * @return 阶段结束时间，可直接作为下一个阶段的开始时间
+     */
+    public long record(EventType type, Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        long elapsed = now - startNanos;
+        int slot = slot(type, stage);
+
+        counts[slot].increment();
+        totalNanos[slot].add(elapsed);
+
+        long max;
+        while (elapsed > (max = maxNanos.get(slot))) {
+            if (maxNanos.compareAndSet(slot, max, elapsed)) {
+                break;
+            }
+        }
+        return now;
+    }
+
+    /**
+     * 获取阶段执行次数
+     * @param type 事件类型
+     * @param stage 处理阶段
+     * @return 执行次数
+     */
+    public long getCount(EventType type, Stage stage) {
+        return counts[slot(type, stage)].sum();
+    }
+
+    /**
+     * 获取阶段平均耗时
+     * @param type 事件类型
+     * @param stage 处理阶段
+     * @return 平均耗时（纳秒），没有记录返回0
+     */
+    public long getAverageNanos(EventType type, Stage stage) {
+        int slot = slot(type, stage);
+        long count = counts[slot].sum();
+        return count > 0 ? totalNanos[slot].sum() / count : 0;
+    }
+
+    /**
+     * 获取阶段最大耗时
+     * @param type 事件类型
+     * @param stage 处理阶段
+     * @return 最大耗时（纳秒）
+     */
+    public long getMaxNanos(EventType type, Stage stage) {
+        return maxNanos.get(slot(type, stage));
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            counts[i].reset();
+            totalNanos[i].reset();
+            maxNanos.set(i, 0);
+        }
+    }
+
+    private static int slot(EventType type, Stage stage) {
+        return type.ordinal() * STAGE_COUNT + stage.ordinal();
+    }
+}
@@ -0,0 +1,267 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.utils.IntHashSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 联盟关系图
+ * 每个公会的盟友保存为基本类型int集合，并用并查集维护联盟集团（通过联盟关系可互相到达的公会）
+ * 结盟时合并集团，解盟时只重新计算受影响的集团
+ */
+public class AllianceGraph {
+    private static final int[] EMPTY = new int[0];
+
+    // 公会ID -> 直接盟友
+    private final Map<Integer, IntHashSet> allies = new HashMap<>();
+
+    // 并查集，下标为公会ID，0表示该公会自成一个集团
+    private int[] parent = new int[64];
+    private int[] blocSize = new int[64];
+
+    /**
+     * 添加联盟关系
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     * @return 关系原本不存在时返回true
+     */
+    public synchronized boolean addAlliance(int guild1Id, int guild2Id) {
+        if (guild1Id == guild2Id) {
+            return false;
+        }
+
+        boolean added = allies.computeIfAbsent(guild1Id, k -> new IntHashSet()).add(guild2Id);
+        allies.computeIfAbsent(guild2Id, k -> new IntHashSet()).add(guild1Id);
+
+        if (added) {
+            union(guild1Id, guild2Id);
+        }
+        return added;
+    }
+
+    /**
+     * 移除联盟关系
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     * @return 关系原本存在时返回true
+     */
+    public synchronized boolean removeAlliance(int guild1Id, int guild2Id) {
+        IntHashSet guild1Allies = allies.get(guild1Id);
+        if (guild1Allies == null || !guild1Allies.remove(guild2Id)) {
+            return false;
+        }
+
+        IntHashSet guild2Allies = allies.get(guild2Id);
+        if (guild2Allies != null) {
+            guild2Allies.remove(guild1Id);
+        }
+        removeIfEmpty(guild1Id);
+        removeIfEmpty(guild2Id);
+
+        // 两个公会仍可通过其他盟友到达时集团不变，否则拆分
+        IntHashSet reachable = collectBloc(guild1Id);
+        if (!reachable.contains(guild2Id)) {
+            assignBloc(reachable, guild1Id);
+            assignBloc(collectBloc(guild2Id), guild2Id);
+        }
+        return true;
+    }
+
+    /**
+     * 移除公会的所有联盟关系（公会解散时调用）
+     * @param guildId 公会ID
+     */
+    public synchronized void removeGuild(int guildId) {
+        IntHashSet guildAllies = allies.get(guildId);
+        if (guildAllies == null) {
+            return;
+        }
+
+        for (int allyId : guildAllies.toArray()) {
+            removeAlliance(guildId, allyId);
+        }
+    }
+
+    /**
+     * 清空所有关系
+     */
+    public synchronized void clear() {
+        allies.clear();
+        Arrays.fill(parent, 0);
+        Arrays.fill(blocSize, 0);
+    }
+
+    /**
+     * 检查两个公会是否直接结盟
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     * @return 是否直接结盟
+     */
+    public synchronized boolean areAllied(int guild1Id, int guild2Id) {
+        IntHashSet guildAllies = allies.get(guild1Id);
+        return guildAllies != null && guildAllies.contains(guild2Id);
+    }
+
+    /**
+     * 检查两个公会是否属于同一联盟集团（包括间接结盟）
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     * @return 是否属于同一集团
+     */
+    public synchronized boolean sameBloc(int guild1Id, int guild2Id) {
+        return guild1Id == guild2Id || find(guild1Id) == find(guild2Id);
+    }
+
+    /**
+     * 获取公会的直接盟友
+     * @param guildId 公会ID
+     * @return 盟友公会ID数组的副本
+     */
+    public synchronized int[] getAllies(int guildId) {
+        IntHashSet guildAllies = allies.get(guildId);
+        return guildAllies != null ? guildAllies.toArray() : EMPTY;
+    }
+
+    /**
+     * 获取公会的直接盟友数量
+     * @param guildId 公会ID
+     * @return 盟友数量
+     */
+    public synchronized int getAllyCount(int guildId) {
+        IntHashSet guildAllies = allies.get(guildId);
+        return guildAllies != null ? guildAllies.size() : 0;
+    }
+
+    /**
+     * 获取公会所在集团的公会数量
+     * @param guildId 公会ID
+     * @return 集团公会数量，没有盟友时为1
+     */
+    public synchronized int getBlocSize(int guildId) {
+        int root = find(guildId);
+        return root < blocSize.length && blocSize[root] > 0 ? blocSize[root] : 1;
+    }
+
+    /**
+     * 查找集团代表，同时压缩路径
+     * @param guildId 公会ID
+     * @return 集团代表的公会ID
+     */
+    private int find(int guildId) {
+        int current = guildId;
+        while (current < parent.length && parent[current] != 0 && parent[current] != current) {
+            int next = parent[current];
+            if (next < parent.length && parent[next] != 0) {
+                parent[current] = parent[next];
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * 合并两个公会所在的集团，小集团并入大集团
+     */
+    private void union(int guild1Id, int guild2Id) {
+        ensureCapacity(Math.max(guild1Id, guild2Id));
+        makeRoot(guild1Id);
+        makeRoot(guild2Id);
+
+        int root1 = find(guild1Id);
+        int root2 = find(guild2Id);
+        if (root1 == root2) {
+            return;
+        }
+
+        if (blocSize[root1] < blocSize[root2]) {
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        parent[root2] = root1;
+        blocSize[root1] += blocSize[root2];
+        blocSize[root2] = 0;
+    }
+
+    /**
+     * 尚未加入并查集的公会初始化为自己的集团代表
+     */
+    private void makeRoot(int guildId) {
+        if (parent[guildId] == 0) {
+            parent[guildId] = guildId;
+            blocSize[guildId] = 1;
+        }
+    }
+
+    /**
+     * 从公会出发收集通过联盟关系可到达的所有公会
+     * @param startId 起始公会ID
+     * @return 集团内的公会ID
+     */
+    private IntHashSet collectBloc(int startId) {
+        IntHashSet visited = new IntHashSet();
+        visited.add(startId);
+
+        int[] stack = new int[8];
+        int top = 0;
+        stack[top++] = startId;
+        while (top > 0) {
+            int guildId = stack[--top];
+            IntHashSet guildAllies = allies.get(guildId);
+            if (guildAllies == null) {
+                continue;
+            }
+            for (int allyId : guildAllies.toArray()) {
+                if (visited.add(allyId)) {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top << 1);
+                    }
+                    stack[top++] = allyId;
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 将一组公会设置为以指定公会为代表的集团
+     * @param members 集团内的公会ID
+     * @param rootId 集团代表
+     */
+    private void assignBloc(IntHashSet members, int rootId) {
+        if (members.size() <= 1) {
+            // 没有盟友的公会不再占用并查集
+            if (rootId < parent.length) {
+                parent[rootId] = 0;
+                blocSize[rootId] = 0;
+            }
+            return;
+        }
+
+        members.forEach(guildId -> {
+            parent[guildId] = rootId;
+            blocSize[guildId] = 0;
+        });
+        blocSize[rootId] = members.size();
+    }
+
+    private void removeIfEmpty(int guildId) {
+        IntHashSet guildAllies = allies.get(guildId);
+        if (guildAllies != null && guildAllies.isEmpty()) {
+            allies.remove(guildId);
+        }
+    }
+
+    private void ensureCapacity(int guildId) {
+        if (guildId >= parent.length) {
+            int capacity = parent.length;
+            while (capacity <= guildId) {
+                capacity <<= 1;
+            }
+            parent = Arrays.copyOf(parent, capacity);
+            blocSize = Arrays.copyOf(blocSize, capacity);
+        }
+    }
+}
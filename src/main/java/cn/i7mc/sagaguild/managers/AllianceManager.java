@@ -6,11 +6,13 @@ import cn.i7mc.sagaguild.data.models.Alliance;
 import cn.i7mc.sagaguild.data.models.AllianceRequest;
 import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildMember;
+import cn.i7mc.sagaguild.gui.holders.GuildViewHolder;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,7 +26,7 @@ public class AllianceManager {
     private final AllianceDAO allianceDAO;
 
     // 缓存联盟数据
-    private final Map<Integer, List<Integer>> guildAlliances;
+    private final AllianceGraph allianceGraph;
 
     // 缓存联盟请求数据
     private final Map<Integer, List<AllianceRequest>> receivedRequests;
@@ -37,7 +39,7 @@ public class AllianceManager {
     public AllianceManager(SagaGuild plugin) {
         this.plugin = plugin;
         this.allianceDAO = new AllianceDAO(plugin);
-        this.guildAlliances = new HashMap<>();
+        this.allianceGraph = new AllianceGraph();
         this.receivedRequests = new HashMap<>();
         this.sentRequests = new HashMap<>();
 
@@ -53,18 +55,12 @@ public class AllianceManager {
      */
     private void loadAlliances() {
         // 清空缓存
-        guildAlliances.clear();
+        allianceGraph.clear();
 
         // 加载所有联盟
         List<Alliance> alliances = allianceDAO.getAllAlliances();
         for (Alliance alliance : alliances) {
-            // 为第一个公会添加联盟
-            List<Integer> guild1Allies = guildAlliances.computeIfAbsent(alliance.getGuild1Id(), k -> new ArrayList<>());
-            guild1Allies.add(alliance.getGuild2Id());
-
-            // 为第二个公会添加联盟
-            List<Integer> guild2Allies = guildAlliances.computeIfAbsent(alliance.getGuild2Id(), k -> new ArrayList<>());
-            guild2Allies.add(alliance.getGuild1Id());
+            allianceGraph.addAlliance(alliance.getGuild1Id(), alliance.getGuild2Id());
         }
 
         plugin.getLogger().info("已加载 " + alliances.size() + " 个联盟数据！");
@@ -75,6 +71,9 @@ public class AllianceManager {
      */
     public void reloadAlliances() {
         loadAlliances();
+        if (plugin.getChatManager() != null) {
+            plugin.getChatManager().invalidateAllRecipients();
+        }
     }
 
     /**
@@ -165,11 +164,8 @@ public class AllianceManager {
         }
 
         // 更新缓存
-        List<Integer> guildAllies = guildAlliances.computeIfAbsent(guildId, k -> new ArrayList<>());
-        guildAllies.add(targetGuildId);
-
-        List<Integer> targetGuildAllies = guildAlliances.computeIfAbsent(targetGuildId, k -> new ArrayList<>());
-        targetGuildAllies.add(guildId);
+        allianceGraph.addAlliance(guildId, targetGuildId);
+        invalidateChatRecipients(guildId, targetGuildId);
 
         // 通知双方公会成员
         notifyGuildMembers(guildId, targetGuildId, true);
@@ -205,15 +201,8 @@ public class AllianceManager {
         }
 
         // 更新缓存
-        List<Integer> guildAllies = guildAlliances.get(guildId);
-        if (guildAllies != null) {
-            guildAllies.remove(Integer.valueOf(targetGuildId));
-        }
-
-        List<Integer> targetGuildAllies = guildAlliances.get(targetGuildId);
-        if (targetGuildAllies != null) {
-            targetGuildAllies.remove(Integer.valueOf(guildId));
-        }
+        allianceGraph.removeAlliance(guildId, targetGuildId);
+        invalidateChatRecipients(guildId, targetGuildId);
 
         // 通知双方公会成员
         notifyGuildMembers(guildId, targetGuildId, false);
@@ -227,7 +216,25 @@ public class AllianceManager {
      * @return 联盟公会ID列表
      */
     public List<Integer> getGuildAlliances(int guildId) {
-        return guildAlliances.getOrDefault(guildId, new ArrayList<>());
+        int[] allies = allianceGraph.getAllies(guildId);
+        if (allies.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Integer> result = new ArrayList<>(allies.length);
+        for (int allyId : allies) {
+            result.add(allyId);
+        }
+        return result;
+    }
+
+    /**
+     * 获取公会的所有联盟（基本类型数组）
+     * @param guildId 公会ID
+     * @return 联盟公会ID数组
+     */
+    public int[] getAllyIds(int guildId) {
+        return allianceGraph.getAllies(guildId);
     }
 
     /**
@@ -237,8 +244,39 @@ public class AllianceManager {
      * @return 是否已结盟
      */
     public boolean areGuildsAllied(int guild1Id, int guild2Id) {
-        List<Integer> allies = guildAlliances.get(guild1Id);
-        return allies != null && allies.contains(guild2Id);
+        return allianceGraph.areAllied(guild1Id, guild2Id);
+    }
+
+    /**
+     * 检查两个公会是否属于同一联盟集团（直接或通过其他盟友间接结盟）
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     * @return 是否属于同一集团
+     */
+    public boolean isSameBloc(int guild1Id, int guild2Id) {
+        return allianceGraph.sameBloc(guild1Id, guild2Id);
+    }
+
+    /**
+     * 获取公会所在联盟集团的公会数量
+     * @param guildId 公会ID
+     * @return 集团公会数量，没有盟友时为1
+     */
+    public int getBlocSize(int guildId) {
+        return allianceGraph.getBlocSize(guildId);
+    }
+
+    /**
+     * 移除公会的所有联盟关系缓存（公会解散时调用）
+     * @param guildId 公会ID
+     */
+    public void removeGuild(int guildId) {
+        for (int allyId : allianceGraph.getAllies(guildId)) {
+            invalidateChatRecipients(guildId, allyId);
+        }
+        allianceGraph.removeGuild(guildId);
+        receivedRequests.remove(guildId);
+        sentRequests.remove(guildId);
     }
 
     /**
@@ -338,6 +376,9 @@ public class AllianceManager {
         List<AllianceRequest> receivedList = receivedRequests.computeIfAbsent(targetId, k -> new ArrayList<>());
         receivedList.add(request);
 
+        // 刷新目标公会已打开的关系管理视图
+        refreshRelationViews(targetId);
+
         // 通知目标公会在线成员
         for (GuildMember member : plugin.getGuildManager().getGuildMembers(targetId)) {
             Player player = Bukkit.getPlayer(member.getPlayerUuid());
@@ -379,11 +420,8 @@ public class AllianceManager {
         }
 
         // 更新缓存
-        List<Integer> requesterAllies = guildAlliances.computeIfAbsent(requesterId, k -> new ArrayList<>());
-        requesterAllies.add(targetId);
-
-        List<Integer> targetAllies = guildAlliances.computeIfAbsent(targetId, k -> new ArrayList<>());
-        targetAllies.add(requesterId);
+        allianceGraph.addAlliance(requesterId, targetId);
+        invalidateChatRecipients(requesterId, targetId);
 
         // 从请求缓存中移除
         List<AllianceRequest> receivedList = receivedRequests.get(targetId);
@@ -396,6 +434,10 @@ public class AllianceManager {
             sentList.removeIf(r -> r.getId() == request.getId());
         }
 
+        // 刷新双方已打开的关系管理视图
+        refreshRelationViews(targetId);
+        refreshRelationViews(requesterId);
+
         // 通知双方公会成员
         notifyGuildMembers(requesterId, targetId, true);
 
@@ -432,6 +474,10 @@ public class AllianceManager {
             sentList.removeIf(r -> r.getId() == request.getId());
         }
 
+        // 刷新双方已打开的关系管理视图
+        refreshRelationViews(targetId);
+        refreshRelationViews(requesterId);
+
         // 通知请求方公会
         Guild requesterGuild = plugin.getGuildManager().getGuildById(requesterId);
         Guild targetGuild = plugin.getGuildManager().getGuildById(targetId);
@@ -450,4 +496,25 @@ public class AllianceManager {
 
         return true;
     }
+
+    /**
+     * 使联盟双方的联盟聊天接收者缓存失效
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     */
+    private void invalidateChatRecipients(int guild1Id, int guild2Id) {
+        if (plugin.getChatManager() != null) {
+            plugin.getChatManager().invalidateAllianceRecipients(guild1Id, guild2Id);
+        }
+    }
+
+    /**
+     * 刷新公会已打开的关系管理视图
+     * @param guildId 公会ID
+     */
+    private void refreshRelationViews(int guildId) {
+        if (plugin.getGuiManager() != null) {
+            plugin.getGuiManager().refreshGuildViews(guildId, GuildViewHolder.ViewType.RELATION_REQUESTS);
+        }
+    }
 }
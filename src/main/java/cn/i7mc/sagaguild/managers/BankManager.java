@@ -4,7 +4,6 @@ import cn.i7mc.sagaguild.SagaGuild;
 import cn.i7mc.sagaguild.data.dao.BankDAO;
 import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildMember;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 /**
@@ -44,13 +43,9 @@ public class BankManager {
      * @return 银行容量
      */
     public double calculateCapacity(int guildId) {
-        FileConfiguration config = plugin.getConfig();
-        int initialCapacity = config.getInt("bank.initial-capacity", 10000);
-        int capacityIncrease = config.getInt("bank.capacity-increase", 5000);
-
         // 根据公会等级增加容量
         int level = plugin.getGuildManager().getGuildLevel(guildId);
-        return initialCapacity + level * capacityIncrease;
+        return plugin.getConfigManager().getSettings().getBankCapacity(level);
     }
 
     /**
@@ -100,7 +95,9 @@ public class BankManager {
 
         // 存款
         boolean success = bankDAO.deposit(guild.getId(), amount);
-        if (!success) {
+        if (success) {
+            updateBalanceRanking(guild.getId(), balance + amount);
+        } else {
             // 返还玩家金钱
             // TODO: 返还玩家金钱
 
@@ -136,7 +133,11 @@ public class BankManager {
         }
 
         // 存款
-        return bankDAO.deposit(guildId, amount);
+        if (!bankDAO.deposit(guildId, amount)) {
+            return false;
+        }
+        updateBalanceRanking(guildId, balance + amount);
+        return true;
     }
 
     /**
@@ -180,6 +181,7 @@ public class BankManager {
             player.sendMessage("§c取款失败，请稍后再试！");
             return false;
         }
+        updateBalanceRanking(guild.getId(), balance - amount);
 
         // 给予玩家金钱
         // TODO: 给予玩家金钱
@@ -190,4 +192,15 @@ public class BankManager {
 
         return true;
     }
+
+    /**
+     * 更新公会的银行余额排行
+     * @param guildId 公会ID
+     * @param balance 新的余额
+     */
+    private void updateBalanceRanking(int guildId, double balance) {
+        if (plugin.getLeaderboardManager() != null) {
+            plugin.getLeaderboardManager().update(LeaderboardManager.Category.BANK, guildId, balance);
+        }
+    }
 }
@@ -0,0 +1,277 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.yvmou.ylib.api.scheduler.UniversalTask;
+import org.bukkit.entity.Player;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 公会聊天记录管理器
+ * 每个公会保存固定数量的最近聊天记录（环形缓冲区），并按天滚动写入磁盘
+ * 启动时从最近的日志文件恢复缓冲区
+ */
+public class ChatHistoryManager {
+    private static final String LOG_SUFFIX = ".log";
+
+    private final SagaGuild plugin;
+    private final File logFolder;
+    private final int capacity;
+    private final int replayOnJoin;
+    private final int keepDays;
+
+    // 公会ID -> 聊天记录
+    private final Map<Integer, GuildChatHistory> histories = new ConcurrentHashMap<>();
+
+    // 等待写入磁盘的记录
+    private final Queue<String> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private UniversalTask flushTask;
+
+    /**
+     * 单个公会的聊天记录环形缓冲区
+     * 记录为已格式化的文本，只保存最近的固定条数
+     */
+    private static final class GuildChatHistory {
+        private final String[] lines;
+        private final long[] times;
+        private int head;
+        private int size;
+
+        private GuildChatHistory(int capacity) {
+            this.lines = new String[capacity];
+            this.times = new long[capacity];
+        }
+
+        private synchronized void add(long time, String line) {
+            lines[head] = line;
+            times[head] = time;
+            head = (head + 1) % lines.length;
+            if (size < lines.length) {
+                size++;
+            }
+        }
+
+        /**
+         * 获取最近的记录，按时间从旧到新排列
+         */
+        private synchronized List<String> latest(int count, SimpleDateFormat timeFormat) {
+            int n = Math.min(count, size);
+            List<String> result = new ArrayList<>(n);
+            int start = (head - n + lines.length) % lines.length;
+            for (int i = 0; i < n; i++) {
+                int index = (start + i) % lines.length;
+                result.add("§8[" + timeFormat.format(new Date(times[index])) + "] §r" + lines[index]);
+            }
+            return result;
+        }
+    }
+
+    public ChatHistoryManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.logFolder = new File(plugin.getDataFolder(), "chat-history");
+        this.capacity = Math.max(0, plugin.getConfig().getInt("chat.history.size", 50));
+        this.replayOnJoin = Math.max(0, plugin.getConfig().getInt("chat.history.replay-on-join", 0));
+        this.keepDays = Math.max(1, plugin.getConfig().getInt("chat.history.keep-days", 7));
+
+        plugin.getMetricsManager().getRegistry().gauge("sagaguild_queue_size", "等待处理的队列长度",
+                pendingWrites::size, "queue", "chat_history");
+
+        if (capacity > 0) {
+            // 从日志恢复缓冲区
+            loadRecentLogs();
+
+            // 定期写入磁盘
+            flushTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::flush, 100L, 100L);
+        }
+    }
+
+    /**
+     * 是否启用聊天记录
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * 记录一条聊天消息
+     * @param guildIds 可以看到该消息的公会
+     * @param line 已格式化的消息
+     */
+    public void record(int[] guildIds, String line) {
+        if (capacity <= 0) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String escaped = line.replace('\n', ' ');
+        for (int guildId : guildIds) {
+            histories.computeIfAbsent(guildId, k -> new GuildChatHistory(capacity)).add(now, escaped);
+            pendingWrites.add(now + "\t" + guildId + "\t" + escaped);
+        }
+    }
+
+    /**
+     * 获取公会最近的聊天记录
+     * @param guildId 公会ID
+     * @param count 条数
+     * @return 聊天记录，按时间从旧到新排列
+     */
+    public List<String> getHistory(int guildId, int count) {
+        GuildChatHistory history = histories.get(guildId);
+        if (history == null || count <= 0) {
+            return new ArrayList<>();
+        }
+        return history.latest(count, new SimpleDateFormat("HH:mm"));
+    }
+
+    /**
+     * 玩家登录时补发最近的聊天记录
+     * @param player 玩家
+     * @param guildId 玩家所在公会ID
+     */
+    public void replay(Player player, int guildId) {
+        if (replayOnJoin <= 0) {
+            return;
+        }
+
+        List<String> lines = getHistory(guildId, replayOnJoin);
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        player.sendMessage(plugin.getConfigManager().getMessage("chat.history-header"));
+        for (String line : lines) {
+            player.sendMessage(line);
+        }
+        player.sendMessage(plugin.getConfigManager().getMessage("chat.history-footer"));
+    }
+
+    /**
+     * 移除公会的聊天记录（公会解散时调用）
+     * @param guildId 公会ID
+     */
+    public void removeGuild(int guildId) {
+        histories.remove(guildId);
+    }
+
+    /**
+     * 停止后台任务并写入剩余记录
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * 将待写入的记录追加到当天的日志文件，并清理过期日志
+     */
+    private synchronized void flush() {
+        if (pendingWrites.isEmpty()) {
+            return;
+        }
+
+        if (!logFolder.exists() && !logFolder.mkdirs()) {
+            plugin.getLogger().severe("创建聊天记录目录失败: " + logFolder.getPath());
+            return;
+        }
+
+        File logFile = new File(logFolder, LocalDate.now() + LOG_SUFFIX);
+        try (BufferedWriter writer = Files.newBufferedWriter(logFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            String record;
+            while ((record = pendingWrites.poll()) != null) {
+                writer.write(record);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("写入聊天记录失败: " + e.getMessage());
+        }
+
+        deleteExpiredLogs();
+    }
+
+    /**
+     * 删除超过保留天数的日志
+     */
+    private void deleteExpiredLogs() {
+        File[] files = logFolder.listFiles((dir, name) -> name.endsWith(LOG_SUFFIX));
+        if (files == null) {
+            return;
+        }
+
+        LocalDate oldest = LocalDate.now().minusDays(keepDays);
+        for (File file : files) {
+            LocalDate date = parseLogDate(file);
+            if (date != null && date.isBefore(oldest) && !file.delete()) {
+                plugin.getLogger().warning("删除过期聊天记录失败: " + file.getName());
+            }
+        }
+    }
+
+    /**
+     * 从最近两天的日志恢复缓冲区
+     */
+    private void loadRecentLogs() {
+        LocalDate today = LocalDate.now();
+        int loaded = 0;
+        for (LocalDate date : new LocalDate[]{today.minusDays(1), today}) {
+            File logFile = new File(logFolder, date + LOG_SUFFIX);
+            if (!logFile.exists()) {
+                continue;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(logFile.toPath(), StandardCharsets.UTF_8)) {
+                String record;
+                while ((record = reader.readLine()) != null) {
+                    String[] parts = record.split("\t", 3);
+                    if (parts.length < 3) {
+                        continue;
+                    }
+                    try {
+                        long time = Long.parseLong(parts[0]);
+                        int guildId = Integer.parseInt(parts[1]);
+                        histories.computeIfAbsent(guildId, k -> new GuildChatHistory(capacity)).add(time, parts[2]);
+                        loaded++;
+                    } catch (NumberFormatException e) {
+                        // 忽略损坏的记录
+                    }
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("读取聊天记录失败: " + e.getMessage());
+            }
+        }
+
+        if (loaded > 0) {
+            plugin.getLogger().info("已加载 " + loaded + " 条公会聊天记录！");
+        }
+    }
+
+    private static LocalDate parseLogDate(File file) {
+        String name = file.getName();
+        try {
+            return LocalDate.parse(name.substring(0, name.length() - LOG_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -1,16 +1,21 @@
 package cn.i7mc.sagaguild.managers;
 
 import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.config.MessageTemplate;
+import cn.i7mc.sagaguild.config.PluginSettings;
 import cn.i7mc.sagaguild.data.models.Guild;
-import cn.i7mc.sagaguild.data.models.GuildMember;
+import cn.i7mc.sagaguild.metrics.CacheMetric;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 聊天管理器
@@ -22,6 +27,22 @@ public class ChatManager {
     // 玩家聊天模式
     private final Map<UUID, ChatMode> playerChatModes;
 
+    // 公会ID -> 在线的公会聊天接收者
+    private final Map<Integer, Player[]> guildRecipients = new ConcurrentHashMap<>();
+
+    // 公会ID -> 在线的联盟聊天接收者（本公会及所有盟友公会）
+    private final Map<Integer, Player[]> allianceRecipients = new ConcurrentHashMap<>();
+
+    // 聊天频率限制
+    private final ChatRateLimiter rateLimiter = new ChatRateLimiter();
+
+    // 接收者缓存失效计数，构建期间发生失效时不写入缓存
+    private final AtomicLong recipientsEpoch = new AtomicLong();
+
+    // 接收者缓存命中统计
+    private final CacheMetric guildRecipientsMetric;
+    private final CacheMetric allianceRecipientsMetric;
+
 //    // 记分板
 //    private Scoreboard scoreboard;
 
@@ -36,7 +57,9 @@ public class ChatManager {
 
     public ChatManager(SagaGuild plugin) {
         this.plugin = plugin;
-        this.playerChatModes = new HashMap<>();
+        this.playerChatModes = new ConcurrentHashMap<>();
+        this.guildRecipientsMetric = plugin.getMetricsManager().getRegistry().cache("guild_chat_recipients");
+        this.allianceRecipientsMetric = plugin.getMetricsManager().getRegistry().cache("alliance_chat_recipients");
 
 //        // 初始化记分板
 //        initScoreboard();
@@ -174,18 +197,63 @@ public class ChatManager {
     }
 
     /**
-     * 处理聊天消息
+     * 公会或联盟聊天的投递路线
+     * 消息只格式化一次，所有接收者共用同一个组件
+     */
+    public static final class ChatRoute {
+        private final ChatMode mode;
+        private final int guildId;
+        private final Component message;
+        private final String line;
+        private final Player[] recipients;
+
+        private ChatRoute(ChatMode mode, int guildId, Component message, String line, Player[] recipients) {
+            this.mode = mode;
+            this.guildId = guildId;
+            this.message = message;
+            this.line = line;
+            this.recipients = recipients;
+        }
+
+        public ChatMode getMode() {
+            return mode;
+        }
+
+        public int getGuildId() {
+            return guildId;
+        }
+
+        public Component getMessage() {
+            return message;
+        }
+
+        public Player[] getRecipients() {
+            return recipients;
+        }
+
+        /**
+         * 消息是否被频率限制拦截
+         * @return 是否被拦截
+         */
+        public boolean isBlocked() {
+            return message == null;
+        }
+    }
+
+    /**
+     * 解析聊天消息的投递路线
+     * 只读取内存中的聊天模式、成员索引和接收者缓存，不访问数据库
      * @param player 玩家
      * @param message 消息
-     * @return 是否取消原始事件
+     * @return 投递路线，普通聊天返回null，被频率限制拦截时返回没有接收者的路线
      */
-    public boolean handleChat(Player player, String message) {
+    public ChatRoute route(Player player, String message) {
         UUID playerUuid = player.getUniqueId();
         ChatMode mode = getPlayerChatMode(playerUuid);
 
         // 检查是否是公会或联盟聊天
         if (mode == ChatMode.NORMAL) {
-            return false;
+            return null;
         }
 
         // 检查玩家是否在公会中
@@ -193,69 +261,221 @@ public class ChatManager {
         if (guild == null) {
             player.sendMessage(plugin.getConfigManager().getMessage("guild.not-in-guild"));
             setPlayerChatMode(playerUuid, ChatMode.NORMAL);
-            return false;
+            return null;
+        }
+
+        // 检查发送频率和重复消息
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        ChatRateLimiter.Result result = rateLimiter.tryAcquire(playerUuid, mode, message, settings);
+        if (result != ChatRateLimiter.Result.ALLOWED) {
+            player.sendMessage(plugin.getConfigManager().getMessageComponent(
+                    result == ChatRateLimiter.Result.DUPLICATE ? "chat.duplicate-message" : "chat.rate-limited"));
+            return new ChatRoute(mode, guild.getId(), null, null, new Player[0]);
         }
 
-        // 获取聊天格式
-        FileConfiguration config = plugin.getConfig();
-        String format;
+        // 格式化消息
+        MessageTemplate format = mode == ChatMode.GUILD ? settings.getChatTemplate() : settings.getAllyChatTemplate();
+        String line = format.render("player", player.getName(), "message", message);
+        Component formatted = LegacyComponentSerializer.legacySection().deserialize(line);
+
+        // 获取接收者
+        Player[] recipients = mode == ChatMode.GUILD
+                ? getGuildRecipients(guild.getId())
+                : getAllianceRecipients(guild.getId());
+
+        return new ChatRoute(mode, guild.getId(), formatted, line, recipients);
+    }
 
-        if (mode == ChatMode.GUILD) {
-            format = config.getString("chat.format", "&8[&b公会&8] &f{player}: &7{message}");
-            sendGuildMessage(guild.getId(), format, player.getName(), message);
-        } else if (mode == ChatMode.ALLIANCE) {
-            format = config.getString("chat.ally-format", "&8[&d联盟&8] &f{player}: &7{message}");
-            sendAllianceMessage(guild.getId(), format, player.getName(), message);
+    /**
+     * 处理聊天消息
+     * 用于不支持Paper聊天事件的服务端，由插件自行投递消息
+     * @param player 玩家
+     * @param message 消息
+     * @return 是否取消原始事件
+     */
+    public boolean handleChat(Player player, String message) {
+        ChatRoute route = route(player, message);
+        if (route == null) {
+            return false;
         }
 
+        deliver(route);
+        recordHistory(route);
         return true;
     }
 
     /**
-     * 发送公会消息
+     * 投递消息到每个接收者
+     * 发送消息是线程安全的，直接在聊天线程中发送，不为每个接收者调度任务
+     * @param route 投递路线
+     */
+    public void deliver(ChatRoute route) {
+        if (route.isBlocked()) {
+            return;
+        }
+
+        Component message = route.getMessage();
+        for (Player target : route.getRecipients()) {
+            target.sendMessage(message);
+        }
+    }
+
+    /**
+     * 将已投递的消息记录到聊天历史
+     * 记录到本公会，联盟聊天同时记录到所有盟友公会
+     * 只应在消息确实送达后调用，被其他插件取消的消息不应记录
+     * @param route 投递路线
+     */
+    public void recordHistory(ChatRoute route) {
+        if (route.isBlocked()) {
+            return;
+        }
+
+        ChatHistoryManager history = plugin.getChatHistoryManager();
+        if (history != null && history.isEnabled()) {
+            int guildId = route.getGuildId();
+            history.record(route.getMode() == ChatMode.GUILD ? new int[]{guildId} : withAllies(guildId), route.line);
+        }
+    }
+
+    /**
+     * 获取公会聊天的接收者
+     * 只在成员或在线状态变化后重新构建
      * @param guildId 公会ID
-     * @param format 消息格式
-     * @param playerName 玩家名称
-     * @param message 消息内容
+     * @return 在线的公会成员
      */
-    private void sendGuildMessage(int guildId, String format, String playerName, String message) {
-        // 替换占位符
-        String formattedMessage = format
-                .replace("&", "§")
-                .replace("{player}", playerName)
-                .replace("{message}", message);
-
-        // 发送给所有公会成员
-        for (GuildMember member : plugin.getGuildManager().getGuildMembers(guildId)) {
-            Player target = Bukkit.getPlayer(member.getPlayerUuid());
-            if (target != null && target.isOnline()) {
-                target.sendMessage(formattedMessage);
+    public Player[] getGuildRecipients(int guildId) {
+        Player[] cached = guildRecipients.get(guildId);
+        if (cached != null) {
+            guildRecipientsMetric.hit();
+            return cached;
+        }
+        guildRecipientsMetric.miss();
+
+        long epoch = recipientsEpoch.get();
+        List<Player> recipients = new ArrayList<>();
+        for (UUID memberUuid : plugin.getGuildManager().getGuildMemberIds(guildId)) {
+            if (!plugin.getPlayerNameManager().isOnline(memberUuid)) {
+                continue;
+            }
+            Player target = Bukkit.getPlayer(memberUuid);
+            if (target != null) {
+                recipients.add(target);
             }
         }
+
+        Player[] result = recipients.toArray(new Player[0]);
+        cacheRecipients(guildRecipients, guildId, result, epoch);
+        return result;
     }
 
     /**
-     * 发送联盟消息
+     * 获取联盟聊天的接收者
+     * 只在联盟关系、成员或在线状态变化后重新构建
      * @param guildId 公会ID
-     * @param format 消息格式
-     * @param playerName 玩家名称
-     * @param message 消息内容
+     * @return 本公会及所有盟友公会的在线成员
      */
-    private void sendAllianceMessage(int guildId, String format, String playerName, String message) {
-        // 替换占位符
-        String formattedMessage = format
-                .replace("&", "§")
-                .replace("{player}", playerName)
-                .replace("{message}", message);
-
-        // 发送给所有公会成员
-        for (GuildMember member : plugin.getGuildManager().getGuildMembers(guildId)) {
-            Player target = Bukkit.getPlayer(member.getPlayerUuid());
-            if (target != null && target.isOnline()) {
-                target.sendMessage(formattedMessage);
+    public Player[] getAllianceRecipients(int guildId) {
+        Player[] cached = allianceRecipients.get(guildId);
+        if (cached != null) {
+            allianceRecipientsMetric.hit();
+            return cached;
+        }
+        allianceRecipientsMetric.miss();
+
+        long epoch = recipientsEpoch.get();
+        List<Player> recipients = new ArrayList<>();
+        addAll(recipients, getGuildRecipients(guildId));
+        for (int allyId : plugin.getAllianceManager().getAllyIds(guildId)) {
+            addAll(recipients, getGuildRecipients(allyId));
+        }
+
+        Player[] result = recipients.toArray(new Player[0]);
+        cacheRecipients(allianceRecipients, guildId, result, epoch);
+        return result;
+    }
+
+    /**
+     * 公会成员或成员在线状态变化时使接收者缓存失效
+     * 同时使盟友公会的联盟聊天接收者失效
+     * @param guildId 公会ID
+     */
+    public void invalidateGuildRecipients(int guildId) {
+        recipientsEpoch.incrementAndGet();
+        guildRecipients.remove(guildId);
+        allianceRecipients.remove(guildId);
+        for (int allyId : plugin.getAllianceManager().getAllyIds(guildId)) {
+            allianceRecipients.remove(allyId);
+        }
+    }
+
+    /**
+     * 联盟关系变化时使双方的联盟聊天接收者失效
+     * @param guild1Id 第一个公会ID
+     * @param guild2Id 第二个公会ID
+     */
+    public void invalidateAllianceRecipients(int guild1Id, int guild2Id) {
+        recipientsEpoch.incrementAndGet();
+        allianceRecipients.remove(guild1Id);
+        allianceRecipients.remove(guild2Id);
+    }
+
+    /**
+     * 使所有接收者缓存失效（重新加载联盟数据时调用）
+     */
+    public void invalidateAllRecipients() {
+        recipientsEpoch.incrementAndGet();
+        guildRecipients.clear();
+        allianceRecipients.clear();
+    }
+
+    /**
+     * 玩家离线时清理聊天状态
+     * @param playerUuid 玩家UUID
+     */
+    public void handleQuit(UUID playerUuid) {
+        rateLimiter.evict(playerUuid);
+    }
+
+    /**
+     * 玩家上线或离线时使其公会的接收者缓存失效
+     * @param playerUuid 玩家UUID
+     */
+    public void invalidatePlayerRecipients(UUID playerUuid) {
+        Guild guild = plugin.getGuildManager().getPlayerGuild(playerUuid);
+        if (guild != null) {
+            invalidateGuildRecipients(guild.getId());
+        }
+    }
+
+    /**
+     * 写入接收者缓存，构建期间缓存已失效时放弃写入
+     */
+    private void cacheRecipients(Map<Integer, Player[]> cache, int guildId, Player[] recipients, long epoch) {
+        if (recipientsEpoch.get() == epoch) {
+            cache.put(guildId, recipients);
+            if (recipientsEpoch.get() != epoch) {
+                cache.remove(guildId, recipients);
             }
         }
+    }
 
-        // TODO: 发送给联盟公会成员
+    /**
+     * 获取公会及其所有盟友的ID
+     * @param guildId 公会ID
+     * @return 公会ID数组，第一个为该公会
+     */
+    private int[] withAllies(int guildId) {
+        int[] allies = plugin.getAllianceManager().getAllyIds(guildId);
+        int[] result = new int[allies.length + 1];
+        result[0] = guildId;
+        System.arraycopy(allies, 0, result, 1, allies.length);
+        return result;
+    }
+
+    private static void addAll(List<Player> target, Player[] players) {
+        for (Player player : players) {
+            target.add(player);
+        }
     }
 }
@@ -0,0 +1,170 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.config.PluginSettings;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 聊天频率限制器
+ * 每个玩家的每个聊天频道使用一个令牌桶，状态编码在一个long中并通过CAS更新
+ * 另外记录最近几条消息的哈希，拦截短时间内的重复消息
+ */
+public class ChatRateLimiter {
+
+    /**
+     * 检查结果
+     */
+    public enum Result {
+        ALLOWED,
+        RATE_LIMITED,
+        DUPLICATE
+    }
+
+    // 令牌以千分之一为单位保存在低24位，高40位为上次补充的时间（毫秒）
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TOKEN_SCALE = 1000L;
+
+    private final long startMillis = System.currentTimeMillis();
+
+    // 玩家UUID -> 各频道的令牌桶状态，下标为聊天模式序号
+    private final Map<UUID, PlayerState> states = new ConcurrentHashMap<>();
+
+    /**
+     * 玩家的限制状态
+     */
+    private static final class PlayerState {
+        private final AtomicLongArray buckets = new AtomicLongArray(ChatManager.ChatMode.values().length);
+
+        // 最近消息：高32位为消息哈希，低32位为发送时间（秒）
+        private long[] recentMessages = new long[0];
+        private int recentIndex;
+    }
+
+    /**
+     * 尝试发送一条消息
+     * @param playerUuid 玩家UUID
+     * @param mode 聊天频道
+     * @param message 消息内容
+     * @param settings 当前设置
+     * @return 检查结果
+     */
+    public Result tryAcquire(UUID playerUuid, ChatManager.ChatMode mode, String message, PluginSettings settings) {
+        PlayerState state = states.computeIfAbsent(playerUuid, k -> new PlayerState());
+
+        int window = settings.getDuplicateWindow();
+        int hash = message.trim().toLowerCase().hashCode();
+        long nowSeconds = (System.currentTimeMillis() - startMillis) / 1000L;
+        if (window > 0 && isDuplicate(state, hash, nowSeconds, settings.getDuplicateSeconds())) {
+            return Result.DUPLICATE;
+        }
+
+        double rate = mode == ChatManager.ChatMode.ALLIANCE ? settings.getAllyChatRate() : settings.getGuildChatRate();
+        int burst = mode == ChatManager.ChatMode.ALLIANCE ? settings.getAllyChatBurst() : settings.getGuildChatBurst();
+        if (rate > 0 && burst > 0 && !tryConsume(state.buckets, mode.ordinal(), rate, burst)) {
+            return Result.RATE_LIMITED;
+        }
+
+        // 只记录实际发出的消息，被频率限制拦截的消息重发时不算重复
+        if (window > 0) {
+            remember(state, hash, nowSeconds, window);
+        }
+        return Result.ALLOWED;
+    }
+
+    /**
+     * 移除玩家的限制状态（玩家离线时调用）
+     * @param playerUuid 玩家UUID
+     */
+    public void evict(UUID playerUuid) {
+        states.remove(playerUuid);
+    }
+
+    /**
+     * 从令牌桶中取出一个令牌
+     * @param buckets 令牌桶数组
+     * @param index 频道下标
+     * @param rate 每秒补充的令牌数
+     * @param burst 令牌桶容量
+     * @return 是否取出成功
+     */
+    private boolean tryConsume(AtomicLongArray buckets, int index, double rate, int burst) {
+        long capacity = Math.min(TOKEN_MASK, burst * TOKEN_SCALE);
+        long now = System.currentTimeMillis() - startMillis;
+
+        while (true) {
+            long current = buckets.get(index);
+            long tokens;
+            long lastRefill;
+            if (current == 0L) {
+                // 首次使用，令牌桶是满的
+                tokens = capacity;
+                lastRefill = now;
+            } else {
+                tokens = current & TOKEN_MASK;
+                lastRefill = current >>> TOKEN_BITS;
+            }
+
+            // 按经过的时间补充令牌
+            long elapsed = Math.max(0L, now - lastRefill);
+            long refill = (long) (elapsed * rate);
+            tokens = Math.min(capacity, tokens + refill);
+
+            if (tokens < TOKEN_SCALE) {
+                return false;
+            }
+
+            // 只有实际补充了令牌时才推进时间，避免丢失不足一个单位的补充量
+            long newRefill = refill > 0 ? now : lastRefill;
+            long next = (newRefill << TOKEN_BITS) | (tokens - TOKEN_SCALE);
+            if (next == 0L) {
+                next = 1L << TOKEN_BITS;
+            }
+            if (buckets.compareAndSet(index, current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 检查消息是否与最近发送的消息重复
+     * @param state 玩家状态
+     * @param hash 消息哈希
+     * @param nowSeconds 当前时间（秒）
+     * @param maxAge 重复检测的时间范围（秒）
+     * @return 是否重复
+     */
+    private boolean isDuplicate(PlayerState state, int hash, long nowSeconds, long maxAge) {
+        synchronized (state) {
+            for (long entry : state.recentMessages) {
+                if (entry != 0L && (int) (entry >>> 32) == hash
+                        && nowSeconds - (entry & 0xFFFFFFFFL) <= maxAge) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 记录已发出的消息
+     * @param state 玩家状态
+     * @param hash 消息哈希
+     * @param nowSeconds 当前时间（秒）
+     * @param window 记录的消息条数
+     */
+    private void remember(PlayerState state, int hash, long nowSeconds, int window) {
+        synchronized (state) {
+            if (state.recentMessages.length != window) {
+                state.recentMessages = new long[window];
+                state.recentIndex = 0;
+            }
+
+            state.recentMessages[state.recentIndex] = ((long) hash << 32) | (nowSeconds & 0xFFFFFFFFL);
+            state.recentIndex = (state.recentIndex + 1) % window;
+        }
+    }
+}
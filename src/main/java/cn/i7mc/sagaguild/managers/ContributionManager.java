@@ -0,0 +1,183 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.dao.ContributionDAO;
+import cn.i7mc.sagaguild.data.models.MemberContribution;
+import cn.yvmou.ylib.api.scheduler.UniversalTask;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 成员贡献管理器
+ * 事件线程只累加内存中的LongAdder计数器，定时任务将增量按天批量写入数据库
+ */
+public class ContributionManager {
+    private static final MemberContribution.Type[] TYPES = MemberContribution.Type.values();
+
+    private final SagaGuild plugin;
+    private final ContributionDAO contributionDAO;
+
+    // 公会ID -> 成员UUID -> 贡献计数器
+    private final Map<Integer, Map<UUID, MemberCounters>> counters = new ConcurrentHashMap<>();
+
+    private UniversalTask flushTask;
+
+    /**
+     * 单个成员的贡献计数器，下标为贡献类别序号
+     */
+    private static final class MemberCounters {
+        // 尚未写入数据库的增量
+        private final LongAdder[] pending = new LongAdder[TYPES.length];
+
+        // 已写入数据库的累计值
+        private final AtomicLongArray flushed = new AtomicLongArray(TYPES.length);
+
+        private MemberCounters() {
+            for (int i = 0; i < pending.length; i++) {
+                pending[i] = new LongAdder();
+            }
+        }
+
+        private long get(int index) {
+            return flushed.get(index) + pending[index].sum();
+        }
+    }
+
+    public ContributionManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.contributionDAO = new ContributionDAO(plugin);
+
+        // 加载累计贡献
+        loadContributions();
+
+        // 定期写入数据库
+        long flushTicks = Math.max(1, plugin.getConfig().getInt("contribution.flush-interval", 60)) * 20L;
+        flushTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::flush, flushTicks, flushTicks);
+    }
+
+    /**
+     * 从数据库加载所有成员的累计贡献
+     */
+    private void loadContributions() {
+        counters.clear();
+
+        List<MemberContribution> totals = contributionDAO.getTotalContributions();
+        for (MemberContribution total : totals) {
+            getCounters(total.getGuildId(), total.getPlayerUuid()).flushed.addAndGet(total.getType().ordinal(), total.getAmount());
+        }
+
+        plugin.getLogger().info("已加载 " + totals.size() + " 条成员贡献数据！");
+    }
+
+    /**
+     * 增加成员贡献
+     * @param guildId 公会ID
+     * @param playerUuid 玩家UUID
+     * @param type 贡献类别
+     * @param amount 贡献量
+     */
+    public void addContribution(int guildId, UUID playerUuid, MemberContribution.Type type, long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        getCounters(guildId, playerUuid).pending[type.ordinal()].add(amount);
+    }
+
+    /**
+     * 获取成员在某一类别下的累计贡献
+     * @param guildId 公会ID
+     * @param playerUuid 玩家UUID
+     * @param type 贡献类别
+     * @return 累计贡献
+     */
+    public long getContribution(int guildId, UUID playerUuid, MemberContribution.Type type) {
+        Map<UUID, MemberCounters> guildCounters = counters.get(guildId);
+        MemberCounters memberCounters = guildCounters != null ? guildCounters.get(playerUuid) : null;
+        return memberCounters != null ? memberCounters.get(type.ordinal()) : 0L;
+    }
+
+    /**
+     * 获取公会成员在某一类别下的贡献排行
+     * @param guildId 公会ID
+     * @param memberIds 参与排行的成员
+     * @param type 贡献类别
+     * @return 按贡献从高到低排列的 (成员UUID, 贡献) 列表
+     */
+    public List<Map.Entry<UUID, Long>> getRanking(int guildId, Collection<UUID> memberIds, MemberContribution.Type type) {
+        List<Map.Entry<UUID, Long>> ranking = new ArrayList<>(memberIds.size());
+        for (UUID memberId : memberIds) {
+            ranking.add(new AbstractMap.SimpleImmutableEntry<>(memberId, getContribution(guildId, memberId, type)));
+        }
+        ranking.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return ranking;
+    }
+
+    /**
+     * 移除公会的贡献计数器（公会解散时调用）
+     * @param guildId 公会ID
+     */
+    public void removeGuild(int guildId) {
+        counters.remove(guildId);
+    }
+
+    /**
+     * 停止后台任务并写入剩余的贡献
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    /**
+     * 将所有计数器的增量汇总到当天并批量写入数据库
+     */
+    private synchronized void flush() {
+        List<MemberContribution> deltas = new ArrayList<>();
+        List<MemberCounters> owners = new ArrayList<>();
+        for (Map.Entry<Integer, Map<UUID, MemberCounters>> guildEntry : counters.entrySet()) {
+            for (Map.Entry<UUID, MemberCounters> memberEntry : guildEntry.getValue().entrySet()) {
+                MemberCounters memberCounters = memberEntry.getValue();
+                for (MemberContribution.Type type : TYPES) {
+                    // 增量先转入累计值，写入失败时再放回
+                    long amount = memberCounters.pending[type.ordinal()].sumThenReset();
+                    if (amount != 0) {
+                        memberCounters.flushed.addAndGet(type.ordinal(), amount);
+                        deltas.add(new MemberContribution(guildEntry.getKey(), memberEntry.getKey(), type, amount));
+                        owners.add(memberCounters);
+                    }
+                }
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        if (!contributionDAO.addContributions(LocalDate.now(), deltas)) {
+            // 写入失败，放回增量等待下次写入
+            for (int i = 0; i < deltas.size(); i++) {
+                MemberContribution delta = deltas.get(i);
+                int index = delta.getType().ordinal();
+                owners.get(i).flushed.addAndGet(index, -delta.getAmount());
+                owners.get(i).pending[index].add(delta.getAmount());
+            }
+        }
+    }
+
+    private MemberCounters getCounters(int guildId, UUID playerUuid) {
+        return counters.computeIfAbsent(guildId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(playerUuid, k -> new MemberCounters());
+    }
+}
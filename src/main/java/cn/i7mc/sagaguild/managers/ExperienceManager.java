@@ -0,0 +1,256 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.config.PluginSettings;
+import cn.i7mc.sagaguild.config.XpRuleTable;
+import cn.i7mc.sagaguild.data.models.Guild;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 公会经验管理器
+ * 按预编译的经验规则计算玩家行为获得的公会经验，并检查冷却时间、每小时上限和刷经验行为
+ * 每个玩家只保存按行为序号和规则序号索引的基本类型数组，检查时不产生任何对象，玩家离线时移除
+ */
+public class ExperienceManager {
+
+    /**
+     * 获得公会经验的行为
+     */
+    public enum XpAction {
+        BLOCK_BREAK("block-break", 1, true),
+        BLOCK_PLACE("block-place", 1, true),
+        ENTITY_KILL("entity-kill", 2, true),
+        FISHING("fishing", 2, false);
+
+        private final String configKey;
+        private final int defaultXp;
+        private final boolean trackPosition;
+
+        XpAction(String configKey, int defaultXp, boolean trackPosition) {
+            this.configKey = configKey;
+            this.defaultXp = defaultXp;
+            this.trackPosition = trackPosition;
+        }
+
+        /**
+         * 获取配置文件中使用的键名
+         * @return 键名
+         */
+        public String getConfigKey() {
+            return configKey;
+        }
+
+        /**
+         * 获取未配置时的基础经验
+         * @return 基础经验
+         */
+        public int getDefaultXp() {
+            return defaultXp;
+        }
+
+        /**
+         * 刷经验检测是否统计该行为的位置
+         * 钓鱼通常在同一位置进行，只统计次数
+         * @return 是否统计位置
+         */
+        public boolean isTrackPosition() {
+            return trackPosition;
+        }
+    }
+
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+    private static final int[] NO_CAPS = new int[0];
+
+    /**
+     * 玩家的经验状态
+     * 同一玩家的事件只在其所在线程处理，无需额外同步
+     */
+    private static final class PlayerState {
+        // 各行为上次获得经验的时间（毫秒），下标为行为序号
+        private final long[] lastTimes = new long[ACTION_COUNT];
+
+        // 当前小时内通过各规则获得的经验，下标为规则序号
+        private int[] hourlyXp = NO_CAPS;
+        private long hour;
+
+        // 刷经验检测窗口
+        private final XpFarmDetector.Window farmWindow = new XpFarmDetector.Window();
+    }
+
+    private static final int ACTION_COUNT = XpAction.values().length;
+
+    private final SagaGuild plugin;
+    private final XpFarmDetector farmDetector;
+
+    // 玩家UUID -> 经验状态
+    private final Map<UUID, PlayerState> states = new ConcurrentHashMap<>();
+
+    public ExperienceManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.farmDetector = new XpFarmDetector(plugin);
+    }
+
+    /**
+     * 玩家行为为公会增加经验
+     * 按经验规则计算经验数量，仍在冷却中、已达到规则的每小时上限或判定为刷经验时不增加
+     * @param player 玩家
+     * @param guild 玩家所在公会
+     * @param action 行为
+     * @param target 行为目标（方块、物品或实体类型），未知时为null
+     * @param location 行为发生的位置
+     * @return 实际增加的经验
+     */
+    public int grantExperience(Player player, Guild guild, XpAction action, Enum<?> target, Location location) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        XpRuleTable rules = settings.getXpRules();
+
+        XpRuleTable.Rule rule = matchRule(rules.getCandidates(action, target), guild, location);
+        int amount = rules.getAmount(action, rule);
+        if (amount <= 0) {
+            return 0;
+        }
+
+        PlayerState state = states.get(player.getUniqueId());
+        if (state == null) {
+            state = states.computeIfAbsent(player.getUniqueId(), ExperienceManager::newState);
+        }
+
+        // 刷经验检测统计所有可获得经验的行为，不受冷却影响
+        long now = System.currentTimeMillis();
+        if (settings.isFarmDetectionEnabled()) {
+            amount = farmDetector.inspect(player, state.farmWindow, action.isTrackPosition() ? location : null,
+                    amount, now, settings);
+            if (amount <= 0) {
+                return 0;
+            }
+        }
+
+        // 检查冷却时间
+        long cooldown = settings.getXpCooldown(action);
+        int index = action.ordinal();
+        if (cooldown > 0 && now - state.lastTimes[index] < cooldown) {
+            return 0;
+        }
+
+        // 检查规则的每小时上限
+        if (rule != null && rule.getCapPerHour() > 0) {
+            amount = consumeHourlyCap(state, rule, rules.size(), amount, now);
+            if (amount <= 0) {
+                return 0;
+            }
+        }
+        state.lastTimes[index] = now;
+
+        // 如果升级，通知公会成员
+        if (plugin.getGuildManager().addGuildExperience(guild.getId(), amount)) {
+            notifyGuildLevelUp(guild);
+        }
+        return amount;
+    }
+
+    /**
+     * 在候选规则中查找第一条满足世界和领地条件的规则
+     * @param candidates 候选规则
+     * @param guild 玩家所在公会
+     * @param location 行为发生的位置
+     * @return 匹配的规则，没有匹配返回null
+     */
+    private XpRuleTable.Rule matchRule(XpRuleTable.Rule[] candidates, Guild guild, Location location) {
+        if (candidates.length == 0) {
+            return null;
+        }
+
+        String worldName = location.getWorld().getName();
+        int landGuildId = 0;
+        boolean landResolved = false;
+        for (XpRuleTable.Rule rule : candidates) {
+            if (!rule.matchesWorld(worldName)) {
+                continue;
+            }
+
+            XpRuleTable.Territory territory = rule.getTerritory();
+            if (territory != XpRuleTable.Territory.ANY) {
+                // 只在需要时查询区块所属公会
+                if (!landResolved) {
+                    landGuildId = plugin.getLandManager().getChunkGuildId(location.getChunk());
+                    landResolved = true;
+                }
+                boolean matches;
+                switch (territory) {
+                    case OWN:
+                        matches = landGuildId == guild.getId();
+                        break;
+                    case OTHER:
+                        matches = landGuildId != -1 && landGuildId != guild.getId();
+                        break;
+                    default:
+                        matches = landGuildId == -1;
+                        break;
+                }
+                if (!matches) {
+                    continue;
+                }
+            }
+            return rule;
+        }
+        return null;
+    }
+
+    /**
+     * 扣除规则的每小时经验额度
+     * @return 本次可获得的经验
+     */
+    private int consumeHourlyCap(PlayerState state, XpRuleTable.Rule rule, int ruleCount, int amount, long now) {
+        long hour = now / HOUR_MILLIS;
+        if (state.hourlyXp.length != ruleCount) {
+            // 规则数量变化（重载配置）时重新计数
+            state.hourlyXp = new int[ruleCount];
+            state.hour = hour;
+        } else if (state.hour != hour) {
+            Arrays.fill(state.hourlyXp, 0);
+            state.hour = hour;
+        }
+
+        int used = state.hourlyXp[rule.getIndex()];
+        int granted = Math.min(amount, rule.getCapPerHour() - used);
+        if (granted <= 0) {
+            return 0;
+        }
+        state.hourlyXp[rule.getIndex()] = used + granted;
+        return granted;
+    }
+
+    /**
+     * 移除玩家的经验状态（玩家离线时调用）
+     * @param playerUuid 玩家UUID
+     */
+    public void handleQuit(UUID playerUuid) {
+        states.remove(playerUuid);
+    }
+
+    /**
+     * 通知公会升级
+     * @param guild 公会对象
+     */
+    private void notifyGuildLevelUp(Guild guild) {
+        // 获取公会所有在线成员
+        plugin.getGuildManager().getGuildMembers(guild.getId()).forEach(member -> {
+            Player player = plugin.getServer().getPlayer(member.getPlayerUuid());
+            if (player != null && player.isOnline()) {
+                player.sendMessage(plugin.getConfigManager().getMessage("guild.level-up",
+                        "guild", guild.getName(),
+                        "level", String.valueOf(guild.getLevel())));
+            }
+        });
+    }
+
+    private static PlayerState newState(UUID playerUuid) {
+        return new PlayerState();
+    }
+}
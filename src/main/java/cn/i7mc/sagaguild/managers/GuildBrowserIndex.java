@@ -0,0 +1,443 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.data.models.Guild;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 公会浏览索引
+ * 为公会列表预先计算各排序方式下的有序数组，翻页只需按下标截取
+ */
+public class GuildBrowserIndex {
+
+    /**
+     * 排序方式
+     */
+    public enum SortType {
+        LEVEL("等级"),
+        MEMBERS("成员数"),
+        ONLINE("在线人数"),
+        CREATED("创建时间");
+
+        private final String displayName;
+
+        SortType(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 获取下一个排序方式
+         * @return 下一个排序方式
+         */
+        public SortType next() {
+            SortType[] values = values();
+            return values[(ordinal() + 1) % values.length];
+        }
+    }
+
+    /**
+     * 筛选方式
+     */
+    public enum FilterType {
+        ALL("全部公会"),
+        PUBLIC("开放加入");
+
+        private final String displayName;
+
+        FilterType(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 获取下一个筛选方式
+         * @return 下一个筛选方式
+         */
+        public FilterType next() {
+            FilterType[] values = values();
+            return values[(ordinal() + 1) % values.length];
+        }
+    }
+
+    /**
+     * 分页结果
+     */
+    public static class Page {
+        private final List<Guild> guilds;
+        private final int page;
+        private final int totalPages;
+        private final int totalGuilds;
+
+        public Page(List<Guild> guilds, int page, int totalPages, int totalGuilds) {
+            this.guilds = guilds;
+            this.page = page;
+            this.totalPages = totalPages;
+            this.totalGuilds = totalGuilds;
+        }
+
+        public List<Guild> getGuilds() {
+            return guilds;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public int getTotalPages() {
+            return totalPages;
+        }
+
+        public int getTotalGuilds() {
+            return totalGuilds;
+        }
+    }
+
+    /**
+     * 排序键快照
+     * 公会的等级和经验可能在其他线程中被修改，排序只比较构建时复制的值，保证比较结果前后一致
+     */
+    private static final class SortKey {
+        private final Guild guild;
+        private final int id;
+        private final long primary;
+        private final int secondary;
+
+        private SortKey(Guild guild, long primary, int secondary) {
+            this.guild = guild;
+            this.id = guild.getId();
+            this.primary = primary;
+            this.secondary = secondary;
+        }
+    }
+
+    private static final Guild[] EMPTY = new Guild[0];
+
+    // 主键和次键降序，相同时按ID升序保证顺序稳定
+    private static final Comparator<SortKey> KEY_ORDER = (a, b) -> {
+        int result = Long.compare(b.primary, a.primary);
+        if (result == 0) {
+            result = Integer.compare(b.secondary, a.secondary);
+        }
+        return result != 0 ? result : Integer.compare(a.id, b.id);
+    };
+
+    // 单次搜索缓存的最大条目数
+    private static final int MAX_SEARCH_CACHE = 64;
+
+    private final GuildManager guildManager;
+
+    // 排序方式 -> 筛选方式 -> 有序公会数组
+    private final Map<SortType, Map<FilterType, Guild[]>> indexes = new EnumMap<>(SortType.class);
+
+    // 需要重建的排序方式
+    private final boolean[] dirty = new boolean[SortType.values().length];
+
+    // 公开状态变化后需要重新筛选，排序不受影响
+    private boolean filterDirty;
+
+    // 等级排序中每个公会的位置及其排序键，用于判断经验变化后顺序是否改变
+    private final Map<Integer, Integer> levelPositions = new HashMap<>();
+    private SortKey[] levelKeys = new SortKey[0];
+
+    // 排序时使用的统计快照
+    private final Map<Integer, Integer> onlineCounts = new HashMap<>();
+
+    // 搜索结果缓存，索引重建后失效
+    private final Map<String, Guild[]> searchCache = new HashMap<>();
+
+    public GuildBrowserIndex(GuildManager guildManager) {
+        this.guildManager = guildManager;
+        Arrays.fill(dirty, true);
+    }
+
+    /**
+     * 标记所有索引需要重建
+     * 公会创建、解散或重新加载时调用
+     */
+    public synchronized void markDirty() {
+        Arrays.fill(dirty, true);
+        searchCache.clear();
+    }
+
+    /**
+     * 标记在线人数索引需要重建
+     * 玩家上下线时调用，其他排序方式不受影响
+     */
+    public synchronized void markOnlineDirty() {
+        invalidate(SortType.ONLINE);
+    }
+
+    /**
+     * 标记成员数相关的索引需要重建
+     * 成员加入或离开公会时调用，等级和创建时间排序不受影响
+     */
+    public synchronized void markMembersDirty() {
+        invalidate(SortType.MEMBERS);
+        invalidate(SortType.ONLINE);
+    }
+
+    /**
+     * 公会等级或经验变化后调用
+     * 只检查该公会与相邻公会的顺序，顺序未改变时不重建等级索引
+     * @param guild 公会
+     */
+    public synchronized void markLevelChanged(Guild guild) {
+        if (dirty[SortType.LEVEL.ordinal()] || !indexes.containsKey(SortType.LEVEL)) {
+            return;
+        }
+
+        Integer position = levelPositions.get(guild.getId());
+        if (position == null || levelKeys[position].guild != guild) {
+            invalidate(SortType.LEVEL);
+            return;
+        }
+
+        SortKey key = sortKey(SortType.LEVEL, guild);
+        if (inLevelOrder(key, position)) {
+            levelKeys[position] = key;
+        } else {
+            invalidate(SortType.LEVEL);
+        }
+    }
+
+    /**
+     * 公会设置变化后调用
+     * 公开状态只影响筛选结果，重新筛选已有的有序数组而不重新排序
+     */
+    public synchronized void markSettingsChanged() {
+        filterDirty = true;
+        searchCache.clear();
+    }
+
+    /**
+     * 获取一页公会
+     * @param sortType 排序方式
+     * @param filterType 筛选方式
+     * @param query 搜索关键字，为null时不搜索
+     * @param page 页码
+     * @param pageSize 每页数量
+     * @return 分页结果
+     */
+    public synchronized Page getPage(SortType sortType, FilterType filterType, String query, int page, int pageSize) {
+        Guild[] sorted = getSorted(sortType, filterType);
+        if (query != null && !query.isEmpty()) {
+            sorted = search(sorted, sortType, filterType, query);
+        }
+
+        // 计算总页数
+        int totalGuilds = sorted.length;
+        int totalPages = (int) Math.ceil((double) totalGuilds / pageSize);
+
+        // 检查页码是否有效
+        if (page < 1) {
+            page = 1;
+        } else if (page > totalPages && totalPages > 0) {
+            page = totalPages;
+        }
+
+        int startIndex = (page - 1) * pageSize;
+        int endIndex = Math.min(startIndex + pageSize, totalGuilds);
+        List<Guild> guilds = startIndex < endIndex
+                ? Collections.unmodifiableList(Arrays.asList(Arrays.copyOfRange(sorted, startIndex, endIndex)))
+                : Collections.emptyList();
+
+        return new Page(guilds, page, totalPages, totalGuilds);
+    }
+
+    /**
+     * 获取公会在线人数（索引构建时的快照）
+     * @param guildId 公会ID
+     * @return 在线人数
+     */
+    public synchronized int getOnlineCount(int guildId) {
+        getSorted(SortType.ONLINE, FilterType.ALL);
+        return onlineCounts.getOrDefault(guildId, 0);
+    }
+
+    /**
+     * 获取有序数组，必要时重建
+     * @param sortType 排序方式
+     * @param filterType 筛选方式
+     * @return 有序公会数组
+     */
+    private Guild[] getSorted(SortType sortType, FilterType filterType) {
+        if (filterDirty) {
+            refilter();
+        }
+        if (dirty[sortType.ordinal()] || !indexes.containsKey(sortType)) {
+            rebuild(sortType);
+        }
+        Guild[] sorted = indexes.get(sortType).get(filterType);
+        return sorted != null ? sorted : EMPTY;
+    }
+
+    /**
+     * 重建某个排序方式的索引
+     * @param sortType 排序方式
+     */
+    private void rebuild(SortType sortType) {
+        if (sortType == SortType.ONLINE) {
+            refreshOnlineCounts();
+        }
+
+        // 先复制排序键再排序，排序过程中不再读取公会对象
+        List<Guild> guilds = new ArrayList<>(guildManager.getCachedGuilds());
+        SortKey[] keys = new SortKey[guilds.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = sortKey(sortType, guilds.get(i));
+        }
+        Arrays.sort(keys, KEY_ORDER);
+
+        Guild[] sorted = new Guild[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = keys[i].guild;
+        }
+
+        Map<FilterType, Guild[]> byFilter = new EnumMap<>(FilterType.class);
+        byFilter.put(FilterType.ALL, sorted);
+        byFilter.put(FilterType.PUBLIC, filterPublic(sorted));
+
+        if (sortType == SortType.LEVEL) {
+            levelKeys = keys;
+            levelPositions.clear();
+            for (int i = 0; i < keys.length; i++) {
+                levelPositions.put(keys[i].id, i);
+            }
+        }
+
+        indexes.put(sortType, byFilter);
+        dirty[sortType.ordinal()] = false;
+    }
+
+    /**
+     * 按当前公开状态重新筛选所有未过期的索引
+     */
+    private void refilter() {
+        for (Map.Entry<SortType, Map<FilterType, Guild[]>> entry : indexes.entrySet()) {
+            if (!dirty[entry.getKey().ordinal()]) {
+                Map<FilterType, Guild[]> byFilter = entry.getValue();
+                byFilter.put(FilterType.PUBLIC, filterPublic(byFilter.get(FilterType.ALL)));
+            }
+        }
+        filterDirty = false;
+    }
+
+    /**
+     * 筛选开放加入的公会，保持原有顺序
+     * @param sorted 有序公会数组
+     * @return 开放加入的公会
+     */
+    private Guild[] filterPublic(Guild[] sorted) {
+        List<Guild> publicGuilds = new ArrayList<>();
+        for (Guild guild : sorted) {
+            if (guild.isPublic()) {
+                publicGuilds.add(guild);
+            }
+        }
+        return publicGuilds.toArray(EMPTY);
+    }
+
+    /**
+     * 检查公会的新排序键是否仍位于前后公会的排序键之间
+     * 筛选结果和搜索结果都是全部公会的子序列，全部公会顺序不变时它们也不变
+     */
+    private boolean inLevelOrder(SortKey key, int position) {
+        return (position == 0 || KEY_ORDER.compare(levelKeys[position - 1], key) <= 0)
+                && (position == levelKeys.length - 1 || KEY_ORDER.compare(key, levelKeys[position + 1]) <= 0);
+    }
+
+    /**
+     * 标记某个排序方式需要重建，并移除该排序方式的搜索缓存
+     * @param sortType 排序方式
+     */
+    private void invalidate(SortType sortType) {
+        if (!dirty[sortType.ordinal()]) {
+            dirty[sortType.ordinal()] = true;
+            String prefix = sortType.name() + ":";
+            searchCache.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 统计每个公会的在线人数
+     */
+    private void refreshOnlineCounts() {
+        onlineCounts.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            Guild guild = guildManager.getPlayerGuild(player.getUniqueId());
+            if (guild != null) {
+                onlineCounts.merge(guild.getId(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * 复制公会在某个排序方式下的排序键
+     * @param sortType 排序方式
+     * @param guild 公会
+     * @return 排序键
+     */
+    private SortKey sortKey(SortType sortType, Guild guild) {
+        switch (sortType) {
+            case LEVEL:
+                return new SortKey(guild, guild.getLevel(), guild.getExperience());
+            case MEMBERS:
+                return new SortKey(guild, guildManager.getCachedMemberCount(guild.getId()), 0);
+            case ONLINE:
+                return new SortKey(guild, onlineCounts.getOrDefault(guild.getId(), 0), 0);
+            case CREATED:
+            default:
+                return new SortKey(guild, guild.getCreatedAt() != null ? guild.getCreatedAt().getTime() : 0L, 0);
+        }
+    }
+
+    /**
+     * 在有序数组中搜索名称或标签包含关键字的公会，保持原有顺序
+     * @param sorted 有序公会数组
+     * @param sortType 排序方式
+     * @param filterType 筛选方式
+     * @param query 搜索关键字
+     * @return 搜索结果
+     */
+    private Guild[] search(Guild[] sorted, SortType sortType, FilterType filterType, String query) {
+        String keyword = query.toLowerCase(Locale.ROOT);
+        String cacheKey = sortType.name() + ":" + filterType.name() + ":" + keyword;
+
+        Guild[] cached = searchCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Guild> result = new ArrayList<>();
+        for (Guild guild : sorted) {
+            if (guild.getName().toLowerCase(Locale.ROOT).contains(keyword)
+                    || guild.getTag().toLowerCase(Locale.ROOT).contains(keyword)) {
+                result.add(guild);
+            }
+        }
+
+        Guild[] matches = result.toArray(EMPTY);
+        if (searchCache.size() >= MAX_SEARCH_CACHE) {
+            searchCache.clear();
+        }
+        searchCache.put(cacheKey, matches);
+        return matches;
+    }
+}
@@ -1,22 +1,25 @@
 package cn.i7mc.sagaguild.managers;
 
 import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.config.PluginSettings;
 import cn.i7mc.sagaguild.data.dao.GuildDAO;
 import cn.i7mc.sagaguild.data.dao.JoinRequestDAO;
 import cn.i7mc.sagaguild.data.dao.MemberDAO;
 import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildMember;
 import cn.i7mc.sagaguild.data.models.JoinRequest;
+import cn.i7mc.sagaguild.gui.holders.GuildViewHolder;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 公会管理器
@@ -33,6 +36,10 @@ public class GuildManager {
     private final Map<String, Guild> guildsByName;
     private final Map<String, Guild> guildsByTag;
     private final Map<UUID, Integer> playerGuildMap;
+    private final Map<Integer, Set<UUID>> guildMemberIds;
+
+    // 公会浏览索引
+    private final GuildBrowserIndex browserIndex;
 
     public GuildManager(SagaGuild plugin) {
         this.plugin = plugin;
@@ -40,10 +47,12 @@ public class GuildManager {
         this.memberDAO = new MemberDAO(plugin);
         this.joinRequestDAO = plugin.getJoinRequestDAO();
 
-        this.guildsById = new HashMap<>();
-        this.guildsByName = new HashMap<>();
-        this.guildsByTag = new HashMap<>();
-        this.playerGuildMap = new HashMap<>();
+        this.guildsById = new ConcurrentHashMap<>();
+        this.guildsByName = new ConcurrentHashMap<>();
+        this.guildsByTag = new ConcurrentHashMap<>();
+        this.playerGuildMap = new ConcurrentHashMap<>();
+        this.guildMemberIds = new ConcurrentHashMap<>();
+        this.browserIndex = new GuildBrowserIndex(this);
 
         // 加载所有公会数据到缓存
         loadGuilds();
@@ -58,6 +67,7 @@ public class GuildManager {
         guildsByName.clear();
         guildsByTag.clear();
         playerGuildMap.clear();
+        guildMemberIds.clear();
 
         // 加载所有公会
         List<Guild> guilds = guildDAO.getAllGuilds();
@@ -69,10 +79,12 @@ public class GuildManager {
             // 加载公会成员
             List<GuildMember> members = memberDAO.getGuildMembers(guild.getId());
             for (GuildMember member : members) {
-                playerGuildMap.put(member.getPlayerUuid(), guild.getId());
+                cacheMember(member.getPlayerUuid(), guild.getId());
             }
         }
 
+        browserIndex.markDirty();
+
         plugin.getLogger().info("已加载 " + guilds.size() + " 个公会数据！");
     }
 
@@ -103,17 +115,12 @@ public class GuildManager {
         }
 
         // 检查名称和标签长度
-        FileConfiguration config = plugin.getConfig();
-        int minNameLength = config.getInt("guild.min-name-length", 3);
-        int maxNameLength = config.getInt("guild.max-name-length", 16);
-        int minTagLength = config.getInt("guild.min-tag-length", 2);
-        int maxTagLength = config.getInt("guild.max-tag-length", 5);
-
-        if (name.length() < minNameLength || name.length() > maxNameLength) {
+        PluginSettings settings = plugin.getConfigManager().getSettings();
+        if (name.length() < settings.getMinNameLength() || name.length() > settings.getMaxNameLength()) {
             return null;
         }
 
-        if (tag.length() < minTagLength || tag.length() > maxTagLength) {
+        if (tag.length() < settings.getMinTagLength() || tag.length() > settings.getMaxTagLength()) {
             return null;
         }
 
@@ -139,7 +146,18 @@ public class GuildManager {
         guildsById.put(guildId, guild);
         guildsByName.put(name.toLowerCase(), guild);
         guildsByTag.put(tag.toLowerCase(), guild);
-        playerGuildMap.put(owner.getUniqueId(), guildId);
+        cacheMember(owner.getUniqueId(), guildId);
+        browserIndex.markDirty();
+
+        // 安排公会任务
+        if (plugin.getTaskManager() != null) {
+            plugin.getTaskManager().addGuild(guildId);
+        }
+
+        // 加入排行榜
+        if (plugin.getLeaderboardManager() != null) {
+            plugin.getLeaderboardManager().addGuild(guild);
+        }
 
         return guild;
     }
@@ -179,7 +197,34 @@ public class GuildManager {
         guildsByTag.remove(guild.getTag().toLowerCase());
 
         for (GuildMember member : members) {
-            playerGuildMap.remove(member.getPlayerUuid());
+            uncacheMember(member.getPlayerUuid());
+        }
+        guildMemberIds.remove(guildId);
+        browserIndex.markDirty();
+
+        // 移除联盟关系
+        if (plugin.getAllianceManager() != null) {
+            plugin.getAllianceManager().removeGuild(guildId);
+        }
+
+        // 移除聊天记录
+        if (plugin.getChatHistoryManager() != null) {
+            plugin.getChatHistoryManager().removeGuild(guildId);
+        }
+
+        // 移除公会任务
+        if (plugin.getTaskManager() != null) {
+            plugin.getTaskManager().removeGuild(guildId);
+        }
+
+        // 移除成员贡献计数器
+        if (plugin.getContributionManager() != null) {
+            plugin.getContributionManager().removeGuild(guildId);
+        }
+
+        // 从排行榜移除
+        if (plugin.getLeaderboardManager() != null) {
+            plugin.getLeaderboardManager().removeGuild(guildId);
         }
 
         return true;
@@ -212,7 +257,7 @@ public class GuildManager {
         // 检查公会成员是否已满
         int guildLevel = guild.getLevel();
         int maxMembers = getMaxMembersByLevel(guildLevel);
-        int currentMembers = memberDAO.getGuildMemberCount(guildId);
+        int currentMembers = getCachedMemberCount(guildId);
 
         if (currentMembers >= maxMembers) {
             // 发送成员已满消息
@@ -247,7 +292,7 @@ public class GuildManager {
         // 检查公会成员是否已满
         int guildLevel = guild.getLevel();
         int maxMembers = getMaxMembersByLevel(guildLevel);
-        int currentMembers = memberDAO.getGuildMemberCount(guildId);
+        int currentMembers = getCachedMemberCount(guildId);
 
         if (currentMembers >= maxMembers) {
             // 发送成员已满消息
@@ -265,6 +310,9 @@ public class GuildManager {
             return false;
         }
 
+        // 刷新已打开的加入请求视图
+        refreshGuildViews(guildId, GuildViewHolder.ViewType.JOIN_REQUESTS);
+
         // 通知玩家
         player.sendMessage(plugin.getConfigManager().getMessage("guild.join-requested",
                 "guild", guild.getName()));
@@ -322,7 +370,7 @@ public class GuildManager {
         // 检查公会成员是否已满
         int guildLevel = guild.getLevel();
         int maxMembers = getMaxMembersByLevel(guildLevel);
-        int currentMembers = memberDAO.getGuildMemberCount(guild.getId());
+        int currentMembers = getCachedMemberCount(guild.getId());
 
         if (currentMembers >= maxMembers) {
             // 发送成员已满消息
@@ -348,11 +396,17 @@ public class GuildManager {
         }
 
         // 更新缓存
-        playerGuildMap.put(request.getPlayerUuid(), guild.getId());
+        cacheMember(request.getPlayerUuid(), guild.getId());
 
         // 删除该玩家的所有其他请求
         joinRequestDAO.deletePlayerJoinRequests(request.getPlayerUuid());
 
+        // 刷新已打开的成员视图和加入请求视图（其他公会的申请也已删除）
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.MEMBERS);
+        if (plugin.getGuiManager() != null) {
+            plugin.getGuiManager().refreshAllGuildViews(GuildViewHolder.ViewType.JOIN_REQUESTS);
+        }
+
         // 通知玩家
         Player player = Bukkit.getPlayer(request.getPlayerUuid());
         if (player != null && player.isOnline()) {
@@ -413,6 +467,9 @@ public class GuildManager {
             return false;
         }
 
+        // 刷新已打开的加入请求视图
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.JOIN_REQUESTS);
+
         // 通知玩家
         Player player = Bukkit.getPlayer(request.getPlayerUuid());
         if (player != null && player.isOnline()) {
@@ -477,7 +534,7 @@ public class GuildManager {
         // 检查公会成员是否已满
         int guildLevel = guild.getLevel();
         int maxMembers = getMaxMembersByLevel(guildLevel);
-        int currentMembers = memberDAO.getGuildMemberCount(guildId);
+        int currentMembers = getCachedMemberCount(guildId);
 
         if (currentMembers >= maxMembers) {
             // 发送成员已满消息
@@ -496,7 +553,10 @@ public class GuildManager {
         }
 
         // 更新缓存
-        playerGuildMap.put(player.getUniqueId(), guildId);
+        cacheMember(player.getUniqueId(), guildId);
+
+        // 刷新已打开的成员视图
+        refreshGuildViews(guildId, GuildViewHolder.ViewType.MEMBERS);
 
         return true;
     }
@@ -530,7 +590,10 @@ public class GuildManager {
         }
 
         // 更新缓存
-        playerGuildMap.remove(player.getUniqueId());
+        uncacheMember(player.getUniqueId());
+
+        // 刷新已打开的成员视图
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.MEMBERS);
 
         return true;
     }
@@ -567,14 +630,17 @@ public class GuildManager {
         }
 
         // 更新缓存
-        playerGuildMap.remove(targetUuid);
+        uncacheMember(targetUuid);
+
+        // 刷新已打开的成员视图
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.MEMBERS);
 
         // 通知被踢出的玩家
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetUuid);
-        if (target.isOnline()) {
+        Player target = Bukkit.getPlayer(targetUuid);
+        if (target != null) {
             String message = plugin.getConfigManager().getMessage("members.kicked",
                     "guild", guild.getName());
-            ((Player) target).sendMessage(message);
+            target.sendMessage(message);
         }
 
         return true;
@@ -627,12 +693,15 @@ public class GuildManager {
             return false;
         }
 
+        // 刷新已打开的成员视图
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.MEMBERS);
+
         // 通知被提升的玩家
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetUuid);
-        if (target.isOnline()) {
+        Player target = Bukkit.getPlayer(targetUuid);
+        if (target != null) {
             String message = plugin.getConfigManager().getMessage("members.promoted",
                     "role", newRole.getDisplayName());
-            ((Player) target).sendMessage(message);
+            target.sendMessage(message);
         }
 
         return true;
@@ -685,12 +754,15 @@ public class GuildManager {
             return false;
         }
 
+        // 刷新已打开的成员视图
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.MEMBERS);
+
         // 通知被降级的玩家
-        OfflinePlayer target = Bukkit.getOfflinePlayer(targetUuid);
-        if (target.isOnline()) {
+        Player target = Bukkit.getPlayer(targetUuid);
+        if (target != null) {
             String message = plugin.getConfigManager().getMessage("members.demoted",
                     "role", newRole.getDisplayName());
-            ((Player) target).sendMessage(message);
+            target.sendMessage(message);
         }
 
         return true;
@@ -734,17 +806,127 @@ public class GuildManager {
         newOwnerMember.setRole(GuildMember.Role.OWNER);
         memberDAO.updateMember(newOwnerMember);
 
+        // 刷新已打开的成员视图
+        refreshGuildViews(guild.getId(), GuildViewHolder.ViewType.MEMBERS);
+
         // 通知新会长
-        OfflinePlayer newOwner = Bukkit.getOfflinePlayer(newOwnerUuid);
-        if (newOwner.isOnline()) {
+        Player newOwner = Bukkit.getPlayer(newOwnerUuid);
+        if (newOwner != null) {
             String message = plugin.getConfigManager().getMessage("members.promoted",
                     "role", GuildMember.Role.OWNER.getDisplayName());
-            ((Player) newOwner).sendMessage(message);
+            newOwner.sendMessage(message);
         }
 
         return true;
     }
 
+    /**
+     * 缓存成员所属公会
+     * @param playerUuid 玩家UUID
+     * @param guildId 公会ID
+     */
+    private void cacheMember(UUID playerUuid, int guildId) {
+        Integer previous = playerGuildMap.put(playerUuid, guildId);
+        if (previous != null && previous != guildId) {
+            Set<UUID> previousMembers = guildMemberIds.get(previous);
+            if (previousMembers != null) {
+                previousMembers.remove(playerUuid);
+            }
+            invalidateChatRecipients(previous);
+            updateMemberRanking(previous);
+        }
+        guildMemberIds.computeIfAbsent(guildId, k -> ConcurrentHashMap.newKeySet()).add(playerUuid);
+        browserIndex.markMembersDirty();
+        invalidateChatRecipients(guildId);
+        updateMemberRanking(guildId);
+    }
+
+    /**
+     * 移除成员所属公会缓存
+     * @param playerUuid 玩家UUID
+     */
+    private void uncacheMember(UUID playerUuid) {
+        Integer guildId = playerGuildMap.remove(playerUuid);
+        if (guildId != null) {
+            Set<UUID> members = guildMemberIds.get(guildId);
+            if (members != null) {
+                members.remove(playerUuid);
+            }
+            invalidateChatRecipients(guildId);
+            updateMemberRanking(guildId);
+            browserIndex.markMembersDirty();
+        }
+    }
+
+    /**
+     * 更新公会的成员数量排行
+     * @param guildId 公会ID
+     */
+    private void updateMemberRanking(int guildId) {
+        if (plugin.getLeaderboardManager() != null && guildsById.containsKey(guildId)) {
+            Set<UUID> members = guildMemberIds.get(guildId);
+            plugin.getLeaderboardManager().update(LeaderboardManager.Category.MEMBERS, guildId,
+                    members != null ? members.size() : 0);
+        }
+    }
+
+    /**
+     * 使公会的聊天接收者缓存失效
+     * @param guildId 公会ID
+     */
+    private void invalidateChatRecipients(int guildId) {
+        if (plugin.getChatManager() != null) {
+            plugin.getChatManager().invalidateGuildRecipients(guildId);
+        }
+    }
+
+    /**
+     * 获取公会浏览索引
+     * @return 公会浏览索引
+     */
+    public GuildBrowserIndex getBrowserIndex() {
+        return browserIndex;
+    }
+
+    /**
+     * 获取缓存中的所有公会
+     * @return 公会集合（只读）
+     */
+    public Collection<Guild> getCachedGuilds() {
+        return Collections.unmodifiableCollection(guildsById.values());
+    }
+
+    /**
+     * 获取缓存中的公会成员UUID
+     * @param guildId 公会ID
+     * @return 成员UUID集合（只读）
+     */
+    public Set<UUID> getGuildMemberIds(int guildId) {
+        Set<UUID> members = guildMemberIds.get(guildId);
+        return members != null ? Collections.unmodifiableSet(members) : Collections.emptySet();
+    }
+
+    /**
+     * 获取缓存中的公会成员数量，不访问数据库
+     * @param guildId 公会ID
+     * @return 成员数量
+     */
+    public int getCachedMemberCount(int guildId) {
+        Set<UUID> members = guildMemberIds.get(guildId);
+        return members != null ? members.size() : 0;
+    }
+
+    /**
+     * 刷新公会的已打开视图
+     * @param guildId 公会ID
+     * @param viewType 视图类型
+     */
+    private void refreshGuildViews(int guildId, GuildViewHolder.ViewType viewType) {
+        if (plugin.getGuiManager() != null) {
+            plugin.getGuiManager().refreshGuildViews(guildId, viewType);
+        }
+    }
+
     /**
      * 根据ID获取公会
      * @param id 公会ID
@@ -840,6 +1022,12 @@ public class GuildManager {
         // 更新数据库
         guildDAO.updateGuild(guild);
 
+        // 经验影响等级排序，只在顺序改变时重建
+        browserIndex.markLevelChanged(guild);
+        if (plugin.getLeaderboardManager() != null) {
+            plugin.getLeaderboardManager().updateLevel(guild);
+        }
+
         return levelUp;
     }
 
@@ -879,24 +1067,8 @@ public class GuildManager {
      * @return 最大成员数量
      */
     public int getMaxMembersByLevel(int level) {
-        // 获取配置
-        FileConfiguration config = plugin.getConfig();
-
-        // 尝试从配置中获取指定等级的最大成员数量
-        int maxMembers = config.getInt("levels.max-members-per-level." + level, -1);
-
-        // 如果配置中没有指定该等级的最大成员数量，使用默认值
-        if (maxMembers == -1) {
-            // 默认值：10 + (等级 - 1) * 10
-            maxMembers = 10 + (level - 1) * 10;
-
-            // 确保不超过最大值100
-            if (maxMembers > 100) {
-                maxMembers = 100;
-            }
-        }
-
-        return maxMembers;
+        // 未配置的等级在加载设置时已使用默认值填充
+        return plugin.getConfigManager().getSettings().getMaxMembers(level);
     }
 
     /**
@@ -913,6 +1085,7 @@ public class GuildManager {
             guildsById.put(guild.getId(), guild);
             guildsByName.put(guild.getName().toLowerCase(), guild);
             guildsByTag.put(guild.getTag().toLowerCase(), guild);
+            browserIndex.markSettingsChanged();
         }
 
         return success;
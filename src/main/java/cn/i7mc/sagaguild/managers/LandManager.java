@@ -7,7 +7,6 @@ import cn.i7mc.sagaguild.data.models.GuildLand;
 import cn.i7mc.sagaguild.data.models.GuildMember;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import java.util.HashMap;
@@ -98,8 +97,7 @@ public class LandManager {
         }
 
         // 检查公会领地数量是否已达上限
-        FileConfiguration config = plugin.getConfig();
-        int maxClaims = config.getInt("land.max-claims", 10);
+        int maxClaims = plugin.getConfigManager().getSettings().getMaxClaims();
         Map<String, GuildLand> guildLands = landsByGuild.getOrDefault(guild.getId(), new HashMap<>());
 
         if (guildLands.size() >= maxClaims) {
@@ -123,6 +121,7 @@ public class LandManager {
         landsByChunk.put(chunkKey, land);
         guildLands.put(chunkKey, land);
         landsByGuild.put(guild.getId(), guildLands);
+        updateLandRanking(guild.getId(), guildLands.size());
 
         // 发送成功消息
         player.sendMessage(plugin.getConfigManager().getMessage("land.claimed"));
@@ -178,6 +177,7 @@ public class LandManager {
         Map<String, GuildLand> guildLands = landsByGuild.get(guild.getId());
         if (guildLands != null) {
             guildLands.remove(chunkKey);
+            updateLandRanking(guild.getId(), guildLands.size());
         }
 
         // 发送成功消息
@@ -212,6 +212,17 @@ public class LandManager {
      * @return 是否有权限
      */
     public boolean hasPermission(Player player, Chunk chunk) {
+        return hasPermission(player, plugin.getGuildManager().getPlayerGuild(player.getUniqueId()), chunk);
+    }
+
+    /**
+     * 检查玩家是否有权限在区块中执行操作，使用调用方已查询的玩家公会
+     * @param player 玩家
+     * @param playerGuild 玩家所在公会，不在公会中为null
+     * @param chunk 区块
+     * @return 是否有权限
+     */
+    public boolean hasPermission(Player player, Guild playerGuild, Chunk chunk) {
         // 检查区块是否被声明
         GuildLand land = landsByChunk.get(getChunkKey(chunk));
         if (land == null) {
@@ -224,7 +235,6 @@ public class LandManager {
         }
 
         // 检查玩家是否在公会中
-        Guild playerGuild = plugin.getGuildManager().getPlayerGuild(player.getUniqueId());
         if (playerGuild == null) {
             return false;
         }
@@ -269,4 +279,15 @@ public class LandManager {
         Map<String, GuildLand> guildLands = landsByGuild.get(guildId);
         return guildLands != null ? guildLands.size() : 0;
     }
+
+    /**
+     * 更新公会的领地数量排行
+     * @param guildId 公会ID
+     * @param landCount 领地数量
+     */
+    private void updateLandRanking(int guildId, int landCount) {
+        if (plugin.getLeaderboardManager() != null) {
+            plugin.getLeaderboardManager().update(LeaderboardManager.Category.LAND, guildId, landCount);
+        }
+    }
 }
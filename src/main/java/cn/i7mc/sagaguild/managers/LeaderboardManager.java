@@ -0,0 +1,242 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.dao.BankDAO;
+import cn.i7mc.sagaguild.data.dao.WarDAO;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.utils.RankedSkipList;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 公会排行榜管理器
+ * 每个排行类别维护一个按名次索引的跳表，在数据变化时增量更新
+ * 查询前N名和某个公会的名次均为对数时间，不需要对所有公会排序
+ */
+public class LeaderboardManager {
+
+    /**
+     * 排行类别枚举
+     */
+    public enum Category {
+        LEVEL("等级"),
+        BANK("银行余额"),
+        LAND("领地数量"),
+        MEMBERS("成员数量"),
+        WAR_WINS("战争胜利");
+
+        private final String displayName;
+
+        Category(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * 获取命令中使用的类别名称
+         * @return 类别名称
+         */
+        public String getKey() {
+            return name().toLowerCase();
+        }
+
+        /**
+         * 获取下一个类别，用于GUI中循环切换
+         * @return 下一个类别
+         */
+        public Category next() {
+            Category[] values = values();
+            return values[(ordinal() + 1) % values.length];
+        }
+
+        /**
+         * 根据名称查找类别
+         * @param name 类别名称或显示名称
+         * @return 类别，无法识别返回null
+         */
+        public static Category fromName(String name) {
+            for (Category category : values()) {
+                if (category.getKey().equalsIgnoreCase(name) || category.displayName.equals(name)) {
+                    return category;
+                }
+            }
+            return null;
+        }
+    }
+
+    // 等级分数中经验所占的位数，等级相同时按经验排序
+    private static final double LEVEL_FACTOR = 4294967296.0;
+
+    private final SagaGuild plugin;
+    private final Map<Category, RankedSkipList> boards = new EnumMap<>(Category.class);
+
+    public LeaderboardManager(SagaGuild plugin) {
+        this.plugin = plugin;
+
+        for (Category category : Category.values()) {
+            boards.put(category, new RankedSkipList());
+        }
+
+        // 加载所有公会的排行数据
+        loadLeaderboards();
+    }
+
+    /**
+     * 从缓存和数据库加载所有公会的排行数据
+     */
+    private void loadLeaderboards() {
+        Map<Integer, Double> balances = new BankDAO(plugin).getAllBalances();
+        Map<Integer, Integer> wins = new WarDAO(plugin).getWinCounts();
+
+        for (RankedSkipList board : boards.values()) {
+            synchronized (board) {
+                board.clear();
+            }
+        }
+
+        for (Guild guild : plugin.getGuildManager().getAllGuilds()) {
+            int guildId = guild.getId();
+            updateLevel(guild);
+            update(Category.BANK, guildId, balances.getOrDefault(guildId, 0.0));
+            update(Category.LAND, guildId, plugin.getLandManager().getGuildLandCount(guildId));
+            update(Category.MEMBERS, guildId, plugin.getGuildManager().getGuildMemberIds(guildId).size());
+            update(Category.WAR_WINS, guildId, wins.getOrDefault(guildId, 0));
+        }
+
+        plugin.getLogger().info("已加载 " + boards.get(Category.LEVEL).size() + " 个公会的排行数据！");
+    }
+
+    /**
+     * 将新创建的公会加入所有排行
+     * @param guild 公会对象
+     */
+    public void addGuild(Guild guild) {
+        int guildId = guild.getId();
+        updateLevel(guild);
+        update(Category.BANK, guildId, 0);
+        update(Category.LAND, guildId, 0);
+        update(Category.MEMBERS, guildId, plugin.getGuildManager().getGuildMemberIds(guildId).size());
+        update(Category.WAR_WINS, guildId, 0);
+    }
+
+    /**
+     * 将公会从所有排行中移除（公会解散时调用）
+     * @param guildId 公会ID
+     */
+    public void removeGuild(int guildId) {
+        for (RankedSkipList board : boards.values()) {
+            synchronized (board) {
+                board.remove(guildId);
+            }
+        }
+    }
+
+    /**
+     * 更新公会的等级排行分数
+     * @param guild 公会对象
+     */
+    public void updateLevel(Guild guild) {
+        update(Category.LEVEL, guild.getId(), guild.getLevel() * LEVEL_FACTOR + guild.getExperience());
+    }
+
+    /**
+     * 更新公会在某个排行中的分数
+     * @param category 排行类别
+     * @param guildId 公会ID
+     * @param score 分数
+     */
+    public void update(Category category, int guildId, double score) {
+        RankedSkipList board = boards.get(category);
+        synchronized (board) {
+            board.put(guildId, score);
+        }
+    }
+
+    /**
+     * 增加公会在某个排行中的分数
+     * @param category 排行类别
+     * @param guildId 公会ID
+     * @param delta 增加量
+     */
+    public void increment(Category category, int guildId, double delta) {
+        RankedSkipList board = boards.get(category);
+        synchronized (board) {
+            board.put(guildId, board.getScore(guildId, 0) + delta);
+        }
+    }
+
+    /**
+     * 获取公会在某个排行中的名次
+     * @param category 排行类别
+     * @param guildId 公会ID
+     * @return 从1开始的名次，不在排行中返回0
+     */
+    public int getRank(Category category, int guildId) {
+        RankedSkipList board = boards.get(category);
+        synchronized (board) {
+            return board.getRank(guildId);
+        }
+    }
+
+    /**
+     * 获取公会在某个排行中的分数
+     * @param category 排行类别
+     * @param guildId 公会ID
+     * @return 分数
+     */
+    public double getScore(Category category, int guildId) {
+        RankedSkipList board = boards.get(category);
+        synchronized (board) {
+            return board.getScore(guildId, 0);
+        }
+    }
+
+    /**
+     * 获取某个排行中指定范围的公会
+     * @param category 排行类别
+     * @param offset 起始位置（从0开始）
+     * @param count 最多返回的数量
+     * @return 按名次排列的公会ID
+     */
+    public int[] getRange(Category category, int offset, int count) {
+        RankedSkipList board = boards.get(category);
+        synchronized (board) {
+            return board.range(offset, count);
+        }
+    }
+
+    /**
+     * 获取某个排行中的公会数量
+     * @param category 排行类别
+     * @return 公会数量
+     */
+    public int size(Category category) {
+        RankedSkipList board = boards.get(category);
+        synchronized (board) {
+            return board.size();
+        }
+    }
+
+    /**
+     * 格式化排行分数用于显示
+     * @param category 排行类别
+     * @param score 分数
+     * @return 显示文本
+     */
+    public String formatScore(Category category, double score) {
+        switch (category) {
+            case LEVEL:
+                long level = (long) (score / LEVEL_FACTOR);
+                long experience = (long) (score - level * LEVEL_FACTOR);
+                return "Lv." + level + " (" + experience + " 经验)";
+            case BANK:
+                return String.format("%.2f", score);
+            default:
+                return String.valueOf((long) score);
+        }
+    }
+}
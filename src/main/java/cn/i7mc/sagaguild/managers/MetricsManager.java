@@ -0,0 +1,225 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.models.Guild;
+import cn.i7mc.sagaguild.metrics.InstrumentedConnection;
+import cn.i7mc.sagaguild.metrics.InstrumentedListeners;
+import cn.i7mc.sagaguild.metrics.MetricsRegistry;
+import cn.i7mc.sagaguild.metrics.PrometheusFormatter;
+import cn.i7mc.sagaguild.metrics.jfr.DaoCallEvent;
+import cn.i7mc.sagaguild.metrics.jfr.ProfileRecorder;
+import cn.yvmou.ylib.api.scheduler.UniversalTask;
+import com.sun.net.httpserver.HttpServer;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryInteractEvent;
+import org.bukkit.event.player.PlayerEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+
+/**
+ * 指标管理器
+ * 统计监听器和DAO的耗时、缓存命中率和队列长度，定期以Prometheus文本格式写入文件，可选提供本地HTTP接口
+ * 同时负责JFR自定义事件和限时JFR记录
+ * 是否启用在启动时决定，修改后需要重启服务器；指标和监听器JFR事件默认关闭，都关闭时不包装监听器，
+ * 数据库连接只在启用指标或JFR记录进行中时包装
+ */
+public class MetricsManager {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final SagaGuild plugin;
+    private final MetricsRegistry registry;
+    private final InstrumentedConnection connectionWrapper;
+    private final boolean jfrEvents;
+    private final ProfileRecorder profiler = new ProfileRecorder();
+
+    private UniversalTask exportTask;
+    private HttpServer httpServer;
+
+    public MetricsManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.registry = new MetricsRegistry(plugin.getConfig().getBoolean("metrics.enabled", false));
+        this.connectionWrapper = new InstrumentedConnection(registry);
+        this.jfrEvents = plugin.getConfig().getBoolean("metrics.jfr-events", false);
+
+        if (!registry.isEnabled()) {
+            return;
+        }
+
+        // 定期写入指标文件
+        if (plugin.getConfig().getBoolean("metrics.file.enabled", true)) {
+            long period = Math.max(1, plugin.getConfig().getLong("metrics.file.interval", 30)) * 20L;
+            exportTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::exportToFile, period, period);
+        }
+
+        // 本地HTTP接口
+        if (plugin.getConfig().getBoolean("metrics.http.enabled", false)) {
+            startHttpServer(plugin.getConfig().getInt("metrics.http.port", 9465));
+        }
+    }
+
+    /**
+     * 是否启用指标
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return registry.isEnabled();
+    }
+
+    /**
+     * 获取指标注册表
+     * @return 指标注册表
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * 获取限时JFR记录
+     * @return JFR记录
+     */
+    public ProfileRecorder getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * 注册监听器，启用指标时统计每个监听方法的耗时，启用JFR事件时在记录进行中产生事件
+     * @param listener 监听器
+     */
+    public void registerEvents(Listener listener) {
+        if (registry.isEnabled() || jfrEvents) {
+            InstrumentedListeners.register(listener, plugin, registry, this::resolveGuildId);
+        } else {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        }
+    }
+
+    /**
+     * 包装数据库连接，启用指标时统计每个DAO方法的SQL耗时，JFR记录进行中时产生DAO调用事件
+     * @param connection 原始连接
+     * @return 包装后的连接，都未启用时原样返回
+     */
+    public Connection instrument(Connection connection) {
+        if (connection == null || (!registry.isEnabled() && !DaoCallEvent.isActive())) {
+            return connection;
+        }
+        return connectionWrapper.wrap(connection);
+    }
+
+    /**
+     * 停止导出任务、HTTP接口和JFR记录，并写入最后一次指标
+     */
+    public void shutdown() {
+        profiler.shutdown();
+
+        if (exportTask != null) {
+            exportTask.cancel();
+            exportTask = null;
+            exportToFile();
+        }
+
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+    }
+
+    /**
+     * 将指标写入文件
+     * 先写入临时文件再原子替换，读取方不会读到写了一半的内容
+     */
+    private synchronized void exportToFile() {
+        File folder = new File(plugin.getDataFolder(), "metrics");
+        if (!folder.exists() && !folder.mkdirs()) {
+            plugin.getLogger().severe("创建指标目录失败: " + folder.getPath());
+            return;
+        }
+
+        Path target = new File(folder, "sagaguild.prom").toPath();
+        Path temp = new File(folder, "sagaguild.prom.tmp").toPath();
+        try {
+            Files.writeString(temp, PrometheusFormatter.format(registry), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // 部分文件系统不支持原子移动
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("写入指标文件失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 获取触发事件的玩家所在公会ID
+     * @param event 事件
+     * @return 公会ID，无法确定或不在公会中返回-1
+     */
+    private int resolveGuildId(Event event) {
+        Entity entity;
+        if (event instanceof PlayerEvent) {
+            entity = ((PlayerEvent) event).getPlayer();
+        } else if (event instanceof BlockBreakEvent) {
+            entity = ((BlockBreakEvent) event).getPlayer();
+        } else if (event instanceof BlockPlaceEvent) {
+            entity = ((BlockPlaceEvent) event).getPlayer();
+        } else if (event instanceof InventoryInteractEvent) {
+            entity = ((InventoryInteractEvent) event).getWhoClicked();
+        } else if (event instanceof InventoryCloseEvent) {
+            entity = ((InventoryCloseEvent) event).getPlayer();
+        } else if (event instanceof EntityDamageByEntityEvent) {
+            entity = ((EntityDamageByEntityEvent) event).getDamager();
+        } else if (event instanceof EntityDeathEvent) {
+            entity = ((EntityDeathEvent) event).getEntity().getKiller();
+        } else if (event instanceof EntityEvent) {
+            entity = ((EntityEvent) event).getEntity();
+        } else {
+            return -1;
+        }
+
+        if (!(entity instanceof Player) || plugin.getGuildManager() == null) {
+            return -1;
+        }
+        Guild guild = plugin.getGuildManager().getPlayerGuild(entity.getUniqueId());
+        return guild != null ? guild.getId() : -1;
+    }
+
+    /**
+     * 启动只监听本机地址的HTTP接口
+     */
+    private void startHttpServer(int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            httpServer.createContext("/metrics", exchange -> {
+                byte[] body = PrometheusFormatter.format(registry).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            httpServer.start();
+            plugin.getLogger().info("指标接口已启动: http://127.0.0.1:" + port + "/metrics");
+        } catch (IOException e) {
+            httpServer = null;
+            plugin.getLogger().severe("启动指标接口失败: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.data.dao.PlayerNameDAO;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 玩家名称目录
+ * 在内存中维护UUID与玩家名称的对应关系以及在线状态
+ * 查询名称和在线状态时不经过服务端的离线玩家档案和用户缓存文件
+ */
+public class PlayerNameManager {
+    private final SagaGuild plugin;
+    private final PlayerNameDAO playerNameDAO;
+
+    // UUID -> 玩家名称
+    private final Map<UUID, String> namesByUuid = new ConcurrentHashMap<>();
+
+    // 小写名称 -> UUID
+    private final Map<String, UUID> uuidsByName = new ConcurrentHashMap<>();
+
+    // 在线玩家
+    private final Set<UUID> onlinePlayers = ConcurrentHashMap.newKeySet();
+
+    public PlayerNameManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.playerNameDAO = new PlayerNameDAO(plugin);
+
+        // 加载已记录的玩家名称
+        loadNames();
+    }
+
+    /**
+     * 从数据库加载玩家名称，并记录当前在线玩家（用于重载插件）
+     */
+    private void loadNames() {
+        Map<UUID, String> names = playerNameDAO.loadAllNames();
+        for (Map.Entry<UUID, String> entry : names.entrySet()) {
+            putName(entry.getKey(), entry.getValue());
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            putName(player.getUniqueId(), player.getName());
+            onlinePlayers.add(player.getUniqueId());
+        }
+
+        plugin.getLogger().info("已加载 " + namesByUuid.size() + " 个玩家名称！");
+    }
+
+    /**
+     * 获取玩家名称
+     * @param playerUuid 玩家UUID
+     * @return 玩家名称，未知返回null
+     */
+    public String getName(UUID playerUuid) {
+        return playerUuid != null ? namesByUuid.get(playerUuid) : null;
+    }
+
+    /**
+     * 获取玩家名称
+     * @param playerUuid 玩家UUID
+     * @param fallback 未知时的默认值
+     * @return 玩家名称
+     */
+    public String getName(UUID playerUuid, String fallback) {
+        String name = getName(playerUuid);
+        return name != null ? name : fallback;
+    }
+
+    /**
+     * 根据名称获取玩家UUID（不区分大小写）
+     * @param playerName 玩家名称
+     * @return 玩家UUID，未知返回null
+     */
+    public UUID getUuid(String playerName) {
+        return playerName != null ? uuidsByName.get(playerName.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    /**
+     * 检查玩家是否在线
+     * @param playerUuid 玩家UUID
+     * @return 是否在线
+     */
+    public boolean isOnline(UUID playerUuid) {
+        return playerUuid != null && onlinePlayers.contains(playerUuid);
+    }
+
+    /**
+     * 统计在线玩家数量
+     * @param playerUuids 玩家UUID集合
+     * @return 在线数量
+     */
+    public int countOnline(Collection<UUID> playerUuids) {
+        int count = 0;
+        for (UUID playerUuid : playerUuids) {
+            if (onlinePlayers.contains(playerUuid)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 玩家登录时更新名称和在线状态
+     * 名称变化时异步更新数据库中记录的名称
+     * @param player 玩家
+     */
+    public void handleJoin(Player player) {
+        UUID playerUuid = player.getUniqueId();
+        String name = player.getName();
+        onlinePlayers.add(playerUuid);
+
+        String previous = putName(playerUuid, name);
+        if (previous != null && !previous.equals(name)) {
+            SagaGuild.getYLib().getScheduler().runAsync(() -> playerNameDAO.updatePlayerName(playerUuid, name));
+        }
+    }
+
+    /**
+     * 玩家离线时更新在线状态
+     * @param playerUuid 玩家UUID
+     */
+    public void handleQuit(UUID playerUuid) {
+        onlinePlayers.remove(playerUuid);
+    }
+
+    /**
+     * 记录玩家名称
+     * @param playerUuid 玩家UUID
+     * @param name 玩家名称
+     * @return 之前记录的名称，不存在返回null
+     */
+    public String putName(UUID playerUuid, String name) {
+        String previous = namesByUuid.put(playerUuid, name);
+        if (previous != null && !previous.equalsIgnoreCase(name)) {
+            uuidsByName.remove(previous.toLowerCase(Locale.ROOT), playerUuid);
+        }
+        uuidsByName.put(name.toLowerCase(Locale.ROOT), playerUuid);
+        return previous;
+    }
+}
@@ -0,0 +1,358 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.metrics.CacheMetric;
+import cn.yvmou.ylib.api.scheduler.UniversalTask;
+import com.destroystokyo.paper.profile.PlayerProfile;
+import com.destroystokyo.paper.profile.ProfileProperty;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.meta.SkullMeta;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 玩家头颅材质缓存管理器
+ * 异步解析玩家档案的皮肤材质，使用有界LRU缓存并持久化到磁盘
+ * 材质未就绪时显示默认头颅，解析完成后通知调用方刷新
+ */
+public class ProfileCacheManager {
+    private static final String TEXTURES_PROPERTY = "textures";
+
+    private final SagaGuild plugin;
+    private final File cacheFile;
+    private final int maxEntries;
+    private final long textureTtlMillis;
+    private final long failureRetryMillis;
+
+    // UUID -> 材质，按访问顺序淘汰
+    private final LinkedHashMap<UUID, TextureEntry> cache;
+
+    // 解析失败的时间，避免频繁重试
+    private final Map<UUID, Long> failures = new ConcurrentHashMap<>();
+
+    // 待解析队列
+    private final Queue<PendingLookup> lookupQueue = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, Boolean> queued = new ConcurrentHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+
+    // 解析完成后的回调，按键去重
+    private final Map<Object, Runnable> pendingCallbacks = new ConcurrentHashMap<>();
+
+    // 材质缓存命中统计
+    private final CacheMetric cacheMetric;
+
+    private volatile boolean dirty = false;
+    private UniversalTask saveTask;
+
+    /**
+     * 缓存的材质
+     */
+    private static class TextureEntry {
+        private final String value;
+        private final String signature;
+        private final long resolvedAt;
+
+        private TextureEntry(String value, String signature, long resolvedAt) {
+            this.value = value;
+            this.signature = signature;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+    /**
+     * 待解析的档案
+     */
+    private static class PendingLookup {
+        private final UUID uuid;
+        private final String name;
+
+        private PendingLookup(UUID uuid, String name) {
+            this.uuid = uuid;
+            this.name = name;
+        }
+    }
+
+    public ProfileCacheManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.cacheFile = new File(plugin.getDataFolder(), "profiles.yml");
+        this.maxEntries = Math.max(16, plugin.getConfig().getInt("profile-cache.max-entries", 2000));
+        this.textureTtlMillis = plugin.getConfig().getLong("profile-cache.texture-ttl-hours", 72) * 3600000L;
+        this.failureRetryMillis = plugin.getConfig().getLong("profile-cache.failure-retry-minutes", 10) * 60000L;
+        this.cache = new LinkedHashMap<UUID, TextureEntry>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, TextureEntry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.cacheMetric = plugin.getMetricsManager().getRegistry().cache("profile_texture");
+        plugin.getMetricsManager().getRegistry().gauge("sagaguild_queue_size", "等待处理的队列长度",
+                lookupQueue::size, "queue", "profile_lookup");
+
+        // 加载磁盘缓存
+        loadCache();
+
+        // 定期保存
+        saveTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::saveIfDirty, 6000L, 6000L);
+    }
+
+    /**
+     * 为头颅设置玩家材质
+     * 缓存命中时直接使用材质；未命中时保持默认头颅并在后台解析
+     * @param meta 头颅元数据
+     * @param uuid 玩家UUID
+     * @param name 玩家名称
+     * @param callbackKey 回调去重键，同一键在一批解析完成后只回调一次
+     * @param onResolved 材质解析完成后的回调，可为null
+     */
+    public void applyHead(SkullMeta meta, UUID uuid, String name, Object callbackKey, Runnable onResolved) {
+        TextureEntry entry = getEntry(uuid);
+        if (entry != null) {
+            cacheMetric.hit();
+        } else {
+            cacheMetric.miss();
+        }
+
+        // 在线玩家直接使用其档案中的材质
+        if (entry == null) {
+            Player online = Bukkit.getPlayer(uuid);
+            if (online != null) {
+                entry = storeFromProfile(online.getPlayerProfile());
+            }
+        }
+
+        if (entry != null) {
+            PlayerProfile profile = Bukkit.createProfile(uuid, name);
+            profile.setProperty(new ProfileProperty(TEXTURES_PROPERTY, entry.value, entry.signature));
+            meta.setPlayerProfile(profile);
+
+            // 材质过期时后台刷新，当前仍使用旧材质
+            if (System.currentTimeMillis() - entry.resolvedAt > textureTtlMillis) {
+                enqueue(uuid, name, null, null);
+            }
+            return;
+        }
+
+        // 不设置档案，避免服务端同步补全档案
+        enqueue(uuid, name, callbackKey, onResolved);
+    }
+
+    /**
+     * 使用玩家当前档案更新缓存（玩家登录时调用）
+     * @param player 玩家
+     */
+    public void updateFromPlayer(Player player) {
+        storeFromProfile(player.getPlayerProfile());
+    }
+
+    /**
+     * 获取缓存条目数量
+     * @return 条目数量
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * 停止后台任务并保存缓存
+     */
+    public void shutdown() {
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        lookupQueue.clear();
+        queued.clear();
+        pendingCallbacks.clear();
+        saveCache();
+    }
+
+    /**
+     * 读取缓存条目
+     * @param uuid 玩家UUID
+     * @return 材质，不存在返回null
+     */
+    private TextureEntry getEntry(UUID uuid) {
+        synchronized (cache) {
+            return cache.get(uuid);
+        }
+    }
+
+    /**
+     * 从档案中提取材质并写入缓存
+     * @param profile 玩家档案
+     * @return 材质，档案不含材质时返回null
+     */
+    private TextureEntry storeFromProfile(PlayerProfile profile) {
+        if (profile == null || profile.getId() == null) {
+            return null;
+        }
+
+        for (ProfileProperty property : profile.getProperties()) {
+            if (TEXTURES_PROPERTY.equals(property.getName())) {
+                TextureEntry entry = new TextureEntry(property.getValue(), property.getSignature(), System.currentTimeMillis());
+                synchronized (cache) {
+                    cache.put(profile.getId(), entry);
+                }
+                failures.remove(profile.getId());
+                dirty = true;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 加入解析队列
+     * @param uuid 玩家UUID
+     * @param name 玩家名称
+     * @param callbackKey 回调去重键
+     * @param onResolved 回调
+     */
+    private void enqueue(UUID uuid, String name, Object callbackKey, Runnable onResolved) {
+        Long failedAt = failures.get(uuid);
+        if (failedAt != null && System.currentTimeMillis() - failedAt < failureRetryMillis) {
+            return;
+        }
+
+        if (onResolved != null) {
+            pendingCallbacks.put(callbackKey != null ? callbackKey : onResolved, onResolved);
+        }
+
+        if (queued.putIfAbsent(uuid, Boolean.TRUE) == null) {
+            lookupQueue.add(new PendingLookup(uuid, name));
+        }
+
+        if (draining.compareAndSet(false, true)) {
+            SagaGuild.getYLib().getScheduler().runAsync(this::drainQueue);
+        }
+    }
+
+    /**
+     * 在异步线程中逐个解析队列中的档案
+     * 串行解析以避免触发档案服务的频率限制
+     */
+    private void drainQueue() {
+        boolean resolvedAny = false;
+        try {
+            PendingLookup lookup;
+            while ((lookup = lookupQueue.poll()) != null) {
+                try {
+                    PlayerProfile profile = Bukkit.createProfile(lookup.uuid, lookup.name);
+                    if (profile.complete(true) && storeFromProfile(profile) != null) {
+                        resolvedAny = true;
+                    } else {
+                        failures.put(lookup.uuid, System.currentTimeMillis());
+                    }
+                } catch (Exception e) {
+                    failures.put(lookup.uuid, System.currentTimeMillis());
+                    if (plugin.getConfigManager().isDebugEnabled()) {
+                        plugin.getLogger().warning("解析玩家档案失败: " + lookup.uuid + " - " + e.getMessage());
+                    }
+                } finally {
+                    queued.remove(lookup.uuid);
+                }
+            }
+        } finally {
+            draining.set(false);
+        }
+
+        // 本批解析完成，通知调用方刷新
+        if (resolvedAny) {
+            List<Runnable> callbacks = new ArrayList<>(pendingCallbacks.values());
+            pendingCallbacks.clear();
+            for (Runnable callback : callbacks) {
+                try {
+                    callback.run();
+                } catch (Exception e) {
+                    plugin.getLogger().warning("头颅材质回调失败: " + e.getMessage());
+                }
+            }
+        }
+
+        // 处理在排空期间新加入的请求
+        if (!lookupQueue.isEmpty() && draining.compareAndSet(false, true)) {
+            SagaGuild.getYLib().getScheduler().runAsync(this::drainQueue);
+        }
+    }
+
+    /**
+     * 从磁盘加载缓存
+     */
+    private void loadCache() {
+        if (!cacheFile.exists()) {
+            return;
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(cacheFile);
+        ConfigurationSection section = yaml.getConfigurationSection("profiles");
+        if (section == null) {
+            return;
+        }
+
+        int loaded = 0;
+        synchronized (cache) {
+            for (String key : section.getKeys(false)) {
+                try {
+                    UUID uuid = UUID.fromString(key);
+                    String value = section.getString(key + ".value");
+                    if (value == null) {
+                        continue;
+                    }
+                    cache.put(uuid, new TextureEntry(value, section.getString(key + ".signature"), section.getLong(key + ".resolved-at")));
+                    loaded++;
+                } catch (IllegalArgumentException e) {
+                    // 忽略无效的UUID
+                }
+            }
+        }
+
+        plugin.getLogger().info("已加载 " + loaded + " 个玩家头颅材质缓存！");
+    }
+
+    /**
+     * 缓存有变化时保存
+     */
+    private void saveIfDirty() {
+        if (dirty) {
+            saveCache();
+        }
+    }
+
+    /**
+     * 保存缓存到磁盘
+     */
+    private void saveCache() {
+        YamlConfiguration yaml = new YamlConfiguration();
+        synchronized (cache) {
+            for (Map.Entry<UUID, TextureEntry> entry : cache.entrySet()) {
+                String path = "profiles." + entry.getKey();
+                yaml.set(path + ".value", entry.getValue().value);
+                yaml.set(path + ".signature", entry.getValue().signature);
+                yaml.set(path + ".resolved-at", entry.getValue().resolvedAt);
+            }
+            dirty = false;
+        }
+
+        try {
+            yaml.save(cacheFile);
+        } catch (IOException e) {
+            plugin.getLogger().severe("保存玩家头颅材质缓存失败: " + e.getMessage());
+        }
+    }
+}
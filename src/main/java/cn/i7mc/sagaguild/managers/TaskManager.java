@@ -5,6 +5,8 @@ import cn.i7mc.sagaguild.data.dao.TaskDAO;
 import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildMember;
 import cn.i7mc.sagaguild.data.models.GuildTask;
+import cn.i7mc.sagaguild.metrics.CacheMetric;
+import cn.i7mc.sagaguild.metrics.MetricsRegistry;
 import cn.yvmou.ylib.api.scheduler.UniversalTask;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -12,24 +14,57 @@ import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 任务管理器
  * 负责公会任务的创建、完成和奖励
+ * 活跃任务按 (公会, 任务类型, 目标枚举序号) 建立索引，进度在内存中累加并定期批量写入数据库
+ * 任务过期时间保存在按时间排序的优先队列中，定时检查只处理已到期的任务
  */
 public class TaskManager {
+    // 目标序号占用索引键的低24位，全部位为1表示任意目标
+    private static final int TARGET_BITS = 24;
+    private static final int ANY_TARGET = (1 << TARGET_BITS) - 1;
+
+    // 每个公会保持的活跃任务数量
+    private static final int TASKS_PER_GUILD = 3;
+
+    // 任务有效期
+    private static final long TASK_DURATION_MILLIS = TimeUnit.DAYS.toMillis(3);
+
     private final SagaGuild plugin;
     private final TaskDAO taskDAO;
 
     // 缓存公会任务
     private final Map<Integer, List<GuildTask>> guildTasks;
 
+    // 进度索引：(公会ID, 任务类型, 目标序号) -> 匹配的活跃任务
+    private final Map<Long, GuildTask[]> progressIndex = new ConcurrentHashMap<>();
+
+    // 进度已变化但尚未写入数据库的任务
+    private final Set<GuildTask> dirtyTasks = ConcurrentHashMap.newKeySet();
+
+    // 按过期时间排序的活跃任务，访问时需同步
+    private final PriorityQueue<GuildTask> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(GuildTask::getExpiresAt));
+
+    // 需要补充任务的公会
+    private final Set<Integer> refillGuilds = ConcurrentHashMap.newKeySet();
+
     // 任务检查任务
     private UniversalTask taskCheckTask;
 
+    // 进度写入任务
+    private UniversalTask progressFlushTask;
+
     // 随机任务生成器
     private final Random random;
 
+    // 任务缓存命中统计
+    private final CacheMetric taskCacheMetric;
+
     // 任务类型对应的实体和方块
     private final Map<GuildTask.Type, List<String>> taskTargets;
 
@@ -37,9 +72,18 @@ public class TaskManager {
         this.plugin = plugin;
         this.taskDAO = new TaskDAO(plugin);
 
-        this.guildTasks = new HashMap<>();
+        this.guildTasks = new ConcurrentHashMap<>();
         this.random = new Random();
         this.taskTargets = new HashMap<>();
+        this.taskCacheMetric = plugin.getMetricsManager().getRegistry().cache("task");
+
+        MetricsRegistry registry = plugin.getMetricsManager().getRegistry();
+        registry.gauge("sagaguild_queue_size", "等待处理的队列长度", dirtyTasks::size, "queue", "task_progress");
+        registry.gauge("sagaguild_queue_size", "等待处理的队列长度", () -> {
+            synchronized (expiryQueue) {
+                return expiryQueue.size();
+            }
+        }, "queue", "task_expiry");
 
         // 初始化任务目标
         initTaskTargets();
@@ -49,6 +93,10 @@ public class TaskManager {
 
         // 启动任务检查任务
         startTaskCheckTask();
+
+        // 定期批量写入任务进度
+        long flushTicks = Math.max(1, plugin.getConfig().getInt("tasks.progress-flush-interval", 30)) * 20L;
+        progressFlushTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::flushProgress, flushTicks, flushTicks);
     }
 
     /**
@@ -104,11 +152,18 @@ public class TaskManager {
     private void loadActiveTasks() {
         // 清空缓存
         guildTasks.clear();
+        progressIndex.clear();
+        synchronized (expiryQueue) {
+            expiryQueue.clear();
+        }
 
-        // 加载所有公会的活跃任务
+        // 加载所有公会的活跃任务，首次检查时为任务不足的公会补充任务
         for (Guild guild : plugin.getGuildManager().getAllGuilds()) {
-            List<GuildTask> tasks = taskDAO.getActiveGuildTasks(guild.getId());
-            guildTasks.put(guild.getId(), tasks);
+            guildTasks.put(guild.getId(), new CopyOnWriteArrayList<>());
+            for (GuildTask task : taskDAO.getActiveGuildTasks(guild.getId())) {
+                addActiveTask(task);
+            }
+            refillGuilds.add(guild.getId());
         }
 
         plugin.getLogger().info("已加载 " + guildTasks.size() + " 个公会的任务数据！");
@@ -118,46 +173,133 @@ public class TaskManager {
      * 启动任务检查任务
      */
     private void startTaskCheckTask() {
-        // 每小时检查一次任务状态
-        taskCheckTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::checkTasks, 20 * 60, 20 * 60 * 60);
+        // 每分钟检查一次，只处理已到期的任务和需要补充任务的公会
+        taskCheckTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::checkTasks, 20 * 60, 20 * 60);
     }
 
     /**
      * 检查任务状态
      */
     private void checkTasks() {
-        // 检查所有公会的任务
-        for (Map.Entry<Integer, List<GuildTask>> entry : guildTasks.entrySet()) {
-            int guildId = entry.getKey();
-            List<GuildTask> tasks = entry.getValue();
-
-            // 检查每个任务
-            Iterator<GuildTask> iterator = tasks.iterator();
-            while (iterator.hasNext()) {
-                GuildTask task = iterator.next();
-
-                // 检查任务状态
-                GuildTask.Status status = task.getStatus();
-                if (status != GuildTask.Status.ACTIVE) {
-                    // 移除非活跃任务
-                    iterator.remove();
-                }
+        long now = System.currentTimeMillis();
+
+        // 取出所有已到期的任务
+        List<GuildTask> expired = new ArrayList<>();
+        synchronized (expiryQueue) {
+            GuildTask head;
+            while ((head = expiryQueue.peek()) != null && head.getExpiresAt() <= now) {
+                expired.add(expiryQueue.poll());
             }
+        }
 
-            // 如果任务数量不足，生成新任务
-            if (tasks.size() < 3) {
-                int newTaskCount = 3 - tasks.size();
-                for (int i = 0; i < newTaskCount; i++) {
-                    GuildTask newTask = generateRandomTask(guildId);
-                    int taskId = taskDAO.createTask(newTask);
-                    if (taskId != -1) {
-                        tasks.add(newTask);
-                    }
-                }
+        // 移除过期任务，并为所属公会补充任务
+        for (GuildTask task : expired) {
+            removeActiveTask(task);
+            refillGuilds.add(task.getGuildId());
+        }
+
+        refillTasks();
+    }
+
+    /**
+     * 为任务不足的公会生成新任务，所有新任务在同一个事务中写入数据库
+     */
+    private void refillTasks() {
+        if (refillGuilds.isEmpty()) {
+            return;
+        }
+
+        List<GuildTask> created = new ArrayList<>();
+        Iterator<Integer> iterator = refillGuilds.iterator();
+        while (iterator.hasNext()) {
+            int guildId = iterator.next();
+            iterator.remove();
+
+            List<GuildTask> tasks = guildTasks.get(guildId);
+            if (tasks == null) {
+                // 公会已解散
+                continue;
+            }
+            for (int i = tasks.size(); i < TASKS_PER_GUILD; i++) {
+                created.add(generateRandomTask(guildId));
+            }
+        }
+
+        if (created.isEmpty()) {
+            return;
+        }
+
+        if (!taskDAO.createTasks(created)) {
+            // 写入失败，下次检查时重试
+            for (GuildTask task : created) {
+                refillGuilds.add(task.getGuildId());
+            }
+            return;
+        }
+
+        for (GuildTask task : created) {
+            if (guildTasks.containsKey(task.getGuildId())) {
+                addActiveTask(task);
             }
         }
     }
 
+    /**
+     * 为新创建的公会安排任务，在下次检查时生成
+     * @param guildId 公会ID
+     */
+    public void addGuild(int guildId) {
+        guildTasks.putIfAbsent(guildId, new CopyOnWriteArrayList<>());
+        refillGuilds.add(guildId);
+    }
+
+    /**
+     * 移除公会的所有任务（公会解散时调用）
+     * @param guildId 公会ID
+     */
+    public void removeGuild(int guildId) {
+        refillGuilds.remove(guildId);
+        List<GuildTask> tasks = guildTasks.remove(guildId);
+        if (tasks == null) {
+            return;
+        }
+
+        for (GuildTask task : tasks) {
+            unindexTask(task);
+            dirtyTasks.remove(task);
+        }
+        synchronized (expiryQueue) {
+            expiryQueue.removeAll(tasks);
+        }
+    }
+
+    /**
+     * 将任务加入活跃任务缓存、进度索引和过期队列
+     * @param task 任务对象
+     */
+    private void addActiveTask(GuildTask task) {
+        guildTasks.computeIfAbsent(task.getGuildId(), k -> new CopyOnWriteArrayList<>()).add(task);
+        indexTask(task);
+        if (task.getExpiresAt() != 0L) {
+            synchronized (expiryQueue) {
+                expiryQueue.add(task);
+            }
+        }
+    }
+
+    /**
+     * 将任务从活跃任务缓存和进度索引中移除
+     * @param task 任务对象
+     */
+    private void removeActiveTask(GuildTask task) {
+        unindexTask(task);
+        dirtyTasks.remove(task);
+        List<GuildTask> tasks = guildTasks.get(task.getGuildId());
+        if (tasks != null) {
+            tasks.remove(task);
+        }
+    }
+
     /**
      * 生成随机任务
      * @param guildId 公会ID
@@ -182,9 +324,7 @@ public class TaskManager {
         double rewardMoney = random.nextInt(1000) + 1000; // 1000-2000
 
         // 生成任务过期时间（3天后）
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.DAY_OF_MONTH, 3);
-        Date expiresAt = calendar.getTime();
+        long expiresAt = System.currentTimeMillis() + TASK_DURATION_MILLIS;
 
         // 创建任务对象
         return new GuildTask(guildId, type, description, targetAmount, rewardExp, rewardMoney, expiresAt);
@@ -229,35 +369,185 @@ public class TaskManager {
 
     /**
      * 更新任务进度
+     * 只在内存中累加，完成时立即写入数据库并发放奖励，其余进度由定时任务批量写入
      * @param guildId 公会ID
      * @param type 任务类型
-     * @param target 任务目标
+     * @param target 任务目标（EntityType或Material），null表示任意目标
      * @param amount 增加数量
+     * @return 是否推进了至少一个任务
      */
-    public void updateTaskProgress(int guildId, GuildTask.Type type, String target, int amount) {
-        // 获取公会任务
-        List<GuildTask> tasks = guildTasks.getOrDefault(guildId, new ArrayList<>());
+    public boolean updateTaskProgress(int guildId, GuildTask.Type type, Enum<?> target, int amount) {
+        int targetOrdinal = target != null ? target.ordinal() : ANY_TARGET;
+        GuildTask[] tasks = progressIndex.get(indexKey(guildId, type, targetOrdinal));
+        if (tasks == null) {
+            return false;
+        }
 
-        // 更新匹配的任务
+        boolean progressed = false;
+        long now = System.currentTimeMillis();
         for (GuildTask task : tasks) {
-            if (task.getType() == type && task.getStatus() == GuildTask.Status.ACTIVE) {
-                // 检查任务描述是否匹配目标
-                if (task.getDescription().contains(formatTarget(target)) ||
-                    (type == GuildTask.Type.FISH && task.getDescription().equals("钓鱼"))) {
+            boolean completed;
+            synchronized (task) {
+                // 已完成或已过期的任务等待定时检查移除
+                if (task.isCompleted() || task.isExpired(now)) {
+                    continue;
+                }
+                completed = task.addProgress(amount);
+            }
+            progressed = true;
+
+            if (completed) {
+                completeTask(task);
+            } else {
+                dirtyTasks.add(task);
+            }
+        }
+        return progressed;
+    }
 
-                    // 增加进度
-                    boolean completed = task.addProgress(amount);
+    /**
+     * 处理已完成的任务
+     * @param task 任务对象
+     */
+    private void completeTask(GuildTask task) {
+        // 从活跃任务和过期队列中移除，下次检查时补充新任务
+        removeActiveTask(task);
+        synchronized (expiryQueue) {
+            expiryQueue.remove(task);
+        }
+        refillGuilds.add(task.getGuildId());
+
+        // 完成状态立即写入数据库
+        int progress;
+        long completedAt;
+        synchronized (task) {
+            progress = task.getProgress();
+            completedAt = task.getCompletedAt();
+        }
+        SagaGuild.getYLib().getScheduler().runAsync(() ->
+                taskDAO.updateTaskProgress(task.getId(), progress, completedAt));
 
-                    // 更新数据库
-                    taskDAO.updateTaskProgress(task.getId(), task.getProgress(), task.getCompletedAt());
+        // 发放奖励
+        giveTaskReward(task);
+    }
 
-                    // 如果任务完成，发放奖励
-                    if (completed) {
-                        giveTaskReward(task);
-                    }
+    /**
+     * 将内存中的任务进度批量写入数据库
+     */
+    private void flushProgress() {
+        if (dirtyTasks.isEmpty()) {
+            return;
+        }
+
+        List<GuildTask> flushed = new ArrayList<>();
+        Map<Integer, Integer> progressByTask = new HashMap<>();
+        Iterator<GuildTask> iterator = dirtyTasks.iterator();
+        while (iterator.hasNext()) {
+            GuildTask task = iterator.next();
+            iterator.remove();
+            synchronized (task) {
+                if (!task.isCompleted() && task.getId() > 0) {
+                    progressByTask.put(task.getId(), task.getProgress());
+                    flushed.add(task);
                 }
             }
         }
+
+        if (!progressByTask.isEmpty() && !taskDAO.updateTaskProgressBatch(progressByTask)) {
+            // 写入失败，下次重试
+            dirtyTasks.addAll(flushed);
+        }
+    }
+
+    /**
+     * 停止后台任务并写入剩余的任务进度
+     */
+    public void shutdown() {
+        if (taskCheckTask != null) {
+            taskCheckTask.cancel();
+            taskCheckTask = null;
+        }
+        if (progressFlushTask != null) {
+            progressFlushTask.cancel();
+            progressFlushTask = null;
+        }
+        flushProgress();
+    }
+
+    /**
+     * 将任务加入进度索引
+     * @param task 任务对象
+     */
+    private void indexTask(GuildTask task) {
+        int targetOrdinal = resolveTargetOrdinal(task);
+        if (targetOrdinal < 0) {
+            plugin.getLogger().warning("无法识别任务目标，任务进度不会更新: #" + task.getId() + " " + task.getDescription());
+            return;
+        }
+
+        progressIndex.merge(indexKey(task.getGuildId(), task.getType(), targetOrdinal), new GuildTask[]{task},
+                (existing, added) -> {
+                    GuildTask[] merged = Arrays.copyOf(existing, existing.length + 1);
+                    merged[existing.length] = added[0];
+                    return merged;
+                });
+    }
+
+    /**
+     * 从进度索引中移除任务
+     * @param task 任务对象
+     */
+    private void unindexTask(GuildTask task) {
+        int targetOrdinal = resolveTargetOrdinal(task);
+        if (targetOrdinal < 0) {
+            return;
+        }
+
+        progressIndex.computeIfPresent(indexKey(task.getGuildId(), task.getType(), targetOrdinal), (key, existing) -> {
+            GuildTask[] remaining = Arrays.stream(existing).filter(t -> t != task).toArray(GuildTask[]::new);
+            return remaining.length > 0 ? remaining : null;
+        });
+    }
+
+    /**
+     * 从任务描述中解析目标的枚举序号
+     * 描述由 {@link #generateTaskDescription(GuildTask.Type, String)} 生成，只在加载或创建任务时解析一次
+     * @param task 任务对象
+     * @return 目标序号，任意目标返回 {@link #ANY_TARGET}，无法识别返回-1
+     */
+    private int resolveTargetOrdinal(GuildTask task) {
+        if (task.getType() == GuildTask.Type.FISH) {
+            return ANY_TARGET;
+        }
+
+        // 描述格式为 "动作 目标 后缀"
+        String description = task.getDescription();
+        int start = description.indexOf(' ');
+        int end = description.lastIndexOf(' ');
+        if (start < 0 || end <= start) {
+            return -1;
+        }
+
+        String name = description.substring(start + 1, end).toUpperCase(Locale.ROOT).replace(' ', '_');
+        try {
+            if (task.getType() == GuildTask.Type.KILL_MOBS) {
+                return EntityType.valueOf(name).ordinal();
+            }
+            return Material.valueOf(name).ordinal();
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 计算进度索引键
+     * @param guildId 公会ID
+     * @param type 任务类型
+     * @param targetOrdinal 目标序号
+     * @return 索引键
+     */
+    private static long indexKey(int guildId, GuildTask.Type type, int targetOrdinal) {
+        return ((long) guildId << 32) | ((long) type.ordinal() << TARGET_BITS) | (targetOrdinal & ANY_TARGET);
     }
 
     /**
@@ -308,6 +598,16 @@ public class TaskManager {
      * @return 任务对象，不存在返回null
      */
     public GuildTask getTask(int taskId) {
+        // 优先返回缓存中的任务，其进度可能尚未写入数据库
+        for (List<GuildTask> tasks : guildTasks.values()) {
+            for (GuildTask task : tasks) {
+                if (task.getId() == taskId) {
+                    taskCacheMetric.hit();
+                    return task;
+                }
+            }
+        }
+        taskCacheMetric.miss();
         return taskDAO.getTaskById(taskId);
     }
 }
@@ -0,0 +1,244 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.listeners.PaperChatListener;
+import cn.i7mc.sagaguild.trace.TraceChatListener;
+import cn.i7mc.sagaguild.trace.TraceEvent;
+import cn.i7mc.sagaguild.trace.TraceFormat;
+import cn.i7mc.sagaguild.trace.TraceListener;
+import cn.i7mc.sagaguild.trace.TraceWriter;
+import cn.yvmou.ylib.api.scheduler.UniversalTask;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事件录制管理器
+ * 录制期间把插件处理的玩家事件写入 plugins/SagaGuild/traces/ 下的二进制文件，用于离线回放测试
+ * 事件线程只把记录放入队列，由后台任务按顺序编码写入
+ */
+public class TraceManager {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final SagaGuild plugin;
+    private final long maxEvents;
+    private final long maxMillis;
+
+    // 等待写入的事件
+    private final Queue<TraceEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong captured = new AtomicLong();
+
+    private final List<Listener> listeners = new ArrayList<>();
+    private volatile boolean recording;
+    private TraceWriter writer;
+    private File file;
+    private long startedAt;
+    private UniversalTask flushTask;
+
+    public TraceManager(SagaGuild plugin) {
+        this.plugin = plugin;
+        this.maxEvents = Math.max(1, plugin.getConfig().getLong("trace.max-events", 5_000_000L));
+        this.maxMillis = Math.max(1, plugin.getConfig().getLong("trace.max-minutes", 60)) * 60_000L;
+
+        plugin.getMetricsManager().getRegistry().gauge("sagaguild_queue_size", "等待处理的队列长度",
+                pending::size, "queue", "trace");
+    }
+
+    /**
+     * 获取录制使用的时间戳
+     * @return 微秒
+     */
+    public static long now() {
+        return System.nanoTime() / 1000L;
+    }
+
+    /**
+     * 是否正在录制
+     * @return 是否正在录制
+     */
+    public boolean isRecording() {
+        return recording;
+    }
+
+    /**
+     * 获取当前录制的文件
+     * @return 文件，未录制时为null
+     */
+    public synchronized File getFile() {
+        return file;
+    }
+
+    /**
+     * 获取当前录制已捕获的事件数量
+     * @return 事件数量
+     */
+    public long getCaptured() {
+        return Math.min(captured.get(), maxEvents);
+    }
+
+    /**
+     * 获取当前录制已进行的秒数
+     * @return 秒数
+     */
+    public synchronized long getElapsedSeconds() {
+        return recording ? (System.currentTimeMillis() - startedAt) / 1000L : 0L;
+    }
+
+    /**
+     * 开始录制
+     * @return 录制文件
+     * @throws IOException 无法创建录制文件
+     */
+    public synchronized File start() throws IOException {
+        if (recording) {
+            throw new IllegalStateException("已有正在进行的录制");
+        }
+
+        File folder = new File(plugin.getDataFolder(), "traces");
+        if (!folder.exists() && !folder.mkdirs()) {
+            throw new IOException("创建录制目录失败: " + folder.getPath());
+        }
+
+        file = new File(folder, "trace-" + LocalDateTime.now().format(FILE_TIME) + TraceFormat.FILE_EXTENSION);
+        startedAt = System.currentTimeMillis();
+        writer = new TraceWriter(new FileOutputStream(file), startedAt);
+        captured.set(0);
+        pending.clear();
+        recording = true;
+
+        // 只在录制期间注册监听器，平时没有任何开销
+        listeners.add(new TraceListener(this, commandLabels()));
+        if (PaperChatListener.isSupported()) {
+            listeners.add(new TraceChatListener(this));
+        }
+        for (Listener listener : listeners) {
+            plugin.getServer().getPluginManager().registerEvents(listener, plugin);
+        }
+
+        flushTask = SagaGuild.getYLib().getScheduler().runTimerAsync(this::flush, 20L, 20L);
+        return file;
+    }
+
+    /**
+     * 停止录制并写入剩余事件
+     * @return 写入的事件数量，未在录制时返回-1
+     */
+    public synchronized long stop() {
+        if (!recording) {
+            return -1;
+        }
+
+        recording = false;
+        for (Listener listener : listeners) {
+            HandlerList.unregisterAll(listener);
+        }
+        listeners.clear();
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        drain();
+        long written = writer.getWritten();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            plugin.getLogger().severe("关闭录制文件失败: " + e.getMessage());
+        }
+        writer = null;
+        file = null;
+        return written;
+    }
+
+    /**
+     * 插件关闭时结束录制
+     */
+    public void shutdown() {
+        File current = getFile();
+        long written = stop();
+        if (written >= 0) {
+            plugin.getLogger().info("事件录制已结束: " + current.getPath() + " (" + written + " 个事件)");
+        }
+    }
+
+    /**
+     * 记录一个事件，可在任意线程调用
+     * @param event 事件
+     */
+    public void record(TraceEvent event) {
+        if (!recording || captured.incrementAndGet() > maxEvents) {
+            return;
+        }
+        pending.add(event);
+    }
+
+    /**
+     * 定期写入队列中的事件，达到数量或时间上限时自动结束录制
+     */
+    private synchronized void flush() {
+        if (!recording) {
+            return;
+        }
+
+        drain();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            plugin.getLogger().severe("写入录制文件失败: " + e.getMessage());
+        }
+
+        if (captured.get() >= maxEvents || System.currentTimeMillis() - startedAt >= maxMillis) {
+            shutdown();
+        }
+    }
+
+    /**
+     * 将队列中的事件编码写入文件
+     */
+    private void drain() {
+        TraceEvent event;
+        try {
+            while ((event = pending.poll()) != null) {
+                writer.write(event);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("写入录制文件失败: " + e.getMessage());
+            pending.clear();
+        }
+    }
+
+    /**
+     * 获取插件命令及其别名
+     */
+    private Set<String> commandLabels() {
+        Set<String> labels = new HashSet<>();
+        PluginCommand command = plugin.getCommand("guild");
+        if (command != null) {
+            labels.add(command.getName());
+            labels.addAll(command.getAliases());
+        }
+
+        // 带插件名前缀的写法，如 /sagaguild:guild
+        String prefix = plugin.getName().toLowerCase(Locale.ROOT) + ":";
+        Set<String> result = new HashSet<>();
+        for (String label : labels) {
+            result.add(label.toLowerCase(Locale.ROOT));
+            result.add(prefix + label.toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+}
@@ -6,9 +6,9 @@ import cn.i7mc.sagaguild.data.models.CeasefireRequest;
 import cn.i7mc.sagaguild.data.models.Guild;
 import cn.i7mc.sagaguild.data.models.GuildMember;
 import cn.i7mc.sagaguild.data.models.GuildWar;
+import cn.i7mc.sagaguild.gui.holders.GuildViewHolder;
 import cn.yvmou.ylib.api.scheduler.UniversalTask;
 import org.bukkit.Bukkit;
-import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 
 import java.util.*;
@@ -121,8 +121,7 @@ public class WarManager {
         }
 
         // 检查公会成员数量是否足够
-        FileConfiguration config = plugin.getConfig();
-        int minParticipants = config.getInt("war.min-participants", 3);
+        int minParticipants = plugin.getConfigManager().getSettings().getWarMinParticipants();
 
         if (plugin.getGuildManager().getGuildMemberCount(guild.getId()) < minParticipants) {
             player.sendMessage(plugin.getConfigManager().getMessage("war.not-enough-members"));
@@ -231,7 +230,7 @@ public class WarManager {
 
         // 通知双方公会成员
         notifyWarParticipants(war, "§c公会战准备阶段开始！战斗将在 §7" +
-                plugin.getConfig().getInt("war.preparation-time", 5) + " §c分钟后开始！");
+                plugin.getConfigManager().getSettings().getWarPreparationTime() + " §c分钟后开始！");
 
         return true;
     }
@@ -241,8 +240,7 @@ public class WarManager {
      * @param war 公会战对象
      */
     private void startPreparationPhase(GuildWar war) {
-        FileConfiguration config = plugin.getConfig();
-        long preparationTime = config.getInt("war.preparation-time", 5);
+        long preparationTime = plugin.getConfigManager().getSettings().getWarPreparationTime();
 
         // 启动准备阶段任务
         UniversalTask task = SagaGuild.getYLib().getScheduler().runLater(() -> {
@@ -266,8 +264,7 @@ public class WarManager {
      * @param war 公会战对象
      */
     private void startWarTask(GuildWar war) {
-        FileConfiguration config = plugin.getConfig();
-        long warDuration = config.getInt("war.duration", 30);
+        long warDuration = plugin.getConfigManager().getSettings().getWarDuration();
 
         // 启动战争结束任务
         UniversalTask task = SagaGuild.getYLib().getScheduler().runLater(() -> {
@@ -318,6 +315,7 @@ public class WarManager {
         // 奖励胜利者
         if (winnerId != null) {
             // TODO: 实现奖励机制
+            plugin.getLeaderboardManager().increment(LeaderboardManager.Category.WAR_WINS, winnerId, 1);
         }
     }
 
@@ -518,6 +516,9 @@ public class WarManager {
         List<CeasefireRequest> receivedRequests = receivedCeasefireRequests.computeIfAbsent(targetGuildId, k -> new ArrayList<>());
         receivedRequests.add(request);
 
+        // 刷新目标公会已打开的关系管理视图
+        refreshRelationViews(targetGuildId);
+
         // 通知目标公会在线成员
         Guild targetGuild = plugin.getGuildManager().getGuildById(targetGuildId);
         if (targetGuild != null) {
@@ -572,6 +573,10 @@ public class WarManager {
             sentRequests.removeIf(r -> r.getId() == request.getId());
         }
 
+        // 刷新双方已打开的关系管理视图
+        refreshRelationViews(guildId);
+        refreshRelationViews(requesterId);
+
         // 通知双方公会
         Guild requesterGuild = plugin.getGuildManager().getGuildById(requesterId);
         Guild targetGuild = plugin.getGuildManager().getGuildById(guildId);
@@ -635,6 +640,10 @@ public class WarManager {
             sentRequests.removeIf(r -> r.getId() == request.getId());
         }
 
+        // 刷新双方已打开的关系管理视图
+        refreshRelationViews(guildId);
+        refreshRelationViews(requesterId);
+
         // 通知请求方公会
         Guild requesterGuild = plugin.getGuildManager().getGuildById(requesterId);
         Guild targetGuild = plugin.getGuildManager().getGuildById(guildId);
@@ -676,4 +685,14 @@ public class WarManager {
             }
         }
     }
+
+    /**
+     * 刷新公会已打开的关系管理视图
+     * @param guildId 公会ID
+     */
+    private void refreshRelationViews(int guildId) {
+        if (plugin.getGuiManager() != null) {
+            plugin.getGuiManager().refreshGuildViews(guildId, GuildViewHolder.ViewType.RELATION_REQUESTS);
+        }
+    }
 }
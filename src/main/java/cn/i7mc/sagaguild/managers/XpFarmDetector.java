@@ -0,0 +1,227 @@
+package cn.i7mc.sagaguild.managers;
+
+import cn.i7mc.sagaguild.SagaGuild;
+import cn.i7mc.sagaguild.config.PluginSettings;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 刷经验检测器
+ * 按玩家统计最近60秒内可获得公会经验的行为，以及其中落在最近操作过的方块位置上的次数
+ * 重复位置的比例过高时判定为刷经验，不再给予经验并通知管理员；比例较低时按比例衰减经验
+ */
+public class XpFarmDetector {
+    private static final int WINDOW_SECONDS = 60;
+
+    // 每秒的计数打包在一个int中：低16位为行为次数，高16位为重复位置次数
+    private static final int COUNT_MASK = 0xFFFF;
+    private static final int REPEAT_SHIFT = 16;
+
+    private final SagaGuild plugin;
+
+    /**
+     * 单个玩家的检测窗口
+     * 同一玩家的事件只在其所在线程处理，无需额外同步
+     */
+    static final class Window {
+        private final int[] buckets = new int[WINDOW_SECONDS];
+        private long lastSecond;
+        private int actions;
+        private int repeats;
+        private final RecentPositions positions = new RecentPositions();
+        private long lastReport;
+    }
+
+    public XpFarmDetector(SagaGuild plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * 记录一次可获得经验的行为，并计算检测后的经验
+     * @param player 玩家
+     * @param window 玩家的检测窗口
+     * @param location 行为发生的位置，不参与重复位置检测时为null
+     * @param amount 原本获得的经验
+     * @param now 当前时间（毫秒）
+     * @param settings 当前设置
+     * @return 检测后的经验，判定为刷经验时为0
+     */
+    int inspect(Player player, Window window, Location location, int amount, long now, PluginSettings settings) {
+        advance(window, now / 1000);
+
+        // 记录本次行为
+        boolean repeat = location != null && !window.positions.add(positionKey(location));
+        int index = (int) (window.lastSecond % WINDOW_SECONDS);
+        int bucket = window.buckets[index];
+        if ((bucket & COUNT_MASK) < COUNT_MASK) {
+            bucket++;
+            window.actions++;
+            if (repeat) {
+                bucket += 1 << REPEAT_SHIFT;
+                window.repeats++;
+            }
+            window.buckets[index] = bucket;
+        }
+
+        if (window.repeats == 0) {
+            return amount;
+        }
+
+        double ratio = (double) window.repeats / window.actions;
+        if (window.actions >= settings.getFarmMinActions() && ratio >= settings.getFarmRepeatRatio()) {
+            report(player, window, ratio, now, settings);
+            return 0;
+        }
+
+        // 按重复比例衰减经验，随机取整使期望值保持为衰减后的经验
+        double decayed = amount * (1.0 - ratio);
+        int whole = (int) decayed;
+        return whole + (ThreadLocalRandom.current().nextDouble() < decayed - whole ? 1 : 0);
+    }
+
+    /**
+     * 推进窗口到指定秒，清空已移出窗口的计数
+     */
+    private void advance(Window window, long second) {
+        if (second <= window.lastSecond) {
+            return;
+        }
+
+        if (second - window.lastSecond >= WINDOW_SECONDS) {
+            for (int i = 0; i < WINDOW_SECONDS; i++) {
+                window.buckets[i] = 0;
+            }
+            window.actions = 0;
+            window.repeats = 0;
+        } else {
+            for (long s = window.lastSecond + 1; s <= second; s++) {
+                int index = (int) (s % WINDOW_SECONDS);
+                int bucket = window.buckets[index];
+                window.actions -= bucket & COUNT_MASK;
+                window.repeats -= bucket >>> REPEAT_SHIFT;
+                window.buckets[index] = 0;
+            }
+        }
+        window.lastSecond = second;
+    }
+
+    /**
+     * 通知在线管理员，同一玩家在报告间隔内只报告一次
+     */
+    private void report(Player player, Window window, double ratio, long now, PluginSettings settings) {
+        if (window.lastReport != 0 && now - window.lastReport < settings.getFarmReportInterval()) {
+            return;
+        }
+        window.lastReport = now;
+
+        String actions = String.valueOf(window.actions);
+        String percent = String.valueOf(Math.round(ratio * 100));
+        plugin.getLogger().warning("玩家 " + player.getName() + " 疑似刷公会经验: 最近" + WINDOW_SECONDS
+                + "秒内 " + actions + " 次行为，" + percent + "% 位于重复位置");
+
+        String message = plugin.getConfigManager().getMessage("admin.xp-farm-flagged",
+                "player", player.getName(), "actions", actions, "ratio", percent);
+        for (Player online : plugin.getServer().getOnlinePlayers()) {
+            if (online.hasPermission("guild.admin")) {
+                online.sendMessage(message);
+            }
+        }
+    }
+
+    /**
+     * 将方块位置和世界打包为一个long
+     */
+    private static long positionKey(Location location) {
+        long packed = ((long) (location.getBlockX() & 0x3FFFFFF) << 38)
+                | ((long) (location.getBlockZ() & 0x3FFFFFF) << 12)
+                | (location.getBlockY() & 0xFFF);
+        long key = packed ^ (location.getWorld().getUID().getLeastSignificantBits() * 0x9E3779B97F4A7C15L);
+        return key == RecentPositions.EMPTY ? key + 1 : key;
+    }
+
+    /**
+     * 最近操作过的方块位置
+     * 使用线性探测的开放寻址哈希表，只保留最近的固定数量位置，超出时移除最早加入的位置
+     */
+    static final class RecentPositions {
+        static final long EMPTY = Long.MIN_VALUE;
+        private static final int CAPACITY = 32;
+        private static final int TABLE_SIZE = 64;
+
+        private final long[] table = new long[TABLE_SIZE];
+        private final long[] order = new long[CAPACITY];
+        private int head;
+        private int size;
+
+        RecentPositions() {
+            Arrays.fill(table, EMPTY);
+        }
+
+        /**
+         * 加入位置
+         * @param key 位置
+         * @return 新加入返回true，已存在返回false
+         */
+        boolean add(long key) {
+            int slot = find(key);
+            if (table[slot] == key) {
+                return false;
+            }
+
+            // 已满时移除最早加入的位置
+            if (size == CAPACITY) {
+                remove(order[head]);
+                size--;
+                slot = find(key);
+            }
+
+            table[slot] = key;
+            order[head] = key;
+            head = (head + 1) % CAPACITY;
+            size++;
+            return true;
+        }
+
+        /**
+         * 查找位置所在的槽，不存在时返回可插入的空槽
+         */
+        private int find(long key) {
+            int slot = mix(key);
+            while (table[slot] != EMPTY && table[slot] != key) {
+                slot = (slot + 1) & (TABLE_SIZE - 1);
+            }
+            return slot;
+        }
+
+        /**
+         * 移除位置，并把后续探测链上的元素前移以保持可查找
+         */
+        private void remove(long key) {
+            int slot = find(key);
+            if (table[slot] != key) {
+                return;
+            }
+
+            int hole = slot;
+            int next = (hole + 1) & (TABLE_SIZE - 1);
+            while (table[next] != EMPTY) {
+                int home = mix(table[next]);
+                // 元素的初始槽不在 (hole, next] 之间时可以移到空洞
+                if (((next - home) & (TABLE_SIZE - 1)) >= ((next - hole) & (TABLE_SIZE - 1))) {
+                    table[hole] = table[next];
+                    hole = next;
+                }
+                next = (next + 1) & (TABLE_SIZE - 1);
+            }
+            table[hole] = EMPTY;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 58);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package cn.i7mc.sagaguild.metrics;
+
+import cn.i7mc.sagaguild.metrics.jfr.CacheMissEvent;
+
+/**
+ * 缓存命中统计
+ * 由命中和未命中两个计数器组成；未命中时还会产生JFR事件（仅在记录进行中时）
+ */
+public final class CacheMetric {
+    private final String cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    CacheMetric(String cache, Counter hits, Counter misses) {
+        this.cache = cache;
+        this.hits = hits;
+        this.misses = misses;
+    }
+
+    /**
+     * 记录一次命中
+     */
+    public void hit() {
+        hits.increment();
+    }
+
+    /**
+     * 记录一次未命中
+     */
+    public void miss() {
+        misses.increment();
+        CacheMissEvent.emit(cache);
+    }
+}
@@ -0,0 +1,57 @@
+package cn.i7mc.sagaguild.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 计数器指标
+ * 只增不减，使用LongAdder以降低多线程竞争
+ */
+public class Counter extends Metric {
+
+    /**
+     * 指标关闭时使用的空计数器
+     */
+    public static final Counter NOOP = new Counter("noop", "", new String[0]) {
+        @Override
+        public void increment() {
+        }
+
+        @Override
+        public void add(long amount) {
+        }
+    };
+
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help, String[] labels) {
+        super(name, help, labels);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.COUNTER;
+    }
+
+    /**
+     * 计数加一
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * 增加计数
+     * @param amount 增加量
+     */
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    /**
+     * 获取当前计数
+     * @return 计数
+     */
+    public long get() {
+        return value.sum();
+    }
+}
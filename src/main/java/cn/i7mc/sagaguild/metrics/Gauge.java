@@ -0,0 +1,29 @@
+package cn.i7mc.sagaguild.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * 仪表指标
+ * 在读取时计算当前值，例如队列长度
+ */
+public class Gauge extends Metric {
+    private final LongSupplier supplier;
+
+    Gauge(String name, String help, LongSupplier supplier, String[] labels) {
+        super(name, help, labels);
+        this.supplier = supplier;
+    }
+
+    @Override
+    public Type getType() {
+        return Type.GAUGE;
+    }
+
+    /**
+     * 获取当前值
+     * @return 当前值
+     */
+    public long get() {
+        return supplier.getAsLong();
+    }
+}
@@ -0,0 +1,144 @@
+package cn.i7mc.sagaguild.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * 采用对数线性分桶（类似HdrHistogram）：每个2的幂区间再均分为8个子桶，相对误差不超过12.5%
+ * 记录值为纳秒，范围约为0到2^40纳秒（约18分钟），超出范围的值计入最后一个桶
+ */
+public class Histogram extends Metric {
+
+    /**
+     * 指标关闭时使用的空直方图
+     */
+    public static final Histogram NOOP = new Histogram("noop", "", new String[0]) {
+        @Override
+        public void record(long nanos) {
+        }
+    };
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name, String help, String[] labels) {
+        super(name, help, labels);
+    }
+
+    @Override
+    public Type getType() {
+        return Type.SUMMARY;
+    }
+
+    /**
+     * 记录一个耗时
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet(bucketIndex(nanos));
+        count.increment();
+        sum.add(nanos);
+
+        long current;
+        while (nanos > (current = max.get())) {
+            if (max.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 获取记录次数
+     * @return 记录次数
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 获取耗时总和
+     * @return 耗时总和（纳秒）
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * 获取最大耗时
+     * @return 最大耗时（纳秒）
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 估算分位数
+     * @param quantile 分位（0-1）
+     * @return 分位数所在桶的上界（纳秒），没有记录返回0
+     */
+    public long getQuantile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * 计算值所在的桶
+     */
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * 计算桶的上界（不含）
+     */
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index + 1;
+        }
+
+        int offset = index - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        int subBucket = offset % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -0,0 +1,211 @@
+package cn.i7mc.sagaguild.metrics;
+
+import cn.i7mc.sagaguild.metrics.jfr.DaoCallEvent;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带耗时统计的数据库连接代理
+ * 创建语句时通过调用栈找到发起查询的DAO方法，语句执行时把耗时记录到以该方法命名的直方图；
+ * JFR记录进行中时，每条语句从创建到关闭产生一个 {@link DaoCallEvent}
+ * 只在启用指标或JFR记录进行中时使用
+ */
+public final class InstrumentedConnection {
+    private static final String METRIC_NAME = "sagaguild_dao_duration_seconds";
+    private static final String METRIC_HELP = "DAO方法中SQL语句的执行耗时";
+    private static final String PLUGIN_PACKAGE = "cn.i7mc.sagaguild.";
+    private static final String METRICS_PACKAGE = "cn.i7mc.sagaguild.metrics.";
+
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final MetricsRegistry registry;
+
+    // 类名#方法名 -> 调用位置
+    private final Map<String, CallSite> callSites = new ConcurrentHashMap<>();
+
+    /**
+     * 发起SQL的DAO方法
+     */
+    private static final class CallSite {
+        private final String dao;
+        private final String method;
+        private final Histogram histogram;
+
+        private CallSite(String dao, String method, Histogram histogram) {
+            this.dao = dao;
+            this.method = method;
+            this.histogram = histogram;
+        }
+    }
+
+    public InstrumentedConnection(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 包装数据库连接
+     * @param connection 原始连接
+     * @return 代理连接
+     */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * 找到发起调用的插件方法，跳过指标代码本身
+     */
+    private CallSite callSite() {
+        Optional<StackWalker.StackFrame> caller = WALKER.walk(frames -> frames
+                .filter(frame -> {
+                    String className = frame.getClassName();
+                    return className.startsWith(PLUGIN_PACKAGE) && !className.startsWith(METRICS_PACKAGE);
+                })
+                .findFirst());
+
+        String dao = caller.map(frame -> frame.getDeclaringClass().getSimpleName()).orElse("unknown");
+        String method = caller.map(StackWalker.StackFrame::getMethodName).orElse("unknown");
+        return callSites.computeIfAbsent(dao + '#' + method, key -> new CallSite(dao, method,
+                registry.histogram(METRIC_NAME, METRIC_HELP, "dao", dao, "method", method)));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 连接代理：为创建的语句附加统计
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnection.invoke(connection, method, args);
+            if (!(result instanceof Statement)) {
+                return result;
+            }
+
+            // prepareStatement和prepareCall的第一个参数为SQL文本
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+            Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, callSite(), sql));
+        }
+    }
+
+    /**
+     * 语句代理：记录execute系列方法的耗时，并统计更新或读取的行数
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final CallSite callSite;
+        private final DaoCallEvent event;
+        private int sqlHash;
+        private long rows;
+
+        private StatementHandler(Statement statement, CallSite callSite, String sql) {
+            this.statement = statement;
+            this.callSite = callSite;
+            this.sqlHash = sql != null ? sql.hashCode() : 0;
+
+            if (DaoCallEvent.isActive()) {
+                event = new DaoCallEvent();
+                event.begin();
+            } else {
+                event = null;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("close")) {
+                commitEvent();
+                return InstrumentedConnection.invoke(statement, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                Object result = InstrumentedConnection.invoke(statement, method, args);
+                return name.equals("getResultSet") ? countRows(result) : result;
+            }
+
+            // Statement.execute(sql)等方法在执行时才提供SQL文本
+            if (sqlHash == 0 && args != null && args.length > 0 && args[0] instanceof String) {
+                sqlHash = args[0].hashCode();
+            }
+
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = InstrumentedConnection.invoke(statement, method, args);
+            } finally {
+                callSite.histogram.record(System.nanoTime() - start);
+            }
+
+            if (result instanceof Integer) {
+                rows += (Integer) result;
+            } else if (result instanceof Long) {
+                rows += (Long) result;
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(0, count);
+                }
+            }
+            return countRows(result);
+        }
+
+        /**
+         * 包装结果集以统计读取的行数，没有进行中的JFR事件时原样返回
+         */
+        private Object countRows(Object result) {
+            if (event == null || !(result instanceof ResultSet)) {
+                return result;
+            }
+
+            ResultSet resultSet = (ResultSet) result;
+            return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        Object value = InstrumentedConnection.invoke(resultSet, method, args);
+                        if (Boolean.TRUE.equals(value) && method.getName().equals("next")) {
+                            rows++;
+                        }
+                        return value;
+                    });
+        }
+
+        private void commitEvent() {
+            if (event == null) {
+                return;
+            }
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.dao = callSite.dao;
+                event.method = callSite.method;
+                event.sqlHash = sqlHash;
+                event.rows = rows;
+                event.commit();
+            }
+        }
+    }
+}
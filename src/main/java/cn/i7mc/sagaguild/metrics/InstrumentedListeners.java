@@ -0,0 +1,101 @@
+package cn.i7mc.sagaguild.metrics;
+
+import cn.i7mc.sagaguild.metrics.jfr.HandlerSpanEvent;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.ToIntFunction;
+import java.util.logging.Level;
+
+/**
+ * 带耗时统计的监听器注册
+ * 逐个注册监听器中的 {@link EventHandler} 方法，执行时把耗时记录到以监听器和方法命名的直方图，
+ * JFR记录进行中时为每次执行产生一个 {@link HandlerSpanEvent}，没有记录时只做一次启用检查，不创建事件对象
+ * 指标和监听器JFR事件都关闭时不使用，直接使用Bukkit的注册方式
+ */
+public final class InstrumentedListeners {
+    private static final String METRIC_NAME = "sagaguild_listener_duration_seconds";
+    private static final String METRIC_HELP = "事件监听方法的执行耗时";
+
+    private InstrumentedListeners() {
+    }
+
+    /**
+     * 注册监听器
+     * @param listener 监听器
+     * @param plugin 插件
+     * @param registry 指标注册表
+     * @param guildResolver 获取触发事件的玩家所在公会ID，只在产生JFR事件时调用
+     */
+    public static void register(Listener listener, Plugin plugin, MetricsRegistry registry,
+                                ToIntFunction<Event> guildResolver) {
+        String listenerName = listener.getClass().getSimpleName();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        for (Method method : listener.getClass().getDeclaredMethods()) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())
+                    || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                continue;
+            }
+
+            Class<? extends Event> eventClass = method.getParameterTypes()[0].asSubclass(Event.class);
+            MethodHandle handle;
+            try {
+                method.setAccessible(true);
+                handle = lookup.unreflect(method).bindTo(listener);
+            } catch (IllegalAccessException e) {
+                plugin.getLogger().log(Level.SEVERE, "注册监听方法失败: " + listenerName + "." + method.getName(), e);
+                continue;
+            }
+
+            String methodName = method.getName();
+            Histogram histogram = registry.histogram(METRIC_NAME, METRIC_HELP,
+                    "listener", listenerName, "method", methodName);
+            boolean timed = histogram != Histogram.NOOP;
+            EventExecutor executor = (target, event) -> {
+                if (!eventClass.isInstance(event)) {
+                    return;
+                }
+
+                // 只在JFR记录进行中创建事件对象
+                HandlerSpanEvent span = HandlerSpanEvent.isActive() ? new HandlerSpanEvent() : null;
+                if (span != null) {
+                    span.begin();
+                }
+                long start = timed ? System.nanoTime() : 0L;
+                try {
+                    handle.invoke(event);
+                } catch (Throwable t) {
+                    throw new EventException(t);
+                } finally {
+                    if (timed) {
+                        histogram.record(System.nanoTime() - start);
+                    }
+
+                    if (span != null) {
+                        span.end();
+                        if (span.shouldCommit()) {
+                            span.listener = listenerName;
+                            span.method = methodName;
+                            span.eventType = event.getEventName();
+                            span.guildId = guildResolver.applyAsInt(event);
+                            span.commit();
+                        }
+                    }
+                }
+            };
+
+            plugin.getServer().getPluginManager().registerEvent(eventClass, listener, handler.priority(),
+                    executor, plugin, handler.ignoreCancelled());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package cn.i7mc.sagaguild.metrics;
+
+/**
+ * 指标基类
+ * 保存指标名称、说明和标签，标签按键值交替排列
+ */
+public abstract class Metric {
+
+    /**
+     * 指标类型，对应Prometheus文本格式中的TYPE
+     */
+    public enum Type {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        private final String prometheusName;
+
+        Type(String prometheusName) {
+            this.prometheusName = prometheusName;
+        }
+
+        public String getPrometheusName() {
+            return prometheusName;
+        }
+    }
+
+    private final String name;
+    private final String help;
+    private final String[] labels;
+
+    protected Metric(String name, String help, String[] labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("标签必须按键值成对出现: " + name);
+        }
+        this.name = name;
+        this.help = help;
+        this.labels = labels;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    /**
+     * 获取标签，按键值交替排列
+     * @return 标签数组
+     */
+    public String[] getLabels() {
+        return labels;
+    }
+
+    /**
+     * 获取指标类型
+     * @return 指标类型
+     */
+    public abstract Type getType();
+
+    /**
+     * 获取带标签的显示名称，例如 name{key="value"}
+     * @return 显示名称
+     */
+    public String getDisplayName() {
+        if (labels.length == 0) {
+            return name;
+        }
+
+        StringBuilder builder = new StringBuilder(name).append('{');
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(labels[i]).append("=\"").append(labels[i + 1]).append('"');
+        }
+        return builder.append('}').toString();
+    }
+}
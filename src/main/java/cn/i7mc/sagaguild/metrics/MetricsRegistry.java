@@ -0,0 +1,104 @@
+package cn.i7mc.sagaguild.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 指标注册表
+ * 相同名称和标签的指标只创建一次；指标关闭时返回空实现，调用方无需判断
+ */
+public final class MetricsRegistry {
+    private final boolean enabled;
+
+    // 名称和标签 -> 指标
+    private final Map<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    public MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 是否启用指标
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取或创建计数器
+     * @param name 指标名称
+     * @param help 指标说明
+     * @param labels 标签，按键值交替排列
+     * @return 计数器，指标关闭时为空实现
+     */
+    public Counter counter(String name, String help, String... labels) {
+        if (!enabled) {
+            return Counter.NOOP;
+        }
+        return (Counter) metrics.computeIfAbsent(key(name, labels), k -> new Counter(name, help, labels));
+    }
+
+    /**
+     * 获取或创建直方图
+     * @param name 指标名称
+     * @param help 指标说明
+     * @param labels 标签，按键值交替排列
+     * @return 直方图，指标关闭时为空实现
+     */
+    public Histogram histogram(String name, String help, String... labels) {
+        if (!enabled) {
+            return Histogram.NOOP;
+        }
+        return (Histogram) metrics.computeIfAbsent(key(name, labels), k -> new Histogram(name, help, labels));
+    }
+
+    /**
+     * 注册仪表，已存在时替换
+     * @param name 指标名称
+     * @param help 指标说明
+     * @param supplier 读取当前值的函数
+     * @param labels 标签，按键值交替排列
+     */
+    public void gauge(String name, String help, LongSupplier supplier, String... labels) {
+        if (enabled) {
+            metrics.put(key(name, labels), new Gauge(name, help, supplier, labels));
+        }
+    }
+
+    /**
+     * 获取缓存命中统计
+     * @param cache 缓存名称
+     * @return 命中统计，指标关闭时计数器为空实现
+     */
+    public CacheMetric cache(String cache) {
+        if (!enabled) {
+            return new CacheMetric(cache, Counter.NOOP, Counter.NOOP);
+        }
+        String help = "缓存查询次数";
+        return new CacheMetric(cache,
+                counter("sagaguild_cache_requests_total", help, "cache", cache, "result", "hit"),
+                counter("sagaguild_cache_requests_total", help, "cache", cache, "result", "miss"));
+    }
+
+    /**
+     * 获取所有指标，按名称和标签排序
+     * @return 指标列表
+     */
+    public List<Metric> getMetrics() {
+        List<Metric> result = new ArrayList<>(metrics.values());
+        result.sort(Comparator.comparing(Metric::getName).thenComparing(Metric::getDisplayName));
+        return result;
+    }
+
+    private static String key(String name, String[] labels) {
+        if (labels.length == 0) {
+            return name;
+        }
+        return name + '\u0000' + String.join("\u0000", labels);
+    }
+}
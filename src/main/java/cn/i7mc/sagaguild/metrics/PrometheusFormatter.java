@@ -0,0 +1,85 @@
+package cn.i7mc.sagaguild.metrics;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prometheus文本格式输出
+ * 耗时直方图以summary类型输出，单位为秒
+ */
+public final class PrometheusFormatter {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private PrometheusFormatter() {
+    }
+
+    /**
+     * 将所有指标输出为Prometheus文本格式
+     * @param registry 指标注册表
+     * @return 文本内容
+     */
+    public static String format(MetricsRegistry registry) {
+        StringBuilder builder = new StringBuilder(4096);
+        String lastName = null;
+
+        List<Metric> metrics = registry.getMetrics();
+        for (Metric metric : metrics) {
+            // 同名指标只输出一次说明和类型
+            if (!metric.getName().equals(lastName)) {
+                lastName = metric.getName();
+                builder.append("# HELP ").append(metric.getName()).append(' ').append(escapeHelp(metric.getHelp())).append('\n');
+                builder.append("# TYPE ").append(metric.getName()).append(' ').append(metric.getType().getPrometheusName()).append('\n');
+            }
+
+            if (metric instanceof Counter) {
+                sample(builder, metric.getName(), metric.getLabels(), null, null, ((Counter) metric).get());
+            } else if (metric instanceof Gauge) {
+                sample(builder, metric.getName(), metric.getLabels(), null, null, ((Gauge) metric).get());
+            } else if (metric instanceof Histogram) {
+                Histogram histogram = (Histogram) metric;
+                for (double quantile : QUANTILES) {
+                    sample(builder, metric.getName(), metric.getLabels(), "quantile", String.valueOf(quantile),
+                            seconds(histogram.getQuantile(quantile)));
+                }
+                sample(builder, metric.getName() + "_sum", metric.getLabels(), null, null, seconds(histogram.getSum()));
+                sample(builder, metric.getName() + "_count", metric.getLabels(), null, null, histogram.getCount());
+            }
+        }
+        return builder.toString();
+    }
+
+    private static void sample(StringBuilder builder, String name, String[] labels, String extraKey, String extraValue, Object value) {
+        builder.append(name);
+        if (labels.length > 0 || extraKey != null) {
+            builder.append('{');
+            boolean first = true;
+            for (int i = 0; i < labels.length; i += 2) {
+                if (!first) {
+                    builder.append(',');
+                }
+                builder.append(labels[i]).append("=\"").append(escapeLabel(labels[i + 1])).append('"');
+                first = false;
+            }
+            if (extraKey != null) {
+                if (!first) {
+                    builder.append(',');
+                }
+                builder.append(extraKey).append("=\"").append(extraValue).append('"');
+            }
+            builder.append('}');
+        }
+        builder.append(' ').append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1_000_000_000.0);
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String escapeHelp(String value) {
+        return value.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+}
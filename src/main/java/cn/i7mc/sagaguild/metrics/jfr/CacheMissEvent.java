@@ -0,0 +1,32 @@
+package cn.i7mc.sagaguild.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR事件：缓存未命中
+ */
+@Name("sagaguild.CacheMiss")
+@Label("缓存未命中")
+@Category({"SagaGuild", "缓存"})
+@Description("插件内部缓存未命中，需要重新构建或查询数据库")
+public class CacheMissEvent extends Event {
+
+    @Label("缓存")
+    public String cache;
+
+    /**
+     * 记录一次缓存未命中，没有进行中的记录时不产生任何事件
+     * @param cache 缓存名称
+     */
+    public static void emit(String cache) {
+        CacheMissEvent event = new CacheMissEvent();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.commit();
+        }
+    }
+}
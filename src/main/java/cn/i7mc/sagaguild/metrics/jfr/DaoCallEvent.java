@@ -0,0 +1,44 @@
+package cn.i7mc.sagaguild.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次DAO调用
+ * 从创建语句开始到关闭语句结束，包含执行SQL和读取结果的时间
+ */
+@Name("sagaguild.DaoCall")
+@Label("DAO调用")
+@Category({"SagaGuild", "数据库"})
+@Description("DAO方法中一条SQL语句从创建到关闭的耗时")
+@StackTrace(false)
+public class DaoCallEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(DaoCallEvent.class);
+
+    @Label("DAO")
+    public String dao;
+
+    @Label("方法")
+    public String method;
+
+    @Label("SQL哈希")
+    @Description("SQL文本的hashCode，同一语句的调用哈希相同")
+    public int sqlHash;
+
+    @Label("行数")
+    @Description("更新的行数或读取的结果行数")
+    public long rows;
+
+    /**
+     * 是否有正在进行且启用了此事件的记录
+     * @return 是否启用
+     */
+    public static boolean isActive() {
+        return TYPE.isEnabled();
+    }
+}
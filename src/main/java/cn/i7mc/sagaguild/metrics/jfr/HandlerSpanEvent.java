@@ -0,0 +1,43 @@
+package cn.i7mc.sagaguild.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR事件：一次事件监听方法的执行
+ * 覆盖玩法监听器和GUI监听器
+ */
+@Name("sagaguild.HandlerSpan")
+@Label("事件处理")
+@Category({"SagaGuild", "监听器"})
+@Description("SagaGuild事件监听方法的执行耗时")
+@StackTrace(false)
+public class HandlerSpanEvent extends Event {
+    private static final EventType TYPE = EventType.getEventType(HandlerSpanEvent.class);
+
+    @Label("监听器")
+    public String listener;
+
+    @Label("方法")
+    public String method;
+
+    @Label("事件类型")
+    public String eventType;
+
+    @Label("公会ID")
+    @Description("触发事件的玩家所在公会，无法确定或不在公会中为-1")
+    public int guildId;
+
+    /**
+     * 是否有正在进行且启用了此事件的记录
+     * @return 是否启用
+     */
+    public static boolean isActive() {
+        return TYPE.isEnabled();
+    }
+}
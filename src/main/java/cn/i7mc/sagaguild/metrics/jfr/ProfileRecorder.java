@@ -0,0 +1,122 @@
+package cn.i7mc.sagaguild.metrics.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * 限时JFR记录
+ * 使用JDK自带的profile配置并启用SagaGuild的自定义事件，到时自动停止并写入文件；同一时间只允许一个记录
+ */
+public final class ProfileRecorder {
+    private Recording active;
+    private Path activeFile;
+    private Consumer<Path> onFinished;
+    private FlightRecorderListener listener;
+
+    /**
+     * 是否有正在进行的记录
+     * @return 是否正在记录
+     */
+    public synchronized boolean isRunning() {
+        return active != null;
+    }
+
+    /**
+     * 开始记录
+     * @param duration 记录时长
+     * @param file 输出文件
+     * @param onFinished 记录写入文件后的回调，在后台线程中执行
+     * @throws IOException 无法创建输出文件
+     * @throws ParseException 无法读取JDK的profile配置
+     */
+    public synchronized void start(Duration duration, Path file, Consumer<Path> onFinished) throws IOException, ParseException {
+        if (active != null) {
+            throw new IllegalStateException("已有正在进行的记录");
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        Recording recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("SagaGuild");
+        recording.enable(DaoCallEvent.class).withoutThreshold();
+        recording.enable(HandlerSpanEvent.class).withoutThreshold();
+        recording.enable(CacheMissEvent.class);
+        recording.setToDisk(true);
+        recording.setDestination(file);
+        recording.setDuration(duration);
+
+        if (listener == null) {
+            listener = new FlightRecorderListener() {
+                @Override
+                public void recordingStateChanged(Recording recording) {
+                    handleStateChanged(recording);
+                }
+            };
+            FlightRecorder.addListener(listener);
+        }
+
+        this.active = recording;
+        this.activeFile = file;
+        this.onFinished = onFinished;
+        recording.start();
+    }
+
+    /**
+     * 立即停止正在进行的记录并写入文件（插件卸载时调用）
+     */
+    public void shutdown() {
+        Recording recording;
+        synchronized (this) {
+            recording = active;
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+
+        synchronized (this) {
+            if (listener != null) {
+                FlightRecorder.removeListener(listener);
+                listener = null;
+            }
+        }
+    }
+
+    /**
+     * 记录到时停止后通知调用方并释放记录
+     */
+    private void handleStateChanged(Recording recording) {
+        Path file;
+        Consumer<Path> callback;
+        synchronized (this) {
+            if (recording != active || (recording.getState() != RecordingState.STOPPED
+                    && recording.getState() != RecordingState.CLOSED)) {
+                return;
+            }
+
+            file = activeFile;
+            callback = onFinished;
+            active = null;
+            activeFile = null;
+            onFinished = null;
+        }
+
+        // 状态通知期间不能关闭记录，转到其他线程处理
+        CompletableFuture.runAsync(() -> {
+            recording.close();
+            if (callback != null) {
+                callback.accept(file);
+            }
+        });
+    }
+}
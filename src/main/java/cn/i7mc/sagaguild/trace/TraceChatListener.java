@@ -0,0 +1,29 @@
+package cn.i7mc.sagaguild.trace;
+
+import cn.i7mc.sagaguild.managers.TraceManager;
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * 聊天录制监听器
+ * 与 {@link cn.i7mc.sagaguild.listeners.PaperChatListener} 相同，仅在服务端提供AsyncChatEvent时注册
+ */
+public class TraceChatListener implements Listener {
+    private final TraceManager traceManager;
+
+    public TraceChatListener(TraceManager traceManager) {
+        this.traceManager = traceManager;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onPlayerChat(AsyncChatEvent event) {
+        Player player = event.getPlayer();
+        String message = PlainTextComponentSerializer.plainText().serialize(event.message());
+        traceManager.record(TraceEvent.text(TraceEvent.Kind.CHAT, TraceManager.now(),
+                player.getUniqueId(), player.getName(), TraceListener.truncate(message)));
+    }
+}
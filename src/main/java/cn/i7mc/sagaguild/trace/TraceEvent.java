@@ -0,0 +1,258 @@
+package cn.i7mc.sagaguild.trace;
+
+import java.util.UUID;
+
+/**
+ * 录制的一条游戏事件
+ * 只保存回放所需的字段，不持有Bukkit对象，可以在任意线程创建后交给写入线程
+ */
+public final class TraceEvent {
+
+    /**
+     * 事件类型，序号即文件中的记录标记，只能在末尾追加
+     */
+    public enum Kind {
+        JOIN, QUIT, BREAK, PLACE, INTERACT, MOVE, DAMAGE, DEATH, CHAT, COMMAND, CLICK
+    }
+
+    private final Kind kind;
+    private final long timeMicros;
+    private final UUID player;
+    private final String playerName;
+
+    // 方块位置或移动起点
+    private String world;
+    private int x;
+    private int y;
+    private int z;
+
+    // 移动终点
+    private String toWorld;
+    private int toX;
+    private int toY;
+    private int toZ;
+
+    // 伤害对象或击杀者
+    private UUID target;
+    private String targetName;
+
+    // 方块材质、交互动作、伤害原因或界面类型
+    private String symbol;
+    // 点击的方块面或点击方式
+    private String detail;
+    // 界面槽位
+    private int slot;
+    // 伤害值
+    private double amount;
+    // 聊天内容或命令
+    private String text;
+
+    TraceEvent(Kind kind, long timeMicros, UUID player, String playerName) {
+        this.kind = kind;
+        this.timeMicros = timeMicros;
+        this.player = player;
+        this.playerName = playerName;
+    }
+
+    /**
+     * 玩家加入或退出
+     */
+    public static TraceEvent session(Kind kind, long timeMicros, UUID player, String playerName) {
+        return new TraceEvent(kind, timeMicros, player, playerName);
+    }
+
+    /**
+     * 破坏或放置方块
+     */
+    public static TraceEvent block(Kind kind, long timeMicros, UUID player, String playerName,
+                                   String world, int x, int y, int z, String material) {
+        TraceEvent event = new TraceEvent(kind, timeMicros, player, playerName);
+        event.setPosition(world, x, y, z);
+        event.symbol = material;
+        return event;
+    }
+
+    /**
+     * 与方块或空气交互，未点击方块时world为null
+     */
+    public static TraceEvent interact(long timeMicros, UUID player, String playerName, String action,
+                                      String world, int x, int y, int z, String face) {
+        TraceEvent event = new TraceEvent(Kind.INTERACT, timeMicros, player, playerName);
+        event.setPosition(world, x, y, z);
+        event.symbol = action;
+        event.detail = face;
+        return event;
+    }
+
+    /**
+     * 移动
+     */
+    public static TraceEvent move(long timeMicros, UUID player, String playerName,
+                                  String world, int x, int y, int z, String toWorld, int toX, int toY, int toZ) {
+        TraceEvent event = new TraceEvent(Kind.MOVE, timeMicros, player, playerName);
+        event.setPosition(world, x, y, z);
+        event.setDestination(toWorld, toX, toY, toZ);
+        return event;
+    }
+
+    /**
+     * 玩家攻击玩家
+     */
+    public static TraceEvent damage(long timeMicros, UUID player, String playerName,
+                                    UUID victim, String victimName, String cause, double amount) {
+        TraceEvent event = new TraceEvent(Kind.DAMAGE, timeMicros, player, playerName);
+        event.setTarget(victim, victimName);
+        event.symbol = cause;
+        event.amount = amount;
+        return event;
+    }
+
+    /**
+     * 玩家死亡，没有击杀者时killer为null
+     */
+    public static TraceEvent death(long timeMicros, UUID player, String playerName, UUID killer, String killerName) {
+        TraceEvent event = new TraceEvent(Kind.DEATH, timeMicros, player, playerName);
+        event.setTarget(killer, killerName);
+        return event;
+    }
+
+    /**
+     * 聊天或执行插件命令
+     */
+    public static TraceEvent text(Kind kind, long timeMicros, UUID player, String playerName, String text) {
+        TraceEvent event = new TraceEvent(kind, timeMicros, player, playerName);
+        event.text = text;
+        return event;
+    }
+
+    /**
+     * 点击插件界面
+     */
+    public static TraceEvent click(long timeMicros, UUID player, String playerName,
+                                   String holder, int slot, String click) {
+        TraceEvent event = new TraceEvent(Kind.CLICK, timeMicros, player, playerName);
+        event.symbol = holder;
+        event.slot = slot;
+        event.detail = click;
+        return event;
+    }
+
+    void setPosition(String world, int x, int y, int z) {
+        this.world = world;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    void setDestination(String world, int x, int y, int z) {
+        this.toWorld = world;
+        this.toX = x;
+        this.toY = y;
+        this.toZ = z;
+    }
+
+    void setTarget(UUID target, String targetName) {
+        this.target = target;
+        this.targetName = targetName;
+    }
+
+    void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    void setText(String text) {
+        this.text = text;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 获取事件时间（微秒），只用于计算事件间隔
+     * @return 时间
+     */
+    public long getTimeMicros() {
+        return timeMicros;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public String getToWorld() {
+        return toWorld;
+    }
+
+    public int getToX() {
+        return toX;
+    }
+
+    public int getToY() {
+        return toY;
+    }
+
+    public int getToZ() {
+        return toZ;
+    }
+
+    public UUID getTarget() {
+        return target;
+    }
+
+    public String getTargetName() {
+        return targetName;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
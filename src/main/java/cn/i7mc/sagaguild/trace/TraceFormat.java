@@ -0,0 +1,68 @@
+package cn.i7mc.sagaguild.trace;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * 事件录制文件格式
+ *
+ * 文件头: 魔数 "SGTR"(int) + 版本(byte) + 开始时间(long, 毫秒时间戳)
+ * 之后是连续的记录，每条记录以一个标记字节开头:
+ * - {@link #TAG_PLAYER}: 定义玩家，编号按出现顺序递增，内容为UUID(两个long) + 名称(UTF)
+ * - {@link #TAG_SYMBOL}: 定义字符串（世界名、材质、动作等），编号按出现顺序递增，内容为UTF
+ * - {@link #TAG_END}: 正常结束，缺少时说明录制被中断，已写入的记录仍然可读
+ * - 其他: 事件类型序号，内容为 时间间隔(微秒) + 玩家编号 + 各类型的字段
+ *
+ * 整数使用变长编码，有符号数先做zigzag转换；时间和坐标都记录与上一次的差值，
+ * 坐标以同一玩家上一条带位置的记录为基准，移动终点以起点为基准
+ */
+public final class TraceFormat {
+    public static final int MAGIC = 0x53475452;
+    public static final int VERSION = 1;
+    public static final String FILE_EXTENSION = ".sgtrace";
+
+    static final int TAG_PLAYER = 0x40;
+    static final int TAG_SYMBOL = 0x41;
+    static final int TAG_END = 0x7F;
+
+    private TraceFormat() {
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("变长整数过长");
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        writeVarLong(out, value & 0xFFFFFFFFL);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        return (int) readVarLong(in);
+    }
+
+    static void writeSigned(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSigned(DataInput in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
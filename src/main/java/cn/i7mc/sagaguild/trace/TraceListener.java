@@ -0,0 +1,161 @@
+package cn.i7mc.sagaguild.trace;
+
+import cn.i7mc.sagaguild.managers.TraceManager;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.inventory.InventoryHolder;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 事件录制监听器
+ * 只在录制期间注册，以最低优先级在其他插件处理之前读取事件，录制的是玩家的原始输入：
+ * 之后被其他插件（如禁言、领地保护）取消的事件也会录制，回放时没有这些插件，事件按未取消处理
+ * 交互事件不忽略已取消的事件，服务端对空气的点击在分发前就已标记为取消
+ */
+public class TraceListener implements Listener {
+    // 聊天和命令最多录制的字符数
+    static final int MAX_TEXT_LENGTH = 256;
+
+    private static final String PLUGIN_PACKAGE = "cn.i7mc.sagaguild.";
+
+    private final TraceManager traceManager;
+    private final Set<String> commandLabels;
+
+    /**
+     * @param traceManager 录制管理器
+     * @param commandLabels 插件命令及其别名（小写），只录制这些命令
+     */
+    public TraceListener(TraceManager traceManager, Set<String> commandLabels) {
+        this.traceManager = traceManager;
+        this.commandLabels = commandLabels;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        traceManager.record(TraceEvent.session(TraceEvent.Kind.JOIN, TraceManager.now(),
+                player.getUniqueId(), player.getName()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        Player player = event.getPlayer();
+        traceManager.record(TraceEvent.session(TraceEvent.Kind.QUIT, TraceManager.now(),
+                player.getUniqueId(), player.getName()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        recordBlock(TraceEvent.Kind.BREAK, event.getPlayer(), event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        recordBlock(TraceEvent.Kind.PLACE, event.getPlayer(), event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        Player player = event.getPlayer();
+        Block block = event.getClickedBlock();
+        if (block == null) {
+            traceManager.record(TraceEvent.interact(TraceManager.now(), player.getUniqueId(), player.getName(),
+                    event.getAction().name(), null, 0, 0, 0, null));
+            return;
+        }
+        traceManager.record(TraceEvent.interact(TraceManager.now(), player.getUniqueId(), player.getName(),
+                event.getAction().name(), block.getWorld().getName(), block.getX(), block.getY(), block.getZ(),
+                event.getBlockFace().name()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        // 只录制跨方块的移动，转动视角和方块内的小幅移动不录制
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld()) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        traceManager.record(TraceEvent.move(TraceManager.now(), player.getUniqueId(), player.getName(),
+                from.getWorld().getName(), from.getBlockX(), from.getBlockY(), from.getBlockZ(),
+                to.getWorld().getName(), to.getBlockX(), to.getBlockY(), to.getBlockZ()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onEntityDamage(EntityDamageByEntityEvent event) {
+        // 只录制玩家之间的伤害
+        if (!(event.getDamager() instanceof Player) || !(event.getEntity() instanceof Player)) {
+            return;
+        }
+
+        Player attacker = (Player) event.getDamager();
+        Player victim = (Player) event.getEntity();
+        traceManager.record(TraceEvent.damage(TraceManager.now(), attacker.getUniqueId(), attacker.getName(),
+                victim.getUniqueId(), victim.getName(), event.getCause().name(), event.getDamage()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        Player player = event.getEntity();
+        Player killer = player.getKiller();
+        traceManager.record(TraceEvent.death(TraceManager.now(), player.getUniqueId(), player.getName(),
+                killer != null ? killer.getUniqueId() : null, killer != null ? killer.getName() : null));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        // 去掉开头的斜杠
+        String command = event.getMessage().substring(1);
+        int space = command.indexOf(' ');
+        String label = (space < 0 ? command : command.substring(0, space)).toLowerCase(Locale.ROOT);
+        if (!commandLabels.contains(label)) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        traceManager.record(TraceEvent.text(TraceEvent.Kind.COMMAND, TraceManager.now(),
+                player.getUniqueId(), player.getName(), truncate(command)));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        // 只录制插件界面中的点击
+        InventoryHolder holder = event.getView().getTopInventory().getHolder();
+        if (holder == null || !holder.getClass().getName().startsWith(PLUGIN_PACKAGE)
+                || !(event.getWhoClicked() instanceof Player)) {
+            return;
+        }
+
+        Player player = (Player) event.getWhoClicked();
+        traceManager.record(TraceEvent.click(TraceManager.now(), player.getUniqueId(), player.getName(),
+                holder.getClass().getSimpleName(), event.getRawSlot(), event.getClick().name()));
+    }
+
+    private void recordBlock(TraceEvent.Kind kind, Player player, Block block) {
+        traceManager.record(TraceEvent.block(kind, TraceManager.now(), player.getUniqueId(), player.getName(),
+                block.getWorld().getName(), block.getX(), block.getY(), block.getZ(), block.getType().name()));
+    }
+
+    static String truncate(String text) {
+        return text.length() > MAX_TEXT_LENGTH ? text.substring(0, MAX_TEXT_LENGTH) : text;
+    }
+}
@@ -0,0 +1,189 @@
+package cn.i7mc.sagaguild.trace;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 事件录制读取器
+ */
+public final class TraceReader implements Closeable {
+    private static final TraceEvent.Kind[] KINDS = TraceEvent.Kind.values();
+
+    private final DataInputStream in;
+    private final long startMillis;
+
+    private final List<UUID> playerIds = new ArrayList<>();
+    private final List<String> playerNames = new ArrayList<>();
+    private final List<int[]> positions = new ArrayList<>();
+    private final List<String> symbols = new ArrayList<>();
+
+    private long time;
+    private boolean complete;
+
+    /**
+     * 创建读取器并校验文件头
+     * @param stream 输入流
+     * @throws IOException 读取失败或格式不正确
+     */
+    public TraceReader(InputStream stream) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream, 64 * 1024));
+        if (in.readInt() != TraceFormat.MAGIC) {
+            throw new IOException("不是SagaGuild事件录制文件");
+        }
+        int version = in.readUnsignedByte();
+        if (version != TraceFormat.VERSION) {
+            throw new IOException("不支持的录制文件版本: " + version);
+        }
+        this.startMillis = in.readLong();
+    }
+
+    /**
+     * 获取录制开始时间
+     * @return 毫秒时间戳
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * 文件是否以结束标记正常结束，读取到末尾后才有意义
+     * @return 是否完整
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * 读取下一条事件
+     * @return 事件，读取完毕返回null
+     * @throws IOException 读取失败或格式不正确
+     */
+    public TraceEvent next() throws IOException {
+        // 写入器的缓冲区可能在任意字节处写出，被中断的录制可能停在任何一条记录中间
+        try {
+            return readRecord();
+        } catch (EOFException e) {
+            // 录制被中断，没有结束标记，丢弃最后一条不完整的记录
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * 读取定义直到下一条事件
+     */
+    private TraceEvent readRecord() throws IOException {
+        while (true) {
+            int tag = in.readUnsignedByte();
+            if (tag == TraceFormat.TAG_END) {
+                complete = true;
+                return null;
+            }
+            if (tag == TraceFormat.TAG_PLAYER) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                String name = in.readUTF();
+                playerIds.add(uuid);
+                playerNames.add(name);
+                positions.add(new int[3]);
+                continue;
+            }
+            if (tag == TraceFormat.TAG_SYMBOL) {
+                symbols.add(in.readUTF());
+                continue;
+            }
+            if (tag >= KINDS.length) {
+                throw new IOException("未知的记录类型: " + tag);
+            }
+
+            return readEvent(KINDS[tag]);
+        }
+    }
+
+    private TraceEvent readEvent(TraceEvent.Kind kind) throws IOException {
+        time += TraceFormat.readSigned(in);
+        int player = TraceFormat.readVarInt(in);
+        int[] last = positions.get(player);
+
+        TraceEvent event = new TraceEvent(kind, time, playerIds.get(player), playerNames.get(player));
+        String world;
+        int target;
+        switch (kind) {
+            case BREAK:
+            case PLACE:
+                world = symbol(TraceFormat.readVarInt(in));
+                readPosition(last);
+                event.setPosition(world, last[0], last[1], last[2]);
+                event.setSymbol(symbol(TraceFormat.readVarInt(in)));
+                break;
+            case INTERACT:
+                event.setSymbol(symbol(TraceFormat.readVarInt(in)));
+                world = symbol(TraceFormat.readVarInt(in) - 1);
+                if (world != null) {
+                    readPosition(last);
+                    event.setPosition(world, last[0], last[1], last[2]);
+                    event.setDetail(symbol(TraceFormat.readVarInt(in) - 1));
+                }
+                break;
+            case MOVE:
+                world = symbol(TraceFormat.readVarInt(in));
+                readPosition(last);
+                event.setPosition(world, last[0], last[1], last[2]);
+                String toWorld = symbol(TraceFormat.readVarInt(in));
+                readPosition(last);
+                event.setDestination(toWorld, last[0], last[1], last[2]);
+                break;
+            case DAMAGE:
+                target = TraceFormat.readVarInt(in);
+                event.setTarget(playerIds.get(target), playerNames.get(target));
+                event.setSymbol(symbol(TraceFormat.readVarInt(in)));
+                event.setAmount(in.readFloat());
+                break;
+            case DEATH:
+                target = TraceFormat.readVarInt(in) - 1;
+                if (target >= 0) {
+                    event.setTarget(playerIds.get(target), playerNames.get(target));
+                }
+                break;
+            case CHAT:
+            case COMMAND:
+                event.setText(in.readUTF());
+                break;
+            case CLICK:
+                event.setSymbol(symbol(TraceFormat.readVarInt(in)));
+                event.setSlot((int) TraceFormat.readSigned(in));
+                event.setDetail(symbol(TraceFormat.readVarInt(in) - 1));
+                break;
+            default:
+                // 加入和退出没有额外字段
+                break;
+        }
+        return event;
+    }
+
+    private void readPosition(int[] last) throws IOException {
+        last[0] += (int) TraceFormat.readSigned(in);
+        last[1] += (int) TraceFormat.readSigned(in);
+        last[2] += (int) TraceFormat.readSigned(in);
+    }
+
+    private String symbol(int index) throws IOException {
+        if (index < 0) {
+            return null;
+        }
+        if (index >= symbols.size()) {
+            throw new IOException("未定义的字符串编号: " + index);
+        }
+        return symbols.get(index);
+    }
+}
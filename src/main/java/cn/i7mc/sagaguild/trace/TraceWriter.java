@@ -0,0 +1,185 @@
+package cn.i7mc.sagaguild.trace;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 事件录制写入器
+ * 非线程安全，由单个写入线程按顺序调用
+ */
+public final class TraceWriter implements Closeable {
+    private final DataOutputStream out;
+
+    // 玩家UUID -> 编号
+    private final Map<UUID, Integer> players = new HashMap<>();
+    // 编号 -> 该玩家上一条记录的坐标
+    private final List<int[]> positions = new ArrayList<>();
+    // 字符串 -> 编号
+    private final Map<String, Integer> symbols = new HashMap<>();
+
+    private long lastTime = Long.MIN_VALUE;
+    private long written;
+
+    /**
+     * 创建写入器并写入文件头
+     * @param stream 输出流
+     * @param startMillis 录制开始时间
+     * @throws IOException 写入失败
+     */
+    public TraceWriter(OutputStream stream, long startMillis) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream, 64 * 1024));
+        out.writeInt(TraceFormat.MAGIC);
+        out.writeByte(TraceFormat.VERSION);
+        out.writeLong(startMillis);
+    }
+
+    /**
+     * 写入一条事件
+     * @param event 事件
+     * @throws IOException 写入失败
+     */
+    public void write(TraceEvent event) throws IOException {
+        // 先写入本条记录用到的定义
+        int player = definePlayer(event.getPlayer(), event.getPlayerName());
+        int target = event.getTarget() != null ? definePlayer(event.getTarget(), event.getTargetName()) : -1;
+        int world = defineSymbol(event.getWorld());
+        int toWorld = defineSymbol(event.getToWorld());
+        int symbol = defineSymbol(event.getSymbol());
+        int detail = defineSymbol(event.getDetail());
+
+        out.writeByte(event.getKind().ordinal());
+        TraceFormat.writeSigned(out, lastTime == Long.MIN_VALUE ? 0 : event.getTimeMicros() - lastTime);
+        lastTime = event.getTimeMicros();
+        TraceFormat.writeVarInt(out, player);
+
+        int[] last = positions.get(player);
+        switch (event.getKind()) {
+            case BREAK:
+            case PLACE:
+                TraceFormat.writeVarInt(out, world);
+                writePosition(last, event.getX(), event.getY(), event.getZ());
+                TraceFormat.writeVarInt(out, symbol);
+                break;
+            case INTERACT:
+                TraceFormat.writeVarInt(out, symbol);
+                TraceFormat.writeVarInt(out, world + 1);
+                if (world >= 0) {
+                    writePosition(last, event.getX(), event.getY(), event.getZ());
+                    TraceFormat.writeVarInt(out, detail + 1);
+                }
+                break;
+            case MOVE:
+                TraceFormat.writeVarInt(out, world);
+                writePosition(last, event.getX(), event.getY(), event.getZ());
+                TraceFormat.writeVarInt(out, toWorld);
+                writePosition(last, event.getToX(), event.getToY(), event.getToZ());
+                break;
+            case DAMAGE:
+                TraceFormat.writeVarInt(out, target);
+                TraceFormat.writeVarInt(out, symbol);
+                out.writeFloat((float) event.getAmount());
+                break;
+            case DEATH:
+                TraceFormat.writeVarInt(out, target + 1);
+                break;
+            case CHAT:
+            case COMMAND:
+                out.writeUTF(event.getText());
+                break;
+            case CLICK:
+                TraceFormat.writeVarInt(out, symbol);
+                TraceFormat.writeSigned(out, event.getSlot());
+                TraceFormat.writeVarInt(out, detail + 1);
+                break;
+            default:
+                // 加入和退出没有额外字段
+                break;
+        }
+        written++;
+    }
+
+    /**
+     * 获取已写入的事件数量
+     * @return 事件数量
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * 将缓冲区写入文件
+     * @throws IOException 写入失败
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * 写入结束标记并关闭
+     * @throws IOException 写入失败
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.writeByte(TraceFormat.TAG_END);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * 写入与上一次坐标的差值，并更新基准坐标
+     */
+    private void writePosition(int[] last, int x, int y, int z) throws IOException {
+        TraceFormat.writeSigned(out, (long) x - last[0]);
+        TraceFormat.writeSigned(out, (long) y - last[1]);
+        TraceFormat.writeSigned(out, (long) z - last[2]);
+        last[0] = x;
+        last[1] = y;
+        last[2] = z;
+    }
+
+    private int definePlayer(UUID uuid, String name) throws IOException {
+        Integer index = players.get(uuid);
+        if (index != null) {
+            return index;
+        }
+
+        index = players.size();
+        players.put(uuid, index);
+        positions.add(new int[3]);
+        out.writeByte(TraceFormat.TAG_PLAYER);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        out.writeUTF(name != null ? name : "");
+        return index;
+    }
+
+    /**
+     * 定义字符串，null返回-1
+     */
+    private int defineSymbol(String symbol) throws IOException {
+        if (symbol == null) {
+            return -1;
+        }
+
+        Integer index = symbols.get(symbol);
+        if (index != null) {
+            return index;
+        }
+
+        index = symbols.size();
+        symbols.put(symbol, index);
+        out.writeByte(TraceFormat.TAG_SYMBOL);
+        out.writeUTF(symbol);
+        return index;
+    }
+}
@@ -0,0 +1,227 @@
+package cn.i7mc.sagaguild.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 基本类型int集合
+ * 开放寻址（线性探测）实现，避免装箱，适合保存公会ID等整数键
+ * 非线程安全，由调用方负责同步
+ */
+public class IntHashSet {
+    private static final int FREE = 0;
+    private static final int MIN_CAPACITY = 4;
+
+    // 0作为空槽标记，单独记录是否包含0
+    private int[] table;
+    private boolean containsZero;
+    private int size;
+    private int resizeThreshold;
+
+    public IntHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * 构造函数
+     * @param expectedSize 预期元素数量
+     */
+    public IntHashSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 添加元素
+     * @param value 元素
+     * @return 集合中原本不存在该元素时返回true
+     */
+    public boolean add(int value) {
+        if (value == FREE) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int index = hash(value) & mask;
+        while (table[index] != FREE) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+
+        table[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * 移除元素
+     * @param value 元素
+     * @return 集合中存在该元素时返回true
+     */
+    public boolean remove(int value) {
+        if (value == FREE) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int mask = table.length - 1;
+        int index = hash(value) & mask;
+        while (table[index] != FREE) {
+            if (table[index] == value) {
+                table[index] = FREE;
+                size--;
+                shiftBack(index);
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 检查是否包含元素
+     * @param value 元素
+     * @return 是否包含
+     */
+    public boolean contains(int value) {
+        if (value == FREE) {
+            return containsZero;
+        }
+
+        int mask = table.length - 1;
+        int index = hash(value) & mask;
+        while (table[index] != FREE) {
+            if (table[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * 获取元素数量
+     * @return 元素数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 检查集合是否为空
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 清空集合
+     */
+    public void clear() {
+        Arrays.fill(table, FREE);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * 遍历所有元素
+     * @param action 对每个元素执行的操作
+     */
+    public void forEach(IntConsumer action) {
+        if (containsZero) {
+            action.accept(FREE);
+        }
+        for (int value : table) {
+            if (value != FREE) {
+                action.accept(value);
+            }
+        }
+    }
+
+    /**
+     * 复制为数组
+     * @return 包含所有元素的新数组
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        if (containsZero) {
+            result[index++] = FREE;
+        }
+        for (int value : table) {
+            if (value != FREE) {
+                result[index++] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 删除后将后续探测链上的元素前移，保证查找不被空槽截断
+     * @param freed 刚被清空的槽位
+     */
+    private void shiftBack(int freed) {
+        int mask = table.length - 1;
+        int index = (freed + 1) & mask;
+        while (table[index] != FREE) {
+            int value = table[index];
+            int home = hash(value) & mask;
+
+            // 判断元素的理想位置是否不在 (freed, index] 区间内
+            boolean movable = freed <= index
+                    ? (home <= freed || home > index)
+                    : (home <= freed && home > index);
+            if (movable) {
+                table[freed] = value;
+                table[index] = FREE;
+                freed = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        int[] old = table;
+        allocate(newCapacity);
+        size = containsZero ? 1 : 0;
+
+        int mask = table.length - 1;
+        for (int value : old) {
+            if (value != FREE) {
+                int index = hash(value) & mask;
+                while (table[index] != FREE) {
+                    index = (index + 1) & mask;
+                }
+                table[index] = value;
+                size++;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        resizeThreshold = capacity * 3 / 4;
+    }
+
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
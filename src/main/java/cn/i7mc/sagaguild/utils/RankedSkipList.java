@@ -0,0 +1,256 @@
+package cn.i7mc.sagaguild.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 可按名次索引的跳表
+ * 按分数从高到低排列int键（分数相同时键小的在前），每层指针记录跨越的节点数
+ * 更新、查询名次和按名次定位均为对数时间
+ * 非线程安全，由调用方负责同步
+ */
+public class RankedSkipList {
+    private static final int MAX_LEVEL = 32;
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    /**
+     * 跳表节点
+     */
+    private static final class Node {
+        private final int key;
+        private final double score;
+        private final Node[] next;
+        private final int[] span;
+
+        private Node(int key, double score, int level) {
+            this.key = key;
+            this.score = score;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+
+    private final Node head = new Node(0, 0, MAX_LEVEL);
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private int level = 1;
+
+    /**
+     * 设置键的分数，不存在时插入
+     * @param key 键
+     * @param score 分数
+     */
+    public void put(int key, double score) {
+        Node existing = nodes.get(key);
+        if (existing != null) {
+            if (Double.compare(existing.score, score) == 0) {
+                return;
+            }
+            nodes.remove(key);
+            unlink(existing);
+        }
+        nodes.put(key, insert(key, score));
+    }
+
+    /**
+     * 移除键
+     * @param key 键
+     * @return 键原本存在时返回true
+     */
+    public boolean remove(int key) {
+        Node node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * 检查是否包含键
+     * @param key 键
+     * @return 是否包含
+     */
+    public boolean contains(int key) {
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * 获取键的分数
+     * @param key 键
+     * @param defaultValue 键不存在时返回的值
+     * @return 分数
+     */
+    public double getScore(int key, double defaultValue) {
+        Node node = nodes.get(key);
+        return node != null ? node.score : defaultValue;
+    }
+
+    /**
+     * 获取键的名次
+     * @param key 键
+     * @return 从1开始的名次，不存在返回0
+     */
+    public int getRank(int key) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            return 0;
+        }
+
+        int rank = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], node.score, node.key) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x == node) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 获取指定名次范围内的键
+     * @param offset 起始位置（从0开始）
+     * @param count 最多返回的数量
+     * @return 按名次排列的键
+     */
+    public int[] range(int offset, int count) {
+        int size = nodes.size();
+        if (offset < 0 || offset >= size || count <= 0) {
+            return new int[0];
+        }
+
+        int[] keys = new int[Math.min(count, size - offset)];
+        Node x = nodeAt(offset + 1);
+        for (int i = 0; i < keys.length && x != null; i++) {
+            keys[i] = x.key;
+            x = x.next[0];
+        }
+        return keys;
+    }
+
+    /**
+     * 获取元素数量
+     * @return 元素数量
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 清空跳表
+     */
+    public void clear() {
+        nodes.clear();
+        for (int i = 0; i < MAX_LEVEL; i++) {
+            head.next[i] = null;
+            head.span[i] = 0;
+        }
+        level = 1;
+    }
+
+    /**
+     * 按名次定位节点
+     * @param rank 从1开始的名次
+     * @return 节点，不存在返回null
+     */
+    private Node nodeAt(int rank) {
+        int traversed = 0;
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private Node insert(int key, double score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+
+        // 查找每一层的插入位置，并记录到达该位置时经过的节点数
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && compare(x.next[i], score, key) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = nodes.size();
+            }
+            level = nodeLevel;
+        }
+
+        Node node = new Node(key, score, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = (rank[0] - rank[i]) + 1;
+        }
+
+        // 更高层跨越的节点数加一
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        return node;
+    }
+
+    private void unlink(Node node) {
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && compare(x.next[i], node.score, node.key) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+    }
+
+    /**
+     * 比较节点与给定位置的先后
+     * @return 负数表示节点排在前面
+     */
+    private static int compare(Node node, double score, int key) {
+        int result = Double.compare(score, node.score);
+        return result != 0 ? result : Integer.compare(node.key, key);
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (nodeLevel < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+}